@@ -6,7 +6,8 @@ import java.io.*;
 import java.util.*;
 
 public class AssessmentController {
-    private static final String ASSESSMENT_FILE = "database/assessments.txt";
+    private static final String ASSESSMENT_TABLE = "assessments";
+    private static final AssessmentRegistry registry = new AssessmentRegistry(ASSESSMENT_TABLE);
 
     /** ======================
      *  CREATE NEW ASSESSMENT
@@ -25,88 +26,60 @@ public class AssessmentController {
      *  UPDATE EXISTING ASSESSMENT
      *  ====================== */
     public void updateAssessment(Assessment updated) throws IOException {
-        List<Assessment> all = getAllAssessments();
-        try (PrintWriter writer = new PrintWriter(new FileWriter(ASSESSMENT_FILE))) {
-            for (Assessment a : all) {
-                if (a.getId().equals(updated.getId())) {
-                    a = updated;
-                }
-                writer.println(toCSV(a));
-            }
-        }
+        registry.update(updated);
+    }
+
+    /** ======================
+     *  DELETE ASSESSMENT
+     *  ====================== */
+    public boolean deleteAssessment(String id) throws IOException {
+        return registry.delete(id);
     }
 
     /** ======================
      *  LOAD ALL ASSESSMENTS
      *  ====================== */
     public List<Assessment> getAllAssessments() {
-        List<Assessment> list = new ArrayList<>();
-        File file = new File(ASSESSMENT_FILE);
-        if (!file.exists()) return list;
-    
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",", -1);
-                if (parts.length < 5) continue;
-    
-                list.add(new Assessment(parts[0], parts[1], parts[2], parts[3], parts[4]));
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-    
-        return list;
+        return registry.getAll();
     }
     
     /** ======================
      *  FILTER BY COURSE ID
      *  ====================== */
     public List<Assessment> getAssessmentsByCourseID(String courseID) {
-        List<Assessment> filtered = new ArrayList<>();
-        for (Assessment a : getAllAssessments()) {
-            if (a.getCourseID().equalsIgnoreCase(courseID)) {
-                filtered.add(a);
-            }
-        }
-        return filtered;
+        return registry.getByCourse(courseID, true);
     }
 
     /** ======================
-     *  SAVE SINGLE ASSESSMENT
+     *  LOOKUP BY ID
      *  ====================== */
-    private void saveAssessmentToFile(Assessment a) throws IOException {
-        File file = new File(ASSESSMENT_FILE);
-        file.getParentFile().mkdirs();
+    public Assessment getAssessmentByID(String id) {
+        return registry.get(id);
+    }
 
-        try (PrintWriter writer = new PrintWriter(new FileWriter(file, true))) {
-            writer.println(toCSV(a));
-        }
+    public String getAssessmentName(String id) {
+        return registry.getName(id);
     }
 
     /** ======================
-     *  CONVERT TO CSV LINE
+     *  SAVE SINGLE ASSESSMENT
      *  ====================== */
-    private String toCSV(Assessment a) {
-        return String.join(",", a.getId(), a.getName(), a.getType(), a.getDateString(), a.getCourseID());
-    }    
+    private void saveAssessmentToFile(Assessment a) throws IOException {
+        registry.add(a);
+    }
 
     /** ======================
      *  ID GENERATOR: T0001 / E0001
      *  ====================== */
     public String generateAssessmentID(String type) {
       String prefix = type.equalsIgnoreCase("Test") ? "T" : "E";
-      Set<String> existingIDs = new HashSet<>();
-      for (Assessment a : getAllAssessments()) {
-          existingIDs.add(a.getId());
-      }
   
       Random rand = new Random();
       String id;
       do {
           int num = rand.nextInt(10000); 
           id = prefix + String.format("%04d", num); 
-      } while (existingIDs.contains(id));
+      } while (registry.containsID(id));
   
       return id;
   }
@@ -117,15 +90,6 @@ public class AssessmentController {
      *  GET BY COURSE (for dropdowns etc.)
      *  ====================== */
     public List<Assessment> getAssessmentsForCourse(String courseID) {
-        List<Assessment> result = new ArrayList<>();
-        List<Assessment> all = getAllAssessments();
-
-        for (Assessment a : all) {
-            if (a.getCourseID().equals(courseID)) {
-                result.add(a);
-            }
-        }
-
-        return result;
+        return registry.getByCourse(courseID, false);
     }
 }
@@ -0,0 +1,221 @@
+package controllers;
+
+import models.Assessment;
+import utils.CsvReader;
+import utils.CsvWriter;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * ASSESSMENT REGISTRY
+ * - Keeps one in-memory copy of the assessments table, indexed by assessment ID and by course ID.
+ * - Each lookup checks the table's stamp; if another writer changed the table, it is re-read.
+ * - Adds, updates and deletes write one record through the StorageBackend; in text storage
+ *   new assessments are appended to assessments.txt instead of rewriting it.
+ * - Shared by every AssessmentController.
+ */
+public class AssessmentRegistry {
+    private final String table;
+    private final StorageBackend storage;
+
+    private final Map<String, Assessment> assessmentsByID = new LinkedHashMap<>();
+    private final Map<String, List<String>> idsByCourse = new HashMap<>();
+    private Object stamp;
+    private boolean loaded = false;
+
+    public AssessmentRegistry(String table) {
+        this(table, StorageBackend.getInstance());
+    }
+
+    public AssessmentRegistry(String table, StorageBackend storage) {
+        this.table = table;
+        this.storage = storage;
+    }
+
+    // =============================
+    // LOOKUPS
+    // =============================
+    // - Lookups hand out copies so callers can edit an Assessment before saving it.
+
+    /**
+     * GETALL
+     * - Returns every assessment in file order.
+     */
+    public synchronized List<Assessment> getAll() {
+        ensureCurrent();
+        List<Assessment> result = new ArrayList<>(assessmentsByID.size());
+        for (Assessment assessment : assessmentsByID.values()) {
+            result.add(copyOf(assessment));
+        }
+        return result;
+    }
+
+    /**
+     * GET
+     * - Returns the assessment with the given ID, or null.
+     */
+    public synchronized Assessment get(String id) {
+        ensureCurrent();
+        Assessment assessment = assessmentsByID.get(id);
+        return assessment != null ? copyOf(assessment) : null;
+    }
+
+    /**
+     * GETNAME
+     * - Display name of an assessment, or "" if the ID is unknown.
+     */
+    public synchronized String getName(String id) {
+        ensureCurrent();
+        Assessment assessment = assessmentsByID.get(id);
+        return assessment != null ? assessment.getName() : "";
+    }
+
+    public synchronized boolean containsID(String id) {
+        ensureCurrent();
+        return assessmentsByID.containsKey(id);
+    }
+
+    /**
+     * GETBYCOURSE
+     * - Returns a course's assessments in file order.
+     * - The index is case-insensitive; exact matching is applied on top when asked for.
+     */
+    public synchronized List<Assessment> getByCourse(String courseID, boolean ignoreCase) {
+        ensureCurrent();
+        List<Assessment> result = new ArrayList<>();
+        List<String> ids = idsByCourse.get(courseKey(courseID));
+        if (ids == null) return result;
+
+        for (String id : ids) {
+            Assessment assessment = assessmentsByID.get(id);
+            if (ignoreCase || assessment.getCourseID().equals(courseID)) {
+                result.add(copyOf(assessment));
+            }
+        }
+        return result;
+    }
+
+    // =============================
+    // WRITES
+    // =============================
+
+    /**
+     * ADD
+     * - Saves one new assessment and indexes it.
+     */
+    public synchronized void add(Assessment assessment) throws IOException {
+        ensureCurrent();
+        storage.put(table, assessment.getId(), toCSV(assessment));
+        index(copyOf(assessment));
+        markCurrent();
+    }
+
+    /**
+     * UPDATE
+     * - Replaces the stored record of an assessment with the same ID.
+     */
+    public synchronized void update(Assessment updated) throws IOException {
+        ensureCurrent();
+        Assessment previous = assessmentsByID.get(updated.getId());
+        if (previous == null) return;
+
+        storage.put(table, updated.getId(), toCSV(updated));
+
+        unindexCourse(previous);
+        Assessment copy = copyOf(updated);
+        assessmentsByID.put(copy.getId(), copy);
+        idsByCourse.computeIfAbsent(courseKey(copy.getCourseID()), k -> new ArrayList<>()).add(copy.getId());
+        markCurrent();
+    }
+
+    /**
+     * DELETE
+     * - Removes an assessment's record; returns false if the ID is unknown.
+     */
+    public synchronized boolean delete(String id) throws IOException {
+        ensureCurrent();
+        Assessment removed = assessmentsByID.get(id);
+        if (removed == null) return false;
+
+        storage.delete(table, id);
+        assessmentsByID.remove(id);
+        unindexCourse(removed);
+        markCurrent();
+        return true;
+    }
+
+    /**
+     * INVALIDATE
+     * - Drops the cached copy; the next lookup reloads the file.
+     */
+    public synchronized void invalidate() {
+        loaded = false;
+        stamp = null;
+        assessmentsByID.clear();
+        idsByCourse.clear();
+    }
+
+    // =============================
+    // LOADING
+    // =============================
+
+    private void ensureCurrent() {
+        Object current = currentStamp();
+        if (loaded && Objects.equals(stamp, current)) return;
+
+        invalidate();
+        if (current != null) {
+            try {
+                CsvReader reader = storage.read(table);
+                while (reader.next()) {
+                    if (reader.getFieldCount() < 5) continue;
+                    index(new Assessment(reader.getString(0), reader.getString(1), reader.getString(2),
+                                         reader.getString(3), reader.getString(4)));
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        stamp = current;
+        loaded = true;
+    }
+
+    private void markCurrent() {
+        stamp = currentStamp();
+        loaded = true;
+    }
+
+    private Object currentStamp() {
+        try {
+            return storage.getStamp(table);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void index(Assessment assessment) {
+        Assessment replaced = assessmentsByID.put(assessment.getId(), assessment);
+        if (replaced != null) unindexCourse(replaced);
+        idsByCourse.computeIfAbsent(courseKey(assessment.getCourseID()), k -> new ArrayList<>()).add(assessment.getId());
+    }
+
+    private void unindexCourse(Assessment assessment) {
+        List<String> ids = idsByCourse.get(courseKey(assessment.getCourseID()));
+        if (ids == null) return;
+        ids.remove(assessment.getId());
+        if (ids.isEmpty()) idsByCourse.remove(courseKey(assessment.getCourseID()));
+    }
+
+    static String toCSV(Assessment a) {
+        return CsvWriter.join(a.getId(), a.getName(), a.getType(), a.getDateString(), a.getCourseID());
+    }
+
+    private static Assessment copyOf(Assessment a) {
+        return new Assessment(a.getId(), a.getName(), a.getType(), a.getDateString(), a.getCourseID());
+    }
+
+    private static String courseKey(String courseID) {
+        return courseID == null ? "" : courseID.toLowerCase();
+    }
+}
@@ -0,0 +1,577 @@
+package controllers;
+
+import models.Course;
+import utils.CsvReader;
+import utils.CsvWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * ATTENDANCE ANALYTICS
+ * - Presence, absence and lateness rates, streaks and chronic-absence flags,
+ *   per student, per course, per grade and over any date range.
+ * - Each course keeps pre-aggregated counters: status counts per day and per student.
+ *   They are saved as database/attendance/<courseID>_counters.txt, tagged with the register
+ *   table's stamp, so a new process reads the small counter files instead of every register.
+ * - Saves through AttendanceController change only the days they touched: the old statuses of
+ *   those days are taken out before the edit and the new ones added after it. Counters whose
+ *   stamp no longer matches the register (another writer replaced it) are rebuilt from the sheet.
+ * - Course, grade, school and whole-period student questions read the counters; only per-student
+ *   date ranges and streaks open that student's registers.
+ */
+public class AttendanceAnalytics {
+    public static final double CHRONIC_ABSENCE_RATE = 0.10;
+    private static final Path COUNTERS_DIRECTORY = Paths.get("database", "attendance");
+    private static final String COUNTERS_SUFFIX = "_counters.txt";
+
+    private final AttendanceStore sheets;
+    private final Map<String, CourseCounters> countersByCourse = new HashMap<>();
+    private final Map<String, Set<String>> coursesByStudent = new HashMap<>();
+
+    public AttendanceAnalytics(AttendanceStore sheets) {
+        this.sheets = sheets;
+    }
+
+    // =============================
+    // MAINTENANCE
+    // =============================
+
+    /**
+     * UPDATE
+     * - Rebuilds one course's counters from its just-saved sheet and saves them.
+     */
+    public synchronized void update(String courseID, AttendanceSheet sheet) {
+        remove(courseID);
+        if (sheet == null) return;
+
+        try {
+            CourseCounters counters = new CourseCounters(stampOf(courseID));
+            counters.addDays(sheet, sheet.getDates());
+            index(courseID, counters);
+            persist(courseID, counters);
+        } catch (IOException e) {
+            System.err.println("Error saving attendance counters for " + courseID + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * BEGINCHANGE / FINISHCHANGE / ABORTCHANGE
+     * - Bracket a save that changes only some days of a register.
+     * - beginChange takes those days' current statuses out of the per-student counts; call it
+     *   before the sheet is edited. finishChange adds the days back from the saved sheet, records
+     *   the new file stamp and saves the counters.
+     * - If the counters were not current when the change began, finishChange rebuilds them instead.
+     *   abortChange drops them after a failed save, so they are rebuilt on next use.
+     */
+    public synchronized void beginChange(String courseID, AttendanceSheet before, Collection<String> dates) {
+        CourseCounters counters = countersFor(courseID, false);
+        if (counters == null || before == null) {
+            remove(courseID);
+            return;
+        }
+        counters.subtractStudents(before, dates);
+        counters.changing = true;
+    }
+
+    public synchronized void finishChange(String courseID, AttendanceSheet after, Collection<String> dates) {
+        CourseCounters counters = countersByCourse.get(courseID);
+        if (counters == null || !counters.changing) {
+            update(courseID, after);
+            return;
+        }
+
+        try {
+            counters.addDays(after, dates);
+            for (String studentID : counters.dropMissingStudents(after)) {
+                Set<String> courses = coursesByStudent.get(studentID);
+                if (courses != null && courses.remove(courseID) && courses.isEmpty()) coursesByStudent.remove(studentID);
+            }
+            counters.stamp = stampOf(courseID);
+            counters.changing = false;
+            index(courseID, counters);
+            persist(courseID, counters);
+        } catch (IOException e) {
+            System.err.println("Error saving attendance counters for " + courseID + ": " + e.getMessage());
+            remove(courseID);
+        }
+    }
+
+    public synchronized void abortChange(String courseID) {
+        remove(courseID);
+    }
+
+    /**
+     * DROP / RENAME
+     * - Follow a course's attendance table when it is dropped or renamed: the in-memory counters
+     *   are forgotten and the counters file is deleted or moved with the table.
+     * - The counters are only a cache, so a file that cannot be removed is reported and left; its
+     *   stamp no longer matches any register, so it is rebuilt on next use.
+     */
+    public synchronized void drop(String courseID) {
+        remove(courseID);
+        sheets.invalidate(courseID);
+        try {
+            Files.deleteIfExists(countersFileFor(courseID));
+        } catch (IOException e) {
+            System.err.println("Error deleting attendance counters for " + courseID + ": " + e.getMessage());
+        }
+    }
+
+    public synchronized void rename(String oldID, String newID) {
+        remove(oldID);
+        remove(newID);
+        sheets.invalidate(oldID);
+        sheets.invalidate(newID);
+        try {
+            Path file = countersFileFor(oldID);
+            if (Files.exists(file)) {
+                Files.move(file, countersFileFor(newID), StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.deleteIfExists(countersFileFor(newID));
+            }
+        } catch (IOException e) {
+            System.err.println("Error moving attendance counters from " + oldID + " to " + newID + ": " + e.getMessage());
+        }
+    }
+
+    public synchronized void remove(String courseID) {
+        countersByCourse.remove(courseID);
+        Iterator<Map.Entry<String, Set<String>>> entries = coursesByStudent.entrySet().iterator();
+        while (entries.hasNext()) {
+            Set<String> courses = entries.next().getValue();
+            courses.remove(courseID);
+            if (courses.isEmpty()) entries.remove();
+        }
+    }
+
+    // =============================
+    // COURSE, GRADE AND SCHOOL QUERIES
+    // =============================
+    // - 'from' and 'to' are inclusive yyyy-MM-dd dates; null leaves that end open.
+
+    public synchronized AttendanceStats getCourseStats(String courseID, String from, String to) {
+        AttendanceStats stats = new AttendanceStats();
+        CourseCounters counters = countersFor(courseID);
+        if (counters != null) counters.addDays(stats, from, to);
+        return stats;
+    }
+
+    public synchronized AttendanceStats getGradeStats(String grade, String from, String to) {
+        AttendanceStats stats = new AttendanceStats();
+        for (Course course : new CourseController().getCoursesByGrade(grade)) {
+            CourseCounters counters = countersFor(course.getCourseID());
+            if (counters != null) counters.addDays(stats, from, to);
+        }
+        return stats;
+    }
+
+    /**
+     * GETCOURSESWITHABSENCEABOVE
+     * - Course ID -> stats for every course whose absence rate over the range is above the threshold,
+     *   highest first ("which courses had more than 20% absence last week").
+     */
+    public synchronized Map<String, AttendanceStats> getCoursesWithAbsenceAbove(double threshold, String from, String to) {
+        List<Map.Entry<String, AttendanceStats>> matches = new ArrayList<>();
+        for (Course course : new CourseController().getCourses()) {
+            CourseCounters counters = countersFor(course.getCourseID());
+            if (counters == null) continue;
+
+            AttendanceStats stats = new AttendanceStats();
+            counters.addDays(stats, from, to);
+            if (stats.getSessions() > 0 && stats.getAbsenceRate() > threshold) {
+                matches.add(new AbstractMap.SimpleEntry<>(course.getCourseID(), stats));
+            }
+        }
+        matches.sort((a, b) -> Double.compare(b.getValue().getAbsenceRate(), a.getValue().getAbsenceRate()));
+
+        Map<String, AttendanceStats> result = new LinkedHashMap<>();
+        for (Map.Entry<String, AttendanceStats> entry : matches) {
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    // =============================
+    // STUDENT QUERIES
+    // =============================
+
+    /**
+     * GETSTUDENTSTATS
+     * - One student's attendance across all their courses.
+     * - With no date range this is read straight from the per-student counters.
+     */
+    public synchronized AttendanceStats getStudentStats(String studentID, String from, String to) {
+        loadAll();
+        return studentStats(studentID, from, to);
+    }
+
+    public synchronized AttendanceStats getStudentCourseStats(String studentID, String courseID, String from, String to) {
+        AttendanceStats stats = new AttendanceStats();
+        CourseCounters counters = countersFor(courseID);
+        if (counters != null) addStudent(stats, courseID, counters, studentID, from, to);
+        return stats;
+    }
+
+    /**
+     * GETCHRONICALLYABSENTSTUDENTS
+     * - Student ID -> stats for everyone missing at least CHRONIC_ABSENCE_RATE of their sessions.
+     */
+    public synchronized Map<String, AttendanceStats> getChronicallyAbsentStudents(String from, String to) {
+        loadAll();
+        Map<String, AttendanceStats> result = new TreeMap<>();
+        for (String studentID : coursesByStudent.keySet()) {
+            AttendanceStats stats = studentStats(studentID, from, to);
+            if (stats.isChronicallyAbsent()) result.put(studentID, stats);
+        }
+        return result;
+    }
+
+    /**
+     * GETLONGESTABSENCESTREAK
+     * - Most consecutive recorded days a student was absent from a course.
+     */
+    public synchronized int getLongestAbsenceStreak(String studentID, String courseID) {
+        AttendanceSheet sheet = sheetFor(courseID);
+        if (sheet == null) return 0;
+        int row = sheet.rowOf(studentID);
+        if (row == -1) return 0;
+
+        int longest = 0, current = 0;
+        for (String date : sheet.getDates()) {
+            int code = sheet.getStatusCode(row, date);
+            if (code == AttendanceSheet.ABSENT) {
+                longest = Math.max(longest, ++current);
+            } else if (code != AttendanceSheet.NO_STATUS && code != AttendanceSheet.JOINED_LATE) {
+                current = 0;
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * GETCURRENTATTENDANCESTREAK
+     * - Consecutive most recent days a student attended a course (present or late).
+     */
+    public synchronized int getCurrentAttendanceStreak(String studentID, String courseID) {
+        AttendanceSheet sheet = sheetFor(courseID);
+        if (sheet == null) return 0;
+        int row = sheet.rowOf(studentID);
+        if (row == -1) return 0;
+
+        List<String> dates = sheet.getDates();
+        Collections.reverse(dates);
+        int streak = 0;
+        for (String date : dates) {
+            int code = sheet.getStatusCode(row, date);
+            if (code == AttendanceSheet.PRESENT || code == AttendanceSheet.LATE) {
+                streak++;
+            } else if (code == AttendanceSheet.ABSENT) {
+                break;
+            }
+        }
+        return streak;
+    }
+
+    // =============================
+    // LOADING
+    // =============================
+
+    private CourseCounters countersFor(String courseID) {
+        return countersFor(courseID, true);
+    }
+
+    /**
+     * COUNTERSFOR
+     * - Counters for one course that match its register table: from memory, else from its
+     *   counters file, else (when 'rebuild' is set) rebuilt from the sheet; null if the course
+     *   has no register.
+     */
+    private CourseCounters countersFor(String courseID, boolean rebuild) {
+        String stamp;
+        try {
+            stamp = stampOf(courseID);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+        if (stamp == null) {
+            remove(courseID);
+            return null;
+        }
+
+        CourseCounters counters = countersByCourse.get(courseID);
+        if (counters == null || !stamp.equals(counters.stamp)) {
+            counters = readCounters(courseID, stamp);
+            if (counters != null) index(courseID, counters);
+        }
+        if (counters == null && rebuild) {
+            update(courseID, sheetFor(courseID));
+            counters = countersByCourse.get(courseID);
+        }
+        return counters;
+    }
+
+    private void loadAll() {
+        for (Course course : new CourseController().getCourses()) {
+            countersFor(course.getCourseID());
+        }
+    }
+
+    private AttendanceSheet sheetFor(String courseID) {
+        try {
+            return sheets.get(courseID);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private String stampOf(String courseID) throws IOException {
+        Object stamp = sheets.getStamp(courseID);
+        return stamp != null ? stamp.toString() : null;
+    }
+
+    private static Path countersFileFor(String courseID) {
+        return COUNTERS_DIRECTORY.resolve(courseID + COUNTERS_SUFFIX);
+    }
+
+    private void index(String courseID, CourseCounters counters) {
+        CourseCounters old = countersByCourse.put(courseID, counters);
+        if (old != null && old != counters) {
+            for (String studentID : old.byStudent.keySet()) {
+                Set<String> courses = coursesByStudent.get(studentID);
+                if (courses != null && !counters.byStudent.containsKey(studentID)) {
+                    courses.remove(courseID);
+                    if (courses.isEmpty()) coursesByStudent.remove(studentID);
+                }
+            }
+        }
+        for (String studentID : counters.byStudent.keySet()) {
+            coursesByStudent.computeIfAbsent(studentID, k -> new HashSet<>()).add(courseID);
+        }
+    }
+
+    /**
+     * READCOUNTERS / PERSIST
+     * - The counters file: a "stamp" record, then one "day" record per date and one "student"
+     *   record per student, each with the four status counts.
+     * - A file written for another version of the register is ignored.
+     */
+    private CourseCounters readCounters(String courseID, String stamp) {
+        Path file = countersFileFor(courseID);
+        if (!Files.exists(file)) return null;
+
+        try {
+            CsvReader reader = CsvReader.open(file);
+            if (!reader.next() || !reader.getString(0).equals("stamp") || !reader.getString(1).equals(stamp)) return null;
+
+            CourseCounters counters = new CourseCounters(stamp);
+            while (reader.next()) {
+                if (reader.isBlankLine() || reader.getFieldCount() < 6) continue;
+                int[] counts = new int[AttendanceSheet.STATUSES.length];
+                for (int i = 0; i < counts.length; i++) counts[i] = reader.getInt(2 + i, 0);
+                if (reader.getString(0).equals("day")) counters.daily.put(reader.getString(1), counts);
+                else counters.byStudent.put(reader.getString(1), counts);
+            }
+            return counters;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Ignoring unreadable attendance counters for " + courseID + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void persist(String courseID, CourseCounters counters) throws IOException {
+        List<String> lines = new ArrayList<>(counters.daily.size() + counters.byStudent.size() + 1);
+        CsvWriter writer = new CsvWriter();
+        lines.add(writer.fields("stamp", counters.stamp).endRecord());
+        for (Map.Entry<String, int[]> day : counters.daily.entrySet()) {
+            lines.add(writer.fields("day", day.getKey()).fields(countsOf(day.getValue())).endRecord());
+        }
+        for (Map.Entry<String, int[]> student : counters.byStudent.entrySet()) {
+            lines.add(writer.fields("student", student.getKey()).fields(countsOf(student.getValue())).endRecord());
+        }
+        DataStore.getInstance().writeLines(countersFileFor(courseID), lines);
+    }
+
+    private static String[] countsOf(int[] counts) {
+        String[] fields = new String[counts.length];
+        for (int i = 0; i < counts.length; i++) fields[i] = String.valueOf(counts[i]);
+        return fields;
+    }
+
+    /**
+     * STUDENTSTATS
+     * - Sums a student's counters over the courses already loaded by loadAll.
+     */
+    private AttendanceStats studentStats(String studentID, String from, String to) {
+        AttendanceStats stats = new AttendanceStats();
+        Set<String> courses = coursesByStudent.get(studentID);
+        if (courses == null) return stats;
+        for (String courseID : courses) {
+            CourseCounters counters = countersByCourse.get(courseID);
+            if (counters != null) addStudent(stats, courseID, counters, studentID, from, to);
+        }
+        return stats;
+    }
+
+    /**
+     * ADDSTUDENT
+     * - Whole-period totals come from the counters; a date range reads the student's row in the sheet.
+     */
+    private void addStudent(AttendanceStats stats, String courseID, CourseCounters counters, String studentID, String from, String to) {
+        if (from == null && to == null) {
+            int[] counts = counters.byStudent.get(studentID);
+            if (counts != null) stats.add(counts);
+            return;
+        }
+
+        AttendanceSheet sheet = sheetFor(courseID);
+        if (sheet == null) return;
+        int row = sheet.rowOf(studentID);
+        if (row == -1) return;
+        for (String date : sheet.getDatesBetween(from, to)) {
+            int code = sheet.getStatusCode(row, date);
+            if (code != AttendanceSheet.NO_STATUS) stats.add(code, 1);
+        }
+    }
+
+    /**
+     * COURSECOUNTERS
+     * - Status counts per day (sorted, for range sums) and per student (all time) for one course,
+     *   and the stamp of the register table they were counted from.
+     */
+    private static class CourseCounters {
+        String stamp;
+        boolean changing;
+        final NavigableMap<String, int[]> daily = new TreeMap<>();
+        final Map<String, int[]> byStudent = new HashMap<>();
+
+        CourseCounters(String stamp) {
+            this.stamp = stamp;
+        }
+
+        /**
+         * ADDDAYS
+         * - Recounts the given days from the sheet and adds their statuses to the student totals;
+         *   a day no longer in the sheet is dropped.
+         */
+        void addDays(AttendanceSheet sheet, Collection<String> dates) {
+            for (String date : dates) {
+                if (!sheet.hasDate(date)) {
+                    daily.remove(date);
+                    continue;
+                }
+                daily.put(date, sheet.countStatuses(date));
+                for (int row = 0; row < sheet.getStudentCount(); row++) {
+                    int code = sheet.getStatusCode(row, date);
+                    if (code == AttendanceSheet.NO_STATUS) continue;
+                    byStudent.computeIfAbsent(sheet.getStudentID(row), k -> new int[AttendanceSheet.STATUSES.length])[code]++;
+                }
+            }
+            for (int row = 0; row < sheet.getStudentCount(); row++) {
+                byStudent.computeIfAbsent(sheet.getStudentID(row), k -> new int[AttendanceSheet.STATUSES.length]);
+            }
+        }
+
+        /**
+         * SUBTRACTSTUDENTS
+         * - Takes the given days' statuses out of the student totals; whether a student is still
+         *   on the register is settled after the edit by dropMissingStudents.
+         */
+        void subtractStudents(AttendanceSheet sheet, Collection<String> dates) {
+            for (String date : dates) {
+                if (!sheet.hasDate(date)) continue;
+                for (int row = 0; row < sheet.getStudentCount(); row++) {
+                    int code = sheet.getStatusCode(row, date);
+                    if (code == AttendanceSheet.NO_STATUS) continue;
+                    int[] counts = byStudent.get(sheet.getStudentID(row));
+                    if (counts != null) counts[code]--;
+                }
+            }
+        }
+
+        /**
+         * DROPMISSINGSTUDENTS
+         * - Forgets students no longer on the register and returns their IDs.
+         */
+        List<String> dropMissingStudents(AttendanceSheet sheet) {
+            List<String> dropped = new ArrayList<>();
+            for (String studentID : byStudent.keySet()) {
+                if (sheet.rowOf(studentID) == -1) dropped.add(studentID);
+            }
+            byStudent.keySet().removeAll(dropped);
+            return dropped;
+        }
+
+        void addDays(AttendanceStats stats, String from, String to) {
+            for (int[] counts : range(from, to).values()) {
+                stats.add(counts);
+            }
+        }
+
+        NavigableMap<String, int[]> range(String from, String to) {
+            NavigableMap<String, int[]> range = daily;
+            if (from != null) range = range.tailMap(from, true);
+            if (to != null) range = range.headMap(to, true);
+            return range;
+        }
+    }
+
+    /**
+     * ATTENDANCESTATS
+     * - Counts of each status plus the rates derived from them.
+     * - "Joined Late" days were before the student was enrolled, so they are not sessions.
+     */
+    public static class AttendanceStats {
+        private final int[] counts = new int[4];
+
+        void add(int[] more) {
+            for (int i = 0; i < counts.length; i++) counts[i] += more[i];
+        }
+
+        void add(int code, int amount) {
+            counts[code] += amount;
+        }
+
+        public int getPresent() { return counts[AttendanceSheet.PRESENT]; }
+        public int getAbsent() { return counts[AttendanceSheet.ABSENT]; }
+        public int getLate() { return counts[AttendanceSheet.LATE]; }
+        public int getJoinedLate() { return counts[AttendanceSheet.JOINED_LATE]; }
+
+        public int getSessions() {
+            return getPresent() + getAbsent() + getLate();
+        }
+
+        public double getPresenceRate() {
+            return rate(getPresent() + getLate());
+        }
+
+        public double getAbsenceRate() {
+            return rate(getAbsent());
+        }
+
+        public double getLatenessRate() {
+            return rate(getLate());
+        }
+
+        public boolean isChronicallyAbsent() {
+            return getSessions() > 0 && getAbsenceRate() >= CHRONIC_ABSENCE_RATE;
+        }
+
+        private double rate(int count) {
+            int sessions = getSessions();
+            return sessions == 0 ? 0.0 : (double) count / sessions;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Sessions: %d, Present: %.1f%%, Absent: %.1f%%, Late: %.1f%%",
+                getSessions(), getPresenceRate() * 100, getAbsenceRate() * 100, getLatenessRate() * 100);
+        }
+    }
+}
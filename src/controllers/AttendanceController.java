@@ -5,7 +5,8 @@ import java.util.*;
 import models.Student;
 
 public class AttendanceController {
-    private static final String ATTENDANCE_DIR = "database/attendance/";
+    private static final AttendanceStore sheets = new AttendanceStore();
+    private static final AttendanceAnalytics analytics = new AttendanceAnalytics(sheets);
 
     // =============================
     // ATTENDANCE DATA MANAGEMENT
@@ -17,49 +18,106 @@ public class AttendanceController {
     /**
      * GETATTENDANCEDATAFORCOURSE
      * - Loads attendance data for a given course
+     * - Rows come from the cached attendance sheet; each call gets its own copy
      */
     public List<String[]> getAttendanceDataForCourse(String courseID) {
-        List<String[]> data = new ArrayList<>();
-        String path = ATTENDANCE_DIR + courseID + "_attendance.txt";
-        File file = new File(path);
-
-        if (!file.exists()) {
+        AttendanceSheet sheet = loadSheet(courseID);
+        if (sheet == null) {
+            List<String[]> data = new ArrayList<>();
             data.add(new String[]{"Student ID", "Student Name"});
             return data;
         }
+        return sheet.toRows();
+    }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] columns = line.split(",", -1);
-                for (int i = 0; i < columns.length; i++) {
-                    columns[i] = columns[i].trim();
-                }
-                data.add(columns);
+    /**
+     * SAVEATTENDANCEDATA
+     * - Writes updated attendance data to file through the attendance store
+     * - Only the dates that differ from the saved register are recounted in the analytics
+     */
+    public void saveAttendanceData(String courseID, List<String[]> rows) throws IOException {
+        AttendanceSheet sheet = AttendanceSheet.fromRows(rows);
+        AttendanceSheet before = loadSheet(courseID);
+        Set<String> changed = changedDates(before, sheet);
+        analytics.beginChange(courseID, before, changed);
+        saveSheet(courseID, sheet, changed);
+    }
+
+    /**
+     * CHANGEDDATES
+     * - Dates whose statuses differ between two versions of a register, including dates only one
+     *   of them has; every date if the student lists differ.
+     */
+    private Set<String> changedDates(AttendanceSheet before, AttendanceSheet after) {
+        Set<String> dates = new LinkedHashSet<>(after.getDates());
+        if (before == null) return dates;
+        dates.addAll(before.getDates());
+        if (!sameStudents(before, after)) return dates;
+
+        Iterator<String> it = dates.iterator();
+        while (it.hasNext()) {
+            String date = it.next();
+            if (before.hasDate(date) != after.hasDate(date)) continue;
+            boolean changed = false;
+            for (int row = 0; row < after.getStudentCount() && !changed; row++) {
+                changed = before.getStatusCode(row, date) != after.getStatusCode(row, date);
             }
-        } catch (IOException e) {
-            e.printStackTrace();
+            if (!changed) it.remove();
         }
+        return dates;
+    }
 
-        return data;
+    private boolean sameStudents(AttendanceSheet before, AttendanceSheet after) {
+        if (before.getStudentCount() != after.getStudentCount()) return false;
+        for (int row = 0; row < after.getStudentCount(); row++) {
+            if (!before.getStudentID(row).equals(after.getStudentID(row))) return false;
+        }
+        return true;
     }
 
     /**
-     * SAVEATTENDANCEDATA
-     * - Writes updated attendance data to file
+     * RECORDATTENDANCE
+     * - Sets every listed student's status for one date ("ID - Name" -> status)
+     * - Adds the date as one new column; earlier days are not rebuilt
+     * - Students new to the register are marked "Joined Late" on earlier days
+     * - If the register is being moved from another date, that date is dropped in the same save
      */
-    public void saveAttendanceData(String courseID, List<String[]> rows) throws IOException {
-        String path = ATTENDANCE_DIR + courseID + "_attendance.txt";
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(path))) {
-            for (String[] row : rows) {
-                for (int i = 0; i < row.length; i++) {
-                    if (row[i] == null) row[i] = "";
-                    row[i] = row[i].trim();
+    public void recordAttendance(String courseID, String date, Map<String, String> statusByStudent, String movedFromDate) throws IOException {
+        AttendanceSheet sheet = editSheet(courseID);
+        if (sheet == null) sheet = AttendanceSheet.fromRows(getAttendanceDataForCourse(courseID));
+
+        List<String> earlierDates = sheet.getDates();
+        Set<String> touched = new LinkedHashSet<>();
+        touched.add(date);
+        if (movedFromDate != null && !movedFromDate.equals(date)) touched.add(movedFromDate);
+        for (String key : statusByStudent.keySet()) {
+            if (sheet.rowOf(key.split(" - ", 2)[0]) == -1) {
+                touched.addAll(earlierDates);
+                break;
+            }
+        }
+        analytics.beginChange(courseID, sheet, touched);
+
+        sheet.addDate(date);
+
+        for (Map.Entry<String, String> entry : statusByStudent.entrySet()) {
+            String[] parts = entry.getKey().split(" - ", 2);
+            int row = sheet.rowOf(parts[0]);
+            if (row == -1) {
+                row = sheet.addStudent(parts[0], parts.length > 1 ? parts[1] : "");
+                for (String pastDate : earlierDates) {
+                    if (!pastDate.equals(date)) {
+                        sheet.setStatus(row, pastDate, "Joined Late");
+                    }
                 }
-                writer.write(String.join(",", row));
-                writer.newLine();
             }
+            sheet.setStatus(row, date, entry.getValue());
         }
+
+        if (movedFromDate != null && !movedFromDate.equals(date)) {
+            sheet.removeDate(movedFromDate);
+        }
+        saveSheet(courseID, sheet, touched);
     }
 
     /**
@@ -69,54 +127,62 @@ public class AttendanceController {
      */
 
     public void deleteAttendanceColumn(String courseID, String date) {
-        String path = ATTENDANCE_DIR + courseID + "_attendance.txt";
-        File file = new File(path);
-        if (!file.exists()) return;
+        AttendanceSheet sheet = editSheet(courseID);
+        if (sheet == null || !sheet.hasDate(date)) return;
 
+        List<String> touched = Collections.singletonList(date);
+        analytics.beginChange(courseID, sheet, touched);
+        sheet.removeDate(date);
         try {
-            List<String> lines = new ArrayList<>();
-            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    lines.add(line);
-                }
-            }
-
-            if (lines.isEmpty()) return;
-
-            List<String> updatedLines = new ArrayList<>();
-            int dateColIndex = -1;
-
-            String[] headers = lines.get(0).split(",");
-            for (int i = 0; i < headers.length; i++) {
-                if (headers[i].trim().equals(date)) {
-                    dateColIndex = i;
-                    break;
-                }
-            }
+            saveSheet(courseID, sheet, touched);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
 
-            if (dateColIndex == -1) return;
+    /**
+     * GETANALYTICS
+     * - Shared attendance rates, streaks and chronic-absence queries
+     */
+    public AttendanceAnalytics getAnalytics() {
+        return analytics;
+    }
 
-            for (String line : lines) {
-                String[] cols = line.split(",", -1);
-                List<String> newCols = new ArrayList<>();
-                for (int i = 0; i < cols.length; i++) {
-                    if (i != dateColIndex) {
-                        newCols.add(cols[i].trim());
-                    }
-                }
-                updatedLines.add(String.join(",", newCols));
-            }
+    /**
+     * SAVESHEET
+     * - Writes a sheet and applies the changed dates to the course's analytics counters;
+     *   the caller has already taken those dates out with analytics.beginChange
+     */
+    private void saveSheet(String courseID, AttendanceSheet sheet, Collection<String> changedDates) throws IOException {
+        try {
+            sheets.save(courseID, sheet);
+        } catch (IOException e) {
+            analytics.abortChange(courseID);
+            throw e;
+        }
+        analytics.finishChange(courseID, sheet, changedDates);
+    }
 
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
-                for (String updated : updatedLines) {
-                    writer.write(updated);
-                    writer.newLine();
-                }
-            }
+    private AttendanceSheet loadSheet(String courseID) {
+        try {
+            return sheets.get(courseID);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
 
+    /**
+     * EDITSHEET
+     * - A copy of the cached sheet to change; the cached one stays as it is for readers on other
+     *   threads until saveSheet swaps the copy in
+     */
+    private AttendanceSheet editSheet(String courseID) {
+        try {
+            return sheets.edit(courseID);
         } catch (IOException e) {
             e.printStackTrace();
+            return null;
         }
     }
 
@@ -180,62 +246,23 @@ public class AttendanceController {
      */
 
     public List<String[]> buildUpdatedAttendanceData(String courseID, String selectedDate, Map<String, String> studentStatusMap) {
-        List<String[]> data = getAttendanceDataForCourse(courseID);
-        Map<String, String[]> existingRows = new LinkedHashMap<>();
-        Set<String> existingDates = new TreeSet<>();
-    
-        if (!data.isEmpty()) {
-            String[] headers = data.get(0);
-            for (String h : headers) {
-                if (!h.equalsIgnoreCase("Student ID") && !h.equalsIgnoreCase("Student Name")) {
-                    existingDates.add(h);
-                }
-            }
-        }
-    
-        existingDates.add(selectedDate);
-        List<String> sortedDates = new ArrayList<>(existingDates);
-    
-        List<String> finalHeader = new ArrayList<>();
-        finalHeader.add("Student ID");
-        finalHeader.add("Student Name");
-        finalHeader.addAll(sortedDates);
-    
-        for (int i = 1; i < data.size(); i++) {
-            String[] row = data.get(i);
-            String key = row[0] + " - " + row[1];
-            existingRows.put(key, row);
-        }
-    
-        List<String[]> updatedData = new ArrayList<>();
-        updatedData.add(finalHeader.toArray(new String[0]));
-    
+        AttendanceSheet sheet = AttendanceSheet.fromRows(getAttendanceDataForCourse(courseID));
+        sheet.addDate(selectedDate);
+
+        List<Integer> selectedRows = new ArrayList<>();
         for (Map.Entry<String, String> entry : studentStatusMap.entrySet()) {
             String[] parts = entry.getKey().split(" - ", 2);
-            String id = parts[0];
-            String name = parts[1];
-            String status = entry.getValue();
-    
-            String[] row = existingRows.getOrDefault(entry.getKey(), new String[2 + sortedDates.size()]);
-            if (row[0] == null || row[0].isEmpty()) {
-                row[0] = id;
-                row[1] = name;
-            }
-    
-            int index = sortedDates.indexOf(selectedDate);
-            if (index >= 0) {
-                if (row.length < 2 + sortedDates.size()) {
-                    row = Arrays.copyOf(row, 2 + sortedDates.size());
-                }
-                row[2 + index] = status;
-            }
-    
-            updatedData.add(row);
+            int row = sheet.addStudent(parts[0], parts.length > 1 ? parts[1] : "");
+            sheet.setStatus(row, selectedDate, entry.getValue());
+            selectedRows.add(row);
+        }
+
+        List<String[]> allRows = sheet.toRows();
+        List<String[]> updatedData = new ArrayList<>();
+        updatedData.add(allRows.get(0));
+        for (int row : selectedRows) {
+            updatedData.add(allRows.get(row + 1));
         }
-    
         return updatedData;
     }
-
-    
-    
 }
@@ -0,0 +1,381 @@
+package controllers;
+
+import utils.CsvReader;
+import utils.CsvWriter;
+
+import java.util.*;
+
+/**
+ * ATTENDANCE SHEET
+ * - Column-oriented, in-memory form of one course's attendance register.
+ * - Each date is a packed column with 2 bits per student (Present / Absent / Late / Joined Late)
+ *   and a BitSet of the students who have a status recorded for that day.
+ * - Dates are kept in a sorted index (yyyy-MM-dd sorts as text), so a new day is placed
+ *   without re-sorting, and adding it builds one column without touching the others.
+ * - The "<course>_attendance.txt" CSV is the import/export format.
+ */
+public class AttendanceSheet {
+    public static final String[] STATUSES = {"Present", "Absent", "Late", "Joined Late"};
+    public static final int PRESENT = 0;
+    public static final int ABSENT = 1;
+    public static final int LATE = 2;
+    public static final int JOINED_LATE = 3;
+    public static final int NO_STATUS = -1;
+
+    private static final int FIRST_DATE_COLUMN = 2;
+    private static final Map<String, Integer> CODE_BY_STATUS = new HashMap<>();
+    static {
+        for (int i = 0; i < STATUSES.length; i++) {
+            CODE_BY_STATUS.put(STATUSES[i].toLowerCase(), i);
+        }
+    }
+
+    private String[] fixedHeaders = {"Student ID", "Student Name"};
+    private final List<String> studentIDs = new ArrayList<>();
+    private final List<String> studentNames = new ArrayList<>();
+    private final Map<String, Integer> rowByStudent = new HashMap<>();
+    private final NavigableMap<String, DayColumn> columnsByDate = new TreeMap<>();
+
+    // =============================
+    // CSV IMPORT / EXPORT
+    // =============================
+
+    public static AttendanceSheet fromCSV(List<String> lines) {
+        return fromCSV(CsvReader.of(String.join("\n", lines)));
+    }
+
+    /**
+     * FROMCSV
+     * - Builds a sheet from an attendance file.
+     * - Statuses are matched against the reader's bytes and stored as codes; only IDs, names,
+     *   dates and unrecognised entries become Strings.
+     */
+    public static AttendanceSheet fromCSV(CsvReader reader) {
+        AttendanceSheet sheet = new AttendanceSheet();
+        if (!reader.next()) return sheet;
+
+        int headerCount = reader.getFieldCount();
+        for (int i = 0; i < Math.min(headerCount, FIRST_DATE_COLUMN); i++) {
+            sheet.fixedHeaders[i] = reader.getString(i);
+        }
+        DayColumn[] columns = new DayColumn[headerCount];
+        for (int i = FIRST_DATE_COLUMN; i < headerCount; i++) {
+            String date = reader.getString(i);
+            if (date.isEmpty() || sheet.columnsByDate.containsKey(date)) continue;
+            columns[i] = new DayColumn(0);
+            sheet.columnsByDate.put(date, columns[i]);
+        }
+
+        while (reader.next()) {
+            if (reader.isEmpty(0)) continue;
+            int row = sheet.addStudent(reader.getString(0), reader.getString(1));
+            int cells = Math.min(reader.getFieldCount(), headerCount);
+            for (int i = FIRST_DATE_COLUMN; i < cells; i++) {
+                if (columns[i] == null || reader.isEmpty(i)) continue;
+                int code = reader.indexOfIgnoreCase(i, STATUSES);
+                if (code != NO_STATUS) columns[i].setCode(row, code);
+                else columns[i].set(row, reader.getString(i));
+            }
+        }
+        return sheet;
+    }
+
+    /**
+     * FROMROWS
+     * - Builds a sheet from a header row followed by student rows, as handed to saveAttendanceData.
+     * - Date columns may arrive in any order; a repeated date keeps its first column.
+     */
+    public static AttendanceSheet fromRows(List<String[]> rows) {
+        AttendanceSheet sheet = new AttendanceSheet();
+        if (rows.isEmpty()) return sheet;
+
+        String[] headers = rows.get(0);
+        for (int i = 0; i < Math.min(headers.length, FIRST_DATE_COLUMN); i++) {
+            sheet.fixedHeaders[i] = clean(headers[i]);
+        }
+        DayColumn[] columns = new DayColumn[headers.length];
+        for (int i = FIRST_DATE_COLUMN; i < headers.length; i++) {
+            String date = clean(headers[i]);
+            if (date.isEmpty() || sheet.columnsByDate.containsKey(date)) continue;
+            columns[i] = new DayColumn(rows.size());
+            sheet.columnsByDate.put(date, columns[i]);
+        }
+
+        for (int r = 1; r < rows.size(); r++) {
+            String[] cells = rows.get(r);
+            if (cells.length == 0 || clean(cells[0]).isEmpty()) continue;
+            int row = sheet.addStudent(clean(cells[0]), cells.length > 1 ? clean(cells[1]) : "");
+            for (int i = FIRST_DATE_COLUMN; i < cells.length && i < columns.length; i++) {
+                if (columns[i] != null) columns[i].set(row, clean(cells[i]));
+            }
+        }
+        return sheet;
+    }
+
+    /**
+     * TOROWS
+     * - Header plus one row per student, dates in order; unrecorded days are blank.
+     * - Every call returns new arrays, so callers may edit them.
+     */
+    public List<String[]> toRows() {
+        List<String[]> rows = new ArrayList<>(studentIDs.size() + 1);
+        String[] header = new String[FIRST_DATE_COLUMN + columnsByDate.size()];
+        header[0] = fixedHeaders[0];
+        header[1] = fixedHeaders[1];
+        int c = FIRST_DATE_COLUMN;
+        for (String date : columnsByDate.keySet()) header[c++] = date;
+        rows.add(header);
+
+        DayColumn[] columns = columnsByDate.values().toArray(new DayColumn[0]);
+        for (int row = 0; row < studentIDs.size(); row++) {
+            String[] cells = new String[header.length];
+            cells[0] = studentIDs.get(row);
+            cells[1] = studentNames.get(row);
+            for (int i = 0; i < columns.length; i++) {
+                cells[FIRST_DATE_COLUMN + i] = columns[i].get(row);
+            }
+            rows.add(cells);
+        }
+        return rows;
+    }
+
+    public List<String> toCSV() {
+        List<String[]> rows = toRows();
+        List<String> lines = new ArrayList<>(rows.size());
+        CsvWriter writer = new CsvWriter();
+        for (String[] row : rows) {
+            lines.add(writer.fields(row).endRecord());
+        }
+        return lines;
+    }
+
+    /**
+     * COPY
+     * - An independent sheet with the same students, dates and statuses; editing either one
+     *   leaves the other as it was.
+     */
+    public AttendanceSheet copy() {
+        AttendanceSheet copy = new AttendanceSheet();
+        copy.fixedHeaders = fixedHeaders.clone();
+        copy.studentIDs.addAll(studentIDs);
+        copy.studentNames.addAll(studentNames);
+        copy.rowByStudent.putAll(rowByStudent);
+        for (Map.Entry<String, DayColumn> column : columnsByDate.entrySet()) {
+            copy.columnsByDate.put(column.getKey(), column.getValue().copy());
+        }
+        return copy;
+    }
+
+    // =============================
+    // STUDENTS
+    // =============================
+
+    public int getStudentCount() {
+        return studentIDs.size();
+    }
+
+    public String getStudentID(int row) {
+        return studentIDs.get(row);
+    }
+
+    public String getStudentName(int row) {
+        return studentNames.get(row);
+    }
+
+    /**
+     * ROWOF
+     * - Row index of a student, or -1.
+     */
+    public int rowOf(String studentID) {
+        Integer row = rowByStudent.get(studentID);
+        return row != null ? row : -1;
+    }
+
+    /**
+     * ADDSTUDENT
+     * - Appends a student with no statuses and returns the row; an existing student keeps its row.
+     */
+    public int addStudent(String studentID, String name) {
+        Integer existing = rowByStudent.get(studentID);
+        if (existing != null) return existing;
+
+        int row = studentIDs.size();
+        studentIDs.add(studentID);
+        studentNames.add(name);
+        rowByStudent.put(studentID, row);
+        return row;
+    }
+
+    // =============================
+    // DATES
+    // =============================
+
+    /**
+     * GETDATES
+     * - All recorded dates, oldest first.
+     */
+    public List<String> getDates() {
+        return new ArrayList<>(columnsByDate.keySet());
+    }
+
+    /**
+     * GETDATESBETWEEN
+     * - Dates from 'from' to 'to' inclusive, read off the sorted index; null leaves that end open.
+     */
+    public List<String> getDatesBetween(String from, String to) {
+        NavigableMap<String, DayColumn> range = columnsByDate;
+        if (from != null) range = range.tailMap(from, true);
+        if (to != null) range = range.headMap(to, true);
+        return new ArrayList<>(range.keySet());
+    }
+
+    public boolean hasDate(String date) {
+        return columnsByDate.containsKey(date);
+    }
+
+    /**
+     * ADDDATE
+     * - Adds an empty day; existing days are untouched. Returns false if it was already there.
+     */
+    public boolean addDate(String date) {
+        if (columnsByDate.containsKey(date)) return false;
+        columnsByDate.put(date, new DayColumn(studentIDs.size()));
+        return true;
+    }
+
+    public boolean removeDate(String date) {
+        return columnsByDate.remove(date) != null;
+    }
+
+    // =============================
+    // STATUSES
+    // =============================
+
+    /**
+     * GETSTATUS / SETSTATUS
+     * - Status text of one student on one day, as shown in the register ("" if none).
+     * - Setting a status on a new date adds that date first.
+     */
+    public String getStatus(int row, String date) {
+        DayColumn column = columnsByDate.get(date);
+        return column != null ? column.get(row) : "";
+    }
+
+    public void setStatus(int row, String date, String status) {
+        DayColumn column = columnsByDate.get(date);
+        if (column == null) {
+            addDate(date);
+            column = columnsByDate.get(date);
+        }
+        column.set(row, status);
+    }
+
+    /**
+     * GETSTATUSCODE
+     * - PRESENT, ABSENT, LATE, JOINED_LATE, or NO_STATUS for a blank or unrecognised entry.
+     */
+    public int getStatusCode(int row, String date) {
+        DayColumn column = columnsByDate.get(date);
+        return column != null ? column.code(row) : NO_STATUS;
+    }
+
+    /**
+     * COUNTSTATUSES
+     * - Number of students with each status code on one day, indexed by code.
+     */
+    public int[] countStatuses(String date) {
+        int[] counts = new int[STATUSES.length];
+        DayColumn column = columnsByDate.get(date);
+        if (column == null) return counts;
+        for (int row = column.recorded.nextSetBit(0); row >= 0; row = column.recorded.nextSetBit(row + 1)) {
+            counts[column.code(row)]++;
+        }
+        return counts;
+    }
+
+    /**
+     * COUNTSTATUSESBYSTUDENT
+     * - Per student row, the number of days with each status code, over all dates.
+     */
+    public int[][] countStatusesByStudent() {
+        int[][] counts = new int[studentIDs.size()][STATUSES.length];
+        for (DayColumn column : columnsByDate.values()) {
+            for (int row = column.recorded.nextSetBit(0); row >= 0 && row < counts.length; row = column.recorded.nextSetBit(row + 1)) {
+                counts[row][column.code(row)]++;
+            }
+        }
+        return counts;
+    }
+
+    public static int codeOf(String status) {
+        if (status == null) return NO_STATUS;
+        Integer code = CODE_BY_STATUS.get(status.trim().toLowerCase());
+        return code != null ? code : NO_STATUS;
+    }
+
+    private static String clean(String value) {
+        return value == null ? "" : value.trim();
+    }
+
+    /**
+     * DAYCOLUMN
+     * - One date: 2-bit status codes packed 32 to a long, a BitSet of students with a status,
+     *   and the rare unrecognised entry kept as text so a CSV round trip loses nothing.
+     */
+    private static class DayColumn {
+        long[] codes;
+        final BitSet recorded = new BitSet();
+        Map<Integer, String> text;
+
+        DayColumn(int students) {
+            codes = new long[Math.max(1, (students + 31) / 32)];
+        }
+
+        DayColumn copy() {
+            DayColumn copy = new DayColumn(0);
+            copy.codes = codes.clone();
+            copy.recorded.or(recorded);
+            if (text != null) copy.text = new HashMap<>(text);
+            return copy;
+        }
+
+        int code(int row) {
+            if (!recorded.get(row)) return NO_STATUS;
+            return (int) (codes[row >>> 5] >>> ((row & 31) << 1)) & 3;
+        }
+
+        String get(int row) {
+            if (recorded.get(row)) return STATUSES[code(row)];
+            if (text != null) {
+                String raw = text.get(row);
+                if (raw != null) return raw;
+            }
+            return "";
+        }
+
+        void set(int row, String status) {
+            String trimmed = clean(status);
+            if (text != null) text.remove(row);
+            int code = codeOf(trimmed);
+            if (code == NO_STATUS) {
+                recorded.clear(row);
+                if (!trimmed.isEmpty()) {
+                    if (text == null) text = new HashMap<>();
+                    text.put(row, trimmed);
+                }
+                return;
+            }
+            setCode(row, code);
+        }
+
+        void setCode(int row, int code) {
+            int word = row >>> 5;
+            if (word >= codes.length) {
+                codes = Arrays.copyOf(codes, Math.max(word + 1, codes.length * 2));
+            }
+            int shift = (row & 31) << 1;
+            codes[word] = (codes[word] & ~(3L << shift)) | ((long) code << shift);
+            recorded.set(row);
+        }
+    }
+}
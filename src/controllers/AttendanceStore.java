@@ -0,0 +1,107 @@
+package controllers;
+
+import utils.CsvReader;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * ATTENDANCE STORE
+ * - Keeps one AttendanceSheet per course, imported from its StorageBackend table on first use.
+ * - A cached sheet is re-imported when the table's stamp changes, e.g. after enrollment
+ *   rewrites the register.
+ * - Saves export the whole sheet: adding or removing a day changes every student's record.
+ * - A cached sheet is shared by every reader and never edited in place: writers take a copy
+ *   with edit() and save() swaps it in, so a reader on another thread always sees a whole sheet.
+ */
+public class AttendanceStore {
+    private final StorageBackend storage;
+    private final Map<String, CachedSheet> sheets = new HashMap<>();
+
+    public AttendanceStore() {
+        this(StorageBackend.getInstance());
+    }
+
+    public AttendanceStore(StorageBackend storage) {
+        this.storage = storage;
+    }
+
+    public boolean exists(String courseID) {
+        return storage.exists(tableFor(courseID));
+    }
+
+    /**
+     * GET
+     * - Returns the course's sheet, or null if it has no attendance table.
+     * - The sheet is shared and must only be read; use edit() to change it.
+     */
+    public synchronized AttendanceSheet get(String courseID) throws IOException {
+        String name = tableFor(courseID);
+        if (!storage.exists(name)) {
+            sheets.remove(courseID);
+            return null;
+        }
+
+        Object stamp = storage.getStamp(name);
+        CachedSheet cached = sheets.get(courseID);
+        if (cached != null && cached.stamp.equals(stamp)) {
+            return cached.sheet;
+        }
+
+        AttendanceSheet sheet = AttendanceSheet.fromCSV(storage.read(name));
+        sheets.put(courseID, new CachedSheet(sheet, stamp));
+        return sheet;
+    }
+
+    /**
+     * EDIT
+     * - A private copy of the course's sheet to change and pass to save(), or null if it has none.
+     */
+    public AttendanceSheet edit(String courseID) throws IOException {
+        AttendanceSheet sheet = get(courseID);
+        return sheet != null ? sheet.copy() : null;
+    }
+
+    /**
+     * GETSTAMP
+     * - The stamp of the course's attendance table, or null if it has none.
+     */
+    public Object getStamp(String courseID) throws IOException {
+        String name = tableFor(courseID);
+        return storage.exists(name) ? storage.getStamp(name) : null;
+    }
+
+    /**
+     * SAVE
+     * - Exports the sheet to the course's attendance table and caches it as current.
+     * - On failure the cached copy is dropped, so the next read comes from storage.
+     */
+    public synchronized void save(String courseID, AttendanceSheet sheet) throws IOException {
+        String name = tableFor(courseID);
+        try {
+            storage.replaceAll(name, sheet.toCSV());
+        } catch (IOException e) {
+            sheets.remove(courseID);
+            throw e;
+        }
+        sheets.put(courseID, new CachedSheet(sheet, storage.getStamp(name)));
+    }
+
+    public synchronized void invalidate(String courseID) {
+        sheets.remove(courseID);
+    }
+
+    private static String tableFor(String courseID) {
+        return StorageBackend.attendanceTable(courseID);
+    }
+
+    private static class CachedSheet {
+        final AttendanceSheet sheet;
+        final Object stamp;
+
+        CachedSheet(AttendanceSheet sheet, Object stamp) {
+            this.sheet = sheet;
+            this.stamp = stamp;
+        }
+    }
+}
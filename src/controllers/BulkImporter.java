@@ -0,0 +1,756 @@
+package controllers;
+
+import models.Course;
+import models.SchoolDates;
+import utils.CsvReader;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * BULK IMPORTER
+ * - One-shot migration of one or more legacy database/ folders (for example one per campus)
+ *   into a single target database.
+ * - Every file is parsed on a worker pool. The results are merged in source order, so when the
+ *   same ID appears twice the first source wins and the second is reported.
+ * - Cross-references are then checked in one pass: course rosters, attendance and gradebook rows
+ *   against the students, gradebook columns against assessments.txt, and assessments and
+ *   course files against courses.txt.
+ * - Each campus numbers its students on its own, so a student ID belongs to the source whose
+ *   record was kept. Roster entries and attendance and gradebook rows in another source that use
+ *   that ID name a different student; they are reported and left out of the import.
+ * - Student, staff, assessment and course tables, and each course's attendance and gradebook
+ *   table, are loaded through the StorageBackend. In paged format every table is bulk-built
+ *   bottom-up from one sorted run instead of inserting records one at a time.
+ * - Course files stay text in both formats (see StorageBackend). They are written to the target
+ *   in batched DataStore commits; a file whose source is already the target file is left alone.
+ * - Progress is printed per phase. Every problem found is listed with its file and record number
+ *   in <target>/import-report.txt (printed only, on a dry run). Problems do not stop the import.
+ * - The target must be named, and the import replaces its tables, so a target folder that already
+ *   has files in it (such as the live database/) is refused unless --force is given.
+ *
+ * Usage: java controllers.BulkImporter --target DIR [--force] [--format paged|text] [--dry-run] SOURCE_DIR...
+ */
+public class BulkImporter {
+    private static final int FIRST_GRADE = 10;
+    private static final int LAST_GRADE = 13;
+    private static final int DOCUMENTS_PER_COMMIT = 256;
+    private static final int PRINTED_PROBLEMS = 25;
+    private static final String REPORT_FILE = "import-report.txt";
+    private static final String USAGE =
+        "Usage: java controllers.BulkImporter --target DIR [--force] [--format paged|text] [--dry-run] SOURCE_DIR...";
+
+    private final List<Path> sources;
+    private final Path target;
+    private final String format;
+    private final boolean dryRun;
+    private final PrintStream log;
+
+    private final List<Problem> problems = Collections.synchronizedList(new ArrayList<>());
+    private final Map<String, Rec> students = new LinkedHashMap<>();
+    private final Map<String, Rec> staff = new LinkedHashMap<>();
+    private final Map<String, Rec> assessments = new LinkedHashMap<>();
+    private final Map<String, Rec> courseSummaries = new LinkedHashMap<>();
+    private final Map<String, ParsedFile> courseFiles = new LinkedHashMap<>();
+    private final Map<String, ParsedFile> attendanceFiles = new LinkedHashMap<>();
+    private final Map<String, ParsedFile> gradebookFiles = new LinkedHashMap<>();
+    private long attendanceCells;
+    private long gradebookCells;
+
+    public BulkImporter(List<Path> sources, Path target, String format, boolean dryRun, PrintStream log) {
+        this.sources = sources;
+        this.target = target;
+        this.format = format;
+        this.dryRun = dryRun;
+        this.log = log;
+    }
+
+    public static void main(String[] args) {
+        List<Path> sources = new ArrayList<>();
+        Path target = null;
+        String format = "paged";
+        boolean dryRun = false;
+        boolean force = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--target":
+                    target = Paths.get(args[++i]);
+                    break;
+                case "--format":
+                    format = args[++i].toLowerCase();
+                    break;
+                case "--dry-run":
+                    dryRun = true;
+                    break;
+                case "--force":
+                    force = true;
+                    break;
+                default:
+                    sources.add(Paths.get(args[i]));
+            }
+        }
+        if (sources.isEmpty() || target == null || !(format.equals("paged") || format.equals("text"))) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        try {
+            if (!dryRun && !force && hasFiles(target)) {
+                System.err.println("Target " + target + " already has files in it and the import would replace its tables;"
+                    + " choose an empty folder, or add --force to import into it anyway.");
+                System.exit(2);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(2);
+        }
+
+        try {
+            List<Problem> problems = new BulkImporter(sources, target, format, dryRun, System.out).run();
+            System.exit(problems.isEmpty() ? 0 : 1);
+        } catch (IOException | InterruptedException e) {
+            e.printStackTrace();
+            System.exit(2);
+        }
+    }
+
+    private static boolean hasFiles(Path folder) throws IOException {
+        if (!Files.exists(folder)) return false;
+        if (!Files.isDirectory(folder)) return true;
+        try (Stream<Path> listing = Files.list(folder)) {
+            return listing.findAny().isPresent();
+        }
+    }
+
+    // =============================
+    // PIPELINE
+    // =============================
+
+    /**
+     * RUN
+     * - Parses, merges, validates and (unless this is a dry run) writes; returns every problem found.
+     */
+    public List<Problem> run() throws IOException, InterruptedException {
+        long started = System.nanoTime();
+
+        List<ParsedFile> files = discover();
+        parseAll(files);
+        merge(files);
+        validate();
+        if (!dryRun) {
+            StorageBackend storage = format.equals("text")
+                ? new TextStorage(target)
+                : new PagedStorage(target.resolve("store"), null);
+            try {
+                writeTables(storage);
+                writeCourseTables(storage);
+                writeCourseFiles(storage);
+            } finally {
+                if (storage instanceof PagedStorage) ((PagedStorage) storage).close();
+            }
+        }
+
+        report(System.nanoTime() - started);
+        return new ArrayList<>(problems);
+    }
+
+    /**
+     * DISCOVER
+     * - Lists the files of every source folder, in a fixed order.
+     */
+    private List<ParsedFile> discover() throws IOException {
+        List<ParsedFile> files = new ArrayList<>();
+        for (int s = 0; s < sources.size(); s++) {
+            Path source = sources.get(s);
+            if (!Files.isDirectory(source)) {
+                problems.add(new Problem(source, 0, "source folder not found"));
+                continue;
+            }
+            for (int grade = FIRST_GRADE; grade <= LAST_GRADE; grade++) {
+                addIfExists(files, s, source.resolve("grade" + grade + ".txt"), Kind.STUDENTS, String.valueOf(grade));
+            }
+            addIfExists(files, s, source.resolve("staff.txt"), Kind.STAFF, null);
+            addIfExists(files, s, source.resolve("assessments.txt"), Kind.ASSESSMENTS, null);
+            addIfExists(files, s, source.resolve("courses.txt"), Kind.COURSE_SUMMARY, null);
+            addDirectory(files, s, source.resolve("courses"), Kind.COURSE, ".txt");
+            addDirectory(files, s, source.resolve("attendance"), Kind.ATTENDANCE, "_attendance.txt");
+            addDirectory(files, s, source.resolve("grades"), Kind.GRADEBOOK, "_gradebook.txt");
+        }
+        return files;
+    }
+
+    private static void addIfExists(List<ParsedFile> files, int source, Path file, Kind kind, String name) {
+        if (Files.exists(file)) files.add(new ParsedFile(source, file, kind, name));
+    }
+
+    private static void addDirectory(List<ParsedFile> files, int source, Path directory, Kind kind, String suffix) throws IOException {
+        if (!Files.isDirectory(directory)) return;
+        try (Stream<Path> listing = Files.list(directory)) {
+            for (Path file : listing.sorted().collect(Collectors.toList())) {
+                String fileName = file.getFileName().toString();
+                if (fileName.endsWith(suffix)) {
+                    files.add(new ParsedFile(source, file, kind, fileName.substring(0, fileName.length() - suffix.length())));
+                }
+            }
+        }
+    }
+
+    /**
+     * PARSEALL
+     * - Parses every file on a pool of one worker per core, reporting progress as files finish.
+     */
+    private void parseAll(List<ParsedFile> files) throws InterruptedException {
+        Progress progress = new Progress("Parsing files", files.size());
+        ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            CompletionService<ParsedFile> done = new ExecutorCompletionService<>(pool);
+            for (ParsedFile file : files) {
+                done.submit(() -> parse(file));
+            }
+            for (int i = 0; i < files.size(); i++) {
+                try {
+                    done.take().get();
+                } catch (ExecutionException e) {
+                    problems.add(new Problem(null, 0, "parser failed: " + e.getCause()));
+                }
+                progress.step(1);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        progress.finish();
+    }
+
+    private ParsedFile parse(ParsedFile file) {
+        try {
+            switch (file.kind) {
+                case STUDENTS:
+                    readRecords(file, 10, (reader, rec) -> {
+                        if (SchoolDates.parse(reader.getString(3)) == SchoolDates.NO_DATE) {
+                            problem(file, reader, "invalid date of birth '" + reader.getString(3) + "'");
+                        }
+                        if (!reader.getString(5).equals(file.name)) {
+                            problem(file, reader, "grade column is '" + reader.getString(5) + "' in grade" + file.name + ".txt");
+                        }
+                    });
+                    break;
+                case STAFF:
+                    readRecords(file, 12, null);
+                    break;
+                case ASSESSMENTS:
+                    readRecords(file, 5, (reader, rec) -> {
+                        rec.reference = reader.getString(4);
+                        if (SchoolDates.parse(reader.getString(3)) == SchoolDates.NO_DATE) {
+                            problem(file, reader, "invalid assessment date '" + reader.getString(3) + "'");
+                        }
+                    });
+                    break;
+                case COURSE_SUMMARY:
+                    readRecords(file, 4, null);
+                    break;
+                case COURSE:
+                    file.lines = Files.readAllLines(file.file, StandardCharsets.UTF_8);
+                    file.course = EnrollmentIndex.parseCourse(file.name, file.lines);
+                    break;
+                case ATTENDANCE:
+                    byte[] attendance = Files.readAllBytes(file.file);
+                    file.lines = linesOf(attendance);
+                    file.sheet = AttendanceSheet.fromCSV(CsvReader.of(attendance));
+                    file.cells = (long) file.sheet.getStudentCount() * file.sheet.getDates().size();
+                    break;
+                case GRADEBOOK:
+                    byte[] gradebook = Files.readAllBytes(file.file);
+                    file.lines = linesOf(gradebook);
+                    file.table = GradebookTable.fromCSV(CsvReader.of(gradebook));
+                    file.cells = (long) file.table.getRowCount()
+                               * Math.max(0, file.table.getColumnCount() - GradebookTable.FIRST_ASSESSMENT_COLUMN);
+                    break;
+            }
+        } catch (IOException | RuntimeException e) {
+            problems.add(new Problem(file.file, 0, "could not read file: " + e));
+        }
+        return file;
+    }
+
+    private void readRecords(ParsedFile file, int minimumFields, RecordCheck check) throws IOException {
+        CsvReader reader = CsvReader.open(file.file);
+        while (reader.next()) {
+            if (reader.isBlankLine()) continue;
+            if (reader.getFieldCount() < minimumFields) {
+                problem(file, reader, "expected at least " + minimumFields + " fields, found " + reader.getFieldCount());
+                continue;
+            }
+            if (reader.getString(0).isEmpty()) {
+                problem(file, reader, "record has no ID");
+                continue;
+            }
+            Rec rec = new Rec(reader.getString(0), reader.getLine(), file, reader.getLineNumber());
+            if (check != null) check.accept(reader, rec);
+            file.records.add(rec);
+        }
+    }
+
+    private static List<String> linesOf(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8).lines().collect(Collectors.toList());
+    }
+
+    /**
+     * MERGE
+     * - Folds the parsed files together in source order; later duplicates are reported and dropped.
+     */
+    private void merge(List<ParsedFile> files) {
+        files.sort(Comparator.comparingInt((ParsedFile f) -> f.source).thenComparing(f -> f.file));
+        for (ParsedFile file : files) {
+            switch (file.kind) {
+                case STUDENTS:
+                    mergeRecords(file, students, "student");
+                    break;
+                case STAFF:
+                    mergeRecords(file, staff, "staff");
+                    break;
+                case ASSESSMENTS:
+                    mergeRecords(file, assessments, "assessment");
+                    break;
+                case COURSE_SUMMARY:
+                    mergeRecords(file, courseSummaries, "course");
+                    break;
+                case COURSE:
+                    if (file.course != null) mergeDocument(file, courseFiles, "course file");
+                    break;
+                case ATTENDANCE:
+                    if (file.sheet != null && mergeDocument(file, attendanceFiles, "attendance sheet")) {
+                        attendanceCells += file.cells;
+                    }
+                    break;
+                case GRADEBOOK:
+                    if (file.table != null && mergeDocument(file, gradebookFiles, "gradebook")) {
+                        gradebookCells += file.cells;
+                    }
+                    break;
+            }
+        }
+    }
+
+    private void mergeRecords(ParsedFile file, Map<String, Rec> merged, String what) {
+        for (Rec rec : file.records) {
+            Rec existing = merged.putIfAbsent(rec.key, rec);
+            if (existing != null) {
+                problems.add(new Problem(file.file, rec.lineNumber,
+                    "duplicate " + what + " ID " + rec.key + ", keeping the one in " + existing.file.file + " record " + existing.lineNumber));
+            }
+        }
+    }
+
+    private boolean mergeDocument(ParsedFile file, Map<String, ParsedFile> merged, String what) {
+        ParsedFile existing = merged.putIfAbsent(file.name, file);
+        if (existing != null) {
+            problems.add(new Problem(file.file, 0, "duplicate " + what + " for course " + file.name + ", keeping " + existing.file));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * VALIDATE
+     * - Checks every cross-reference between the merged tables and documents.
+     */
+    private void validate() {
+        Progress progress = new Progress("Validating references", courseSummaries.size() + courseFiles.size() + assessments.size());
+        Map<String, String> courseIDsByKey = new HashMap<>();
+        for (String courseID : courseSummaries.keySet()) {
+            courseIDsByKey.put(courseID.toLowerCase(), courseID);
+        }
+
+        for (Rec summary : courseSummaries.values()) {
+            if (!courseFiles.containsKey(summary.key)) {
+                problems.add(new Problem(summary.file.file, summary.lineNumber, "course " + summary.key + " has no course file"));
+            }
+            progress.step(1);
+        }
+
+        Map<String, Set<String>> assessmentIDsByCourse = new HashMap<>();
+        for (Rec assessment : assessments.values()) {
+            String courseID = courseIDsByKey.get(assessment.reference.toLowerCase());
+            if (courseID == null) {
+                problems.add(new Problem(assessment.file.file, assessment.lineNumber,
+                    "assessment " + assessment.key + " belongs to unknown course " + assessment.reference));
+            } else {
+                assessmentIDsByCourse.computeIfAbsent(courseID, k -> new TreeSet<>()).add(assessment.key);
+            }
+            progress.step(1);
+        }
+
+        for (ParsedFile courseFile : courseFiles.values()) {
+            String courseID = courseFile.name;
+            if (!courseSummaries.containsKey(courseID)) {
+                problems.add(new Problem(courseFile.file, 0, "course " + courseID + " is not listed in courses.txt"));
+            }
+
+            Set<String> roster = new HashSet<>();
+            for (String entry : courseFile.course.getStudents()) {
+                String studentID = entry.split(" - ", 2)[0].trim();
+                if (!students.containsKey(studentID)) {
+                    problems.add(new Problem(courseFile.file, 0, "roster lists unknown student " + studentID));
+                } else if (ownedElsewhere(courseFile, studentID)) {
+                    courseFile.rejected.add(studentID);
+                    problems.add(new Problem(courseFile.file, 0, "roster lists student " + studentID + ", an ID kept for "
+                        + students.get(studentID).file.file + "; left off the roster"));
+                    continue;
+                }
+                roster.add(studentID);
+            }
+
+            ParsedFile attendance = attendanceFiles.get(courseID);
+            if (attendance != null) {
+                for (int row = 0; row < attendance.sheet.getStudentCount(); row++) {
+                    checkRow(attendance, attendance.sheet.getStudentID(row), roster);
+                }
+            }
+
+            ParsedFile gradebook = gradebookFiles.get(courseID);
+            if (gradebook != null) {
+                for (int row = 0; row < gradebook.table.getRowCount(); row++) {
+                    checkRow(gradebook, gradebook.table.getStudentID(row), roster);
+                }
+                checkAssessmentColumns(gradebook, assessmentIDsByCourse.getOrDefault(courseID, Collections.emptySet()));
+            }
+            progress.step(1);
+        }
+
+        for (String courseID : attendanceFiles.keySet()) {
+            if (!courseFiles.containsKey(courseID)) {
+                problems.add(new Problem(attendanceFiles.get(courseID).file, 0, "attendance sheet for unknown course " + courseID));
+            }
+        }
+        for (String courseID : gradebookFiles.keySet()) {
+            if (!courseFiles.containsKey(courseID)) {
+                problems.add(new Problem(gradebookFiles.get(courseID).file, 0, "gradebook for unknown course " + courseID));
+            }
+        }
+        progress.finish();
+    }
+
+    private void checkRow(ParsedFile file, String studentID, Set<String> roster) {
+        if (!students.containsKey(studentID)) {
+            problems.add(new Problem(file.file, 0, "row for unknown student " + studentID));
+        } else if (ownedElsewhere(file, studentID)) {
+            file.rejected.add(studentID);
+            problems.add(new Problem(file.file, 0, "row for student " + studentID + ", an ID kept for "
+                + students.get(studentID).file.file + "; row left out"));
+        } else if (!roster.contains(studentID)) {
+            problems.add(new Problem(file.file, 0, "row for student " + studentID + " who is not on the course roster"));
+        }
+    }
+
+    /**
+     * OWNEDELSEWHERE
+     * - True if the student kept under this ID came from another source than the file naming it.
+     */
+    private boolean ownedElsewhere(ParsedFile file, String studentID) {
+        Rec owner = students.get(studentID);
+        return owner != null && owner.file.source != file.source;
+    }
+
+    /**
+     * CHECKASSESSMENTCOLUMNS
+     * - Every "ID - Name" column must be an assessment of this course, and every assessment
+     *   of the course must have a column.
+     */
+    private void checkAssessmentColumns(ParsedFile gradebook, Set<String> expected) {
+        List<String> headers = gradebook.table.getHeaders();
+        Set<String> columns = new HashSet<>();
+        for (int column = GradebookTable.FIRST_ASSESSMENT_COLUMN; column < headers.size(); column++) {
+            String assessmentID = headers.get(column).split(" - ", 2)[0].trim();
+            columns.add(assessmentID);
+            if (!assessments.containsKey(assessmentID)) {
+                problems.add(new Problem(gradebook.file, 1, "column '" + headers.get(column) + "' has no entry in assessments.txt"));
+            } else if (!expected.contains(assessmentID)) {
+                problems.add(new Problem(gradebook.file, 1, "column '" + headers.get(column) + "' belongs to course "
+                    + assessments.get(assessmentID).reference));
+            }
+        }
+        for (String assessmentID : expected) {
+            if (!columns.contains(assessmentID)) {
+                problems.add(new Problem(gradebook.file, 1, "assessment " + assessmentID + " has no column"));
+            }
+        }
+    }
+
+    // =============================
+    // WRITING
+    // =============================
+
+    /**
+     * WRITETABLES
+     * - Replaces each record table in the target with the merged records, in source order.
+     */
+    private void writeTables(StorageBackend storage) throws IOException {
+        Map<String, List<String>> tables = new LinkedHashMap<>();
+        for (int grade = FIRST_GRADE; grade <= LAST_GRADE; grade++) {
+            tables.put("grade" + grade, new ArrayList<>());
+        }
+        for (Rec student : students.values()) {
+            tables.get("grade" + student.file.name).add(student.line);
+        }
+        tables.put("staff", linesOf(staff.values()));
+        tables.put("assessments", linesOf(assessments.values()));
+        tables.put(StorageBackend.COURSES_TABLE, linesOf(courseSummaries.values()));
+
+        Progress progress = new Progress("Loading " + format + " tables",
+                                         students.size() + staff.size() + assessments.size() + courseSummaries.size());
+        for (Map.Entry<String, List<String>> table : tables.entrySet()) {
+            storage.replaceAll(table.getKey(), table.getValue());
+            progress.step(table.getValue().size());
+        }
+        progress.finish();
+    }
+
+    /**
+     * WRITECOURSETABLES
+     * - Replaces each course's attendance and gradebook table, DOCUMENTS_PER_COMMIT tables per commit.
+     */
+    private void writeCourseTables(StorageBackend storage) throws IOException {
+        Progress progress = new Progress("Loading " + format + " course tables", attendanceFiles.size() + gradebookFiles.size());
+        FileTransaction transaction = new FileTransaction(storage);
+        int staged = 0;
+
+        Map<String, ParsedFile> tables = new LinkedHashMap<>();
+        for (Map.Entry<String, ParsedFile> sheet : attendanceFiles.entrySet()) {
+            tables.put(StorageBackend.attendanceTable(sheet.getKey()), sheet.getValue());
+        }
+        for (Map.Entry<String, ParsedFile> gradebook : gradebookFiles.entrySet()) {
+            tables.put(StorageBackend.gradebookTable(gradebook.getKey()), gradebook.getValue());
+        }
+
+        for (Map.Entry<String, ParsedFile> table : tables.entrySet()) {
+            transaction.writeTable(table.getKey(), withoutRows(table.getValue().lines, table.getValue().rejected));
+            if (++staged >= DOCUMENTS_PER_COMMIT) {
+                transaction.commit();
+                staged = 0;
+            }
+            progress.step(1);
+        }
+        transaction.commit();
+        progress.finish();
+    }
+
+    /**
+     * WRITECOURSEFILES
+     * - Writes the per-course files, DOCUMENTS_PER_COMMIT files per DataStore commit.
+     */
+    private void writeCourseFiles(StorageBackend storage) throws IOException {
+        Progress progress = new Progress("Writing course files", courseFiles.size());
+        FileTransaction transaction = new FileTransaction(storage);
+        int staged = 0;
+
+        for (ParsedFile document : courseFiles.values()) {
+            Path destination = target.resolve(sources.get(document.source).relativize(document.file));
+            if (!document.rejected.isEmpty() || !isSameFile(document.file, destination)) {
+                transaction.write(destination, withoutRosterEntries(document.lines, document.rejected));
+                staged++;
+            }
+            if (staged >= DOCUMENTS_PER_COMMIT) {
+                transaction.commit();
+                staged = 0;
+            }
+            progress.step(1);
+        }
+        transaction.commit();
+        progress.finish();
+    }
+
+    /**
+     * WITHOUTROWS / WITHOUTROSTERENTRIES
+     * - A sheet's or gradebook's records, or a course file's lines, minus the rejected students.
+     */
+    private static List<String> withoutRows(List<String> lines, Set<String> rejected) {
+        if (rejected.isEmpty()) return lines;
+        List<String> kept = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            if (!rejected.contains(TableChanges.keyOf(line))) kept.add(line);
+        }
+        return kept;
+    }
+
+    private static List<String> withoutRosterEntries(List<String> lines, Set<String> rejected) {
+        if (rejected.isEmpty()) return lines;
+        List<String> kept = new ArrayList<>(lines.size());
+        boolean inStudentSection = false;
+        for (String line : lines) {
+            if (line.trim().equalsIgnoreCase("Students:")) inStudentSection = true;
+            if (inStudentSection && line.startsWith("- ")
+                    && rejected.contains(line.substring(2).split(" - ", 2)[0].trim())) {
+                continue;
+            }
+            kept.add(line);
+        }
+        return kept;
+    }
+
+    private static boolean isSameFile(Path a, Path b) {
+        return a.toAbsolutePath().normalize().equals(b.toAbsolutePath().normalize());
+    }
+
+    private static List<String> linesOf(Collection<Rec> records) {
+        List<String> lines = new ArrayList<>(records.size());
+        for (Rec rec : records) {
+            lines.add(rec.line);
+        }
+        return lines;
+    }
+
+    // =============================
+    // REPORTING
+    // =============================
+
+    private void report(long elapsedNanos) throws IOException {
+        log.printf("Imported %d students, %d staff, %d assessments, %d courses%n",
+                   students.size(), staff.size(), assessments.size(), courseFiles.size());
+        log.printf("  %d attendance cells in %d sheets, %d gradebook cells in %d gradebooks%n",
+                   attendanceCells, attendanceFiles.size(), gradebookCells, gradebookFiles.size());
+        log.printf("  %s in %.1f s%n", dryRun ? "Validated (dry run, nothing written)" : "Written to " + target, elapsedNanos / 1e9);
+
+        List<Problem> all;
+        synchronized (problems) {
+            all = new ArrayList<>(problems);
+        }
+        log.println(all.isEmpty() ? "No problems found." : all.size() + " problem(s) found:");
+        for (int i = 0; i < Math.min(PRINTED_PROBLEMS, all.size()); i++) {
+            log.println("  " + all.get(i));
+        }
+        if (all.size() > PRINTED_PROBLEMS) log.println("  ...");
+        if (dryRun) return;
+
+        Files.createDirectories(target);
+        Path reportFile = target.resolve(REPORT_FILE);
+        List<String> lines = new ArrayList<>(all.size());
+        for (Problem problem : all) {
+            lines.add(problem.toString());
+        }
+        Files.write(reportFile, lines, StandardCharsets.UTF_8);
+        if (!all.isEmpty()) log.println("Full list in " + reportFile);
+    }
+
+    private void problem(ParsedFile file, CsvReader reader, String message) {
+        problems.add(new Problem(file.file, reader.getLineNumber(), message));
+    }
+
+    /**
+     * PROGRESS
+     * - Prints a phase's progress every 10 percent and its time when it finishes.
+     */
+    private final class Progress {
+        private final String phase;
+        private final long total;
+        private final long started = System.nanoTime();
+        private long done;
+        private int lastTenth = -1;
+
+        Progress(String phase, long total) {
+            this.phase = phase;
+            this.total = total;
+        }
+
+        synchronized void step(long amount) {
+            done += amount;
+            int tenth = total == 0 ? 10 : (int) (done * 10 / total);
+            if (tenth != lastTenth) {
+                lastTenth = tenth;
+                log.printf("  %s: %d%% (%d of %d)%n", phase, tenth * 10, done, total);
+            }
+        }
+
+        void finish() {
+            log.printf("%s: done in %d ms%n", phase, (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    // =============================
+    // PARSED DATA
+    // =============================
+
+    private enum Kind { STUDENTS, STAFF, ASSESSMENTS, COURSE_SUMMARY, COURSE, ATTENDANCE, GRADEBOOK }
+
+    private interface RecordCheck {
+        void accept(CsvReader reader, Rec rec);
+    }
+
+    /**
+     * PARSEDFILE
+     * - One source file and what was read from it: keyed records, or a course document.
+     * - 'name' is the grade for grade files and the course ID for course documents.
+     * - 'rejected' holds the students whose roster entries or rows are left out (see OWNEDELSEWHERE).
+     */
+    private static final class ParsedFile {
+        final int source;
+        final Path file;
+        final Kind kind;
+        final String name;
+        final List<Rec> records = new ArrayList<>();
+        final Set<String> rejected = new HashSet<>();
+        List<String> lines;
+        Course course;
+        AttendanceSheet sheet;
+        GradebookTable table;
+        long cells;
+
+        ParsedFile(int source, Path file, Kind kind, String name) {
+            this.source = source;
+            this.file = file;
+            this.kind = kind;
+            this.name = name;
+        }
+    }
+
+    /**
+     * REC
+     * - One keyed record as written in its source; 'reference' is an assessment's course ID.
+     */
+    private static final class Rec {
+        final String key;
+        final String line;
+        final ParsedFile file;
+        final int lineNumber;
+        String reference = "";
+
+        Rec(String key, String line, ParsedFile file, int lineNumber) {
+            this.key = key;
+            this.line = line;
+            this.file = file;
+            this.lineNumber = lineNumber;
+        }
+    }
+
+    /**
+     * PROBLEM
+     * - One validation finding; record 0 means the file as a whole.
+     */
+    public static final class Problem {
+        private final Path file;
+        private final int record;
+        private final String message;
+
+        Problem(Path file, int record, String message) {
+            this.file = file;
+            this.record = record;
+            this.message = message;
+        }
+
+        public Path getFile() { return file; }
+        public int getRecord() { return record; }
+        public String getMessage() { return message; }
+
+        @Override
+        public String toString() {
+            String where = file == null ? "" : record > 0 ? file + " record " + record + ": " : file + ": ";
+            return where + message;
+        }
+    }
+}
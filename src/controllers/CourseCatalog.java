@@ -0,0 +1,209 @@
+package controllers;
+
+import models.Course;
+import utils.CsvReader;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * COURSE CATALOG
+ * - Keeps one in-memory copy of the courses table plus the teacher of every course file.
+ * - Loaded once on first use, keyed by course ID with grade, subject and teacher indexes.
+ * - Shared by every CourseController and invalidated whenever course data is written.
+ */
+public class CourseCatalog {
+    private final StorageBackend storage;
+    private final String courseDirectory;
+
+    private final Map<String, Course> coursesByID = new LinkedHashMap<>();
+    private final Map<String, Integer> positionByID = new HashMap<>();
+    private final Map<String, List<String>> idsByGrade = new HashMap<>();
+    private final Map<String, List<String>> idsBySubject = new HashMap<>();
+    private final Map<String, List<String>> idsByTeacher = new HashMap<>();
+    private List<String> idsSortedByGradeThenID;
+    private boolean loaded = false;
+
+    public CourseCatalog(StorageBackend storage, String courseDirectory) {
+        this.storage = storage;
+        this.courseDirectory = courseDirectory;
+    }
+
+    // =============================
+    // LOOKUPS
+    // =============================
+    // - Every lookup hands out copies so callers can edit a Course freely.
+
+    /**
+     * GETALL
+     * - Returns every course in courses table order.
+     */
+    public synchronized List<Course> getAll() {
+        ensureLoaded();
+        List<Course> result = new ArrayList<>(coursesByID.size());
+        for (Course course : coursesByID.values()) {
+            result.add(copyOf(course));
+        }
+        return result;
+    }
+
+    /**
+     * GET
+     * - Returns the course with the given ID, or null.
+     */
+    public synchronized Course get(String courseID) {
+        ensureLoaded();
+        Course course = coursesByID.get(courseID);
+        return course != null ? copyOf(course) : null;
+    }
+
+    /**
+     * GETBYGRADE / GETBYSUBJECT
+     * - Returns the courses filed under one grade level or subject.
+     */
+    public synchronized List<Course> getByGrade(String grade) {
+        ensureLoaded();
+        return copiesOf(idsByGrade.get(grade));
+    }
+
+    public synchronized List<Course> getBySubject(String subject) {
+        ensureLoaded();
+        return copiesOf(idsBySubject.get(normalize(subject)));
+    }
+
+    /**
+     * SEARCHBYTEACHER
+     * - Returns courses whose teacher name contains the query (case-insensitive).
+     * - Only the distinct teacher names are scanned, not every course.
+     */
+    public synchronized List<Course> searchByTeacher(String query) {
+        ensureLoaded();
+        String needle = normalize(query);
+        List<String> ids = new ArrayList<>();
+        for (Map.Entry<String, List<String>> entry : idsByTeacher.entrySet()) {
+            if (entry.getKey().contains(needle)) {
+                ids.addAll(entry.getValue());
+            }
+        }
+        ids.sort(Comparator.comparingInt(positionByID::get));
+        return copiesOf(ids);
+    }
+
+    /**
+     * GETSORTEDBYGRADETHENID
+     * - Returns all courses ordered by grade level then course ID.
+     * - The ordering is computed once per load.
+     */
+    public synchronized List<Course> getSortedByGradeThenID() {
+        ensureLoaded();
+        if (idsSortedByGradeThenID == null) {
+            List<Course> courses = new ArrayList<>(coursesByID.values());
+            courses.sort(Comparator
+                .comparingInt((Course c) -> Integer.parseInt(c.getGradeLevel()))
+                .thenComparing(Course::getCourseID));
+
+            idsSortedByGradeThenID = new ArrayList<>(courses.size());
+            for (Course course : courses) {
+                idsSortedByGradeThenID.add(course.getCourseID());
+            }
+        }
+        return copiesOf(idsSortedByGradeThenID);
+    }
+
+    // =============================
+    // LIFECYCLE
+    // =============================
+
+    /**
+     * INVALIDATE
+     * - Drops the cached catalog; the next lookup reloads it from storage.
+     */
+    public synchronized void invalidate() {
+        loaded = false;
+        coursesByID.clear();
+        positionByID.clear();
+        idsByGrade.clear();
+        idsBySubject.clear();
+        idsByTeacher.clear();
+        idsSortedByGradeThenID = null;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+
+        try {
+            CsvReader reader = storage.read(StorageBackend.COURSES_TABLE);
+            while (reader.next()) {
+                if (reader.getFieldCount() >= 4) {
+                    String courseID = reader.getString(0);
+                    String teacher = loadTeacherFromFile(courseID);
+                    index(new Course(courseID, reader.getString(1), reader.getString(2), reader.getString(3), teacher));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error loading courses: " + e.getMessage());
+        }
+
+        loaded = true;
+    }
+
+    private void index(Course course) {
+        String courseID = course.getCourseID();
+        if (coursesByID.containsKey(courseID)) return;
+
+        coursesByID.put(courseID, course);
+        positionByID.put(courseID, positionByID.size());
+        idsByGrade.computeIfAbsent(course.getGradeLevel(), k -> new ArrayList<>()).add(courseID);
+        idsBySubject.computeIfAbsent(normalize(course.getSubject()), k -> new ArrayList<>()).add(courseID);
+
+        String teacher = course.getTeacher();
+        if (teacher != null && !teacher.isEmpty()) {
+            idsByTeacher.computeIfAbsent(normalize(teacher), k -> new ArrayList<>()).add(courseID);
+        }
+    }
+
+    /**
+     * LOADTEACHERFROMFILE
+     * - Extracts the teacher's name from a course file.
+     */
+    private String loadTeacherFromFile(String courseID) {
+        File file = new File(courseDirectory + courseID + ".txt");
+        if (!file.exists()) return "";
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("Teacher:")) {
+                    return line.substring("Teacher:".length()).trim();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading teacher from file: " + e.getMessage());
+        }
+
+        return "";
+    }
+
+    private List<Course> copiesOf(List<String> ids) {
+        List<Course> result = new ArrayList<>();
+        if (ids == null) return result;
+        for (String id : ids) {
+            Course course = coursesByID.get(id);
+            if (course != null) result.add(copyOf(course));
+        }
+        return result;
+    }
+
+    private static Course copyOf(Course course) {
+        Course copy = new Course(course.getCourseID(), course.getGradeLevel(), course.getSubject(),
+                                 course.getExamType(), course.getTeacher());
+        for (String student : course.getStudents()) {
+            copy.addStudent(student);
+        }
+        return copy;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase();
+    }
+}
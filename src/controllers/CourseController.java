@@ -1,17 +1,22 @@
 package controllers;
 
 import models.Course;
+import utils.CsvWriter;
+
 import java.io.*;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 public class CourseController {
     private static final String COURSE_DATABASE_PATH = "database/courses/";
-    private static final String ATTENDANCE_DATABASE_PATH = "database/attendance/";
-    private static final String GRADEBOOK_DATABASE_PATH = "database/grades/";
-    private static final String COURSES_FILE = "database/courses.txt";
+    private static final String COURSES_TABLE = StorageBackend.COURSES_TABLE;
+    private static final StorageBackend storage = StorageBackend.getInstance();
+    private static final CourseCatalog catalog = new CourseCatalog(storage, COURSE_DATABASE_PATH);
+    private static final EnrollmentIndex enrollments = new EnrollmentIndex(COURSE_DATABASE_PATH);
+    private final EnrollmentEngine enrollmentEngine = new EnrollmentEngine(COURSE_DATABASE_PATH, storage);
     private StaffController staffController = new StaffController();
 
     private static final Map<String, String> EXAM_TYPE_ABBREVIATIONS = new HashMap<>();
@@ -45,31 +50,12 @@ public class CourseController {
 
     /**
      * GETCOURSES
-     * - Reads all courses from courses.txt.
-     * - Loads additional data from each course file.
+     * - Returns all courses from the shared course catalog.
+     * - The catalog reads the courses table and the course files only once.
      */
 
     public List<Course> getCourses() {
-        List<Course> courseList = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(COURSES_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 4) {
-                    String courseID = parts[0];
-                    String grade = parts[1];
-                    String subject = parts[2];
-                    String examType = parts[3];
-                    String teacher = loadTeacherFromFile(courseID);
-
-                    Course course = new Course(courseID, grade, subject, examType, teacher);
-                    courseList.add(course);
-                }
-            }
-        } catch (IOException e) {
-            System.err.println("Error loading courses: " + e.getMessage());
-        }
-        return courseList;
+        return catalog.getAll();
     }
 
     /**
@@ -78,19 +64,26 @@ public class CourseController {
      */
 
     public Course getCourseByID(String courseID) {
-        List<Course> allCourses = getCourses();
-        for (Course course : allCourses) {
-            if (course.getCourseID().equals(courseID)) {
-                return course;
-            }
-        }
-        return null; 
+        return catalog.get(courseID);
+    }
+
+    /**
+     * GETCOURSESBYGRADE / GETCOURSESBYSUBJECT
+     * - Returns courses from the catalog's grade and subject indexes.
+     */
+
+    public List<Course> getCoursesByGrade(String grade) {
+        return catalog.getByGrade(grade);
+    }
+
+    public List<Course> getCoursesBySubject(String subject) {
+        return catalog.getBySubject(subject);
     }
 
     /**
      * CREATECOURSE
      * - Creates a new Course object and saves it.
-     * - Generates the attendance and gradebook files.
+     * - Generates the attendance and gradebook tables.
      */
 
     public void createCourse(String courseID, String grade, String subject, String examType, String teacherName) throws IOException {
@@ -102,14 +95,12 @@ public class CourseController {
 
     /**
      * SAVECOURSE
-     * - Saves course info to file and summary to courses.txt.
-     * - Creates the attendance and gradebook files.
+     * - Saves course info to file and its summary record to the courses table.
+     * - Creates the attendance and gradebook tables.
      */
 
     public void saveCourse(Course course) throws IOException {
         new File(COURSE_DATABASE_PATH).mkdirs();
-        new File(ATTENDANCE_DATABASE_PATH).mkdirs();
-        new File(GRADEBOOK_DATABASE_PATH).mkdirs();
 
         String courseFilePath = COURSE_DATABASE_PATH + course.getCourseID() + ".txt";
         File courseFile = new File(courseFilePath);
@@ -117,43 +108,51 @@ public class CourseController {
             throw new IOException("Course with ID " + course.getCourseID() + " already exists.");
         }
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(courseFilePath))) {
-            writer.write("Grade Level: " + course.getGradeLevel());
-            writer.newLine();
-            writer.write("Subject: " + course.getSubject());
-            writer.newLine();
-            writer.write("Exam Type: " + course.getExamType());
-            writer.newLine();
-            writer.write("Teacher: " + course.getTeacher());
-            writer.newLine();
-            writer.write("Students:");
-            writer.newLine();
-            for (String student : course.getStudents()) {
-                writer.write("- " + student);
-                writer.newLine();
-            }
+        try {
+            writeNewCourseFiles(course, courseFilePath);
+            enrollments.refreshCourse(course.getCourseID());
+        } finally {
+            catalog.invalidate();
         }
+    }
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(COURSES_FILE, true))) {
-            writer.write(course.getCourseID() + "," +
-                         course.getGradeLevel() + "," +
-                         course.getSubject() + "," +
-                         course.getExamType());
-            writer.newLine();
+    private void writeNewCourseFiles(Course course, String courseFilePath) throws IOException {
+        FileTransaction transaction = new FileTransaction(storage);
+
+        List<String> courseLines = new ArrayList<>();
+        courseLines.add("Grade Level: " + course.getGradeLevel());
+        courseLines.add("Subject: " + course.getSubject());
+        courseLines.add("Exam Type: " + course.getExamType());
+        courseLines.add("Teacher: " + course.getTeacher());
+        courseLines.add("Students:");
+        for (String student : course.getStudents()) {
+            courseLines.add("- " + student);
         }
+        transaction.write(Paths.get(courseFilePath), courseLines);
+
+        transaction.putRecord(COURSES_TABLE, course.getCourseID(), summaryRecord(course));
 
-        createAttendanceAndGradebookFiles(course);
+        createAttendanceAndGradebookFiles(course, transaction);
+        transaction.commit();
     }
 
     /**
      * SAVEUPDATEDCOURSEDATA
      * - Updates course file with new details.
      * - Retains or clears students based on flag.
-     * - Updates courses.txt with new summary line.
+     * - Replaces the course's record in the courses table.
      */
     
 
     public void saveUpdatedCourseData(Course updatedCourse, boolean clearStudents) throws IOException {
+        try {
+            writeUpdatedCourseData(updatedCourse, clearStudents);
+        } finally {
+            catalog.invalidate();
+        }
+    }
+
+    private void writeUpdatedCourseData(Course updatedCourse, boolean clearStudents) throws IOException {
         String courseID = updatedCourse.getCourseID();
         File courseFile = new File("database/courses/" + courseID + ".txt");
     
@@ -179,132 +178,93 @@ public class CourseController {
             }
         }
     
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(courseFile))) {
-            for (String line : lines) {
-                writer.write(line);
-                writer.newLine();
-            }
-        }
-    
-        File summaryFile = new File("database/courses.txt");
-        List<String> summaryLines = new ArrayList<>();
-        if (summaryFile.exists()) {
-            summaryLines = Files.readAllLines(summaryFile.toPath());
-        }
-    
-        String newLine = courseID + "," + updatedCourse.getGradeLevel() + "," + updatedCourse.getSubject() + "," + updatedCourse.getExamType();
-        boolean found = false;
-    
-        for (int i = 0; i < summaryLines.size(); i++) {
-            String[] parts = summaryLines.get(i).split(",", 2);
-            if (parts.length > 0 && parts[0].equals(courseID)) {
-                summaryLines.set(i, newLine);
-                found = true;
-                break;
-            }
-        }
-    
-        if (!found) {
-            summaryLines.add(newLine); 
-        }
-    
-        try (BufferedWriter summaryWriter = new BufferedWriter(new FileWriter(summaryFile))) {
-            for (String line : summaryLines) {
-                summaryWriter.write(line);
-                summaryWriter.newLine();
-            }
-        }
+        FileTransaction transaction = new FileTransaction(storage);
+        transaction.write(courseFile.toPath(), lines);
+        transaction.putRecord(COURSES_TABLE, courseID, summaryRecord(updatedCourse));
+        transaction.commit();
+        enrollments.updateCourse(courseID, lines);
     } 
     
     /**
      * UPDATECOURSESTEXTRECORD
-     * - Updates course line in courses.txt by ID.
+     * - Replaces a course's record in the courses table, under its new ID if that changed.
      */
 
     public void updateCoursesTextRecord(String oldCourseID, Course updatedCourse) throws IOException {
-        File file = new File("database/courses.txt");
-        if (!file.exists()) return;
-    
-        List<String> updatedLines = new ArrayList<>();
-        List<String> lines = java.nio.file.Files.readAllLines(file.toPath());
-    
-        for (String line : lines) {
-            if (line.startsWith(oldCourseID + ",")) {
-                String newLine = String.join(",",
-                    updatedCourse.getCourseID(),
-                    updatedCourse.getGradeLevel(),
-                    updatedCourse.getSubject(),
-                    updatedCourse.getExamType()
-                );
-                updatedLines.add(newLine);
-            } else {
-                updatedLines.add(line);
-            }
-        }
-    
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
-            for (String line : updatedLines) {
-                writer.write(line);
-                writer.newLine();
-            }
+        try {
+            replaceSummaryRecord(oldCourseID, updatedCourse.getCourseID(), summaryRecord(updatedCourse));
+        } finally {
+            catalog.invalidate();
         }
     }
 
 
     /**
     * UPDATECOURSEIDINDATABASE
-    * - Updates the course ID in courses.txt.
+    * - Updates the course ID in the courses table.
     */
 
     
     public void updateCourseIDInDatabase(String oldID, String newID) throws IOException {
-        File dbFile = new File("database/courses.txt");
-        List<String> updatedLines = new ArrayList<>();
-    
-        try (BufferedReader reader = new BufferedReader(new FileReader(dbFile))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (line.startsWith(oldID + ",")) {
-                    line = line.replaceFirst(oldID, newID);
-                }
-                updatedLines.add(line);
-            }
+        String record = storage.get(COURSES_TABLE, oldID);
+        if (record == null) return;
+
+        try {
+            replaceSummaryRecord(oldID, newID, newID + record.substring(oldID.length()));
+        } finally {
+            catalog.invalidate();
         }
-    
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(dbFile))) {
-            for (String updatedLine : updatedLines) {
-                writer.write(updatedLine);
-                writer.newLine();
-            }
+    }
+
+    /**
+     * REPLACESUMMARYRECORD
+     * - Same ID: the record is replaced by key. New ID: the table is rewritten with the record
+     *   in the old one's place, so the course keeps its position in course lists.
+     */
+    private void replaceSummaryRecord(String oldID, String newID, String record) throws IOException {
+        if (oldID.equals(newID)) {
+            storage.put(COURSES_TABLE, newID, record);
+            return;
         }
+        if (storage.get(COURSES_TABLE, oldID) == null) return;
+
+        FileTransaction transaction = new FileTransaction(storage);
+        List<String> records = new ArrayList<>();
+        for (String existing : transaction.readTable(COURSES_TABLE)) {
+            records.add(oldID.equals(TableChanges.keyOf(existing)) ? record : existing);
+        }
+        transaction.writeTable(COURSES_TABLE, records);
+        transaction.commit();
+    }
+
+    private static String summaryRecord(Course course) {
+        return CsvWriter.join(course.getCourseID(), course.getGradeLevel(), course.getSubject(), course.getExamType());
     }
 
     /**
      * DELETECOURSEBYID
-     * - Deletes course, attendance, and gradebook files.
-     * - Removes course entry from courses.txt.
+     * - Deletes the course file and its attendance and gradebook tables.
+     * - Removes the course's record from the courses table.
      */
 
 
     public void deleteCourseByID(String courseID) throws IOException {
+        try {
+            deleteCourseFiles(courseID);
+            enrollments.removeCourse(courseID);
+        } finally {
+            catalog.invalidate();
+        }
+    }
+
+    private void deleteCourseFiles(String courseID) throws IOException {
         File courseFile = new File("database/courses/" + courseID + ".txt");
-        File attendanceFile = new File("database/attendance/" + courseID + "_attendance.txt");
-        File gradebookFile = new File("database/grades/" + courseID + "_gradebook.txt");
-    
         if (courseFile.exists()) courseFile.delete();
-        if (attendanceFile.exists()) attendanceFile.delete();
-        if (gradebookFile.exists()) gradebookFile.delete();
 
-        File coursesFile = new File("database/courses.txt");
-        List<String> lines = new ArrayList<>();
-        if (coursesFile.exists()) {
-            for (String line : Files.readAllLines(coursesFile.toPath())) {
-                if (!line.startsWith(courseID + ",")) {
-                    lines.add(line);
-                }
-            }
-            Files.write(coursesFile.toPath(), lines);
-        }
+        storage.drop(StorageBackend.attendanceTable(courseID));
+        new AttendanceController().getAnalytics().drop(courseID);
+        storage.drop(StorageBackend.gradebookTable(courseID));
+        storage.delete(COURSES_TABLE, courseID);
     }
 
     // =============================
@@ -357,32 +317,12 @@ public class CourseController {
             }
         }
 
-        Files.write(courseFile.toPath(), updatedLines, StandardCharsets.UTF_8);
-    }
-
-    /**
-     * LOADTEACHERFROMFILE
-     * - Extracts the teacher's name from a course file.
-     */
-
-    private String loadTeacherFromFile(String courseID) {
-        String filePath = COURSE_DATABASE_PATH + courseID + ".txt";
-        File file = new File(filePath);
-
-        if (!file.exists()) return "";
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (line.startsWith("Teacher:")) {
-                    return line.substring("Teacher:".length()).trim();
-                }
-            }
-        } catch (IOException e) {
-            System.err.println("Error reading teacher from file: " + e.getMessage());
+        try {
+            DataStore.getInstance().writeLines(courseFile.toPath(), updatedLines);
+            enrollments.updateCourse(courseID, updatedLines);
+        } finally {
+            catalog.invalidate();
         }
-
-        return "";
     }
 
 
@@ -397,138 +337,31 @@ public class CourseController {
      * - Adds students to course, attendance, and gradebook files.
      */
     public void assignStudentsToCourse(String courseID, List<String> studentIDsWithNames) throws IOException {
-        File courseFile = new File("database/courses/" + courseID + ".txt");
-        File attendanceFile = new File("database/attendance/" + courseID + "_attendance.txt");
-        File gradebookFile = new File("database/grades/" + courseID + "_gradebook.txt");
-    
-        if (!courseFile.exists()) throw new FileNotFoundException("Course file not found.");
-        if (!attendanceFile.exists()) throw new FileNotFoundException("Attendance file not found.");
-        if (!gradebookFile.exists()) throw new FileNotFoundException("Gradebook file not found.");
-    
-        List<String> courseLines = Files.readAllLines(courseFile.toPath());
-        List<String> updatedCourseLines = new ArrayList<>();
-        List<String> studentLines = new ArrayList<>();
-        boolean inStudentSection = false;
-    
-        for (String line : courseLines) {
-            if (line.trim().equalsIgnoreCase("Students:")) {
-                inStudentSection = true;
-                updatedCourseLines.add(line);
-            } else if (inStudentSection && line.startsWith("- ")) {
-                studentLines.add(line);
-            } else {
-                if (!inStudentSection) updatedCourseLines.add(line);
-            }
-        }
-    
-        for (String student : studentIDsWithNames) {
-            String entry = "- " + student;
-            if (!studentLines.contains(entry)) {
-                studentLines.add(entry);
-            }
-        }
-    
-        studentLines.sort(Comparator.comparing(s -> {
-            String[] parts = s.split(" - ");
-            return parts.length > 1 ? parts[1].split(" ")[1] : "";
-        }));
-    
-        updatedCourseLines.addAll(studentLines);
-        Files.write(courseFile.toPath(), updatedCourseLines);
-    
-        AttendanceController ac = new AttendanceController();
-        List<String[]> attendanceData = ac.getAttendanceDataForCourse(courseID);
-        List<String[]> updatedAttendanceRows = new ArrayList<>();
-        Set<String> existingIDs = new HashSet<>();
-    
-        if (!attendanceData.isEmpty()) {
-            String[] headerRow = attendanceData.get(0);
-            updatedAttendanceRows.add(headerRow);
-    
-            for (int i = 1; i < attendanceData.size(); i++) {
-                String[] row = attendanceData.get(i);
-                updatedAttendanceRows.add(row);
-                existingIDs.add(row[0].trim());
-            }
-    
-            for (String student : studentIDsWithNames) {
-                String[] parts = student.split(" - ");
-                if (parts.length >= 2) {
-                    String id = parts[0].trim();
-                    String name = parts[1].trim();
-                    if (!existingIDs.contains(id)) {
-                        String[] newRow = new String[headerRow.length];
-                        newRow[0] = id;
-                        newRow[1] = name;
-                        for (int i = 2; i < headerRow.length; i++) {
-                            newRow[i] = "";
-                        }
-                        updatedAttendanceRows.add(newRow);
-                    }
-                }
-            }
-    
-            updatedAttendanceRows.subList(1, updatedAttendanceRows.size()).sort(Comparator.comparing(
-                row -> row[1].split(" ")[1]
-            ));
-    
-            ac.saveAttendanceData(courseID, updatedAttendanceRows);
-        }
-    
-        List<String[]> gradebookRows = new ArrayList<>();
-    
-        if (gradebookFile.exists()) {
-            List<String> lines = Files.readAllLines(gradebookFile.toPath());
-            for (String line : lines) {
-                String[] row = line.split(",", -1);
-                if (row[0].toLowerCase().contains("student id")) continue; 
-                gradebookRows.add(row);
-            }
-        }
-    
-        Set<String> existingGradeIDs = new HashSet<>();
-        for (String[] row : gradebookRows) {
-            if (row.length > 0) existingGradeIDs.add(row[0].trim());
-        }
-    
-        for (String student : studentIDsWithNames) {
-            String[] parts = student.split(" - ");
-            if (parts.length >= 2) {
-                String id = parts[0].trim();
-                String name = parts[1].trim();
-                if (!existingGradeIDs.contains(id)) {
-                    gradebookRows.add(new String[]{id, name, ""});
-                }
-            }
-        }
-    
-        gradebookRows.sort(Comparator.comparing(row -> {
-            String[] nameParts = row[1].trim().split(" ");
-            return nameParts.length > 1 ? nameParts[1] : nameParts[0];
-        }));
-    
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(gradebookFile))) {
-            writer.write("Student ID, Student Name, Average");
-            writer.newLine();
-            for (String[] row : gradebookRows) {
-                writer.write(String.join(", ", row));
-                writer.newLine();
-            }
+        Map<String, List<String>> batch = new LinkedHashMap<>();
+        batch.put(courseID, studentIDsWithNames);
+        assignStudentsToCourses(batch);
+    }
+
+    /**
+     * ASSIGNSTUDENTSTOCOURSES
+     * - Bulk enrollment: course IDs mapped to "ID - Name" student entries.
+     * - Each affected file is rewritten once, and the whole batch is rolled back if any write fails.
+     */
+    public void assignStudentsToCourses(Map<String, List<String>> studentsByCourse) throws IOException {
+        Map<String, List<String>> courseLines = enrollmentEngine.enroll(studentsByCourse);
+        for (Map.Entry<String, List<String>> entry : courseLines.entrySet()) {
+            enrollments.updateCourse(entry.getKey(), entry.getValue());
         }
     }
-    
-    
 
     /**
      * REMOVESTUDENTSFROMCOURSE
-     * - Removes specified students from course, attendance, and gradebook files.
+     * - Removes specified students from the course file and its attendance and gradebook tables.
+     * - Only the removed students' table records are deleted; the other rows are not rewritten.
      */
 
     public void removeStudentsFromCourse(String courseID, List<String> idsToRemove) throws IOException {
         File courseFile = new File("database/courses/" + courseID + ".txt");
-        File attendanceFile = new File("database/attendance/" + courseID + "_attendance.txt");
-        File gradebookFile = new File("database/grades/" + courseID + "_gradebook.txt");
-    
         if (!courseFile.exists()) return;
     
         List<String> updatedCourseLines = new ArrayList<>();
@@ -554,57 +387,30 @@ public class CourseController {
             }
         }
     
-        Files.write(courseFile.toPath(), updatedCourseLines);
-    
-        if (attendanceFile.exists()) {
-            List<String> updatedAttendanceLines = new ArrayList<>();
-            List<String> originalAttendanceLines = Files.readAllLines(attendanceFile.toPath());
-    
-            for (String line : originalAttendanceLines) {
-                if (line.trim().isEmpty() || line.trim().startsWith("Student ID")) {
-                    updatedAttendanceLines.add(line); 
-                    continue;
-                }
-    
-                String[] parts = line.split(",");
-                if (parts.length > 0) {
-                    String id = parts[0].trim();
-                    if (!idsToRemove.contains(id)) {
-                        updatedAttendanceLines.add(line);
-                    }
-                }
-            }
-    
-            Files.write(attendanceFile.toPath(), updatedAttendanceLines);
-        }
-    
-        if (gradebookFile.exists()) {
-            List<String> updatedGradebookLines = new ArrayList<>();
-            List<String> originalGradebookLines = Files.readAllLines(gradebookFile.toPath());
-    
-            for (String line : originalGradebookLines) {
-                if (line.trim().isEmpty() || line.trim().startsWith("Student ID")) {
-                    updatedGradebookLines.add(line); 
-                    continue;
-                }
-    
-                String[] parts = line.split(",");
-                if (parts.length > 0) {
-                    String id = parts[0].trim();
-                    if (!idsToRemove.contains(id)) {
-                        updatedGradebookLines.add(line);
-                    }
-                }
-            }
-    
-            Files.write(gradebookFile.toPath(), updatedGradebookLines);
-        }
+        FileTransaction transaction = new FileTransaction(storage);
+        transaction.write(courseFile.toPath(), updatedCourseLines);
+        removeRows(transaction, StorageBackend.attendanceTable(courseID), idsToRemove);
+        removeRows(transaction, StorageBackend.gradebookTable(courseID), idsToRemove);
+        transaction.commit();
+        enrollments.updateCourse(courseID, updatedCourseLines);
     }
 
 
+    /**
+     * REMOVEROWS
+     * - Stages the deletion of the given students' records from an attendance or gradebook table.
+     * - The header is never removed; a table that does not exist is left alone.
+     */
+    private void removeRows(FileTransaction transaction, String table, Collection<String> idsToRemove) {
+        if (!transaction.hasTable(table)) return;
+        for (String studentID : idsToRemove) {
+            if (!studentID.startsWith("Student ID")) transaction.deleteRecord(table, studentID);
+        }
+    }
+
     /**
      * CLEARSTUDENTSFROMCOURSE
-     * - Removes all students from course, attendance, and gradebook files.
+     * - Removes all students from the course file and its attendance and gradebook tables.
      */
 
     public void clearStudentsFromCourse(String courseID) throws IOException {
@@ -628,18 +434,12 @@ public class CourseController {
             }
         }
     
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(courseFile))) {
-            for (String line : lines) {
-                writer.write(line);
-                writer.newLine();
-            }
-        }
-    
-        String attendancePath = "database/attendance/" + courseID + "_attendance.txt";
-        String gradebookPath = "database/grades/" + courseID + "_gradebook.txt";
-    
-        java.nio.file.Files.write(java.nio.file.Paths.get(attendancePath), List.of("Student ID, Student Name"));
-        java.nio.file.Files.write(java.nio.file.Paths.get(gradebookPath), List.of("Student ID, Student Name, Average"));
+        FileTransaction transaction = new FileTransaction(storage);
+        transaction.write(courseFile.toPath(), lines);
+        transaction.writeTable(StorageBackend.attendanceTable(courseID), List.of("Student ID, Student Name"));
+        transaction.writeTable(StorageBackend.gradebookTable(courseID), List.of("Student ID, Student Name, Average"));
+        transaction.commit();
+        enrollments.updateCourse(courseID, lines);
     }
 
    
@@ -752,58 +552,20 @@ public class CourseController {
     /**
      * GETCOURSESFORSTUDENT
      * - Finds all courses a student is enrolled in by ID or name.
+     * - Answered from the enrollment index instead of scanning every course file.
      */
 
     public List<Course> getCoursesForStudent(String studentIDOrName) {
-        List<Course> matchingCourses = new ArrayList<>();
-        File courseFolder = new File("database/courses");
-    
-        if (!courseFolder.exists() || !courseFolder.isDirectory()) {
-            System.err.println("Course folder not found.");
-            return matchingCourses;
-        }
-    
-        File[] courseFiles = courseFolder.listFiles((dir, name) -> name.endsWith(".txt"));
-        if (courseFiles == null) return matchingCourses;
-    
-        for (File courseFile : courseFiles) {
-            try (BufferedReader reader = new BufferedReader(new FileReader(courseFile))) {
-                boolean found = false;
-                String courseID = courseFile.getName().replace(".txt", "");
-                String grade = "", subject = "", examType = "", teacher = "";
-                List<String> students = new ArrayList<>();
-    
-                String line;
-                boolean inStudentSection = false;
-    
-                while ((line = reader.readLine()) != null) {
-                    if (line.startsWith("Grade Level:")) grade = line.substring("Grade Level:".length()).trim();
-                    else if (line.startsWith("Subject:")) subject = line.substring("Subject:".length()).trim();
-                    else if (line.startsWith("Exam Type:")) examType = line.substring("Exam Type:".length()).trim();
-                    else if (line.startsWith("Teacher:")) teacher = line.substring("Teacher:".length()).trim();
-                    else if (line.trim().equalsIgnoreCase("Students:")) inStudentSection = true;
-                    else if (inStudentSection && line.startsWith("- ")) {
-                        students.add(line.substring(2).trim());
-                        if (line.contains(studentIDOrName)) {
-                            found = true;
-                        }
-                    }
-                }
-    
-                if (found) {
-                    Course course = new Course(courseID, grade, subject, examType, teacher);
-                    for (String s : students) {
-                        course.addStudent(s);
-                    }
-                    matchingCourses.add(course);
-                }
-    
-            } catch (IOException e) {
-                System.err.println("Error reading file: " + courseFile.getName());
-            }
-        }
-    
-        return matchingCourses;
+        return enrollments.findCoursesForStudent(studentIDOrName);
+    }
+
+    /**
+     * REBUILDENROLLMENTINDEX
+     * - Rebuilds the student-to-course index from the course files.
+     */
+
+    public void rebuildEnrollmentIndex() {
+        enrollments.rebuild();
     }
 
     /**
@@ -813,18 +575,7 @@ public class CourseController {
 
     
     public List<Course> getCoursesByTeacher(String input) {
-        List<Course> result = new ArrayList<>();
-        String query = input.trim().toLowerCase();
-    
-        for (Course course : getCourses()) {
-            String teacher = course.getTeacher();
-            if (teacher != null && !teacher.isEmpty()) {
-                if (teacher.toLowerCase().contains(query)) {
-                    result.add(course);
-                }
-            }
-        }
-        return result;
+        return catalog.searchByTeacher(input);
     }
 
     /**
@@ -835,13 +586,7 @@ public class CourseController {
     
  
     public List<Course> getCoursesSortedByGradeThenID() {
-        List<Course> courses = getCourses();
-    
-        courses.sort(Comparator
-            .comparingInt((Course c) -> Integer.parseInt(c.getGradeLevel()))
-            .thenComparing(Course::getCourseID));
-    
-        return courses;
+        return catalog.getSortedByGradeThenID();
     }
 
 
@@ -853,30 +598,33 @@ public class CourseController {
 
     /**
      * CREATEATTENDANCEANDGRADEBOOKFILES
-     * - Initializes attendance and gradebook files with appropriate headers.
+     * - Stages attendance and gradebook tables with appropriate headers.
      */
 
-    private void createAttendanceAndGradebookFiles(Course course) throws IOException {
+    private void createAttendanceAndGradebookFiles(Course course, FileTransaction transaction) {
         String courseID = course.getCourseID();
-
-        String attendanceFilePath = ATTENDANCE_DATABASE_PATH + courseID + "_attendance.txt";
-        Files.write(Paths.get(attendanceFilePath), Arrays.asList("Student ID, Student Name"), StandardCharsets.UTF_8);
-
-        String gradebookFilePath = GRADEBOOK_DATABASE_PATH + courseID + "_gradebook.txt";
-        Files.write(Paths.get(gradebookFilePath), Arrays.asList("Student ID, Student Name, Average"), StandardCharsets.UTF_8);
+        transaction.writeTable(StorageBackend.attendanceTable(courseID), Arrays.asList("Student ID, Student Name"));
+        transaction.writeTable(StorageBackend.gradebookTable(courseID), Arrays.asList("Student ID, Student Name, Average"));
     }
 
 
 
     /**
      * RENAMECOURSEFILES
-     * - Renames course, attendance, and gradebook files.
+     * - Renames the course file and its attendance and gradebook tables, and moves the attendance
+     *   counters along with the register.
      */
 
     public void renameCourseFiles(String oldID, String newID) throws IOException {
-        renameFile("database/courses/" + oldID + ".txt", "database/courses/" + newID + ".txt");
-        renameFile("database/attendance/" + oldID + "_attendance.txt", "database/attendance/" + newID + "_attendance.txt");
-        renameFile("database/grades/" + oldID + "_gradebook.txt", "database/grades/" + newID + "_gradebook.txt");
+        try {
+            renameFile("database/courses/" + oldID + ".txt", "database/courses/" + newID + ".txt");
+            storage.rename(StorageBackend.attendanceTable(oldID), StorageBackend.attendanceTable(newID));
+            new AttendanceController().getAnalytics().rename(oldID, newID);
+            storage.rename(StorageBackend.gradebookTable(oldID), StorageBackend.gradebookTable(newID));
+            enrollments.renameCourse(oldID, newID);
+        } finally {
+            catalog.invalidate();
+        }
     }
 
     /**
@@ -0,0 +1,436 @@
+package controllers;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * DATA STORE
+ * - Shared storage layer for every text file under database/.
+ * - Each commit is appended to a write-ahead journal and fsynced before any file is touched.
+ * - Files are then published through a temp file and an atomic move, their folders are synced,
+ *   and only then is the journal cleared.
+ * - Appends journal the file's original length, so a replay cuts the file back and appends again.
+ * - On startup any journalled commit that was not fully published is replayed.
+ */
+public class DataStore {
+    private static final Path DEFAULT_JOURNAL = Paths.get("database", "journal.log");
+    private static final int RECORD_MAGIC = 0x4D524331;
+    private static final int APPEND_MAGIC = 0x4D524341;
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static DataStore instance;
+
+    private final Path journal;
+
+    private DataStore(Path journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * GETINSTANCE
+     * - Returns the process-wide store, replaying the journal the first time it is opened.
+     */
+    public static synchronized DataStore getInstance() {
+        if (instance == null) {
+            instance = new DataStore(DEFAULT_JOURNAL);
+            try {
+                instance.recover();
+            } catch (IOException e) {
+                System.err.println("Error replaying storage journal: " + e.getMessage());
+            }
+        }
+        return instance;
+    }
+
+    // =============================
+    // WRITES
+    // =============================
+
+    /**
+     * WRITELINES
+     * - Durably replaces one file with the given lines.
+     */
+    public void writeLines(Path target, List<String> lines) throws IOException {
+        Map<Path, List<String>> files = new LinkedHashMap<>();
+        files.put(target, lines);
+        commit(files);
+    }
+
+    /**
+     * COMMIT
+     * - Durably replaces every file in the map as one unit.
+     * - If publishing fails part way, the files already replaced are restored.
+     */
+    public synchronized void commit(Map<Path, List<String>> files) throws IOException {
+        Map<Path, byte[]> contents = new LinkedHashMap<>();
+        for (Map.Entry<Path, List<String>> entry : files.entrySet()) {
+            contents.put(entry.getKey(), encode(entry.getValue()));
+        }
+        commitBytes(contents);
+    }
+
+    /**
+     * COMMITBYTES
+     * - Same as commit, for contents that are already encoded, e.g. files being put back
+     *   byte for byte by a rolled back storage batch.
+     */
+    synchronized void commitBytes(Map<Path, byte[]> contents) throws IOException {
+        if (contents.isEmpty()) return;
+
+        appendToJournal(contents);
+
+        Map<Path, byte[]> originals = new LinkedHashMap<>();
+        for (Path target : contents.keySet()) {
+            originals.put(target, Files.exists(target) ? Files.readAllBytes(target) : null);
+        }
+
+        List<Path> published = new ArrayList<>();
+        try {
+            for (Map.Entry<Path, byte[]> entry : contents.entrySet()) {
+                publish(entry.getKey(), entry.getValue());
+                published.add(entry.getKey());
+            }
+        } catch (IOException | RuntimeException e) {
+            rollback(published, originals, e);
+            syncParents(published);
+            clearJournal();
+            throw e;
+        }
+
+        syncParents(contents.keySet());
+        clearJournal();
+    }
+
+    /**
+     * APPENDLINES
+     * - Durably adds lines to the end of a file without rewriting what is already there.
+     * - If the file does not end with a line break, one is written first.
+     */
+    public synchronized void appendLines(Path target, List<String> lines) throws IOException {
+        if (lines.isEmpty()) return;
+
+        boolean created = !Files.exists(target);
+        long originalLength = created ? 0 : Files.size(target);
+        byte[] data = encode(lines);
+        if (originalLength > 0 && !endsWithLineBreak(target, originalLength)) {
+            byte[] separator = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+            byte[] joined = new byte[separator.length + data.length];
+            System.arraycopy(separator, 0, joined, 0, separator.length);
+            System.arraycopy(data, 0, joined, separator.length, data.length);
+            data = joined;
+        }
+
+        appendToJournal(target, originalLength, data);
+        try {
+            publishAppend(target, originalLength, data);
+        } catch (IOException | RuntimeException e) {
+            try {
+                truncate(target, originalLength);
+            } catch (IOException restoreError) {
+                e.addSuppressed(restoreError);
+            }
+            clearJournal();
+            throw e;
+        }
+        if (created) syncParents(Collections.singleton(target));
+        clearJournal();
+    }
+
+    // =============================
+    // RECOVERY
+    // =============================
+
+    /**
+     * RECOVER
+     * - Republishes every complete, checksummed commit left in the journal.
+     * - A torn record at the end is a commit that never started publishing, so it is dropped.
+     */
+    public synchronized void recover() throws IOException {
+        if (!Files.exists(journal) || Files.size(journal) == 0) return;
+
+        int replayed = 0;
+        Set<Path> touched = new LinkedHashSet<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(journal)))) {
+            while (true) {
+                int magic;
+                try {
+                    magic = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+
+                if (magic == RECORD_MAGIC) {
+                    Map<Path, byte[]> contents = readRecord(in);
+                    if (contents == null) break;
+                    for (Map.Entry<Path, byte[]> entry : contents.entrySet()) {
+                        publish(entry.getKey(), entry.getValue());
+                    }
+                    touched.addAll(contents.keySet());
+                } else if (magic == APPEND_MAGIC) {
+                    AppendRecord append = readAppendRecord(in);
+                    if (append == null) break;
+                    publishAppend(append.target, append.originalLength, append.data);
+                    touched.add(append.target);
+                } else {
+                    break;
+                }
+                replayed++;
+            }
+        }
+
+        if (replayed > 0) {
+            System.err.println("Replayed " + replayed + " unfinished write(s) from " + journal);
+        }
+        syncParents(touched);
+        clearJournal();
+    }
+
+    // =============================
+    // JOURNAL FORMAT
+    // =============================
+    // - Record: magic, file count, then (path, length, bytes) per file, then a CRC32 of the body.
+    // - Append record: append magic, path, original file length, (length, bytes), then a CRC32 of the body.
+
+    private void appendToJournal(Map<Path, byte[]> contents) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(body);
+        out.writeInt(contents.size());
+        for (Map.Entry<Path, byte[]> entry : contents.entrySet()) {
+            out.writeUTF(entry.getKey().toString());
+            out.writeInt(entry.getValue().length);
+            out.write(entry.getValue());
+        }
+        out.flush();
+
+        byte[] bodyBytes = body.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bodyBytes);
+
+        ByteBuffer record = ByteBuffer.allocate(4 + bodyBytes.length + 8);
+        record.putInt(RECORD_MAGIC).put(bodyBytes).putLong(crc.getValue()).flip();
+
+        writeToJournal(record);
+    }
+
+    private void appendToJournal(Path target, long originalLength, byte[] data) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(body);
+        out.writeUTF(target.toString());
+        out.writeLong(originalLength);
+        out.writeInt(data.length);
+        out.write(data);
+        out.flush();
+
+        byte[] bodyBytes = body.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bodyBytes);
+
+        ByteBuffer record = ByteBuffer.allocate(4 + bodyBytes.length + 8);
+        record.putInt(APPEND_MAGIC).put(bodyBytes).putLong(crc.getValue()).flip();
+
+        writeToJournal(record);
+    }
+
+    private void writeToJournal(ByteBuffer record) throws IOException {
+        createParent(journal);
+        try (FileChannel channel = FileChannel.open(journal,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (record.hasRemaining()) channel.write(record);
+            channel.force(true);
+        }
+    }
+
+    private static Map<Path, byte[]> readRecord(DataInputStream in) throws IOException {
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            DataOutputStream copy = new DataOutputStream(body);
+            Map<Path, byte[]> contents = new LinkedHashMap<>();
+
+            int count = in.readInt();
+            copy.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                String path = in.readUTF();
+                byte[] data = new byte[in.readInt()];
+                in.readFully(data);
+
+                copy.writeUTF(path);
+                copy.writeInt(data.length);
+                copy.write(data);
+                contents.put(Paths.get(path), data);
+            }
+            copy.flush();
+
+            CRC32 crc = new CRC32();
+            crc.update(body.toByteArray());
+            return crc.getValue() == in.readLong() ? contents : null;
+        } catch (EOFException | UTFDataFormatException | NegativeArraySizeException e) {
+            return null;
+        }
+    }
+
+    private static AppendRecord readAppendRecord(DataInputStream in) throws IOException {
+        try {
+            String path = in.readUTF();
+            long originalLength = in.readLong();
+            byte[] data = new byte[in.readInt()];
+            in.readFully(data);
+
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            DataOutputStream copy = new DataOutputStream(body);
+            copy.writeUTF(path);
+            copy.writeLong(originalLength);
+            copy.writeInt(data.length);
+            copy.write(data);
+            copy.flush();
+
+            CRC32 crc = new CRC32();
+            crc.update(body.toByteArray());
+            return crc.getValue() == in.readLong() ? new AppendRecord(Paths.get(path), originalLength, data) : null;
+        } catch (EOFException | UTFDataFormatException | NegativeArraySizeException e) {
+            return null;
+        }
+    }
+
+    private static class AppendRecord {
+        final Path target;
+        final long originalLength;
+        final byte[] data;
+
+        AppendRecord(Path target, long originalLength, byte[] data) {
+            this.target = target;
+            this.originalLength = originalLength;
+            this.data = data;
+        }
+    }
+
+    private void clearJournal() throws IOException {
+        if (!Files.exists(journal)) return;
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+            channel.truncate(0);
+            channel.force(true);
+        }
+    }
+
+    // =============================
+    // FILE PUBLISHING
+    // =============================
+
+    private static void publish(Path target, byte[] data) throws IOException {
+        createParent(target);
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        moveIntoPlace(temp, target);
+    }
+
+    /**
+     * PUBLISHAPPEND
+     * - Cuts the file back to its journalled length, then writes the new lines after it,
+     *   so replaying the same append twice leaves one copy.
+     */
+    private static void publishAppend(Path target, long originalLength, byte[] data) throws IOException {
+        createParent(target);
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            if (channel.size() > originalLength) channel.truncate(originalLength);
+            channel.position(originalLength);
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(true);
+        }
+    }
+
+    private static void truncate(Path target, long length) throws IOException {
+        if (!Files.exists(target)) return;
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE)) {
+            if (channel.size() > length) channel.truncate(length);
+            channel.force(true);
+        }
+    }
+
+    private static boolean endsWithLineBreak(Path target, long length) throws IOException {
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.READ)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, length - 1);
+            return last.get(0) == '\n';
+        }
+    }
+
+    /**
+     * MOVEINTOPLACE
+     * - Replaces the target with an atomic rename where the file system supports it.
+     */
+    private static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * SYNCPARENTS
+     * - Forces each distinct folder holding one of the files, so the renames and new files in it
+     *   are on disk before the journal that could redo them is cleared.
+     * - A platform that cannot open a folder for syncing (Windows) is skipped; it makes renames
+     *   durable on its own.
+     */
+    private static void syncParents(Collection<Path> files) throws IOException {
+        Set<Path> folders = new LinkedHashSet<>();
+        for (Path file : files) {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) folders.add(parent);
+        }
+        for (Path folder : folders) {
+            FileChannel channel;
+            try {
+                channel = FileChannel.open(folder, StandardOpenOption.READ);
+            } catch (IOException | UnsupportedOperationException e) {
+                continue;
+            }
+            try (FileChannel open = channel) {
+                open.force(true);
+            }
+        }
+    }
+
+    private static void rollback(List<Path> published, Map<Path, byte[]> originals, Exception cause) {
+        for (Path target : published) {
+            byte[] original = originals.get(target);
+            try {
+                if (original == null) {
+                    Files.deleteIfExists(target);
+                } else {
+                    publish(target, original);
+                }
+            } catch (IOException e) {
+                cause.addSuppressed(e);
+                System.err.println("Error restoring " + target + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static byte[] encode(List<String> lines) {
+        StringBuilder sb = new StringBuilder();
+        for (String line : lines) {
+            sb.append(line).append(System.lineSeparator());
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void createParent(Path target) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+    }
+}
@@ -0,0 +1,209 @@
+package controllers;
+
+import utils.CsvReader;
+import utils.CsvWriter;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * ENROLLMENT ENGINE
+ * - Applies a batch of (course, student) enrollments in memory.
+ * - Every affected course file and attendance and gradebook table is rewritten exactly once.
+ * - All of them are published through one FileTransaction, so with text storage a failed write
+ *   undoes the whole batch.
+ */
+public class EnrollmentEngine {
+    private static final String DEFAULT_ATTENDANCE_HEADER = "Student ID, Student Name";
+    private static final String DEFAULT_GRADEBOOK_HEADER = "Student ID, Student Name, Average";
+
+    private final String courseDirectory;
+    private final StorageBackend storage;
+
+    public EnrollmentEngine(String courseDirectory, StorageBackend storage) {
+        this.courseDirectory = courseDirectory;
+        this.storage = storage;
+    }
+
+    /**
+     * ENROLL
+     * - Takes course IDs mapped to "ID - First Last" student entries.
+     * - Returns the new course file lines for each course, for the enrollment index.
+     */
+    public Map<String, List<String>> enroll(Map<String, List<String>> studentsByCourse) throws IOException {
+        for (String courseID : studentsByCourse.keySet()) {
+            if (!Files.exists(courseFile(courseID))) throw new FileNotFoundException("Course file not found: " + courseID);
+            if (!storage.exists(StorageBackend.attendanceTable(courseID))) throw new FileNotFoundException("Attendance table not found: " + courseID);
+            if (!storage.exists(StorageBackend.gradebookTable(courseID))) throw new FileNotFoundException("Gradebook table not found: " + courseID);
+        }
+
+        FileTransaction transaction = new FileTransaction(storage);
+        Map<String, List<String>> courseLinesByCourse = new LinkedHashMap<>();
+
+        for (Map.Entry<String, List<String>> entry : studentsByCourse.entrySet()) {
+            String courseID = entry.getKey();
+            List<RosterEntry> additions = new ArrayList<>();
+            for (String student : entry.getValue()) {
+                RosterEntry parsed = RosterEntry.parse(student);
+                if (parsed != null) additions.add(parsed);
+            }
+
+            List<String> courseLines = mergeCourseFile(transaction.read(courseFile(courseID)), entry.getValue());
+            transaction.write(courseFile(courseID), courseLines);
+            courseLinesByCourse.put(courseID, courseLines);
+
+            String attendance = StorageBackend.attendanceTable(courseID);
+            List<String> attendanceLines = transaction.readTable(attendance);
+            if (!attendanceLines.isEmpty()) {
+                transaction.writeTable(attendance, mergeTable(attendanceLines, additions, DEFAULT_ATTENDANCE_HEADER));
+            }
+
+            String gradebook = StorageBackend.gradebookTable(courseID);
+            transaction.writeTable(gradebook, mergeTable(transaction.readTable(gradebook), additions, DEFAULT_GRADEBOOK_HEADER));
+        }
+
+        transaction.commit();
+        return courseLinesByCourse;
+    }
+
+    /**
+     * MERGECOURSEFILE
+     * - Adds new "- ID - Name" lines to the Students section and sorts it by last name.
+     */
+    private List<String> mergeCourseFile(List<String> lines, List<String> students) {
+        List<String> header = new ArrayList<>();
+        List<RosterEntry> roster = new ArrayList<>();
+        Set<String> existing = new HashSet<>();
+        boolean inStudentSection = false;
+
+        for (String line : lines) {
+            if (line.trim().equalsIgnoreCase("Students:")) {
+                inStudentSection = true;
+                header.add(line);
+            } else if (inStudentSection && line.startsWith("- ")) {
+                roster.add(RosterEntry.ofCourseLine(line));
+                existing.add(line);
+            } else if (!inStudentSection) {
+                header.add(line);
+            }
+        }
+
+        for (String student : students) {
+            String line = "- " + student;
+            if (existing.add(line)) {
+                roster.add(RosterEntry.ofCourseLine(line));
+            }
+        }
+
+        roster.sort(RosterEntry.BY_SORT_KEY);
+
+        List<String> result = new ArrayList<>(header);
+        for (RosterEntry entry : roster) {
+            result.add(entry.line);
+        }
+        return result;
+    }
+
+    /**
+     * MERGETABLE
+     * - Adds a blank row for each new student to an attendance or gradebook table.
+     * - Keeps the existing header and columns, and sorts the rows by last name.
+     */
+    private List<String> mergeTable(List<String> lines, List<RosterEntry> additions, String defaultHeader) {
+        String header = defaultHeader;
+        List<RosterEntry> rows = new ArrayList<>();
+        Set<String> existingIDs = new HashSet<>();
+
+        int columnCount = fieldCountOf(defaultHeader);
+        CsvReader reader = CsvReader.of(String.join("\n", lines));
+        while (reader.next()) {
+            if (reader.isBlankLine()) continue;
+            if (reader.getLine().toLowerCase().contains("student id")) {
+                header = reader.getLine();
+                columnCount = reader.getFieldCount();
+                continue;
+            }
+            if (reader.getFieldCount() < 2) continue;
+            String[] cells = new String[reader.getFieldCount()];
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = reader.getString(i);
+            }
+            rows.add(RosterEntry.ofRow(cells));
+            existingIDs.add(cells[0]);
+        }
+
+        columnCount = Math.max(columnCount, 2);
+        for (RosterEntry addition : additions) {
+            if (existingIDs.add(addition.id)) {
+                String[] cells = new String[columnCount];
+                Arrays.fill(cells, "");
+                cells[0] = addition.id;
+                cells[1] = addition.name;
+                rows.add(RosterEntry.ofRow(cells));
+            }
+        }
+
+        rows.sort(RosterEntry.BY_SORT_KEY);
+
+        List<String> result = new ArrayList<>(rows.size() + 1);
+        result.add(header);
+        for (RosterEntry row : rows) {
+            result.add(row.line);
+        }
+        return result;
+    }
+
+    private static int fieldCountOf(String line) {
+        CsvReader reader = CsvReader.of(line);
+        return reader.next() ? reader.getFieldCount() : 0;
+    }
+
+    private Path courseFile(String courseID) {
+        return Paths.get(courseDirectory + courseID + ".txt");
+    }
+
+    /**
+     * ROSTERENTRY
+     * - One roster line with its student ID, name and last-name sort key computed once.
+     */
+    private static class RosterEntry {
+        static final Comparator<RosterEntry> BY_SORT_KEY = Comparator.comparing(e -> e.sortKey);
+
+        final String id;
+        final String name;
+        final String line;
+        final String sortKey;
+
+        RosterEntry(String id, String name, String line) {
+            this.id = id;
+            this.name = name;
+            this.line = line;
+            this.sortKey = lastNameOf(name);
+        }
+
+        static RosterEntry parse(String student) {
+            String[] parts = student.split(" - ", 2);
+            if (parts.length < 2) return null;
+            return new RosterEntry(parts[0].trim(), parts[1].trim(), null);
+        }
+
+        static RosterEntry ofCourseLine(String line) {
+            String[] parts = line.substring(2).split(" - ", 2);
+            String name = parts.length > 1 ? parts[1].trim() : "";
+            return new RosterEntry(parts[0].trim(), name, line);
+        }
+
+        static RosterEntry ofRow(String[] cells) {
+            return new RosterEntry(cells[0], cells[1], CsvWriter.join(cells));
+        }
+
+        private static String lastNameOf(String name) {
+            String[] nameParts = name.trim().split(" ");
+            return nameParts.length > 1 ? nameParts[1] : nameParts[0];
+        }
+    }
+}
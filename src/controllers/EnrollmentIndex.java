@@ -0,0 +1,264 @@
+package controllers;
+
+import models.Course;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * ENROLLMENT INDEX
+ * - Reverse index from students to the courses they are enrolled in.
+ * - Exact student IDs resolve through a hash map; names and partial IDs through a sorted prefix index.
+ * - Built from the course files in one parallel pass and kept current by CourseController writes.
+ */
+public class EnrollmentIndex {
+    private final String courseDirectory;
+
+    private final Map<String, Course> coursesByID = new HashMap<>();
+    private final Map<String, Set<String>> courseIDsByStudent = new HashMap<>();
+    private final Map<String, Set<String>> studentIDsByCourse = new HashMap<>();
+    private final NavigableMap<String, Set<String>> studentIDsByKey = new TreeMap<>();
+    private final Map<String, Set<String>> keysByStudent = new HashMap<>();
+    private boolean loaded = false;
+
+    public EnrollmentIndex(String courseDirectory) {
+        this.courseDirectory = courseDirectory;
+    }
+
+    // =============================
+    // LOOKUPS
+    // =============================
+
+    /**
+     * FINDCOURSESFORSTUDENT
+     * - An exact student ID is answered straight from the hash index.
+     * - Otherwise the query is matched as a prefix of a student ID, first name, last name or full name.
+     * - Returns copies of the matching courses sorted by course ID.
+     */
+    public synchronized List<Course> findCoursesForStudent(String studentIDOrName) {
+        ensureLoaded();
+        String query = studentIDOrName.trim();
+
+        Set<String> courseIDs = new TreeSet<>();
+        Set<String> exact = courseIDsByStudent.get(query);
+        if (exact != null) {
+            courseIDs.addAll(exact);
+        } else {
+            String prefix = query.toLowerCase();
+            for (Set<String> studentIDs : studentIDsByKey.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+                for (String studentID : studentIDs) {
+                    courseIDs.addAll(courseIDsByStudent.getOrDefault(studentID, Collections.emptySet()));
+                }
+            }
+        }
+
+        List<Course> result = new ArrayList<>();
+        for (String courseID : courseIDs) {
+            Course course = coursesByID.get(courseID);
+            if (course != null) result.add(copyOf(course));
+        }
+        return result;
+    }
+
+    /**
+     * GETCOURSEIDSFORSTUDENT
+     * - Returns the IDs of the courses a student ID is enrolled in.
+     */
+    public synchronized Set<String> getCourseIDsForStudent(String studentID) {
+        ensureLoaded();
+        return new TreeSet<>(courseIDsByStudent.getOrDefault(studentID, Collections.emptySet()));
+    }
+
+    // =============================
+    // MAINTENANCE
+    // =============================
+    // - Called by CourseController after it writes a course file.
+    // - Ignored until the index has been built; the first lookup builds it from disk.
+
+    /**
+     * UPDATECOURSE
+     * - Re-indexes one course from the lines just written to its course file.
+     */
+    public synchronized void updateCourse(String courseID, List<String> courseFileLines) {
+        if (!loaded) return;
+        unindexCourse(courseID);
+        indexCourse(parseCourse(courseID, courseFileLines));
+    }
+
+    /**
+     * REFRESHCOURSE
+     * - Re-indexes one course by reading its course file.
+     */
+    public synchronized void refreshCourse(String courseID) {
+        if (!loaded) return;
+        unindexCourse(courseID);
+        Course course = readCourse(new File(courseDirectory + courseID + ".txt"));
+        if (course != null) indexCourse(course);
+    }
+
+    /**
+     * REMOVECOURSE / RENAMECOURSE
+     * - Keeps the index in step with course deletion and ID changes.
+     */
+    public synchronized void removeCourse(String courseID) {
+        if (!loaded) return;
+        unindexCourse(courseID);
+    }
+
+    public synchronized void renameCourse(String oldID, String newID) {
+        if (!loaded) return;
+        Course course = coursesByID.get(oldID);
+        unindexCourse(oldID);
+        if (course != null) {
+            course.setCourseID(newID);
+            indexCourse(course);
+        }
+    }
+
+    /**
+     * REBUILD
+     * - Parses every course file in parallel and replaces the index contents.
+     */
+    public synchronized void rebuild() {
+        coursesByID.clear();
+        courseIDsByStudent.clear();
+        studentIDsByCourse.clear();
+        studentIDsByKey.clear();
+        keysByStudent.clear();
+
+        File folder = new File(courseDirectory);
+        File[] courseFiles = folder.listFiles((dir, name) -> name.endsWith(".txt"));
+        if (courseFiles == null) {
+            System.err.println("Course folder not found.");
+        } else {
+            List<Course> courses = Arrays.stream(courseFiles)
+                .parallel()
+                .map(this::readCourse)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+            for (Course course : courses) {
+                indexCourse(course);
+            }
+        }
+
+        loaded = true;
+    }
+
+    /**
+     * INVALIDATE
+     * - Forces a rebuild on the next lookup.
+     */
+    public synchronized void invalidate() {
+        loaded = false;
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) rebuild();
+    }
+
+    // =============================
+    // INDEXING HELPERS
+    // =============================
+
+    private void indexCourse(Course course) {
+        String courseID = course.getCourseID();
+        coursesByID.put(courseID, course);
+
+        Set<String> enrolled = new HashSet<>();
+        for (String entry : course.getStudents()) {
+            String[] parts = entry.split(" - ", 2);
+            String studentID = parts[0].trim();
+            if (studentID.isEmpty()) continue;
+
+            enrolled.add(studentID);
+            courseIDsByStudent.computeIfAbsent(studentID, k -> new HashSet<>()).add(courseID);
+
+            addKey(studentID, studentID.toLowerCase());
+            if (parts.length > 1) {
+                String name = parts[1].trim().toLowerCase();
+                addKey(studentID, name);
+                for (String token : name.split("\\s+")) {
+                    addKey(studentID, token);
+                }
+            }
+        }
+        studentIDsByCourse.put(courseID, enrolled);
+    }
+
+    private void unindexCourse(String courseID) {
+        coursesByID.remove(courseID);
+        Set<String> enrolled = studentIDsByCourse.remove(courseID);
+        if (enrolled == null) return;
+
+        for (String studentID : enrolled) {
+            Set<String> courseIDs = courseIDsByStudent.get(studentID);
+            if (courseIDs == null) continue;
+            courseIDs.remove(courseID);
+            if (courseIDs.isEmpty()) {
+                courseIDsByStudent.remove(studentID);
+                removeKeys(studentID);
+            }
+        }
+    }
+
+    private void addKey(String studentID, String key) {
+        if (key.isEmpty()) return;
+        studentIDsByKey.computeIfAbsent(key, k -> new HashSet<>()).add(studentID);
+        keysByStudent.computeIfAbsent(studentID, k -> new HashSet<>()).add(key);
+    }
+
+    private void removeKeys(String studentID) {
+        Set<String> keys = keysByStudent.remove(studentID);
+        if (keys == null) return;
+        for (String key : keys) {
+            Set<String> studentIDs = studentIDsByKey.get(key);
+            if (studentIDs == null) continue;
+            studentIDs.remove(studentID);
+            if (studentIDs.isEmpty()) studentIDsByKey.remove(key);
+        }
+    }
+
+    private Course readCourse(File courseFile) {
+        String courseID = courseFile.getName().replace(".txt", "");
+        try {
+            return parseCourse(courseID, Files.readAllLines(courseFile.toPath()));
+        } catch (IOException e) {
+            System.err.println("Error reading file: " + courseFile.getName());
+            return null;
+        }
+    }
+
+    static Course parseCourse(String courseID, List<String> lines) {
+        String grade = "", subject = "", examType = "", teacher = "";
+        List<String> students = new ArrayList<>();
+        boolean inStudentSection = false;
+
+        for (String line : lines) {
+            if (line.startsWith("Grade Level:")) grade = line.substring("Grade Level:".length()).trim();
+            else if (line.startsWith("Subject:")) subject = line.substring("Subject:".length()).trim();
+            else if (line.startsWith("Exam Type:")) examType = line.substring("Exam Type:".length()).trim();
+            else if (line.startsWith("Teacher:")) teacher = line.substring("Teacher:".length()).trim();
+            else if (line.trim().equalsIgnoreCase("Students:")) inStudentSection = true;
+            else if (inStudentSection && line.startsWith("- ")) students.add(line.substring(2).trim());
+        }
+
+        Course course = new Course(courseID, grade, subject, examType, teacher);
+        for (String student : students) {
+            course.addStudent(student);
+        }
+        return course;
+    }
+
+    private static Course copyOf(Course course) {
+        Course copy = new Course(course.getCourseID(), course.getGradeLevel(), course.getSubject(),
+                                 course.getExamType(), course.getTeacher());
+        for (String student : course.getStudents()) {
+            copy.addStudent(student);
+        }
+        return copy;
+    }
+}
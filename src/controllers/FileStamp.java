@@ -0,0 +1,53 @@
+package controllers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+
+/**
+ * FILE STAMP
+ * - Modified time, size and file key (inode) of a file; the DataStore's atomic
+ *   replace gives every write a new file key, so same-millisecond writes are still seen.
+ * - The gradebook and attendance caches and the text storage compare stamps to notice
+ *   that another writer replaced a file.
+ */
+class FileStamp {
+    private final long modified;
+    private final long size;
+    private final Object fileKey;
+
+    private FileStamp(long modified, long size, Object fileKey) {
+        this.modified = modified;
+        this.size = size;
+        this.fileKey = fileKey;
+    }
+
+    static FileStamp of(Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        return new FileStamp(attributes.lastModifiedTime().toMillis(), attributes.size(), attributes.fileKey());
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof FileStamp)) return false;
+        FileStamp that = (FileStamp) other;
+        return modified == that.modified && size == that.size && Objects.equals(fileKey, that.fileKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(modified, size, fileKey);
+    }
+
+    /**
+     * TOSTRING
+     * - "modified:size:fileKey", stable for as long as the file is not replaced, so a stamp
+     *   can be saved next to data derived from the file and compared in a later run.
+     */
+    @Override
+    public String toString() {
+        return modified + ":" + size + ":" + fileKey;
+    }
+}
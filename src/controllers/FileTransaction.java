@@ -0,0 +1,118 @@
+package controllers;
+
+import utils.CsvReader;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * FILE TRANSACTION
+ * - Collects new contents for several database files, and edits to StorageBackend tables,
+ *   and publishes them together.
+ * - Lets a caller batch many small edits into one journalled, durable flush.
+ * - Committed through StorageBackend.commit: with text storage a failed write restores every file
+ *   and table in the batch; with paged storage each table's change is atomic on its own.
+ */
+public class FileTransaction {
+    private final StorageBackend storage;
+    private final Map<Path, List<String>> staged = new LinkedHashMap<>();
+    private final Map<String, TableChanges> tables = new LinkedHashMap<>();
+
+    public FileTransaction() {
+        this(StorageBackend.getInstance());
+    }
+
+    public FileTransaction(StorageBackend storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * WRITE
+     * - Stages the full contents of a file; a later write to the same file replaces it.
+     */
+    public void write(Path target, List<String> lines) {
+        staged.put(target.toAbsolutePath().normalize(), new ArrayList<>(lines));
+    }
+
+    /**
+     * READ
+     * - Returns the staged contents of a file, or its current contents on disk.
+     */
+    public List<String> read(Path target) throws IOException {
+        List<String> lines = staged.get(target.toAbsolutePath().normalize());
+        if (lines != null) return new ArrayList<>(lines);
+        return Files.readAllLines(target, StandardCharsets.UTF_8);
+    }
+
+    // =============================
+    // TABLES
+    // =============================
+
+    /**
+     * WRITETABLE
+     * - Stages the full contents of a table; edits staged before it are dropped.
+     */
+    public void writeTable(String table, List<String> records) {
+        changesTo(table).replace(records);
+    }
+
+    /**
+     * PUTRECORD / DELETERECORD
+     * - Stage one record replaced or added by key, or removed.
+     */
+    public void putRecord(String table, String key, String record) {
+        changesTo(table).put(key, record);
+    }
+
+    public void deleteRecord(String table, String key) {
+        changesTo(table).delete(key);
+    }
+
+    /**
+     * READTABLE
+     * - Returns a table's records with the staged changes applied; empty if it does not exist.
+     */
+    public List<String> readTable(String table) throws IOException {
+        TableChanges changes = tables.get(table);
+        if (changes != null && changes.replacesAll()) return changes.applyTo(Collections.emptyList());
+
+        List<String> records = new ArrayList<>();
+        if (storage.exists(table)) {
+            CsvReader reader = storage.read(table);
+            while (reader.next()) {
+                if (!reader.isBlankLine()) records.add(reader.getLine());
+            }
+        }
+        return changes != null ? changes.applyTo(records) : records;
+    }
+
+    /**
+     * HASTABLE
+     * - True if the table exists or a full table has been staged for it.
+     */
+    public boolean hasTable(String table) {
+        TableChanges changes = tables.get(table);
+        return (changes != null && changes.replacesAll()) || storage.exists(table);
+    }
+
+    private TableChanges changesTo(String table) {
+        return tables.computeIfAbsent(table, k -> new TableChanges());
+    }
+
+    public boolean isEmpty() {
+        return staged.isEmpty() && tables.isEmpty();
+    }
+
+    /**
+     * COMMIT
+     * - Journals and publishes every staged file and table change as one unit.
+     */
+    public void commit() throws IOException {
+        if (isEmpty()) return;
+        storage.commit(tables, staged);
+        staged.clear();
+        tables.clear();
+    }
+}
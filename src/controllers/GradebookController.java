@@ -5,14 +5,16 @@ import models.Course;
 import models.Student;
 import views.GradeEntryForm;
 import views.AssessmentEntry;
+import utils.CsvWriter;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.io.*;
+import java.nio.file.Files;
 import java.util.*;
 
 public class GradebookController {
-    private static final String GRADEBOOK_FOLDER = "database/grades/";
+    private static final GradebookStore gradebooks = new GradebookStore();
     private AssessmentController assessmentController = new AssessmentController();
     private CourseController courseController = new CourseController();
     private StudentController studentController = new StudentController();
@@ -20,37 +22,48 @@ public class GradebookController {
 
 
     public void populateGradebookTable(Course course, DefaultTableModel model) {
-        File file = new File(GRADEBOOK_FOLDER + course.getCourseID() + "_gradebook.txt");
-    
-        if (!file.exists()) {
+        ensureGradebookFile(course);
+        populateGradebookTable(model, getGradebookData(course));
+    }
+
+    /**
+     * ENSUREGRADEBOOKFILE
+     * - Creates the course's gradebook file from its roster if it has none yet
+     * - Writes through the DataStore, so call it on the event thread before loading in the background
+     */
+    public void ensureGradebookFile(Course course) {
+        if (!gradebooks.exists(course.getCourseID())) {
             createInitialGradebookFile(course.getCourseID());
         }
-    
-        model.setRowCount(0);
-        model.setColumnCount(0);
-    
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String headerLine = reader.readLine();
-            if (headerLine == null) return;
-    
-            String[] headers = headerLine.split(",", -1);
-            for (String h : headers) model.addColumn(h);
-    
-            String line;
-            while ((line = reader.readLine()) != null) {
-                model.addRow(line.split(",", -1));
-            }
+    }
+
+    /**
+     * GETGRADEBOOKDATA
+     * - Header row followed by one row per student, copied out of the cached gradebook under its lock
+     * - Only reads; safe to call off the event thread
+     */
+    public List<String[]> getGradebookData(Course course) {
+        try {
+            return gradebooks.snapshot(course.getCourseID());
         } catch (IOException e) {
             e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    public void populateGradebookTable(DefaultTableModel model, List<String[]> data) {
+        model.setRowCount(0);
+        model.setColumnCount(0);
+        if (data.isEmpty()) return;
+
+        for (String h : data.get(0)) model.addColumn(h);
+        for (int i = 1; i < data.size(); i++) {
+            model.addRow(data.get(i));
         }
     }
-    
 
     private void createInitialGradebookFile(String courseID) {
         try {
-            File file = new File(GRADEBOOK_FOLDER + courseID + "_gradebook.txt");
-            file.getParentFile().mkdirs();
-
             List<String> studentLines = courseController.getAssignedStudents(courseID);
             List<Student> students = new ArrayList<>();
             for (String line : studentLines) {
@@ -63,118 +76,115 @@ public class GradebookController {
                 }
             }
 
-            PrintWriter writer = new PrintWriter(file);
-            writer.println("Student ID,Student Name,Average");
+            List<String> lines = new ArrayList<>();
+            lines.add("Student ID,Student Name,Average");
             for (Student s : students) {
-              writer.println(s.getStudentID() + "," + s.getFirstName() + " " + s.getLastName() + ",0.00");
+              lines.add(CsvWriter.join(s.getStudentID(), s.getFirstName() + " " + s.getLastName(), "0.00"));
             }
-            writer.close();
+            gradebooks.save(courseID, GradebookTable.fromCSV(lines));
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
 
+    /**
+     * SAVEGRADESIMMEDIATELY
+     * - Copies edited cells from the on-screen table into the course's gradebook and saves it.
+     * - Only cells that changed are written, each updating that student's average in place;
+     *   the new averages are shown back in the table.
+     * - When the layout is unchanged only the edited students' records are saved.
+     */
     public void saveGradesImmediately(Course course, DefaultTableModel model) {
-        File file = new File(GRADEBOOK_FOLDER + course.getCourseID() + "_gradebook.txt");
-        try (PrintWriter writer = new PrintWriter(file)) {
-
-            for (int i = 0; i < model.getColumnCount(); i++) {
-                writer.print(model.getColumnName(i));
-                if (i < model.getColumnCount() - 1) writer.print(",");
-            }
-            writer.println();
+        String courseID = course.getCourseID();
 
-            for (int i = 0; i < model.getRowCount(); i++) {
-                double total = 0;
-                int count = 0;
-
-                for (int j = 0; j < model.getColumnCount(); j++) {
-                    String val = String.valueOf(model.getValueAt(i, j)).trim();
-                    if (j >= 3 && !val.isEmpty()) {
-                        try {
-                            total += Double.parseDouble(val);
-                            count++;
-                        } catch (NumberFormatException ignored) {}
+        try {
+            GradebookTable table;
+            synchronized (gradebooks) {
+                table = gradebooks.get(courseID);
+                if (table == null || !sameLayout(table, model)) {
+                    table = GradebookTable.fromCSV(modelToLines(model));
+                    table.recomputeAverages();
+                    gradebooks.save(courseID, table);
+                } else {
+                    Set<Integer> changedRows = new LinkedHashSet<>();
+                    for (int i = 0; i < model.getRowCount(); i++) {
+                        for (int j = GradebookTable.FIRST_ASSESSMENT_COLUMN; j < model.getColumnCount(); j++) {
+                            String val = String.valueOf(model.getValueAt(i, j)).trim();
+                            if (!val.equals(table.getCell(i, j))) {
+                                table.setCell(i, j, val);
+                                changedRows.add(i);
+                            }
+                        }
                     }
-                    writer.print(val);
-                    if (j < model.getColumnCount() - 1) writer.print(",");
+                    if (!changedRows.isEmpty()) gradebooks.saveRows(courseID, table, changedRows);
                 }
-
-                double avg = count == 0 ? 0.0 : total / count;
-                model.setValueAt(String.format("%.2f", avg), i, 2);
-                writer.println();
             }
 
+            for (int i = 0; i < model.getRowCount(); i++) {
+                model.setValueAt(table.getCell(i, GradebookTable.AVERAGE_COLUMN), i, GradebookTable.AVERAGE_COLUMN);
+            }
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
-    public void saveAssessmentGrades(Course course, String assessmentID, Map<String, String> grades) {
-        File file = new File(GRADEBOOK_FOLDER + course.getCourseID() + "_gradebook.txt");
-        List<String[]> rows = new ArrayList<>();
-        int columnIndex = -1;
-    
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String[] headers = reader.readLine().split(",", -1);
-            List<String> headerList = new ArrayList<>(Arrays.asList(headers));
-    
-            String displayColumn = assessmentID + " - " + getAssessmentNameByID(assessmentID);
-            if (!headerList.contains(displayColumn)) {
-                headerList.add(displayColumn);
-                columnIndex = headerList.size() - 1;
-            } else {
-                columnIndex = headerList.indexOf(displayColumn);
+    private boolean sameLayout(GradebookTable table, DefaultTableModel model) {
+        if (table.getColumnCount() != model.getColumnCount() || table.getRowCount() != model.getRowCount()) {
+            return false;
+        }
+        List<String> headers = table.getHeaders();
+        for (int j = 0; j < model.getColumnCount(); j++) {
+            if (!headers.get(j).equals(model.getColumnName(j).trim())) return false;
+        }
+        for (int i = 0; i < model.getRowCount(); i++) {
+            if (!table.getStudentID(i).equals(String.valueOf(model.getValueAt(i, GradebookTable.ID_COLUMN)).trim())) {
+                return false;
             }
-    
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",", -1);
-                List<String> row = new ArrayList<>(Arrays.asList(parts));
-                while (row.size() < headerList.size()) row.add("");
-                rows.add(row.toArray(new String[0]));
+        }
+        return true;
+    }
+
+    private List<String> modelToLines(DefaultTableModel model) {
+        List<String> lines = new ArrayList<>();
+
+        List<String> headers = new ArrayList<>();
+        for (int i = 0; i < model.getColumnCount(); i++) {
+            headers.add(model.getColumnName(i));
+        }
+        lines.add(CsvWriter.join(headers));
+
+        for (int i = 0; i < model.getRowCount(); i++) {
+            List<String> cells = new ArrayList<>();
+            for (int j = 0; j < model.getColumnCount(); j++) {
+                cells.add(String.valueOf(model.getValueAt(i, j)).trim());
             }
-    
-            try (PrintWriter writer = new PrintWriter(file)) {
-                writer.println(String.join(",", headerList));
-    
-                for (String[] row : rows) {
-                    String studentID = row[0];
-                    String grade = grades.getOrDefault(studentID, "").trim();
-                    if (!grade.isEmpty()) row[columnIndex] = grade;
-    
-                    double testTotal = 0, examTotal = 0;
-                    int testCount = 0, examCount = 0;
-    
-                    for (int i = 3; i < row.length; i++) {
-                        String colName = headerList.get(i);
-                        String value = row[i];
-    
-                        try {
-                            double score = Double.parseDouble(value);
-                            String idPrefix = colName.trim().split(" ")[0].toUpperCase(); // e.g., T1234
-                            if (idPrefix.startsWith("T")) {
-                                testTotal += score;
-                                testCount++;
-                            } else if (idPrefix.startsWith("E")) {
-                                examTotal += score;
-                                examCount++;
-                            }
-                        } catch (NumberFormatException ignored) {}
-                    }
-    
-                    double testAvg = testCount > 0 ? testTotal / testCount : 0;
-                    double examAvg = examCount > 0 ? examTotal / examCount : 0;
-                    double weightedAvg = (testAvg * 0.4) + (examAvg * 0.6);
-                    row[2] = String.format("%.2f", weightedAvg);
+            lines.add(CsvWriter.join(cells));
+        }
+        return lines;
+    }
+
+    public void saveAssessmentGrades(Course course, String assessmentID, Map<String, String> grades) {
+        String courseID = course.getCourseID();
+
+        String displayColumn = assessmentID + " - " + getAssessmentNameByID(assessmentID);
+        try {
+            synchronized (gradebooks) {
+                GradebookTable table = gradebooks.get(courseID);
+                if (table == null) throw new FileNotFoundException("Gradebook not found: " + courseID);
+
+                int columnIndex = table.findAssessmentColumn(displayColumn);
+                if (columnIndex == -1) {
+                    columnIndex = table.addAssessment(displayColumn);
                 }
-    
-                for (String[] updatedRow : rows) {
-                    writer.println(String.join(",", updatedRow));
+
+                for (int row = 0; row < table.getRowCount(); row++) {
+                    String grade = grades.getOrDefault(table.getStudentID(row), "").trim();
+                    if (!grade.isEmpty()) table.setCell(row, columnIndex, grade);
                 }
+
+                gradebooks.save(courseID, table);
             }
-    
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -192,104 +202,32 @@ public class GradebookController {
     public void deleteAssessmentAndGrades(JFrame parent, Course course, Assessment assessment, Runnable onSave) {
         String assessmentID = assessment.getId();
         String courseID = course.getCourseID();
-        File gradebookFile = new File(GRADEBOOK_FOLDER + courseID + "_gradebook.txt");
-        List<String[]> rows = new ArrayList<>();
-        List<String> headers = new ArrayList<>();
-    
-        try (BufferedReader reader = new BufferedReader(new FileReader(gradebookFile))) {
-            String[] headerLine = reader.readLine().split(",", -1);
-            headers = new ArrayList<>(Arrays.asList(headerLine));
-    
-            int removeIndex = -1;
-            for (int i = 0; i < headers.size(); i++) {
-                if (headers.get(i).startsWith(assessmentID)) {
-                    removeIndex = i;
-                    break;
+        boolean columnFound;
+
+        // The column goes first: if removing the assessment record then fails, the assessment is
+        // still listed and its column comes back the next time grades are entered for it.
+        try {
+            synchronized (gradebooks) {
+                GradebookTable table = gradebooks.get(courseID);
+                if (table == null) throw new FileNotFoundException("Gradebook not found: " + courseID);
+
+                int removeIndex = table.findAssessmentColumnByID(assessmentID);
+                columnFound = removeIndex != -1;
+                if (columnFound) {
+                    table.removeAssessment(removeIndex);
+                    gradebooks.save(courseID, table);
                 }
             }
-    
-            if (removeIndex == -1) {
+            if (!columnFound) {
                 JOptionPane.showMessageDialog(parent, "Assessment column not found in gradebook.");
                 return;
             }
-    
-            headers.remove(removeIndex);
-    
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",", -1);
-                List<String> row = new ArrayList<>(Arrays.asList(parts));
-                if (removeIndex < row.size()) {
-                    row.remove(removeIndex);
-                }
-                rows.add(row.toArray(new String[0]));
-            }
-    
-        } catch (IOException e) {
-            e.printStackTrace();
-            return;
-        }
-    
-        try (PrintWriter writer = new PrintWriter(gradebookFile)) {
-            writer.println(String.join(",", headers));
-    
-            for (String[] row : rows) {
-                double testTotal = 0, examTotal = 0;
-                int testCount = 0, examCount = 0;
-    
-                for (int i = 3; i < headers.size(); i++) {
-                    String header = headers.get(i);
-                    String value = i < row.length ? row[i] : "";
-    
-                    try {
-                        double score = Double.parseDouble(value);
-                        if (header.startsWith("T")) {
-                            testTotal += score;
-                            testCount++;
-                        } else if (header.startsWith("E")) {
-                            examTotal += score;
-                            examCount++;
-                        }
-                    } catch (NumberFormatException ignored) {}
-                }
-    
-                double testAvg = testCount > 0 ? testTotal / testCount : 0;
-                double examAvg = examCount > 0 ? examTotal / examCount : 0;
-                double weightedAvg = (testAvg * 0.4) + (examAvg * 0.6);
-    
-                if (row.length > 2) {
-                    row[2] = String.format("%.2f", weightedAvg);
-                }
-    
-                writer.println(String.join(",", row));
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-            return;
-        }
-    
-        File assessmentsFile = new File("database/assessments.txt");
-        List<String> updatedLines = new ArrayList<>();
-    
-        try (BufferedReader reader = new BufferedReader(new FileReader(assessmentsFile))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (!line.startsWith(assessmentID + ",")) {
-                    updatedLines.add(line);
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-            return;
-        }
-    
-        try (PrintWriter writer = new PrintWriter(assessmentsFile)) {
-            for (String updatedLine : updatedLines) {
-                writer.println(updatedLine);
-            }
+            assessmentController.deleteAssessment(assessmentID);
         } catch (IOException e) {
             e.printStackTrace();
             return;
+        } finally {
+            gradebooks.invalidate(courseID);
         }
     
         if (onSave != null) onSave.run();
@@ -297,148 +235,89 @@ public class GradebookController {
     
     
 
-    public void openGradeEntryDialog(JFrame parent, Course course, Assessment assessment, Runnable onSaveCallback){
-      new GradeEntryForm(parent, course, this, assessment, onSaveCallback).setVisible(true);
-    }
-  
-    public void addAssessmentToGradebook(String courseID, String columnHeader) {
-      File file = new File("database/grades/" + courseID + "_gradebook.txt");
-      if (!file.exists()) return;
-  
-      List<String[]> rows = new ArrayList<>();
-  
-      try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-          String line;
-          while ((line = reader.readLine()) != null) {
-              rows.add(line.split(",", -1));
-          }
-      } catch (IOException e) {
-          e.printStackTrace();
-          return;
-      }
-  
-      if (!rows.isEmpty()) {
-          String[] headerRow = rows.get(0);
-          String[] newHeader = Arrays.copyOf(headerRow, headerRow.length + 1);
-          newHeader[newHeader.length - 1] = columnHeader;
-          rows.set(0, newHeader);
-      }
-  
-      for (int i = 1; i < rows.size(); i++) {
-          String[] row = rows.get(i);
-          String[] newRow = Arrays.copyOf(row, row.length + 1);
-          newRow[newRow.length - 1] = ""; 
-          rows.set(i, newRow);
-      }
-  
-      try (PrintWriter writer = new PrintWriter(file)) {
-          for (String[] row : rows) {
-              writer.println(String.join(",", row));
-          }
-      } catch (IOException e) {
-          e.printStackTrace();
-      }
-  }
-
-  private String getAssessmentNameByID(String id) {
-    for (Assessment a : new AssessmentController().getAllAssessments()) {
-        if (a.getId().equals(id)) return a.getName();
+    public void openGradeEntryDialog(JFrame parent, Course course, Assessment assessment, Runnable onSaveCallback) {
+        new GradeEntryForm(parent, course, this, assessment, onSaveCallback).setVisible(true);
     }
-    return "";
-  }
-
-  public Map<String, String> getGradesForAssessment(Course course, String assessmentID) {
-    Map<String, String> grades = new HashMap<>();
-    File file = new File("database/grades/" + course.getCourseID() + "_gradebook.txt");
 
-    try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-        String[] headers = reader.readLine().split(",", -1);
+    public void addAssessmentToGradebook(String courseID, String columnHeader) {
+        try {
+            synchronized (gradebooks) {
+                GradebookTable table = gradebooks.get(courseID);
+                if (table == null) return;
 
-        String displayColumn = assessmentID + " - " + getAssessmentNameByID(assessmentID);
-        int index = Arrays.asList(headers).indexOf(displayColumn);
-        if (index == -1) return grades;
-
-        String line;
-        while ((line = reader.readLine()) != null) {
-            String[] parts = line.split(",", -1);
-            if (parts.length > index) {
-                grades.put(parts[0], parts[index]); 
+                table.addAssessment(columnHeader);
+                gradebooks.save(courseID, table);
             }
+        } catch (IOException e) {
+            e.printStackTrace();
         }
-    } catch (IOException e) {
-        e.printStackTrace();
     }
 
-    return grades;
+    private String getAssessmentNameByID(String id) {
+        return assessmentController.getAssessmentName(id);
     }
 
-    public void updateAssessmentNameInGradebook(String courseID, Assessment updatedAssessment) {
-        File file = new File("database/grades/" + courseID + "_gradebook.txt");
-    
-        if (!file.exists()) return;
-    
-        List<String> lines = new ArrayList<>();
-    
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String[] headers = reader.readLine().split(",", -1);
-    
-            for (int i = 0; i < headers.length; i++) {
-                if (headers[i].startsWith(updatedAssessment.getId())) {
-                    headers[i] = updatedAssessment.getId() + " - " + updatedAssessment.getName();
-                    break;
-                }
-            }
-    
-            lines.add(String.join(",", headers));
-    
-            String line;
-            while ((line = reader.readLine()) != null) {
-                lines.add(line);
+    /**
+     * GETGRADESFORASSESSMENT
+     * - Student ID -> score text for one assessment column, read under the store's lock
+     */
+    public Map<String, String> getGradesForAssessment(Course course, String assessmentID) {
+        String displayColumn = assessmentID + " - " + getAssessmentNameByID(assessmentID);
+        try {
+            synchronized (gradebooks) {
+                GradebookTable table = gradebooks.get(course.getCourseID());
+                if (table == null) return new HashMap<>();
+
+                int index = table.findAssessmentColumn(displayColumn);
+                if (index == -1) return new HashMap<>();
+
+                return table.getAssessmentCells(index);
             }
-    
         } catch (IOException e) {
             e.printStackTrace();
-            return;
+            return new HashMap<>();
         }
-    
-        try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
-            for (String line : lines) {
-                writer.println(line);
+    }
+
+    public void updateAssessmentNameInGradebook(String courseID, Assessment updatedAssessment) {
+        try {
+            synchronized (gradebooks) {
+                GradebookTable table = gradebooks.get(courseID);
+                if (table == null) return;
+
+                int index = table.findAssessmentColumnByID(updatedAssessment.getId());
+                if (index == -1) return;
+
+                table.renameAssessment(index, updatedAssessment.getId() + " - " + updatedAssessment.getName());
+                gradebooks.save(courseID, table);
             }
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * GETSTUDENTAVERAGESFORCOURSE
+     * - Student ID -> stored average, read under the store's lock
+     */
     public Map<String, Double> getStudentAveragesForCourse(String courseID) {
         Map<String, Double> averages = new HashMap<>();
-        File file = new File("database/grades/" + courseID + "_gradebook.txt");
-    
-        if (!file.exists()) return averages;
-    
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String header = reader.readLine();
-    
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",", -1);
-                if (parts.length > 2) {
-                    String studentID = parts[0].trim();
-                    String averageStr = parts[2].trim(); 
-                    try {
-                        double avg = Double.parseDouble(averageStr);
-                        averages.put(studentID, avg);
-                    } catch (NumberFormatException ignored) {
 
+        try {
+            synchronized (gradebooks) {
+                GradebookTable table = gradebooks.get(courseID);
+                if (table == null) return averages;
+
+                for (int row = 0; row < table.getRowCount(); row++) {
+                    if (table.hasScore(row, GradebookTable.AVERAGE_COLUMN)) {
+                        averages.put(table.getStudentID(row).trim(), table.getScore(row, GradebookTable.AVERAGE_COLUMN));
                     }
                 }
             }
         } catch (IOException e) {
             e.printStackTrace();
         }
-    
+
         return averages;
     }
-    
-  
 }
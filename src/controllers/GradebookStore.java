@@ -0,0 +1,138 @@
+package controllers;
+
+import utils.CsvReader;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * GRADEBOOK STORE
+ * - Keeps one GradebookTable per course, imported from its StorageBackend table on first use.
+ * - Each cached table remembers the table's stamp; if another writer (enrollment, roster
+ *   removal) changes the table, the next access re-imports it.
+ * - save replaces the whole table; saveRows writes only the given students' records.
+ * - Cached tables are shared. Code that edits one in place holds this store's lock around the
+ *   edit and the save (synchronized (store) { ... }), and background readers copy rows out
+ *   with snapshot, so a reader never sees half an edit.
+ */
+public class GradebookStore {
+    private final StorageBackend storage;
+    private final Map<String, CachedTable> tables = new HashMap<>();
+
+    public GradebookStore() {
+        this(StorageBackend.getInstance());
+    }
+
+    public GradebookStore(StorageBackend storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * EXISTS
+     * - True if the course has a gradebook table.
+     */
+    public boolean exists(String courseID) {
+        return storage.exists(tableFor(courseID));
+    }
+
+    /**
+     * GET
+     * - Returns the course's table, or null if it has no gradebook.
+     */
+    public synchronized GradebookTable get(String courseID) throws IOException {
+        String name = tableFor(courseID);
+        if (!storage.exists(name)) {
+            tables.remove(courseID);
+            return null;
+        }
+
+        Object stamp = storage.getStamp(name);
+        CachedTable cached = tables.get(courseID);
+        if (cached != null && cached.stamp.equals(stamp)) {
+            return cached.table;
+        }
+
+        GradebookTable table = GradebookTable.fromCSV(storage.read(name));
+        tables.put(courseID, new CachedTable(table, stamp));
+        return table;
+    }
+
+    /**
+     * SNAPSHOT
+     * - Header row followed by one row per student, copied under the store's lock; empty if
+     *   the course has no gradebook file.
+     */
+    public synchronized List<String[]> snapshot(String courseID) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        GradebookTable table = get(courseID);
+        if (table == null) return rows;
+
+        rows.add(table.getHeaders().toArray(new String[0]));
+        for (int row = 0; row < table.getRowCount(); row++) {
+            String[] cells = new String[table.getColumnCount()];
+            for (int col = 0; col < cells.length; col++) {
+                cells[col] = table.getCell(row, col);
+            }
+            rows.add(cells);
+        }
+        return rows;
+    }
+
+    /**
+     * SAVE
+     * - Exports the whole table to the course's gradebook and caches it as current.
+     * - On failure the cached copy is dropped, so the next read comes from storage.
+     */
+    public synchronized void save(String courseID, GradebookTable table) throws IOException {
+        String name = tableFor(courseID);
+        try {
+            storage.replaceAll(name, table.toCSV());
+        } catch (IOException e) {
+            tables.remove(courseID);
+            throw e;
+        }
+        tables.put(courseID, new CachedTable(table, storage.getStamp(name)));
+    }
+
+    /**
+     * SAVEROWS
+     * - Writes only the given rows' records, e.g. after editing a few students' scores;
+     *   the table's columns must be unchanged since it was read or saved.
+     */
+    public synchronized void saveRows(String courseID, GradebookTable table, Collection<Integer> rows) throws IOException {
+        String name = tableFor(courseID);
+        TableChanges changes = new TableChanges();
+        for (int row : rows) {
+            changes.put(table.getStudentID(row), table.rowToCSV(row));
+        }
+        try {
+            storage.commit(Collections.singletonMap(name, changes), Collections.emptyMap());
+        } catch (IOException e) {
+            tables.remove(courseID);
+            throw e;
+        }
+        tables.put(courseID, new CachedTable(table, storage.getStamp(name)));
+    }
+
+    /**
+     * INVALIDATE
+     * - Forgets a cached table, e.g. after writing its file as part of a larger transaction.
+     */
+    public synchronized void invalidate(String courseID) {
+        tables.remove(courseID);
+    }
+
+    private static String tableFor(String courseID) {
+        return StorageBackend.gradebookTable(courseID);
+    }
+
+    private static class CachedTable {
+        final GradebookTable table;
+        final Object stamp;
+
+        CachedTable(GradebookTable table, Object stamp) {
+            this.table = table;
+            this.stamp = stamp;
+        }
+    }
+}
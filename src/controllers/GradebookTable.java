@@ -0,0 +1,399 @@
+package controllers;
+
+import utils.CsvReader;
+import utils.CsvWriter;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * GRADEBOOK TABLE
+ * - Column-oriented, in-memory form of one course's gradebook.
+ * - Each assessment is a double[] of scores indexed by student row, plus a BitSet of rows that have a score.
+ * - Adding, renaming or removing an assessment touches only that column.
+ * - The average column is kept current by a WeightedAverage: changing one score updates
+ *   that student's running sums and average without rescanning the row.
+ * - The "<course>_gradebook.txt" CSV is the import/export format (fromCSV / toCSV).
+ */
+public class GradebookTable {
+    public static final int ID_COLUMN = 0;
+    public static final int NAME_COLUMN = 1;
+    public static final int AVERAGE_COLUMN = 2;
+    public static final int FIRST_ASSESSMENT_COLUMN = 3;
+
+    private static final String[] DEFAULT_HEADERS = {"Student ID", "Student Name", "Average"};
+
+    private final String[] fixedHeaders = DEFAULT_HEADERS.clone();
+    private final List<String> studentIDs = new ArrayList<>();
+    private final List<String> studentNames = new ArrayList<>();
+    private final Map<String, Integer> rowByStudent = new HashMap<>();
+    private final Column average = new Column("Average", true);
+    private final List<Column> assessments = new ArrayList<>();
+    private final WeightedAverage averages = new WeightedAverage();
+
+    // =============================
+    // CSV IMPORT / EXPORT
+    // =============================
+
+    public static GradebookTable fromCSV(List<String> lines) {
+        return fromCSV(CsvReader.of(String.join("\n", lines)));
+    }
+
+    /**
+     * FROMCSV
+     * - Builds a table from a gradebook file; short rows are padded with blanks.
+     * - Scores are parsed straight from the reader, so only IDs and names become Strings.
+     * - Averages are taken from the file as written; the running sums are built once here.
+     */
+    public static GradebookTable fromCSV(CsvReader reader) {
+        GradebookTable table = new GradebookTable();
+        if (!reader.next()) return table;
+
+        int headerCount = reader.getFieldCount();
+        for (int i = 0; i < Math.min(headerCount, FIRST_ASSESSMENT_COLUMN); i++) {
+            table.fixedHeaders[i] = reader.getString(i);
+        }
+        for (int i = FIRST_ASSESSMENT_COLUMN; i < headerCount; i++) {
+            table.assessments.add(new Column(reader.getString(i), false));
+        }
+
+        while (reader.next()) {
+            if (reader.isBlankLine()) continue;
+            int row = table.addStudent(reader.getString(ID_COLUMN), reader.getString(NAME_COLUMN));
+            int cells = Math.min(reader.getFieldCount(), headerCount);
+            if (reader.getFieldCount() > AVERAGE_COLUMN) table.average.read(row, reader, AVERAGE_COLUMN);
+            for (int col = FIRST_ASSESSMENT_COLUMN; col < cells; col++) {
+                table.assessments.get(col - FIRST_ASSESSMENT_COLUMN).read(row, reader, col);
+            }
+        }
+        for (Column column : table.assessments) {
+            table.addToAverages(column);
+        }
+        return table;
+    }
+
+    /**
+     * TOCSV
+     * - Writes the table back out in the gradebook file layout.
+     */
+    public List<String> toCSV() {
+        List<String> lines = new ArrayList<>(studentIDs.size() + 1);
+        CsvWriter writer = new CsvWriter();
+        lines.add(writer.fields(getHeaders()).endRecord());
+
+        for (int row = 0; row < studentIDs.size(); row++) {
+            lines.add(writeRow(writer, row));
+        }
+        return lines;
+    }
+
+    /**
+     * ROWTOCSV
+     * - One student's record, as it appears in the gradebook file.
+     */
+    public String rowToCSV(int row) {
+        return writeRow(new CsvWriter(), row);
+    }
+
+    private String writeRow(CsvWriter writer, int row) {
+        writer.field(studentIDs.get(row)).field(studentNames.get(row)).field(average.get(row));
+        for (Column column : assessments) {
+            writer.field(column.get(row));
+        }
+        return writer.endRecord();
+    }
+
+    // =============================
+    // STRUCTURE
+    // =============================
+
+    public List<String> getHeaders() {
+        List<String> headers = new ArrayList<>(FIRST_ASSESSMENT_COLUMN + assessments.size());
+        headers.addAll(Arrays.asList(fixedHeaders));
+        for (Column column : assessments) {
+            headers.add(column.header);
+        }
+        return headers;
+    }
+
+    public int getColumnCount() {
+        return FIRST_ASSESSMENT_COLUMN + assessments.size();
+    }
+
+    public int getRowCount() {
+        return studentIDs.size();
+    }
+
+    public String getStudentID(int row) {
+        return studentIDs.get(row);
+    }
+
+    public String getStudentName(int row) {
+        return studentNames.get(row);
+    }
+
+    /**
+     * ROWOF
+     * - Row index of a student, or -1.
+     */
+    public int rowOf(String studentID) {
+        Integer row = rowByStudent.get(studentID);
+        return row != null ? row : -1;
+    }
+
+    /**
+     * ADDSTUDENT
+     * - Appends a row with no scores and returns its index; an existing student keeps its row.
+     */
+    public int addStudent(String studentID, String name) {
+        Integer existing = rowByStudent.get(studentID);
+        if (existing != null) return existing;
+
+        int row = studentIDs.size();
+        studentIDs.add(studentID);
+        studentNames.add(name);
+        rowByStudent.put(studentID, row);
+        return row;
+    }
+
+    /**
+     * FINDASSESSMENTCOLUMN
+     * - Table column of the assessment whose header is exactly the given text, or -1.
+     */
+    public int findAssessmentColumn(String header) {
+        for (int i = 0; i < assessments.size(); i++) {
+            if (assessments.get(i).header.equals(header)) return FIRST_ASSESSMENT_COLUMN + i;
+        }
+        return -1;
+    }
+
+    /**
+     * FINDASSESSMENTCOLUMNBYID
+     * - Table column whose header starts with the assessment ID ("T1234 - Quiz 1"), or -1.
+     */
+    public int findAssessmentColumnByID(String assessmentID) {
+        for (int i = 0; i < assessments.size(); i++) {
+            if (assessments.get(i).header.startsWith(assessmentID)) return FIRST_ASSESSMENT_COLUMN + i;
+        }
+        return -1;
+    }
+
+    /**
+     * ADDASSESSMENT / REMOVEASSESSMENT / RENAMEASSESSMENT
+     * - Column-level edits; the other columns are left untouched.
+     * - Removing a column, or renaming it into another category, updates the averages of
+     *   the students who had a score in it.
+     */
+    public int addAssessment(String header) {
+        assessments.add(new Column(header, false));
+        return FIRST_ASSESSMENT_COLUMN + assessments.size() - 1;
+    }
+
+    public void removeAssessment(int column) {
+        Column removed = assessments.remove(column - FIRST_ASSESSMENT_COLUMN);
+        removeFromAverages(removed);
+        refreshAverages(removed);
+    }
+
+    public void renameAssessment(int column, String header) {
+        Column target = assessments.get(column - FIRST_ASSESSMENT_COLUMN);
+        WeightedAverage.Category category = WeightedAverage.Category.of(header);
+        if (category != target.category) {
+            removeFromAverages(target);
+            target.category = category;
+            addToAverages(target);
+            refreshAverages(target);
+        }
+        target.header = header;
+    }
+
+    // =============================
+    // CELLS
+    // =============================
+
+    /**
+     * GETCELL / SETCELL
+     * - Text view of any cell, as it appears in the CSV.
+     */
+    public String getCell(int row, int column) {
+        switch (column) {
+            case ID_COLUMN: return studentIDs.get(row);
+            case NAME_COLUMN: return studentNames.get(row);
+            case AVERAGE_COLUMN: return average.get(row);
+            default: return assessments.get(column - FIRST_ASSESSMENT_COLUMN).get(row);
+        }
+    }
+
+    public void setCell(int row, int column, String value) {
+        switch (column) {
+            case ID_COLUMN:
+                rowByStudent.remove(studentIDs.get(row));
+                studentIDs.set(row, value);
+                rowByStudent.put(value, row);
+                break;
+            case NAME_COLUMN:
+                studentNames.set(row, value);
+                break;
+            case AVERAGE_COLUMN:
+                average.set(row, value);
+                break;
+            default:
+                setAssessmentCell(assessments.get(column - FIRST_ASSESSMENT_COLUMN), row, value);
+        }
+    }
+
+    /**
+     * SETASSESSMENTCELL
+     * - Swaps the old score for the new one in the student's running sums and rewrites their average.
+     */
+    private void setAssessmentCell(Column column, int row, String value) {
+        if (column.present.get(row)) averages.remove(row, column.category, column.values[row]);
+        column.set(row, value);
+        if (column.present.get(row)) averages.add(row, column.category, column.values[row]);
+        if (column.category != WeightedAverage.Category.NONE) refreshAverage(row);
+    }
+
+    /**
+     * HASSCORE / GETSCORE
+     * - Numeric access to an assessment or average column without any string parsing.
+     */
+    public boolean hasScore(int row, int column) {
+        return columnAt(column).present.get(row);
+    }
+
+    public double getScore(int row, int column) {
+        return columnAt(column).values[row];
+    }
+
+    public void setAverage(int row, double value) {
+        average.setScore(row, value);
+    }
+
+    /**
+     * RECOMPUTEAVERAGES
+     * - Writes the weighted average of every student into the average column,
+     *   e.g. after importing a file whose averages were worked out another way.
+     */
+    public void recomputeAverages() {
+        for (int row = 0; row < studentIDs.size(); row++) {
+            refreshAverage(row);
+        }
+    }
+
+    /**
+     * GETASSESSMENTCELLS
+     * - Student ID -> cell text for one assessment column; other columns are not read.
+     */
+    public Map<String, String> getAssessmentCells(int column) {
+        Column source = columnAt(column);
+        Map<String, String> cells = new HashMap<>();
+        for (int row = 0; row < studentIDs.size(); row++) {
+            cells.put(studentIDs.get(row), source.get(row));
+        }
+        return cells;
+    }
+
+    // =============================
+    // AVERAGE MAINTENANCE
+    // =============================
+
+    private void addToAverages(Column column) {
+        for (int row = column.present.nextSetBit(0); row >= 0; row = column.present.nextSetBit(row + 1)) {
+            averages.add(row, column.category, column.values[row]);
+        }
+    }
+
+    private void removeFromAverages(Column column) {
+        for (int row = column.present.nextSetBit(0); row >= 0; row = column.present.nextSetBit(row + 1)) {
+            averages.remove(row, column.category, column.values[row]);
+        }
+    }
+
+    private void refreshAverages(Column column) {
+        for (int row = column.present.nextSetBit(0); row >= 0; row = column.present.nextSetBit(row + 1)) {
+            refreshAverage(row);
+        }
+    }
+
+    private void refreshAverage(int row) {
+        average.setScore(row, averages.average(row));
+    }
+
+    private Column columnAt(int column) {
+        if (column == AVERAGE_COLUMN) return average;
+        return assessments.get(column - FIRST_ASSESSMENT_COLUMN);
+    }
+
+    /**
+     * COLUMN
+     * - One column of scores: primitive values, a presence bitmap, and the rare
+     *   non-numeric entry kept as text so a CSV round trip loses nothing.
+     * - The average column is always written with two decimals.
+     */
+    private static class Column {
+        String header;
+        WeightedAverage.Category category;
+        double[] values = new double[16];
+        final BitSet present = new BitSet();
+        final boolean twoDecimals;
+        Map<Integer, String> text;
+
+        Column(String header, boolean twoDecimals) {
+            this.header = header;
+            this.category = WeightedAverage.Category.of(header);
+            this.twoDecimals = twoDecimals;
+        }
+
+        String get(int row) {
+            if (present.get(row)) {
+                return twoDecimals ? String.format("%.2f", values[row]) : formatScore(values[row]);
+            }
+            if (text != null) {
+                String raw = text.get(row);
+                if (raw != null) return raw;
+            }
+            return "";
+        }
+
+        void set(int row, String value) {
+            String trimmed = value == null ? "" : value.trim();
+            if (text != null) text.remove(row);
+            if (trimmed.isEmpty()) {
+                present.clear(row);
+                return;
+            }
+            try {
+                setScore(row, Double.parseDouble(trimmed));
+            } catch (NumberFormatException e) {
+                present.clear(row);
+                if (text == null) text = new HashMap<>();
+                text.put(row, trimmed);
+            }
+        }
+
+        void read(int row, CsvReader reader, int field) {
+            if (reader.isEmpty(field)) return;
+            try {
+                setScore(row, reader.getDouble(field));
+            } catch (NumberFormatException e) {
+                if (text == null) text = new HashMap<>();
+                text.put(row, reader.getString(field));
+            }
+        }
+
+        void setScore(int row, double value) {
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, Math.max(row + 1, values.length * 2));
+            }
+            values[row] = value;
+            present.set(row);
+        }
+
+        private static String formatScore(double value) {
+            if (value == Math.rint(value) && !Double.isInfinite(value)) {
+                return String.valueOf((long) value);
+            }
+            return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+        }
+    }
+}
@@ -0,0 +1,1295 @@
+package controllers;
+
+import utils.CsvReader;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * PAGED STORAGE
+ * - Binary backend: each table is one file of fixed 4 KB pages under database/store/.
+ * - Per-course tables live in subfolders (store/grades/, store/attendance/).
+ * - Page 0 is the header; the other pages are B+tree nodes keyed by the record's primary key,
+ *   overflow pages holding long records, and freed pages waiting to be reused.
+ * - Leaves are chained left to right, so a full read visits each leaf once.
+ * - Each record keeps the sequence number it was first added with, so read() returns the
+ *   table in the same order a text file would, while lookups and edits go by key.
+ * - A put or delete dirties only the pages on one root-to-leaf path (plus any split) and commits
+ *   them with a rollback journal: the original pages are written to <table>.db-journal and fsynced,
+ *   the new pages are written in place and fsynced, then the journal is removed. A table opened
+ *   with a complete journal left behind has those pages restored first.
+ * - Deletes do not merge underfull leaves; replaceAll rebuilds a table compactly.
+ * - Whole tables (replaceAll, and the import of a table with no page file from the text backend)
+ *   are bulk-built bottom-up: records are sorted by key once, leaves are packed left to right,
+ *   then each level of internal nodes is built from the one below, written straight to a new file.
+ * - commit changes several tables and DataStore files as one unit through store/batch.log
+ *   (see COMMIT); a batch interrupted by a crash is finished or undone when the store is opened.
+ */
+public class PagedStorage implements StorageBackend {
+    static final int PAGE_SIZE = 4096;
+    private static final int MAGIC = 0x4D524350;
+    private static final int JOURNAL_MAGIC = 0x4D52434A;
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAX_KEY_BYTES = 255;
+    private static final int INLINE_VALUE_LIMIT = 600;
+    private static final int CACHED_PAGES = 256;
+    private static final int BULK_FILL_LIMIT = PAGE_SIZE - PAGE_SIZE / 8;
+    private static final String FILE_EXTENSION = ".db";
+    private static final String JOURNAL_SUFFIX = "-journal";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String BATCH_LOG = "batch.log";
+    private static final String BATCH_JOURNAL_SUFFIX = "-batch-journal";
+    private static final String BATCH_BUILD_SUFFIX = "-batch-new";
+    private static final int BATCH_MAGIC = 0x4D524342;
+    private static final int BATCH_COMMITTED = 0x4D524344;
+
+    private static final byte LEAF = 1;
+    private static final byte INTERNAL = 2;
+
+    private final Path directory;
+    private final Path batchLog;
+    private final StorageBackend importSource;
+    private final Map<String, Table> tables = new HashMap<>();
+
+    public PagedStorage(Path directory, StorageBackend importSource) {
+        this.directory = directory;
+        this.batchLog = directory.resolve(BATCH_LOG);
+        this.importSource = importSource;
+        try {
+            recoverBatch();
+        } catch (IOException e) {
+            System.err.println("Error recovering storage batch " + batchLog + ": " + e.getMessage());
+        }
+    }
+
+    public Path fileFor(String table) {
+        return directory.resolve(table + FILE_EXTENSION);
+    }
+
+    // =============================
+    // READS
+    // =============================
+
+    @Override
+    public synchronized CsvReader read(String table) throws IOException {
+        Table t = find(table);
+        return CsvReader.of(t != null ? t.scan() : new byte[0]);
+    }
+
+    @Override
+    public synchronized String get(String table, String key) throws IOException {
+        Table t = find(table);
+        byte[] value = t != null ? t.get(keyBytes(key)) : null;
+        return value != null ? new String(value, StandardCharsets.UTF_8) : null;
+    }
+
+    @Override
+    public synchronized Object getStamp(String table) throws IOException {
+        Table t = find(table);
+        return t != null ? t.changeCounter : null;
+    }
+
+    @Override
+    public synchronized boolean exists(String table) {
+        return tables.containsKey(table) || Files.exists(fileFor(table))
+            || (importSource != null && importSource.exists(table));
+    }
+
+    /**
+     * LIST
+     * - Tables with a page file, plus those still waiting to be imported from the text backend.
+     */
+    @Override
+    public synchronized List<String> list(String folder) throws IOException {
+        SortedSet<String> names = new TreeSet<>();
+        if (importSource != null) names.addAll(importSource.list(folder));
+        Path dir = directory.resolve(folder);
+        if (Files.isDirectory(dir)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + FILE_EXTENSION)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    names.add(folder + name.substring(0, name.length() - FILE_EXTENSION.length()));
+                }
+            }
+        }
+        return new ArrayList<>(names);
+    }
+
+    // =============================
+    // WRITES
+    // =============================
+
+    @Override
+    public synchronized void put(String table, String key, String record) throws IOException {
+        Table t = table(table);
+        byte[] k = keyBytes(key);
+        byte[] value = record.getBytes(StandardCharsets.UTF_8);
+        t.apply(() -> {
+            t.put(k, value);
+            return null;
+        });
+    }
+
+    @Override
+    public synchronized boolean delete(String table, String key) throws IOException {
+        Table t = find(table);
+        if (t == null) return false;
+        byte[] k = keyBytes(key);
+        return t.apply(() -> t.delete(k));
+    }
+
+    @Override
+    public synchronized void replaceAll(String table, List<String> records) throws IOException {
+        rebuild(table, records);
+    }
+
+    /**
+     * COMMIT
+     * - Changes every table and publishes the files as one unit:
+     *   1. store/batch.log records the tables about to change and the files' current contents,
+     *      and is fsynced before anything else is touched;
+     *   2. a replaced table (or one not imported yet) is bulk-built into <table>.db-batch-new;
+     *      any other table has its puts and deletes written in place, touching only their
+     *      root-to-leaf paths, with the original pages kept in <table>.db-batch-journal;
+     *   3. the files are published through the DataStore;
+     *   4. a commit mark is appended to the batch log and fsynced, after which the batch stands;
+     *   5. the new builds are moved into place, the batch journals removed and the log cleared.
+     * - A failure before the commit mark puts every table back. After a crash, opening the store
+     *   finishes a marked batch and undoes any other, files included.
+     */
+    @Override
+    public synchronized void commit(Map<String, TableChanges> changes, Map<Path, List<String>> files) throws IOException {
+        Map<String, List<String>> builds = new LinkedHashMap<>();
+        Map<String, TableChanges> edits = new LinkedHashMap<>();
+        for (Map.Entry<String, TableChanges> entry : changes.entrySet()) {
+            String name = entry.getKey();
+            TableChanges staged = entry.getValue();
+            if (staged.replacesAll()) {
+                builds.put(name, staged.applyTo(Collections.emptyList()));
+            } else if (staged.edits().isEmpty()) {
+                continue;
+            } else if (!tables.containsKey(name) && !Files.exists(fileFor(name))) {
+                builds.put(name, staged.applyTo(importRecords(name)));
+            } else {
+                edits.put(name, staged);
+            }
+        }
+        if (builds.isEmpty() && edits.isEmpty()) {
+            DataStore.getInstance().commit(files);
+            return;
+        }
+
+        Map<Path, byte[]> originals = new LinkedHashMap<>();
+        for (Path file : files.keySet()) {
+            originals.put(file, Files.exists(file) ? Files.readAllBytes(file) : null);
+        }
+        Batch batch = new Batch(new ArrayList<>(builds.keySet()), new ArrayList<>(edits.keySet()), originals);
+        writeBatch(batch);
+
+        try {
+            for (Map.Entry<String, List<String>> entry : builds.entrySet()) {
+                buildInto(entry.getKey(), entry.getValue(), batchBuildOf(fileFor(entry.getKey())));
+            }
+            for (Map.Entry<String, TableChanges> entry : edits.entrySet()) {
+                Table t = table(entry.getKey());
+                t.stage(() -> {
+                    for (Map.Entry<String, String> edit : entry.getValue().edits().entrySet()) {
+                        byte[] k = keyBytes(edit.getKey());
+                        if (edit.getValue() == null) t.delete(k);
+                        else t.put(k, edit.getValue().getBytes(StandardCharsets.UTF_8));
+                    }
+                    return null;
+                }, batchJournalOf(t.file));
+            }
+            DataStore.getInstance().commit(files);
+        } catch (IOException | RuntimeException e) {
+            try {
+                rollBack(batch, false);
+                clearBatchLog();
+            } catch (IOException restoreError) {
+                e.addSuppressed(restoreError);
+            }
+            throw e;
+        }
+
+        markCommitted();
+        rollForward(batch);
+        clearBatchLog();
+    }
+
+    /**
+     * DROP / RENAME
+     * - Also drop or rename the table's text copy, so it is not imported again later.
+     */
+    @Override
+    public synchronized boolean drop(String table) throws IOException {
+        closeTable(table);
+        Path file = fileFor(table);
+        boolean dropped = Files.deleteIfExists(file);
+        Files.deleteIfExists(journalOf(file));
+        if (importSource != null) dropped |= importSource.drop(table);
+        return dropped;
+    }
+
+    @Override
+    public synchronized boolean rename(String table, String newName) throws IOException {
+        closeTable(table);
+        closeTable(newName);
+        Path file = fileFor(table);
+        boolean renamed = false;
+        if (Files.exists(file)) {
+            Path target = fileFor(newName);
+            Files.createDirectories(target.getParent());
+            Files.deleteIfExists(journalOf(target));
+            Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+            renamed = true;
+        }
+        if (importSource != null) renamed |= importSource.rename(table, newName);
+        return renamed;
+    }
+
+    private void closeTable(String table) throws IOException {
+        Table open = tables.remove(table);
+        if (open != null) open.close();
+    }
+
+    /**
+     * CLOSE
+     * - Closes every open table file; the next access reopens it.
+     */
+    public synchronized void close() throws IOException {
+        for (Table table : tables.values()) {
+            table.close();
+        }
+        tables.clear();
+    }
+
+    // =============================
+    // TABLE FILES
+    // =============================
+
+    /**
+     * FIND / TABLE
+     * - find opens a table that has a page file, importing it first if only the text backend has
+     *   it, and returns null if neither has it; reads go through find, so they never create a table.
+     * - table does the same but creates a missing table empty; only writes use it.
+     */
+    private Table find(String name) throws IOException {
+        if (!tables.containsKey(name) && !Files.exists(fileFor(name))
+                && (importSource == null || !importSource.exists(name))) {
+            return null;
+        }
+        return table(name);
+    }
+
+    private Table table(String name) throws IOException {
+        Table table = tables.get(name);
+        if (table != null) return table;
+
+        Path file = fileFor(name);
+        if (!Files.exists(file)) {
+            return rebuild(name, importRecords(name));
+        }
+        table = new Table(file);
+        tables.put(name, table);
+        return table;
+    }
+
+    private List<String> importRecords(String name) throws IOException {
+        List<String> records = new ArrayList<>();
+        if (importSource == null) return records;
+
+        CsvReader reader = importSource.read(name);
+        while (reader.next()) {
+            if (!reader.isBlankLine()) records.add(reader.getLine());
+        }
+        return records;
+    }
+
+    /**
+     * REBUILD
+     * - Bulk-builds the records into a fresh page file next to the table and moves it into place.
+     * - The change counter carries on from the old table, so cached stamps still see the change.
+     */
+    private Table rebuild(String name, List<String> records) throws IOException {
+        Path file = fileFor(name);
+        Path temp = file.resolveSibling(file.getFileName() + TEMP_SUFFIX);
+        buildInto(name, records, temp);
+        return install(name, temp);
+    }
+
+    /**
+     * BUILDINTO
+     * - Bulk-builds a table's records into the given file without touching the table itself.
+     */
+    private void buildInto(String name, List<String> records, Path target) throws IOException {
+        Path file = fileFor(name);
+        Files.createDirectories(file.getParent());
+
+        long changeCounter = 0;
+        Table open = tables.get(name);
+        if (open != null) {
+            changeCounter = open.changeCounter + 1;
+        } else if (Files.exists(file)) {
+            try (Table old = new Table(file)) {
+                changeCounter = old.changeCounter + 1;
+            }
+        }
+
+        Files.deleteIfExists(target);
+        build(target, records, changeCounter);
+    }
+
+    /**
+     * INSTALL
+     * - Moves a built file into place as the table and opens it.
+     */
+    private Table install(String name, Path built) throws IOException {
+        closeTable(name);
+        Path file = fileFor(name);
+        Files.deleteIfExists(journalOf(file));
+        try {
+            Files.move(built, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(built, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        Table table = new Table(file);
+        tables.put(name, table);
+        return table;
+    }
+
+    // =============================
+    // BATCHES
+    // =============================
+    // - Batch log: batch magic, built table names, edited table names, then (path, length or -1
+    //   if the file did not exist, bytes) per file, then a CRC32 of the body; a commit mark follows
+    //   once the batch stands.
+
+    private void writeBatch(Batch batch) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(body);
+        writeNames(out, batch.built);
+        writeNames(out, batch.edited);
+        out.writeInt(batch.originals.size());
+        for (Map.Entry<Path, byte[]> entry : batch.originals.entrySet()) {
+            out.writeUTF(entry.getKey().toString());
+            out.writeInt(entry.getValue() != null ? entry.getValue().length : -1);
+            if (entry.getValue() != null) out.write(entry.getValue());
+        }
+        out.flush();
+
+        byte[] bodyBytes = body.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bodyBytes);
+        ByteBuffer record = ByteBuffer.allocate(4 + bodyBytes.length + 8);
+        record.putInt(BATCH_MAGIC).put(bodyBytes).putLong(crc.getValue()).flip();
+
+        Files.createDirectories(directory);
+        try (FileChannel channel = FileChannel.open(batchLog, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (record.hasRemaining()) channel.write(record);
+            channel.force(true);
+        }
+    }
+
+    private static void writeNames(DataOutputStream out, List<String> names) throws IOException {
+        out.writeInt(names.size());
+        for (String name : names) out.writeUTF(name);
+    }
+
+    /**
+     * READBATCH
+     * - The batch in the log, or null if its record is torn (nothing had been touched yet).
+     */
+    private Batch readBatch() throws IOException {
+        byte[] bytes = Files.readAllBytes(batchLog);
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            if (in.readInt() != BATCH_MAGIC) return null;
+            List<String> built = readNames(in);
+            List<String> edited = readNames(in);
+            Map<Path, byte[]> originals = new LinkedHashMap<>();
+            int files = in.readInt();
+            for (int i = 0; i < files; i++) {
+                Path path = Paths.get(in.readUTF());
+                int length = in.readInt();
+                byte[] data = null;
+                if (length >= 0) {
+                    data = new byte[length];
+                    in.readFully(data);
+                }
+                originals.put(path, data);
+            }
+
+            int bodyEnd = bytes.length - in.available();
+            CRC32 crc = new CRC32();
+            crc.update(bytes, 4, bodyEnd - 4);
+            if (in.readLong() != crc.getValue()) return null;
+
+            Batch batch = new Batch(built, edited, originals);
+            batch.committed = in.available() >= 4 && in.readInt() == BATCH_COMMITTED;
+            return batch;
+        } catch (EOFException | UTFDataFormatException | NegativeArraySizeException e) {
+            return null;
+        }
+    }
+
+    private static List<String> readNames(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) throw new EOFException();
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) names.add(in.readUTF());
+        return names;
+    }
+
+    private void markCommitted() throws IOException {
+        try (FileChannel channel = FileChannel.open(batchLog, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, BATCH_COMMITTED));
+            channel.force(true);
+        }
+    }
+
+    private void clearBatchLog() throws IOException {
+        if (!Files.exists(batchLog)) return;
+        try (FileChannel channel = FileChannel.open(batchLog, StandardOpenOption.WRITE)) {
+            channel.truncate(0);
+            channel.force(true);
+        }
+    }
+
+    /**
+     * RECOVERBATCH
+     * - Finishes a batch that was marked as committed, or undoes one that was not, then clears the log.
+     * - The DataStore replays its own journal first, so files put back here are not overwritten later.
+     */
+    private synchronized void recoverBatch() throws IOException {
+        if (!Files.exists(batchLog) || Files.size(batchLog) == 0) return;
+
+        Batch batch = readBatch();
+        if (batch != null) {
+            DataStore.getInstance();
+            if (batch.committed) rollForward(batch);
+            else rollBack(batch, true);
+            System.err.println((batch.committed ? "Finished" : "Undid") + " an interrupted storage commit from " + batchLog);
+        }
+        clearBatchLog();
+    }
+
+    /**
+     * ROLLFORWARD
+     * - Moves the batch's new builds into place and drops its page journals.
+     */
+    private void rollForward(Batch batch) throws IOException {
+        for (String name : batch.built) {
+            Path built = batchBuildOf(fileFor(name));
+            if (Files.exists(built)) install(name, built);
+        }
+        for (String name : batch.edited) {
+            Files.deleteIfExists(batchJournalOf(fileFor(name)));
+        }
+    }
+
+    /**
+     * ROLLBACK
+     * - Deletes the batch's new builds and restores its edited tables' original pages; after a
+     *   crash the files are also put back as they were before the batch.
+     */
+    private void rollBack(Batch batch, boolean restoreFiles) throws IOException {
+        for (String name : batch.built) {
+            Files.deleteIfExists(batchBuildOf(fileFor(name)));
+        }
+        for (String name : batch.edited) {
+            Path file = fileFor(name);
+            Path journal = batchJournalOf(file);
+            if (!Files.exists(journal)) continue;
+
+            Table table = tables.remove(name);
+            if (table == null) table = new Table(file);
+            try {
+                table.recover(journal);
+            } finally {
+                table.close();
+            }
+        }
+
+        if (!restoreFiles) return;
+        Map<Path, byte[]> existing = new LinkedHashMap<>();
+        for (Map.Entry<Path, byte[]> entry : batch.originals.entrySet()) {
+            if (entry.getValue() != null) existing.put(entry.getKey(), entry.getValue());
+            else Files.deleteIfExists(entry.getKey());
+        }
+        DataStore.getInstance().commitBytes(existing);
+    }
+
+    private static Path batchJournalOf(Path file) {
+        return file.resolveSibling(file.getFileName() + BATCH_JOURNAL_SUFFIX);
+    }
+
+    private static Path batchBuildOf(Path file) {
+        return file.resolveSibling(file.getFileName() + BATCH_BUILD_SUFFIX);
+    }
+
+    /**
+     * BATCH
+     * - The tables a commit bulk-builds and edits, and the original contents of its files
+     *   (null for a file that did not exist).
+     */
+    private static final class Batch {
+        final List<String> built;
+        final List<String> edited;
+        final Map<Path, byte[]> originals;
+        boolean committed;
+
+        Batch(List<String> built, List<String> edited, Map<Path, byte[]> originals) {
+            this.built = built;
+            this.edited = edited;
+            this.originals = originals;
+        }
+    }
+
+    /**
+     * BUILD
+     * - Writes a complete table file bottom-up from unsorted records.
+     * - A key that appears more than once keeps its first position and its last record,
+     *   the same result as putting the records one by one.
+     */
+    private static void build(Path file, List<String> records, long changeCounter) throws IOException {
+        List<Entry> sorted = new ArrayList<>(records.size());
+        for (String record : records) {
+            String key = keyOf(record);
+            if (key == null) continue;
+            byte[] value = record.getBytes(StandardCharsets.UTF_8);
+            sorted.add(new Entry(keyBytes(key), sorted.size(), value.length, value, 0));
+        }
+        sorted.sort((a, b) -> Arrays.compareUnsigned(a.key, b.key));
+
+        List<Entry> unique = new ArrayList<>(sorted.size());
+        for (Entry entry : sorted) {
+            int last = unique.size() - 1;
+            if (last >= 0 && Arrays.equals(unique.get(last).key, entry.key)) {
+                Entry first = unique.get(last);
+                unique.set(last, new Entry(first.key, first.seq, entry.length, entry.inline, 0));
+            } else {
+                unique.add(entry);
+            }
+        }
+
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            BulkWriter writer = new BulkWriter(out);
+            List<Integer> pages = new ArrayList<>();
+            List<byte[]> firstKeys = new ArrayList<>();
+
+            Node leaf = new Node(writer.allocate(), true);
+            for (Entry entry : unique) {
+                Entry stored = entry.isOverflow()
+                    ? new Entry(entry.key, entry.seq, entry.length, null, writer.writeOverflow(entry.inline))
+                    : entry;
+                if (!leaf.entries.isEmpty() && leaf.encodedSize() + stored.encodedSize() > BULK_FILL_LIMIT) {
+                    Node next = new Node(writer.allocate(), true);
+                    leaf.next = next.page;
+                    writer.write(leaf);
+                    pages.add(leaf.page);
+                    firstKeys.add(leaf.entries.get(0).key);
+                    leaf = next;
+                }
+                leaf.entries.add(stored);
+            }
+            writer.write(leaf);
+            pages.add(leaf.page);
+            firstKeys.add(leaf.entries.isEmpty() ? new byte[0] : leaf.entries.get(0).key);
+
+            while (pages.size() > 1) {
+                List<Integer> parentPages = new ArrayList<>();
+                List<byte[]> parentKeys = new ArrayList<>();
+                Node node = new Node(writer.allocate(), false);
+                node.children.add(pages.get(0));
+                parentPages.add(node.page);
+                parentKeys.add(firstKeys.get(0));
+
+                for (int i = 1; i < pages.size(); i++) {
+                    byte[] key = firstKeys.get(i);
+                    if (node.encodedSize() + 2 + key.length + 4 > BULK_FILL_LIMIT) {
+                        writer.write(node);
+                        node = new Node(writer.allocate(), false);
+                        node.children.add(pages.get(i));
+                        parentPages.add(node.page);
+                        parentKeys.add(key);
+                    } else {
+                        node.keys.add(key);
+                        node.children.add(pages.get(i));
+                    }
+                }
+                writer.write(node);
+                pages = parentPages;
+                firstKeys = parentKeys;
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(PAGE_SIZE);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(PAGE_SIZE)
+                  .putInt(pages.get(0)).putInt(writer.nextPage).putInt(0).putInt(unique.size())
+                  .putLong(sorted.size()).putLong(changeCounter);
+            writer.write(0, header.array());
+            out.force(true);
+        }
+    }
+
+    private static String keyOf(String record) {
+        CsvReader reader = CsvReader.of(record);
+        if (!reader.next() || reader.isBlankLine()) return null;
+        return reader.getString(0);
+    }
+
+    private static byte[] keyBytes(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_KEY_BYTES) {
+            throw new IllegalArgumentException("Key longer than " + MAX_KEY_BYTES + " bytes: " + key);
+        }
+        return bytes;
+    }
+
+    private static Path journalOf(Path file) {
+        return file.resolveSibling(file.getFileName() + JOURNAL_SUFFIX);
+    }
+
+    /**
+     * OPERATION
+     * - One change to a table, committed as a unit by Table.apply.
+     */
+    private interface Operation<T> {
+        T run() throws IOException;
+    }
+
+    /**
+     * TABLE
+     * - One open page file: header fields, page cache, the pages dirtied by the running
+     *   operation, and the B+tree algorithms over them.
+     */
+    private static final class Table implements Closeable {
+        private final Path file;
+        private final Path journal;
+        private final FileChannel channel;
+        private final Map<Integer, byte[]> dirty = new LinkedHashMap<>();
+        private final Map<Integer, byte[]> cache = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, byte[]> eldest) {
+                return size() > CACHED_PAGES;
+            }
+        };
+        private int committedPageCount;
+
+        private int root;
+        private int pageCount;
+        private int freeHead;
+        private int recordCount;
+        private long nextSeq;
+        private long changeCounter;
+
+        Table(Path file) throws IOException {
+            this.file = file;
+            this.journal = journalOf(file);
+            this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                recover(journal);
+                readHeader();
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        // =============================
+        // OPERATIONS
+        // =============================
+
+        /**
+         * APPLY
+         * - Runs an operation and commits the pages it dirtied; on failure nothing is kept.
+         */
+        <T> T apply(Operation<T> operation) throws IOException {
+            return run(operation, journal, false);
+        }
+
+        /**
+         * STAGE
+         * - Like apply, but keeps the original pages in the given batch journal afterwards, so the
+         *   batch can still put them back with recover(batchJournal).
+         */
+        <T> T stage(Operation<T> operation, Path batchJournal) throws IOException {
+            return run(operation, batchJournal, true);
+        }
+
+        private <T> T run(Operation<T> operation, Path journalFile, boolean keepJournal) throws IOException {
+            try {
+                T result = operation.run();
+                commit(journalFile, keepJournal);
+                return result;
+            } catch (IOException | RuntimeException e) {
+                dirty.clear();
+                cache.clear();
+                readHeader();
+                throw e;
+            }
+        }
+
+        byte[] get(byte[] key) throws IOException {
+            Node leaf = decode(root);
+            while (!leaf.leaf) leaf = decode(leaf.children.get(childSlot(leaf, key)));
+            int index = findEntry(leaf.entries, key);
+            return index >= 0 ? valueOf(leaf.entries.get(index)) : null;
+        }
+
+        void put(byte[] key, byte[] value) throws IOException {
+            List<Node> path = new ArrayList<>();
+            List<Integer> slots = new ArrayList<>();
+            Node leaf = decode(root);
+            while (!leaf.leaf) {
+                int slot = childSlot(leaf, key);
+                path.add(leaf);
+                slots.add(slot);
+                leaf = decode(leaf.children.get(slot));
+            }
+
+            int index = findEntry(leaf.entries, key);
+            if (index >= 0) {
+                Entry old = leaf.entries.get(index);
+                if (old.isOverflow()) freeOverflow(old.overflow);
+                leaf.entries.set(index, newEntry(key, old.seq, value));
+            } else {
+                leaf.entries.add(-index - 1, newEntry(key, nextSeq++, value));
+                recordCount++;
+            }
+
+            storeLeaf(leaf, path, slots);
+            changeCounter++;
+            writeHeader();
+        }
+
+        boolean delete(byte[] key) throws IOException {
+            Node leaf = decode(root);
+            while (!leaf.leaf) leaf = decode(leaf.children.get(childSlot(leaf, key)));
+
+            int index = findEntry(leaf.entries, key);
+            if (index < 0) return false;
+
+            Entry removed = leaf.entries.remove(index);
+            if (removed.isOverflow()) freeOverflow(removed.overflow);
+            writeNode(leaf);
+            recordCount--;
+            changeCounter++;
+            writeHeader();
+            return true;
+        }
+
+        /**
+         * SCAN
+         * - Every record, in sequence order, one per line.
+         */
+        byte[] scan() throws IOException {
+            Node node = decode(root);
+            while (!node.leaf) node = decode(node.children.get(0));
+
+            List<Entry> entries = new ArrayList<>(recordCount);
+            while (true) {
+                entries.addAll(node.entries);
+                if (node.next == 0) break;
+                node = decode(node.next);
+            }
+            entries.sort(Comparator.comparingLong(e -> e.seq));
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, recordCount * 128));
+            for (Entry entry : entries) {
+                out.write(valueOf(entry));
+                out.write('\n');
+            }
+            return out.toByteArray();
+        }
+
+        // =============================
+        // B+TREE
+        // =============================
+
+        /**
+         * CHILDSLOT
+         * - Child to follow for a key: keys[i] is the smallest key under children[i + 1].
+         */
+        private static int childSlot(Node node, byte[] key) {
+            int low = 0, high = node.keys.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (Arrays.compareUnsigned(key, node.keys.get(mid)) < 0) high = mid;
+                else low = mid + 1;
+            }
+            return low;
+        }
+
+        private static int findEntry(List<Entry> entries, byte[] key) {
+            int low = 0, high = entries.size() - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = Arrays.compareUnsigned(entries.get(mid).key, key);
+                if (cmp < 0) low = mid + 1;
+                else if (cmp > 0) high = mid - 1;
+                else return mid;
+            }
+            return -(low + 1);
+        }
+
+        /**
+         * STORELEAF
+         * - Writes a changed leaf, splitting it in two by size if it no longer fits a page.
+         */
+        private void storeLeaf(Node leaf, List<Node> path, List<Integer> slots) throws IOException {
+            int size = leaf.encodedSize();
+            if (size <= PAGE_SIZE) {
+                writeNode(leaf);
+                return;
+            }
+
+            int split = 1;
+            int running = Node.HEADER_SIZE + leaf.entries.get(0).encodedSize();
+            while (split < leaf.entries.size() - 1 && running + leaf.entries.get(split).encodedSize() <= size / 2) {
+                running += leaf.entries.get(split).encodedSize();
+                split++;
+            }
+
+            Node right = new Node(allocatePage(), true);
+            List<Entry> moved = leaf.entries.subList(split, leaf.entries.size());
+            right.entries.addAll(moved);
+            moved.clear();
+            right.next = leaf.next;
+            leaf.next = right.page;
+
+            writeNode(leaf);
+            writeNode(right);
+            insertIntoParent(path, slots, leaf.page, right.entries.get(0).key, right.page);
+        }
+
+        private void insertIntoParent(List<Node> path, List<Integer> slots, int left, byte[] separator, int right) throws IOException {
+            if (path.isEmpty()) {
+                Node newRoot = new Node(allocatePage(), false);
+                newRoot.children.add(left);
+                newRoot.keys.add(separator);
+                newRoot.children.add(right);
+                writeNode(newRoot);
+                root = newRoot.page;
+                return;
+            }
+
+            Node parent = path.remove(path.size() - 1);
+            int slot = slots.remove(slots.size() - 1);
+            parent.keys.add(slot, separator);
+            parent.children.add(slot + 1, right);
+            if (parent.encodedSize() <= PAGE_SIZE) {
+                writeNode(parent);
+                return;
+            }
+
+            int middle = parent.keys.size() / 2;
+            byte[] up = parent.keys.get(middle);
+            Node sibling = new Node(allocatePage(), false);
+            List<byte[]> movedKeys = parent.keys.subList(middle + 1, parent.keys.size());
+            List<Integer> movedChildren = parent.children.subList(middle + 1, parent.children.size());
+            sibling.keys.addAll(movedKeys);
+            sibling.children.addAll(movedChildren);
+            movedKeys.clear();
+            movedChildren.clear();
+            parent.keys.remove(middle);
+
+            writeNode(parent);
+            writeNode(sibling);
+            insertIntoParent(path, slots, parent.page, up, sibling.page);
+        }
+
+        private Entry newEntry(byte[] key, long seq, byte[] value) throws IOException {
+            if (value.length > INLINE_VALUE_LIMIT) {
+                return new Entry(key, seq, value.length, null, writeOverflow(value));
+            }
+            return new Entry(key, seq, value.length, value, 0);
+        }
+
+        private byte[] valueOf(Entry entry) throws IOException {
+            return entry.isOverflow() ? readOverflow(entry.overflow, entry.length) : entry.inline;
+        }
+
+        // =============================
+        // NODES AND OVERFLOW PAGES
+        // =============================
+
+        private Node decode(int page) throws IOException {
+            ByteBuffer data = ByteBuffer.wrap(readPage(page));
+            byte type = data.get();
+            int count = data.getShort() & 0xFFFF;
+
+            if (type == LEAF) {
+                Node node = new Node(page, true);
+                node.next = data.getInt();
+                for (int i = 0; i < count; i++) {
+                    byte[] key = readKey(data);
+                    long seq = data.getLong();
+                    int length = data.getInt();
+                    if (length > INLINE_VALUE_LIMIT) {
+                        node.entries.add(new Entry(key, seq, length, null, data.getInt()));
+                    } else {
+                        byte[] value = new byte[length];
+                        data.get(value);
+                        node.entries.add(new Entry(key, seq, length, value, 0));
+                    }
+                }
+                return node;
+            }
+            if (type == INTERNAL) {
+                Node node = new Node(page, false);
+                node.children.add(data.getInt());
+                for (int i = 0; i < count; i++) {
+                    node.keys.add(readKey(data));
+                    node.children.add(data.getInt());
+                }
+                return node;
+            }
+            throw new IOException("Corrupt page " + page + " in " + file);
+        }
+
+        private void writeNode(Node node) {
+            writePage(node.page, node.encode());
+        }
+
+        private static byte[] readKey(ByteBuffer data) {
+            byte[] key = new byte[data.getShort() & 0xFFFF];
+            data.get(key);
+            return key;
+        }
+
+        /**
+         * WRITEOVERFLOW
+         * - Stores a long record in a chain of pages, each starting with the next page number.
+         */
+        private int writeOverflow(byte[] value) throws IOException {
+            int chunk = PAGE_SIZE - 4;
+            int next = 0;
+            for (int from = ((value.length - 1) / chunk) * chunk; from >= 0; from -= chunk) {
+                int page = allocatePage();
+                ByteBuffer data = ByteBuffer.allocate(PAGE_SIZE);
+                data.putInt(next).put(value, from, Math.min(chunk, value.length - from));
+                writePage(page, data.array());
+                next = page;
+            }
+            return next;
+        }
+
+        private byte[] readOverflow(int page, int length) throws IOException {
+            byte[] value = new byte[length];
+            int offset = 0;
+            while (offset < length) {
+                if (page == 0) throw new IOException("Truncated overflow chain in " + file);
+                ByteBuffer data = ByteBuffer.wrap(readPage(page));
+                int next = data.getInt();
+                int count = Math.min(PAGE_SIZE - 4, length - offset);
+                data.get(value, offset, count);
+                offset += count;
+                page = next;
+            }
+            return value;
+        }
+
+        private void freeOverflow(int page) throws IOException {
+            while (page != 0) {
+                int next = ByteBuffer.wrap(readPage(page)).getInt(0);
+                freePage(page);
+                page = next;
+            }
+        }
+
+        // =============================
+        // PAGES
+        // =============================
+
+        private int allocatePage() throws IOException {
+            if (freeHead != 0) {
+                int page = freeHead;
+                freeHead = ByteBuffer.wrap(readPage(page)).getInt(0);
+                return page;
+            }
+            return pageCount++;
+        }
+
+        private void freePage(int page) {
+            ByteBuffer data = ByteBuffer.allocate(PAGE_SIZE);
+            data.putInt(0, freeHead);
+            writePage(page, data.array());
+            freeHead = page;
+        }
+
+        private byte[] readPage(int page) throws IOException {
+            byte[] data = dirty.get(page);
+            if (data != null) return data;
+            data = cache.get(page);
+            if (data != null) return data;
+            data = readFromDisk(page);
+            cache.put(page, data);
+            return data;
+        }
+
+        private void writePage(int page, byte[] data) {
+            cache.remove(page);
+            dirty.put(page, data);
+        }
+
+        private byte[] readFromDisk(int page) throws IOException {
+            ByteBuffer data = ByteBuffer.allocate(PAGE_SIZE);
+            long position = (long) page * PAGE_SIZE;
+            while (data.hasRemaining()) {
+                if (channel.read(data, position + data.position()) < 0) break;
+            }
+            return data.array();
+        }
+
+        private void readHeader() throws IOException {
+            ByteBuffer data = ByteBuffer.wrap(readFromDisk(0));
+            if (data.getInt() != MAGIC || data.getInt() != FORMAT_VERSION || data.getInt() != PAGE_SIZE) {
+                throw new IOException("Not a paged table: " + file);
+            }
+            root = data.getInt();
+            pageCount = data.getInt();
+            freeHead = data.getInt();
+            recordCount = data.getInt();
+            nextSeq = data.getLong();
+            changeCounter = data.getLong();
+            committedPageCount = pageCount;
+        }
+
+        private void writeHeader() {
+            ByteBuffer data = ByteBuffer.allocate(PAGE_SIZE);
+            data.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(PAGE_SIZE)
+                .putInt(root).putInt(pageCount).putInt(freeHead).putInt(recordCount)
+                .putLong(nextSeq).putLong(changeCounter);
+            writePage(0, data.array());
+        }
+
+        // =============================
+        // COMMIT AND RECOVERY
+        // =============================
+
+        /**
+         * COMMIT
+         * - Journals the original image of every dirty page that already exists on disk,
+         *   then writes the dirty pages in place and removes the journal.
+         * - If writing the pages fails, the journal is replayed straight away.
+         * - A batch keeps its journal until the whole batch stands.
+         */
+        private void commit(Path journalFile, boolean keepJournal) throws IOException {
+            if (dirty.isEmpty()) return;
+
+            List<Integer> existing = new ArrayList<>();
+            for (int page : dirty.keySet()) {
+                if (page < committedPageCount) existing.add(page);
+            }
+
+            ByteBuffer record = ByteBuffer.allocate(12 + existing.size() * (4 + PAGE_SIZE) + 8);
+            record.putInt(JOURNAL_MAGIC).putInt(committedPageCount).putInt(existing.size());
+            for (int page : existing) {
+                record.putInt(page).put(readFromDisk(page));
+            }
+            CRC32 crc = new CRC32();
+            crc.update(record.array(), 0, record.position());
+            record.putLong(crc.getValue());
+            record.flip();
+
+            try (FileChannel out = FileChannel.open(journalFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (record.hasRemaining()) out.write(record);
+                out.force(true);
+            }
+
+            try {
+                for (Map.Entry<Integer, byte[]> entry : dirty.entrySet()) {
+                    writeToDisk(entry.getKey(), entry.getValue());
+                }
+                channel.force(true);
+            } catch (IOException | RuntimeException e) {
+                try {
+                    recover(journalFile);
+                } catch (IOException restoreError) {
+                    e.addSuppressed(restoreError);
+                }
+                throw e;
+            }
+            if (!keepJournal) Files.deleteIfExists(journalFile);
+
+            committedPageCount = pageCount;
+            cache.putAll(dirty);
+            dirty.clear();
+        }
+
+        /**
+         * RECOVER
+         * - Restores the pages saved in a complete journal and cuts the file back to its old length.
+         * - A torn journal means the table itself was never touched, so it is just removed.
+         */
+        private void recover(Path journalFile) throws IOException {
+            if (!Files.exists(journalFile)) return;
+
+            byte[] bytes = Files.readAllBytes(journalFile);
+            ByteBuffer data = ByteBuffer.wrap(bytes);
+            if (bytes.length >= 20 && data.getInt() == JOURNAL_MAGIC) {
+                int originalPageCount = data.getInt();
+                int count = data.getInt();
+                long expectedLength = 12L + (long) count * (4 + PAGE_SIZE) + 8;
+
+                CRC32 crc = new CRC32();
+                crc.update(bytes, 0, Math.max(0, bytes.length - 8));
+                if (count >= 0 && bytes.length == expectedLength
+                        && ByteBuffer.wrap(bytes, bytes.length - 8, 8).getLong() == crc.getValue()) {
+                    for (int i = 0; i < count; i++) {
+                        int page = data.getInt();
+                        byte[] original = new byte[PAGE_SIZE];
+                        data.get(original);
+                        writeToDisk(page, original);
+                    }
+                    channel.truncate((long) originalPageCount * PAGE_SIZE);
+                    channel.force(true);
+                }
+            }
+            Files.delete(journalFile);
+        }
+
+        private void writeToDisk(int page, byte[] bytes) throws IOException {
+            ByteBuffer data = ByteBuffer.wrap(bytes);
+            long position = (long) page * PAGE_SIZE;
+            while (data.hasRemaining()) {
+                channel.write(data, position + data.position());
+            }
+        }
+    }
+
+    /**
+     * BULKWRITER
+     * - Hands out page numbers in file order and writes pages of a table being built.
+     */
+    private static final class BulkWriter {
+        private final FileChannel out;
+        private int nextPage = 1;
+
+        BulkWriter(FileChannel out) {
+            this.out = out;
+        }
+
+        int allocate() {
+            return nextPage++;
+        }
+
+        void write(Node node) throws IOException {
+            write(node.page, node.encode());
+        }
+
+        int writeOverflow(byte[] value) throws IOException {
+            int chunk = PAGE_SIZE - 4;
+            int chunks = (value.length + chunk - 1) / chunk;
+            int first = nextPage;
+            for (int c = 0; c < chunks; c++) {
+                int page = allocate();
+                ByteBuffer data = ByteBuffer.allocate(PAGE_SIZE);
+                int from = c * chunk;
+                data.putInt(c + 1 < chunks ? page + 1 : 0).put(value, from, Math.min(chunk, value.length - from));
+                write(page, data.array());
+            }
+            return first;
+        }
+
+        void write(int page, byte[] bytes) throws IOException {
+            ByteBuffer data = ByteBuffer.wrap(bytes);
+            long position = (long) page * PAGE_SIZE;
+            while (data.hasRemaining()) {
+                out.write(data, position + data.position());
+            }
+        }
+    }
+
+    /**
+     * NODE
+     * - A decoded tree page: a leaf holds entries, an internal node holds separator keys and children.
+     */
+    private static final class Node {
+        static final int HEADER_SIZE = 7;
+
+        final int page;
+        final boolean leaf;
+        int next;
+        final List<Entry> entries = new ArrayList<>();
+        final List<byte[]> keys = new ArrayList<>();
+        final List<Integer> children = new ArrayList<>();
+
+        Node(int page, boolean leaf) {
+            this.page = page;
+            this.leaf = leaf;
+        }
+
+        byte[] encode() {
+            ByteBuffer data = ByteBuffer.allocate(PAGE_SIZE);
+            if (leaf) {
+                data.put(LEAF).putShort((short) entries.size()).putInt(next);
+                for (Entry entry : entries) {
+                    data.putShort((short) entry.key.length).put(entry.key).putLong(entry.seq).putInt(entry.length);
+                    if (entry.isOverflow()) data.putInt(entry.overflow);
+                    else data.put(entry.inline);
+                }
+            } else {
+                data.put(INTERNAL).putShort((short) keys.size()).putInt(children.get(0));
+                for (int i = 0; i < keys.size(); i++) {
+                    byte[] key = keys.get(i);
+                    data.putShort((short) key.length).put(key).putInt(children.get(i + 1));
+                }
+            }
+            return data.array();
+        }
+
+        int encodedSize() {
+            int size = HEADER_SIZE;
+            if (leaf) {
+                for (Entry entry : entries) size += entry.encodedSize();
+            } else {
+                for (byte[] key : keys) size += 2 + key.length + 4;
+            }
+            return size;
+        }
+    }
+
+    /**
+     * ENTRY
+     * - One leaf record: key, sequence number, and the value inline or as an overflow chain.
+     */
+    private static final class Entry {
+        final byte[] key;
+        final long seq;
+        final int length;
+        final byte[] inline;
+        final int overflow;
+
+        Entry(byte[] key, long seq, int length, byte[] inline, int overflow) {
+            this.key = key;
+            this.seq = seq;
+            this.length = length;
+            this.inline = inline;
+            this.overflow = overflow;
+        }
+
+        boolean isOverflow() {
+            return length > INLINE_VALUE_LIMIT;
+        }
+
+        int encodedSize() {
+            return 2 + key.length + 8 + 4 + (isOverflow() ? 4 : length);
+        }
+    }
+}
@@ -0,0 +1,501 @@
+package controllers;
+
+import models.Report;
+import utils.StatsAccumulator;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * REPORT ARCHIVE
+ * - Stores every generated Report as a binary snapshot in append-only segment files
+ *   (database/reports/archive/segment-00001.dat, ...); a segment is closed once it passes SEGMENT_LIMIT bytes.
+ * - Each record is length-prefixed and checksummed; a torn record at the end of a segment is cut off on open.
+ * - An index of (courseID, generatedAt) -> segment and offset is kept in memory, saved alongside as
+ *   index.dat, and caught up from the segment tails if the last append did not reach it.
+ * - "Latest for course", date ranges and term-over-term comparisons read only the records they need.
+ */
+public class ReportArchive {
+    private static final int RECORD_MAGIC = 0x52505431;
+    private static final int INDEX_MAGIC = 0x52504958;
+    private static final long SEGMENT_LIMIT = 8L * 1024 * 1024;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+
+    private static ReportArchive instance;
+
+    private final Path directory;
+    private final Path indexFile;
+    private final Map<String, NavigableMap<LocalDateTime, Location>> locationsByCourse = new TreeMap<>();
+    private final Map<Integer, Long> indexedLength = new TreeMap<>();
+    private int currentSegment = 1;
+    private boolean loaded = false;
+
+    public ReportArchive(String directory) {
+        this.directory = Paths.get(directory);
+        this.indexFile = this.directory.resolve("index.dat");
+    }
+
+    /**
+     * GETINSTANCE
+     * - The archive under database/reports/archive/, shared by every ReportController.
+     */
+    public static synchronized ReportArchive getInstance() {
+        if (instance == null) {
+            instance = new ReportArchive("database/reports/archive/");
+        }
+        return instance;
+    }
+
+    // =============================
+    // WRITES
+    // =============================
+
+    public void append(Report report) throws IOException {
+        appendAll(Collections.singletonList(report));
+    }
+
+    /**
+     * APPENDALL
+     * - Writes the reports to the current segment with one fsync, then records them in the index.
+     * - If a write fails, the segment is cut back to where this batch started, so no part of it is
+     *   left for the next batch to be appended after.
+     */
+    public synchronized void appendAll(List<Report> reports) throws IOException {
+        ensureLoaded();
+        if (reports.isEmpty()) return;
+
+        Path segment = segmentFile(currentSegment);
+        if (Files.exists(segment) && Files.size(segment) >= SEGMENT_LIMIT) {
+            currentSegment++;
+            segment = segmentFile(currentSegment);
+        }
+
+        Files.createDirectories(directory);
+        List<Map.Entry<Report, Location>> written = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(segment,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            long start = channel.size();
+            long offset = start;
+            try {
+                for (Report report : reports) {
+                    ByteBuffer record = encodeRecord(report);
+                    int length = record.remaining();
+                    while (record.hasRemaining()) channel.write(record);
+                    written.add(new AbstractMap.SimpleEntry<>(report, new Location(currentSegment, offset, length)));
+                    offset += length;
+                }
+                channel.force(true);
+            } catch (IOException | RuntimeException e) {
+                try {
+                    channel.truncate(start);
+                    channel.force(true);
+                } catch (IOException restoreError) {
+                    e.addSuppressed(restoreError);
+                }
+                throw e;
+            }
+        }
+
+        for (Map.Entry<Report, Location> entry : written) {
+            index(entry.getKey().getCourseID(), entry.getKey().getGeneratedAt(), entry.getValue());
+        }
+        appendToIndexFile(written);
+    }
+
+    // =============================
+    // QUERIES
+    // =============================
+
+    public synchronized List<String> getCourseIDs() throws IOException {
+        ensureLoaded();
+        return new ArrayList<>(locationsByCourse.keySet());
+    }
+
+    /**
+     * GETTIMESTAMPS
+     * - When each archived report for a course was generated, oldest first; nothing is read from the segments.
+     */
+    public synchronized List<LocalDateTime> getTimestamps(String courseID) throws IOException {
+        ensureLoaded();
+        NavigableMap<LocalDateTime, Location> locations = locationsByCourse.get(courseID);
+        return locations != null ? new ArrayList<>(locations.keySet()) : new ArrayList<>();
+    }
+
+    public synchronized Report getLatest(String courseID) throws IOException {
+        ensureLoaded();
+        NavigableMap<LocalDateTime, Location> locations = locationsByCourse.get(courseID);
+        if (locations == null || locations.isEmpty()) return null;
+        return read(locations.lastEntry().getValue());
+    }
+
+    public synchronized Report get(String courseID, LocalDateTime generatedAt) throws IOException {
+        ensureLoaded();
+        NavigableMap<LocalDateTime, Location> locations = locationsByCourse.get(courseID);
+        Location location = locations != null ? locations.get(generatedAt) : null;
+        return location != null ? read(location) : null;
+    }
+
+    /**
+     * GETRANGE
+     * - A course's reports generated between 'from' and 'to' inclusive, oldest first; null leaves that end open.
+     */
+    public synchronized List<Report> getRange(String courseID, LocalDateTime from, LocalDateTime to) throws IOException {
+        ensureLoaded();
+        List<Report> reports = new ArrayList<>();
+        NavigableMap<LocalDateTime, Location> locations = locationsByCourse.get(courseID);
+        if (locations == null) return reports;
+
+        if (from != null) locations = locations.tailMap(from, true);
+        if (to != null) locations = locations.headMap(to, true);
+        for (Location location : locations.values()) {
+            reports.add(read(location));
+        }
+        return reports;
+    }
+
+    /**
+     * COMPARELATEST
+     * - The course's latest report against the one before it, or null if there are fewer than two.
+     */
+    public synchronized ReportComparison compareLatest(String courseID) throws IOException {
+        ensureLoaded();
+        NavigableMap<LocalDateTime, Location> locations = locationsByCourse.get(courseID);
+        if (locations == null || locations.size() < 2) return null;
+
+        Map.Entry<LocalDateTime, Location> latest = locations.lastEntry();
+        Map.Entry<LocalDateTime, Location> previous = locations.lowerEntry(latest.getKey());
+        return new ReportComparison(read(previous.getValue()), read(latest.getValue()));
+    }
+
+    /**
+     * COMPARE
+     * - Two reports of the same course, e.g. the end of one term against the end of the next.
+     */
+    public synchronized ReportComparison compare(String courseID, LocalDateTime earlier, LocalDateTime later) throws IOException {
+        Report before = get(courseID, earlier);
+        Report after = get(courseID, later);
+        if (before == null || after == null) return null;
+        return new ReportComparison(before, after);
+    }
+
+    // =============================
+    // LOADING
+    // =============================
+
+    /**
+     * ENSURELOADED
+     * - Reads index.dat, then scans each segment from where the index stops, so reports whose
+     *   index entry was lost are re-indexed and a torn final record is truncated.
+     */
+    private void ensureLoaded() throws IOException {
+        if (loaded) return;
+
+        if (Files.exists(indexFile)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+                while (true) {
+                    try {
+                        if (in.readInt() != INDEX_MAGIC) break;
+                        String courseID = in.readUTF();
+                        LocalDateTime generatedAt = LocalDateTime.parse(in.readUTF());
+                        Location location = new Location(in.readInt(), in.readLong(), in.readInt());
+                        index(courseID, generatedAt, location);
+                    } catch (EOFException | UTFDataFormatException e) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        List<Integer> segments = listSegments();
+        for (int segment : segments) {
+            recoverSegment(segment);
+            currentSegment = Math.max(currentSegment, segment);
+        }
+        rewriteIndexFile();
+        loaded = true;
+    }
+
+    private void recoverSegment(int segment) throws IOException {
+        Path file = segmentFile(segment);
+        long offset = indexedLength.getOrDefault(segment, 0L);
+        long size = Files.size(file);
+        if (offset >= size) return;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            while (offset < size) {
+                ByteBuffer header = ByteBuffer.allocate(8);
+                if (channel.read(header, offset) < 8) break;
+                header.flip();
+                if (header.getInt() != RECORD_MAGIC) break;
+                int length = 8 + header.getInt() + 8;
+                if (offset + length > size) break;
+
+                ByteBuffer record = ByteBuffer.allocate(length);
+                channel.read(record, offset);
+                record.flip();
+                Report report = decodeRecord(record);
+                if (report == null) break;
+
+                index(report.getCourseID(), report.getGeneratedAt(), new Location(segment, offset, length));
+                offset += length;
+            }
+            if (offset < size) {
+                System.err.println("Truncating damaged report archive tail in " + file);
+                channel.truncate(offset);
+                channel.force(true);
+            }
+        }
+    }
+
+    private List<Integer> listSegments() throws IOException {
+        List<Integer> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) return segments;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                try {
+                    segments.add(Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException ignored) {}
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private void index(String courseID, LocalDateTime generatedAt, Location location) {
+        locationsByCourse.computeIfAbsent(courseID, k -> new TreeMap<>()).put(generatedAt, location);
+        indexedLength.merge(location.segment, location.offset + location.length, Math::max);
+    }
+
+    private void appendToIndexFile(List<Map.Entry<Report, Location>> entries) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)))) {
+            for (Map.Entry<Report, Location> entry : entries) {
+                writeIndexEntry(out, entry.getKey().getCourseID(), entry.getKey().getGeneratedAt(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * REWRITEINDEXFILE
+     * - Saves the recovered index in one piece, through a temp file and a rename.
+     */
+    private void rewriteIndexFile() throws IOException {
+        if (locationsByCourse.isEmpty()) return;
+        Files.createDirectories(directory);
+        Path temp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            for (Map.Entry<String, NavigableMap<LocalDateTime, Location>> course : locationsByCourse.entrySet()) {
+                for (Map.Entry<LocalDateTime, Location> entry : course.getValue().entrySet()) {
+                    writeIndexEntry(out, course.getKey(), entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        try {
+            Files.move(temp, indexFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void writeIndexEntry(DataOutputStream out, String courseID, LocalDateTime generatedAt, Location location) throws IOException {
+        out.writeInt(INDEX_MAGIC);
+        out.writeUTF(courseID);
+        out.writeUTF(generatedAt.toString());
+        out.writeInt(location.segment);
+        out.writeLong(location.offset);
+        out.writeInt(location.length);
+    }
+
+    private Path segmentFile(int segment) {
+        return directory.resolve(String.format("%s%05d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    private Report read(Location location) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentFile(location.segment), StandardOpenOption.READ)) {
+            ByteBuffer record = ByteBuffer.allocate(location.length);
+            while (record.hasRemaining() && channel.read(record, location.offset + record.position()) > 0) {}
+            record.flip();
+            Report report = decodeRecord(record);
+            if (report == null) throw new IOException("Damaged report record in " + segmentFile(location.segment));
+            return report;
+        }
+    }
+
+    // =============================
+    // RECORD FORMAT
+    // =============================
+    // - magic, body length, body, CRC32 of the body.
+    // - Body: course fields, generatedAt, students (id, name, average), class average,
+    //   distribution, percentiles and class ranks. The statistics are rebuilt from the averages.
+
+    private static ByteBuffer encodeRecord(Report report) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeUTF(report.getCourseID());
+        out.writeUTF(nullToEmpty(report.getSubject()));
+        out.writeUTF(nullToEmpty(report.getGradeLevel()));
+        out.writeUTF(nullToEmpty(report.getExamType()));
+        out.writeUTF(nullToEmpty(report.getTeacher()));
+        out.writeUTF(report.getGeneratedAt().toString());
+
+        Map<String, Double> averages = report.getStudentAverages();
+        out.writeInt(averages.size());
+        for (Map.Entry<String, Double> entry : averages.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeUTF(nullToEmpty(report.getStudentNames().get(entry.getKey())));
+            out.writeDouble(entry.getValue());
+        }
+        out.writeDouble(report.getClassAverage());
+
+        out.writeInt(report.getPerformanceDistribution().size());
+        for (Map.Entry<String, Integer> entry : report.getPerformanceDistribution().entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue());
+        }
+        out.writeInt(report.getPercentiles().size());
+        for (Map.Entry<String, Double> entry : report.getPercentiles().entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeDouble(entry.getValue());
+        }
+        out.writeInt(report.getClassRanks().size());
+        for (Map.Entry<String, Integer> entry : report.getClassRanks().entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue());
+        }
+        out.flush();
+
+        byte[] body = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(body);
+
+        ByteBuffer record = ByteBuffer.allocate(8 + body.length + 8);
+        record.putInt(RECORD_MAGIC).putInt(body.length).put(body).putLong(crc.getValue()).flip();
+        return record;
+    }
+
+    /**
+     * DECODERECORD
+     * - Returns null for a record whose magic, length or checksum does not hold.
+     */
+    private static Report decodeRecord(ByteBuffer record) {
+        try {
+            if (record.getInt() != RECORD_MAGIC) return null;
+            int length = record.getInt();
+            if (length < 0 || length > record.remaining() - 8) return null;
+
+            byte[] body = new byte[length];
+            record.get(body);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if (crc.getValue() != record.getLong()) return null;
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+            String courseID = in.readUTF();
+            String subject = in.readUTF();
+            String gradeLevel = in.readUTF();
+            String examType = in.readUTF();
+            String teacher = in.readUTF();
+            LocalDateTime generatedAt = LocalDateTime.parse(in.readUTF());
+
+            Map<String, String> names = new LinkedHashMap<>();
+            Map<String, Double> averages = new LinkedHashMap<>();
+            StatsAccumulator statistics = new StatsAccumulator();
+            int students = in.readInt();
+            for (int i = 0; i < students; i++) {
+                String id = in.readUTF();
+                names.put(id, in.readUTF());
+                double average = in.readDouble();
+                averages.put(id, average);
+                statistics.add(average);
+            }
+            double classAverage = in.readDouble();
+
+            Map<String, Integer> distribution = new LinkedHashMap<>();
+            int buckets = in.readInt();
+            for (int i = 0; i < buckets; i++) distribution.put(in.readUTF(), in.readInt());
+            Map<String, Double> percentiles = new LinkedHashMap<>();
+            int bands = in.readInt();
+            for (int i = 0; i < bands; i++) percentiles.put(in.readUTF(), in.readDouble());
+            Map<String, Integer> ranks = new LinkedHashMap<>();
+            int ranked = in.readInt();
+            for (int i = 0; i < ranked; i++) ranks.put(in.readUTF(), in.readInt());
+
+            Report report = new Report(courseID, subject, gradeLevel, examType, teacher, generatedAt,
+                                       names, averages, classAverage, distribution);
+            report.setStatistics(statistics);
+            report.setPercentiles(percentiles);
+            report.setClassRanks(ranks);
+            return report;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static class Location {
+        final int segment;
+        final long offset;
+        final int length;
+
+        Location(int segment, long offset, int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * REPORTCOMPARISON
+     * - Change in class average, distribution buckets and each student's average between two reports.
+     * - Students in only one of the two reports are listed as joined or left.
+     */
+    public static class ReportComparison {
+        private final Report earlier;
+        private final Report later;
+        private final Map<String, Integer> distributionChange = new LinkedHashMap<>();
+        private final Map<String, Double> studentChange = new LinkedHashMap<>();
+        private final List<String> joined = new ArrayList<>();
+        private final List<String> left = new ArrayList<>();
+
+        public ReportComparison(Report earlier, Report later) {
+            this.earlier = earlier;
+            this.later = later;
+
+            Set<String> buckets = new LinkedHashSet<>(earlier.getPerformanceDistribution().keySet());
+            buckets.addAll(later.getPerformanceDistribution().keySet());
+            for (String bucket : buckets) {
+                distributionChange.put(bucket, later.getPerformanceDistribution().getOrDefault(bucket, 0)
+                                             - earlier.getPerformanceDistribution().getOrDefault(bucket, 0));
+            }
+
+            for (Map.Entry<String, Double> entry : later.getStudentAverages().entrySet()) {
+                Double before = earlier.getStudentAverages().get(entry.getKey());
+                if (before == null) joined.add(entry.getKey());
+                else studentChange.put(entry.getKey(), entry.getValue() - before);
+            }
+            for (String id : earlier.getStudentAverages().keySet()) {
+                if (!later.getStudentAverages().containsKey(id)) left.add(id);
+            }
+        }
+
+        public Report getEarlier() { return earlier; }
+        public Report getLater() { return later; }
+        public double getClassAverageChange() { return later.getClassAverage() - earlier.getClassAverage(); }
+        public double getMedianChange() { return later.getMedian() - earlier.getMedian(); }
+        public Map<String, Integer> getDistributionChange() { return distributionChange; }
+        public Map<String, Double> getStudentChange() { return studentChange; }
+        public List<String> getJoinedStudents() { return joined; }
+        public List<String> getLeftStudents() { return left; }
+    }
+}
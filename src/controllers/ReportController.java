@@ -2,18 +2,37 @@ package controllers;
 
 import models.Course;
 import models.Report;
+import models.SchoolSummary;
 import models.Student;
+import utils.CsvReader;
+import utils.StatsAccumulator;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.PrintWriter;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.*;
 
 public class ReportController {
+    private static final String REPORT_FOLDER = "database/reports/";
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm");
 
+    // =============================
+    // BATCH PROGRESS LISTENER
+    // =============================
+    // - Told about each course as the batch finishes it, from a worker thread
+
+    public interface BatchProgressListener {
+        void onCourseFinished(String courseID, int completed, int total);
+    }
+
+    private static final double[] DEFAULT_PERCENTILE_BANDS = {10, 25, 50, 75, 90};
+
+    private double[] percentileBands = DEFAULT_PERCENTILE_BANDS.clone();
+    private final ReportArchive archive = ReportArchive.getInstance();
+    private final ReportTrends trends = ReportTrends.getInstance();
     private GradebookController gradebookController = new GradebookController();
     private StudentController studentController = new StudentController();
     private CourseController courseController = new CourseController();
@@ -26,36 +45,34 @@ public class ReportController {
 
         Map<String, String> studentNames = new LinkedHashMap<>();
         Map<String, Double> studentAverages = new LinkedHashMap<>();
+        StatsAccumulator statistics = new StatsAccumulator();
+
+        StorageBackend storage = StorageBackend.getInstance();
+        String gradebook = StorageBackend.gradebookTable(courseID);
+        if (!storage.exists(gradebook)) return null;
+
+        try {
+            CsvReader reader = storage.read(gradebook);
+            reader.next();
+
+            while (reader.next()) {
+                if (reader.getFieldCount() >= 3) {
+                    double avg = reader.getDouble(2, Double.NaN);
+                    if (Double.isNaN(avg)) continue;
 
-        File file = new File("database/grades/" + courseID + "_gradebook.txt");
-        if (!file.exists()) return null;
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String[] headers = reader.readLine().split(",", -1);
-
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",", -1);
-                if (parts.length >= 3) {
-                    String id = parts[0].trim();
-                    String name = parts[1].trim();
-                    String averageStr = parts[2].trim();
-
-                    try {
-                        double avg = Double.parseDouble(averageStr);
-                        studentNames.put(id, name);
-                        studentAverages.put(id, avg);
-                    } catch (NumberFormatException ignored) {}
+                    String id = reader.getString(0);
+                    studentNames.put(id, reader.getString(1));
+                    if (studentAverages.put(id, avg) == null) statistics.add(avg);
                 }
             }
         } catch (Exception e) {
             e.printStackTrace();
         }
 
-        double classAverage = calculateClassAverage(studentAverages);
+        double classAverage = statistics.getMean();
         Map<String, Integer> distribution = generatePerformanceDistribution(studentAverages);
 
-        return new Report(
+        Report report = new Report(
           courseID,
           course.getSubject(),
           course.getGradeLevel(),
@@ -67,6 +84,45 @@ public class ReportController {
           classAverage,
           distribution
       );
+        report.setStatistics(statistics);
+        report.setPercentiles(calculatePercentiles(statistics));
+        report.setClassRanks(calculateClassRanks(studentAverages, statistics));
+        return report;
+    }
+
+    /**
+     * Percentile bands reported for every course, e.g. 10, 25, 50, 75, 90.
+     */
+    public void setPercentileBands(double... bands) {
+        this.percentileBands = bands.clone();
+    }
+
+    /**
+     * Score at each configured percentile band, labelled "P10", "P25", ...
+     */
+    public Map<String, Double> calculatePercentiles(StatsAccumulator statistics) {
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        double[] values = statistics.getPercentiles(percentileBands);
+        for (int i = 0; i < percentileBands.length; i++) {
+            String label = percentileBands[i] == Math.rint(percentileBands[i])
+                    ? String.valueOf((long) percentileBands[i]) : String.valueOf(percentileBands[i]);
+            percentiles.put("P" + label, values[i]);
+        }
+        return percentiles;
+    }
+
+    /**
+     * Class rank of every student (1 = highest average; ties share a rank), best first.
+     */
+    public Map<String, Integer> calculateClassRanks(Map<String, Double> studentAverages, StatsAccumulator statistics) {
+        List<Map.Entry<String, Double>> ordered = new ArrayList<>(studentAverages.entrySet());
+        ordered.sort(Map.Entry.<String, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+
+        Map<String, Integer> ranks = new LinkedHashMap<>();
+        for (Map.Entry<String, Double> entry : ordered) {
+            ranks.put(entry.getKey(), statistics.rankOf(entry.getValue()));
+        }
+        return ranks;
     }
 
     /**
@@ -105,16 +161,112 @@ public class ReportController {
      * Save a report to a .txt file in /database/reports/
      */
     public void saveReportAsTextFile(Report report) {
-        File folder = new File("database/reports");
-        if (!folder.exists()) folder.mkdirs();
-
-        String fileName = "database/reports/" + report.getCourseID() + "_report_" +
-                LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm")) + ".txt";
-
-        try (PrintWriter writer = new PrintWriter(new FileWriter(fileName))) {
-            writer.println(report.toTextFormat());
+        try {
+            DataStore.getInstance().writeLines(reportFileFor(report, LocalDateTime.now()), List.of(report.toTextFormat()));
+            archive.append(report);
+            trends.add(report);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
+
+    /**
+     * Archived report snapshots, indexed by course and generation time.
+     */
+    public ReportArchive getArchive() {
+        return archive;
+    }
+
+    /**
+     * Class average, distribution and student average series built from the archive.
+     */
+    public ReportTrends getTrends() {
+        return trends;
+    }
+
+    private Path reportFileFor(Report report, LocalDateTime time) {
+        return Paths.get(REPORT_FOLDER + report.getCourseID() + "_report_" + time.format(FILE_TIMESTAMP) + ".txt");
+    }
+
+    // =============================
+    // WHOLE-SCHOOL BATCH
+    // =============================
+
+    /**
+     * GENERATEALLREPORTS
+     * - Builds a report for every course on a fixed pool with one thread per core
+     * - Each worker streams one gradebook and renders its report text
+     * - All report files and the school summary are then saved in one DataStore commit,
+     *   so a failed run leaves no half-written batch, and the reports are added to the archive
+     * - Once the files are committed the batch has succeeded: if the archive cannot take the
+     *   reports, that is recorded on the summary (getArchiveFailure) instead of failing the run
+     * - The listener (may be null) hears about each course as it finishes
+     */
+    public SchoolSummary generateAllReports(BatchProgressListener listener) throws IOException, InterruptedException {
+        List<Course> courses = courseController.getCourses();
+        LocalDateTime startedAt = LocalDateTime.now();
+        SchoolSummary summary = new SchoolSummary(startedAt);
+
+        int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), courses.size()));
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CompletionService<BatchEntry> completion = new ExecutorCompletionService<>(pool);
+
+        try {
+            for (Course course : courses) {
+                completion.submit(() -> {
+                    Report report = generateReportForCourse(course);
+                    return new BatchEntry(course.getCourseID(), report, report != null ? report.toTextFormat() : null);
+                });
+            }
+
+            Map<Path, List<String>> files = new LinkedHashMap<>();
+            for (int completed = 1; completed <= courses.size(); completed++) {
+                BatchEntry entry;
+                try {
+                    entry = completion.take().get();
+                } catch (ExecutionException e) {
+                    throw new IOException("Report generation failed", e.getCause());
+                }
+
+                if (entry.report == null) {
+                    summary.addSkippedCourse(entry.courseID);
+                } else {
+                    summary.addReport(entry.report);
+                    files.put(reportFileFor(entry.report, startedAt), List.of(entry.text));
+                }
+                if (listener != null) listener.onCourseFinished(entry.courseID, completed, courses.size());
+            }
+
+            summary.getCourseReports().sort(Comparator.comparing(Report::getCourseID));
+            Collections.sort(summary.getSkippedCourses());
+            files.put(Paths.get(REPORT_FOLDER + "school_summary_" + startedAt.format(FILE_TIMESTAMP) + ".txt"),
+                      List.of(summary.toTextFormat()));
+            DataStore.getInstance().commit(files);
+            try {
+                archive.appendAll(summary.getCourseReports());
+                for (Report report : summary.getCourseReports()) {
+                    trends.add(report);
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+                summary.setArchiveFailure(e.toString());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        return summary;
+    }
+
+    private static class BatchEntry {
+        final String courseID;
+        final Report report;
+        final String text;
+
+        BatchEntry(String courseID, Report report, String text) {
+            this.courseID = courseID;
+            this.report = report;
+            this.text = text;
+        }
+    }
 }
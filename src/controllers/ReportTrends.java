@@ -0,0 +1,237 @@
+package controllers;
+
+import models.Report;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * REPORT TRENDS
+ * - Time series built from archived reports: class average, median and distribution per course,
+ *   and each student's average per course over time.
+ * - Loaded from the ReportArchive once, then extended one report at a time as reports are saved.
+ * - Series are also filed by grade, subject and exam type, so "Grade 11 Mathematics CSEC since 2024"
+ *   is a lookup plus a date range instead of a pass over every report.
+ */
+public class ReportTrends {
+    private static ReportTrends instance;
+
+    private final ReportArchive archive;
+    private final Map<String, NavigableMap<LocalDateTime, TrendPoint>> pointsByCourse = new HashMap<>();
+    private final Map<String, Set<String>> coursesByCategory = new HashMap<>();
+    private final Map<String, NavigableMap<LocalDateTime, List<StudentPoint>>> pointsByStudent = new HashMap<>();
+    private boolean loaded = false;
+
+    public ReportTrends(ReportArchive archive) {
+        this.archive = archive;
+    }
+
+    public static synchronized ReportTrends getInstance() {
+        if (instance == null) {
+            instance = new ReportTrends(ReportArchive.getInstance());
+        }
+        return instance;
+    }
+
+    // =============================
+    // MAINTENANCE
+    // =============================
+
+    /**
+     * ADD
+     * - Appends a newly saved report to the series; before the first query this is a no-op,
+     *   since loading reads the report from the archive anyway.
+     */
+    public synchronized void add(Report report) {
+        if (!loaded) return;
+        index(report);
+    }
+
+    // =============================
+    // QUERIES
+    // =============================
+    // - 'since' is inclusive; null means from the first report.
+
+    /**
+     * GETCOURSESERIES
+     * - One point per archived report of a course, oldest first.
+     */
+    public synchronized List<TrendPoint> getCourseSeries(String courseID, LocalDateTime since) throws IOException {
+        ensureLoaded();
+        NavigableMap<LocalDateTime, TrendPoint> points = pointsByCourse.get(courseID);
+        if (points == null) return new ArrayList<>();
+        return new ArrayList<>(since != null ? points.tailMap(since, true).values() : points.values());
+    }
+
+    /**
+     * GETSERIES
+     * - Points for every course matching the grade, subject and exam type (null matches any), oldest first.
+     */
+    public synchronized List<TrendPoint> getSeries(String grade, String subject, String examType, LocalDateTime since) throws IOException {
+        ensureLoaded();
+        List<TrendPoint> series = new ArrayList<>();
+        for (Map.Entry<String, Set<String>> entry : coursesByCategory.entrySet()) {
+            if (!matches(entry.getKey(), grade, subject, examType)) continue;
+            for (String courseID : entry.getValue()) {
+                series.addAll(getCourseSeries(courseID, since));
+            }
+        }
+        series.sort(Comparator.comparing(TrendPoint::getGeneratedAt).thenComparing(TrendPoint::getCourseID));
+        return series;
+    }
+
+    /**
+     * GETTERMSERIES
+     * - The last report of each term for a course, in term order.
+     */
+    public synchronized Map<String, TrendPoint> getTermSeries(String courseID) throws IOException {
+        Map<String, TrendPoint> byTerm = new LinkedHashMap<>();
+        for (TrendPoint point : getCourseSeries(courseID, null)) {
+            byTerm.remove(point.getTerm());
+            byTerm.put(point.getTerm(), point);
+        }
+        return byTerm;
+    }
+
+    /**
+     * GETSTUDENTSERIES
+     * - A student's average in every archived report that lists them, across courses and years.
+     */
+    public synchronized List<StudentPoint> getStudentSeries(String studentID, LocalDateTime since) throws IOException {
+        ensureLoaded();
+        List<StudentPoint> series = new ArrayList<>();
+        NavigableMap<LocalDateTime, List<StudentPoint>> points = pointsByStudent.get(studentID);
+        if (points == null) return series;
+        for (List<StudentPoint> atTime : (since != null ? points.tailMap(since, true) : points).values()) {
+            series.addAll(atTime);
+        }
+        return series;
+    }
+
+    /**
+     * TERMOF
+     * - School term a date falls in: September-December is Term 1, January-March Term 2,
+     *   April-August Term 3, labelled with the school year ("2024/2025 Term 2").
+     */
+    public static String termOf(LocalDateTime time) {
+        int month = time.getMonthValue();
+        int startYear = month >= 9 ? time.getYear() : time.getYear() - 1;
+        int term = month >= 9 ? 1 : month <= 3 ? 2 : 3;
+        return startYear + "/" + (startYear + 1) + " Term " + term;
+    }
+
+    // =============================
+    // LOADING
+    // =============================
+
+    private void ensureLoaded() throws IOException {
+        if (loaded) return;
+        for (String courseID : archive.getCourseIDs()) {
+            for (Report report : archive.getRange(courseID, null, null)) {
+                index(report);
+            }
+        }
+        loaded = true;
+    }
+
+    private void index(Report report) {
+        TrendPoint point = new TrendPoint(report);
+        pointsByCourse.computeIfAbsent(report.getCourseID(), k -> new TreeMap<>()).put(report.getGeneratedAt(), point);
+        coursesByCategory.computeIfAbsent(categoryKey(report.getGradeLevel(), report.getSubject(), report.getExamType()),
+                                          k -> new TreeSet<>()).add(report.getCourseID());
+
+        for (Map.Entry<String, Double> entry : report.getStudentAverages().entrySet()) {
+            List<StudentPoint> atTime = pointsByStudent
+                .computeIfAbsent(entry.getKey(), k -> new TreeMap<>())
+                .computeIfAbsent(report.getGeneratedAt(), k -> new ArrayList<>());
+            atTime.removeIf(p -> p.getCourseID().equals(report.getCourseID()));
+            atTime.add(new StudentPoint(report, entry.getValue()));
+        }
+    }
+
+    private static String categoryKey(String grade, String subject, String examType) {
+        return normalize(grade) + "|" + normalize(subject) + "|" + normalize(examType);
+    }
+
+    private static boolean matches(String key, String grade, String subject, String examType) {
+        String[] parts = key.split("\\|", -1);
+        return (grade == null || parts[0].equals(normalize(grade)))
+            && (subject == null || parts[1].equals(normalize(subject)))
+            && (examType == null || parts[2].equals(normalize(examType)));
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase();
+    }
+
+    /**
+     * TRENDPOINT
+     * - Headline figures of one course report.
+     */
+    public static class TrendPoint {
+        private final String courseID;
+        private final String gradeLevel;
+        private final String subject;
+        private final String examType;
+        private final LocalDateTime generatedAt;
+        private final String term;
+        private final double classAverage;
+        private final double median;
+        private final int studentCount;
+        private final Map<String, Integer> distribution;
+
+        TrendPoint(Report report) {
+            this.courseID = report.getCourseID();
+            this.gradeLevel = report.getGradeLevel();
+            this.subject = report.getSubject();
+            this.examType = report.getExamType();
+            this.generatedAt = report.getGeneratedAt();
+            this.term = termOf(report.getGeneratedAt());
+            this.classAverage = report.getClassAverage();
+            this.median = report.getMedian();
+            this.studentCount = report.getStudentAverages().size();
+            this.distribution = new LinkedHashMap<>(report.getPerformanceDistribution());
+        }
+
+        public String getCourseID() { return courseID; }
+        public String getGradeLevel() { return gradeLevel; }
+        public String getSubject() { return subject; }
+        public String getExamType() { return examType; }
+        public LocalDateTime getGeneratedAt() { return generatedAt; }
+        public String getTerm() { return term; }
+        public double getClassAverage() { return classAverage; }
+        public double getMedian() { return median; }
+        public int getStudentCount() { return studentCount; }
+        public Map<String, Integer> getDistribution() { return distribution; }
+    }
+
+    /**
+     * STUDENTPOINT
+     * - One student's average in one course report.
+     */
+    public static class StudentPoint {
+        private final String courseID;
+        private final String subject;
+        private final String gradeLevel;
+        private final LocalDateTime generatedAt;
+        private final String term;
+        private final double average;
+
+        StudentPoint(Report report, double average) {
+            this.courseID = report.getCourseID();
+            this.subject = report.getSubject();
+            this.gradeLevel = report.getGradeLevel();
+            this.generatedAt = report.getGeneratedAt();
+            this.term = termOf(report.getGeneratedAt());
+            this.average = average;
+        }
+
+        public String getCourseID() { return courseID; }
+        public String getSubject() { return subject; }
+        public String getGradeLevel() { return gradeLevel; }
+        public LocalDateTime getGeneratedAt() { return generatedAt; }
+        public String getTerm() { return term; }
+        public double getAverage() { return average; }
+    }
+}
@@ -3,17 +3,23 @@ package controllers;
 import models.ContactInfo;
 import models.EmergencyContact;
 import models.Staff;
+import utils.CsvReader;
+import utils.SearchIndex;
 
 import java.io.*;
 import java.util.*;
 import java.util.regex.Pattern;
 
 public class StaffController {
-    private static final String STAFF_FILE = "database/staff.txt";
-    private List<Staff> staffList;
+    private static final String STAFF_TABLE = "staff";
+    private static final int SEARCH_RESULT_LIMIT = 200;
+    private static final Comparator<Staff> BY_NAME = Comparator.comparing(Staff::getLastName)
+                                                               .thenComparing(Staff::getFirstName);
+    private final StorageBackend storage = StorageBackend.getInstance();
+    private final List<Staff> staffList = new ArrayList<>();
+    private SearchIndex<Staff> searchIndex;
 
     public StaffController() {
-        staffList = new ArrayList<>();
         loadStaffFromFile();
     }
 
@@ -26,27 +32,34 @@ public class StaffController {
      * ADDORUPDATESTAFF
      * - Removes existing staff with same ID (if any)
      * - Adds the new/updated staff to the list
-     * - Saves all staff to file
+     * - Saves that one record to storage
      */
 
     public void addOrUpdateStaff(Staff staff) {
-        staffList.removeIf(s -> s.getStaffID().equals(staff.getStaffID()));
-        staffList.add(staff);
-        saveStaffToFile();
+        synchronized (staffList) {
+            staffList.removeIf(s -> s.getStaffID().equals(staff.getStaffID()));
+            staffList.add(staff);
+        }
+        if (searchIndex != null) searchIndex.put(staff.getStaffID(), staff, searchFieldsOf(staff));
+        saveStaffRecord(staff);
     }
 
 
     /** 
      * DELETESTAFF
      * - Removes a staff member by ID
-     * - Saves updated list to file if removal occurred
+     * - Removes the record from storage if removal occurred
      * - Returns true if deleted, false if not found
      */
 
     public boolean deleteStaff(String staffID) {
-        boolean removed = staffList.removeIf(s -> s.getStaffID().equals(staffID));
+        boolean removed;
+        synchronized (staffList) {
+            removed = staffList.removeIf(s -> s.getStaffID().equals(staffID));
+        }
         if (removed) {
-            saveStaffToFile();
+            if (searchIndex != null) searchIndex.remove(staffID);
+            deleteStaffRecord(staffID);
         }
         return removed;
     }
@@ -88,6 +101,44 @@ public class StaffController {
         return results;
     }
 
+    /** 
+     * SEARCHSTAFF
+     * - Search-as-you-type over ID, name, phone, e-mail, roles, subjects and emergency contact
+     * - Partial words and small typos match; best matches come first
+     * - The index is built on first use and kept current by add/update/delete
+     */
+
+    public List<Staff> searchStaff(String query) {
+        if (searchIndex == null) {
+            searchIndex = new SearchIndex<>(BY_NAME);
+            for (Staff staff : staffList) {
+                searchIndex.put(staff.getStaffID(), staff, searchFieldsOf(staff));
+            }
+        }
+        return searchIndex.search(query, SEARCH_RESULT_LIMIT);
+    }
+
+    private static List<String> searchFieldsOf(Staff staff) {
+        List<String> fields = new ArrayList<>();
+        fields.add(staff.getStaffID());
+        fields.add(staff.getFirstName());
+        fields.add(staff.getLastName());
+        if (staff.getRoles() != null) fields.addAll(staff.getRoles());
+        if (staff.getSubjects() != null) fields.addAll(staff.getSubjects());
+
+        ContactInfo contact = staff.getContactInfo();
+        if (contact != null) {
+            fields.add(contact.getPhoneNumber());
+            fields.add(contact.getEmail());
+        }
+        EmergencyContact emergency = staff.getEmergencyContact();
+        if (emergency != null) {
+            fields.add(emergency.getName());
+            fields.add(emergency.getPhone());
+        }
+        return fields;
+    }
+
     /** 
      * SEARCHSTAFFBYFULLNAME
      * - Returns staff with matching first and last name
@@ -132,24 +183,23 @@ public class StaffController {
 
     /** 
      * SECTION: FILE HANDLING
-     * - Loads and saves staff records to 'staff.txt'.
+     * - Loads and saves staff records in the 'staff' table (staff.txt in text storage).
      */
 
 
     /** 
      * LOADSTAFFFROMFILE
-     * - Loads staff data from 'staff.txt'
+     * - Loads staff data from the 'staff' table
      */
 
     private void loadStaffFromFile() {
         staffList.clear();
-        File file = new File(STAFF_FILE);
-        if (!file.exists()) return;
+        searchIndex = null;
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                Staff staff = Staff.fromCSV(line);
+        try {
+            CsvReader reader = storage.read(STAFF_TABLE);
+            while (reader.next()) {
+                Staff staff = Staff.fromCSV(reader);
                 if (staff != null) staffList.add(staff);
             }
         } catch (IOException e) {
@@ -158,17 +208,22 @@ public class StaffController {
     }
 
     /** 
-     * SAVESTAFFTOFILE
-     * - Writes all staff records to 'staff.txt'
+     * SAVESTAFFRECORD / DELETESTAFFRECORD
+     * - Write or remove one staff record, keyed by staff ID
      * - Uses Staff.toCSV for formatting
      */
 
-    private void saveStaffToFile() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(STAFF_FILE))) {
-            for (Staff staff : staffList) {
-                writer.write(staff.toCSV());
-                writer.newLine();
-            }
+    private void saveStaffRecord(Staff staff) {
+        try {
+            storage.put(STAFF_TABLE, staff.getStaffID(), staff.toCSV());
+        } catch (IOException e) {
+            System.err.println("Error saving staff data: " + e.getMessage());
+        }
+    }
+
+    private void deleteStaffRecord(String staffID) {
+        try {
+            storage.delete(STAFF_TABLE, staffID);
         } catch (IOException e) {
             System.err.println("Error saving staff data: " + e.getMessage());
         }
@@ -185,6 +240,21 @@ public class StaffController {
         return staffList;
     }
 
+    /**
+     * SNAPSHOTALLSTAFF
+     * - A sorted copy taken under the list lock, for loading off the event thread; the live
+     *   list is left as it is, so edits made meanwhile are neither lost nor seen half done.
+     */
+
+    public List<Staff> snapshotAllStaff() {
+        List<Staff> copy;
+        synchronized (staffList) {
+            copy = new ArrayList<>(staffList);
+        }
+        copy.sort(BY_NAME);
+        return copy;
+    }
+
     /** 
      * SECTION: VALIDATION
      * - Validates format and required fields in staff and contact info.
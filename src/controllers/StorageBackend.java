@@ -0,0 +1,155 @@
+package controllers;
+
+import utils.CsvReader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * STORAGE BACKEND
+ * - Keyed record tables behind the student, staff, assessment, course, gradebook and attendance data.
+ * - A table is a logical name ("grade10", "staff", "assessments", "courses"); each record is one
+ *   CSV record whose first field is its primary key.
+ * - Each course has its own gradebook and attendance table ("grades/<course>_gradebook",
+ *   "attendance/<course>_attendance"), keyed by student ID, whose header record is keyed "Student ID".
+ *   A (course, student) row is therefore one record of the course's table.
+ * - TextStorage keeps every table in its database/<table>.txt file, exactly as before.
+ *   PagedStorage keeps each table in a page file with a B+tree on the key, so a single record
+ *   is read, replaced or removed by touching O(log n) pages instead of rewriting the table.
+ * - The backend is chosen once per process with -Dmrc.storage=text (the default) or =paged.
+ * - Course files (database/courses/<course>.txt) are free-form documents, not tables, and stay
+ *   on the DataStore; commit publishes them together with table changes.
+ */
+public interface StorageBackend {
+    String PROPERTY = "mrc.storage";
+
+    /**
+     * GETINSTANCE
+     * - The process-wide backend selected by the mrc.storage property.
+     */
+    static StorageBackend getInstance() {
+        return Selected.INSTANCE;
+    }
+
+    // =============================
+    // TABLE NAMES
+    // =============================
+
+    String COURSES_TABLE = "courses";
+    String ATTENDANCE_FOLDER = "attendance/";
+    String GRADEBOOK_FOLDER = "grades/";
+    String ATTENDANCE_SUFFIX = "_attendance";
+    String GRADEBOOK_SUFFIX = "_gradebook";
+
+    static String attendanceTable(String courseID) {
+        return ATTENDANCE_FOLDER + courseID + ATTENDANCE_SUFFIX;
+    }
+
+    static String gradebookTable(String courseID) {
+        return GRADEBOOK_FOLDER + courseID + GRADEBOOK_SUFFIX;
+    }
+
+    // =============================
+    // READS
+    // =============================
+
+    /**
+     * READ
+     * - Every record of a table in table order (insertion order, with replaced records keeping
+     *   their place); an empty reader if the table does not exist yet.
+     */
+    CsvReader read(String table) throws IOException;
+
+    /**
+     * GET
+     * - The record with the given key, or null.
+     */
+    String get(String table, String key) throws IOException;
+
+    /**
+     * GETSTAMP
+     * - A value that changes whenever the table changes, for callers that cache a table;
+     *   null if the table does not exist.
+     */
+    Object getStamp(String table) throws IOException;
+
+    /**
+     * EXISTS
+     * - True if the table has been created, even if it is empty.
+     */
+    boolean exists(String table);
+
+    /**
+     * LIST
+     * - Names of the existing tables in a folder ("attendance/"), sorted.
+     */
+    List<String> list(String folder) throws IOException;
+
+    // =============================
+    // WRITES
+    // =============================
+    // - Every write is durable when it returns.
+
+    /**
+     * PUT
+     * - Replaces the record with the same key in place, or adds it at the end of the table.
+     */
+    void put(String table, String key, String record) throws IOException;
+
+    /**
+     * DELETE
+     * - Removes the record with the given key; returns false if there was none.
+     */
+    boolean delete(String table, String key) throws IOException;
+
+    /**
+     * REPLACEALL
+     * - Replaces the whole table with the given records, keyed by their first field.
+     */
+    void replaceAll(String table, List<String> records) throws IOException;
+
+    /**
+     * COMMIT
+     * - Applies staged changes to several tables and replaces the given DataStore files with them.
+     * - All of it lands or none does, also across a crash. TextStorage publishes everything in
+     *   one DataStore commit; PagedStorage runs the tables and the files as one batch under its
+     *   batch log.
+     */
+    void commit(Map<String, TableChanges> tables, Map<Path, List<String>> files) throws IOException;
+
+    /**
+     * DROP / RENAME
+     * - Remove or rename a whole table; both return false if the table did not exist.
+     */
+    boolean drop(String table) throws IOException;
+
+    boolean rename(String table, String newName) throws IOException;
+
+    /**
+     * SELECTED
+     * - Holds the backend named by the mrc.storage property, created on first use.
+     */
+    final class Selected {
+        static final StorageBackend INSTANCE = create(System.getProperty(PROPERTY, "text"));
+
+        private Selected() {
+        }
+
+        private static StorageBackend create(String name) {
+            TextStorage text = new TextStorage(Paths.get("database"));
+            switch (name.trim().toLowerCase()) {
+                case "text":
+                    return text;
+                case "paged":
+                case "binary":
+                    return new PagedStorage(Paths.get("database", "store"), text);
+                default:
+                    System.err.println("Unknown " + PROPERTY + " '" + name + "', using text storage");
+                    return text;
+            }
+        }
+    }
+}
@@ -4,27 +4,46 @@ import models.Student;
 import models.ContactInfo;
 import models.GuardianInfo;
 
-import java.io.*;
 import java.util.*;
 
 public class StudentController {
-    private static final String DATABASE_PATH = "database" + File.separator;
-    private static final String FILE_EXTENSION = ".txt";
-    private Map<String, List<Student>> gradeStudentMap;
+    private static final int SEARCH_RESULT_LIMIT = 200;
+    private final StudentRepository repository = StudentRepository.getInstance();
+
+    /**
+     * CHANGE NOTIFICATIONS
+     * - Listeners are shared through the StudentRepository, so a change made through any
+     *   StudentController reaches every subscriber.
+     * - Existing listeners only implement onStudentListChanged; onStudentChanged adds the detail.
+     */
+    public enum ChangeType { ADDED, UPDATED, DELETED, RELOADED }
 
     public interface StudentChangeListener {
         void onStudentListChanged();
+
+        default void onStudentChanged(ChangeType type, Student student) {
+            onStudentListChanged();
+        }
     }
 
     private StudentChangeListener listener;
 
     public void setStudentChangeListener(StudentChangeListener listener) {
+        repository.removeListener(this.listener);
         this.listener = listener;
+        repository.addListener(listener);
+    }
+
+    public void addStudentChangeListener(StudentChangeListener listener) {
+        repository.addListener(listener);
+    }
+
+    public void removeStudentChangeListener(StudentChangeListener listener) {
+        repository.removeListener(listener);
     }
 
     public StudentController() {
-        this.gradeStudentMap = new HashMap<>();
-        loadStudentsFromFiles();
+        repository.load();
     }
 
 
@@ -35,21 +54,17 @@ public class StudentController {
      */
 
     /**
-     * Generates a unique Student ID (L + random number).
+     * Generates a unique Student ID (L1000 - L9999) from the repository's ID bitmap.
      */
     public String generateUniqueID() {
-        String id;
-        do {
-            id = "L" + (1000 + (int) (Math.random() * 9000));
-        } while (isIDTaken(id));
-        return id;
+        return repository.allocateID();
     }
 
     /**
      * Checks if a student ID is already used.
      */
-    private boolean isIDTaken(String studentID) {
-        return getStudentByID(studentID) != null;
+    public boolean isIDTaken(String studentID) {
+        return repository.containsID(studentID);
     }
 
    /**
@@ -63,18 +78,7 @@ public class StudentController {
      * Adds a new student to the system and saves to the correct grade file.
      */
     public void addStudent(Student student) {
-        String grade = student.getCurrentGrade();
-        List<Student> studentsInGrade = gradeStudentMap.computeIfAbsent(grade, k -> new ArrayList<>());
-    
-        studentsInGrade.removeIf(s -> s.getStudentID().equals(student.getStudentID()));
-    
-        studentsInGrade.add(student);
-        saveStudentsToFile(grade);
-    
-
-        if (listener != null) {
-            listener.onStudentListChanged();
-        }
+        repository.add(student);
     }
     
 
@@ -82,123 +86,28 @@ public class StudentController {
      * Updates a student’s information. If the grade changes, moves the student to the new grade.
      */
     public void updateStudent(Student updatedStudent) {
-        String oldGrade = findStudentGrade(updatedStudent.getStudentID());
-    
-        if (oldGrade != null && !oldGrade.equals(updatedStudent.getCurrentGrade())) {
-            List<Student> oldGradeStudents = gradeStudentMap.get(oldGrade);
-            if (oldGradeStudents != null) {
-                oldGradeStudents.removeIf(s -> s.getStudentID().equals(updatedStudent.getStudentID()));
-                saveStudentsToFile(oldGrade); 
-            }
-    
-            addStudent(updatedStudent);
-        } else {
-            List<Student> studentsInSameGrade = gradeStudentMap.get(updatedStudent.getCurrentGrade());
-            if (studentsInSameGrade != null) {
-                studentsInSameGrade.removeIf(s -> s.getStudentID().equals(updatedStudent.getStudentID()));
-                studentsInSameGrade.add(updatedStudent);
-                saveStudentsToFile(updatedStudent.getCurrentGrade());
-            }
-        }
-    
-        if (listener != null) {
-            listener.onStudentListChanged();
-        }
+        repository.update(updatedStudent);
     }
     
-    
-    
 
     /**
      * Deletes a student from the system by ID.
      */
     public boolean deleteStudent(String studentID) {
-        String grade = findStudentGrade(studentID);
-        if (grade != null) {
-            List<Student> students = gradeStudentMap.get(grade);
-            if (students != null) {
-                boolean removed = students.removeIf(student -> student.getStudentID().equals(studentID));
-                if (removed) {
-                    saveStudentsToFile(grade);
-
-                    if (listener != null) {
-                        listener.onStudentListChanged();
-                    }
-
-                    return true;
-                }
-            }
-        }
-        return false;
+        return repository.delete(studentID);
     }
 
 
     /**
      * FILE HANDLING
-     * - Loads and saves student data from/to grade files.
-     * - Organizes students by grade levels in memory.
+     * - Student data lives in the shared StudentRepository.
      */
 
     /**
-     * Loads students from all grade files into memory.
+     * Re-reads all grade files from disk into the shared repository.
      */
     public void loadStudentsFromFiles() {
-        File databaseDir = new File(DATABASE_PATH);
-        if (!databaseDir.exists()) {
-            System.err.println("⚠️ Database folder not found: " + databaseDir.getAbsolutePath());
-            return; 
-        }
-    
-        gradeStudentMap.clear();
-        for (int grade = 10; grade <= 13; grade++) {
-            String fileName = DATABASE_PATH + "grade" + grade + FILE_EXTENSION;
-            List<Student> students = new ArrayList<>();
-    
-            try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    Student student = Student.fromCSV(line);
-                    if (student != null) {
-                        students.add(student);
-                    }
-                }
-            } catch (IOException e) {
-                System.err.println("Error loading students from " + fileName + ": " + e.getMessage());
-            }
-    
-            gradeStudentMap.put(String.valueOf(grade), students);
-        }
-    }
-    
-    /**
-     * Finds which grade a student belongs to using their ID.
-     */
-    private String findStudentGrade(String studentID) {
-        for (Map.Entry<String, List<Student>> entry : gradeStudentMap.entrySet()) {
-            for (Student student : entry.getValue()) {
-                if (student.getStudentID().equals(studentID)) {
-                    return entry.getKey();
-                }
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Saves students of a specific grade to its corresponding file.
-     */
-    private void saveStudentsToFile(String grade) {
-        String fileName = DATABASE_PATH + "grade" + grade + FILE_EXTENSION;
-        List<Student> students = gradeStudentMap.get(grade);
-
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName))) {
-            for (Student student : students) {
-                writer.write(student.toCSV());
-                writer.newLine();
-            }
-        } catch (IOException e) {
-            System.err.println("Error saving students to " + fileName + ": " + e.getMessage());
-        }
+        repository.reload();
     }
 
     /**
@@ -212,14 +121,7 @@ public class StudentController {
      * Searches for a student by their ID.
      */
     public Student getStudentByID(String studentID) {
-        for (List<Student> students : gradeStudentMap.values()) {
-            for (Student student : students) {
-                if (student.getStudentID().equals(studentID)) {
-                    return student;
-                }
-            }
-        }
-        return null;
+        return repository.getByID(studentID);
     }
 
     /**
@@ -228,21 +130,23 @@ public class StudentController {
      */
     public List<Student> searchStudentByName(String name) {
         List<Student> matchingStudents = new ArrayList<>();
-        for (List<Student> students : gradeStudentMap.values()) {
-            for (Student student : students) {
-                if (student.getFirstName().equalsIgnoreCase(name) || student.getLastName().equalsIgnoreCase(name)) {
-                    matchingStudents.add(student);
-                }
+        for (Student student : repository.snapshotAll()) {
+            if (student.getFirstName().equalsIgnoreCase(name) || student.getLastName().equalsIgnoreCase(name)) {
+                matchingStudents.add(student);
             }
         }
-    
-        matchingStudents.sort(Comparator.comparing(Student::getLastName)
-                                        .thenComparing(Student::getFirstName));
-    
         return matchingStudents;
     }
     
     
+    /**
+     * Search-as-you-type over ID, name, school, phone, e-mail and guardian details.
+     * Partial words and small typos match; best matches come first.
+     */
+    public List<Student> searchStudents(String query) {
+        return repository.search(query, SEARCH_RESULT_LIMIT);
+    }
+
     /**
      * Retrieves and formats full student details.
      */
@@ -288,32 +192,33 @@ public class StudentController {
 
     
     /**
-     * Returns a list of all students in a specific grade.
+     * Returns a read-only, name-sorted view of the students in a specific grade.
      */
     public List<Student> getStudentsByGrade(String grade) {
-        List<Student> students = gradeStudentMap.getOrDefault(grade, new ArrayList<>());
-    
-        students.sort(Comparator.comparing(Student::getLastName)
-                                .thenComparing(Student::getFirstName));
-    
-        return students;
+        return repository.getByGrade(grade);
     }
     
 
     
     /**
-     * Returns all students in the system across all grades.
+     * Returns a read-only, name-sorted view of all students across all grades.
      */
     public List<Student> getAllStudents() {
-        List<Student> allStudents = new ArrayList<>();
-        for (List<Student> students : gradeStudentMap.values()) {
-            allStudents.addAll(students);
-        }
-        
-        allStudents.sort(Comparator.comparing(Student::getLastName)
-                                   .thenComparing(Student::getFirstName));
-        
-        return allStudents;
+        return repository.getAll();
+    }
+
+    /**
+     * Returns a copy of all students, safe to iterate on a background thread.
+     */
+    public List<Student> snapshotAllStudents() {
+        return repository.snapshotAll();
+    }
+
+    /**
+     * Returns a copy of the students in one grade, safe to iterate on a background thread.
+     */
+    public List<Student> snapshotStudentsByGrade(String grade) {
+        return repository.snapshotByGrade(grade);
     }
     
 }
@@ -0,0 +1,441 @@
+package controllers;
+
+import models.ContactInfo;
+import models.GuardianInfo;
+import models.Student;
+import utils.CsvReader;
+import utils.SearchIndex;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * STUDENT REPOSITORY
+ * - One process-wide, in-memory copy of every grade file (grade10.txt - grade13.txt).
+ * - Every StudentController is a thin facade over this repository, so the files are parsed once.
+ * - Changes are written record by record through the StorageBackend (one table per grade)
+ *   and published to every registered listener.
+ * - ID -> student and ID -> grade hash indexes make lookups O(1), and a bitmap of used
+ *   IDs hands out new L1000-L9999 IDs without rejection sampling.
+ * - Per-grade and school-wide lists are kept sorted by last name, first name and ID with
+ *   binary-search inserts and removals; reads return read-only views of them, never copies.
+ * - A SearchIndex over names, IDs, school, contact and guardian details answers free-text search.
+ */
+public class StudentRepository {
+    private static final String DATABASE_PATH = "database" + File.separator;
+    private static final int FIRST_GRADE = 10;
+    private static final int LAST_GRADE = 13;
+    private static final String ID_PREFIX = "L";
+    private static final int FIRST_ID = 1000;
+    private static final int LAST_ID = 9999;
+    private static final Comparator<Student> BY_NAME = Comparator.comparing(Student::getLastName)
+                                                                 .thenComparing(Student::getFirstName)
+                                                                 .thenComparing(Student::getStudentID);
+
+    private static StudentRepository instance;
+
+    private final Map<String, List<Student>> gradeStudentMap = new HashMap<>();
+    private final Map<String, List<Student>> gradeViews = new HashMap<>();
+    private final List<Student> allStudents = new ArrayList<>();
+    private final List<Student> allStudentsView = Collections.unmodifiableList(allStudents);
+    private final Map<String, Student> studentsByID = new HashMap<>();
+    private final Map<String, String> gradeByID = new HashMap<>();
+    private final BitSet usedIDs = new BitSet(LAST_ID - FIRST_ID + 1);
+    private final SearchIndex<Student> searchIndex = new SearchIndex<>(BY_NAME);
+    private int nextIDCandidate = 0;
+    private final List<StudentController.StudentChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final StorageBackend storage = StorageBackend.getInstance();
+    private boolean loaded = false;
+
+    private StudentRepository() {
+    }
+
+    /**
+     * GETINSTANCE
+     * - Returns the shared repository; data is loaded on first use or by an explicit load().
+     */
+    public static synchronized StudentRepository getInstance() {
+        if (instance == null) {
+            instance = new StudentRepository();
+        }
+        return instance;
+    }
+
+    // =============================
+    // LIFECYCLE
+    // =============================
+    // - load: parses the grade files if they have not been parsed yet.
+    // - reload: re-reads the grade files from disk and notifies listeners.
+    // - unload: drops the in-memory copy; the next access loads it again.
+
+    public synchronized void load() {
+        if (!loaded) readFromDisk();
+    }
+
+    public void reload() {
+        synchronized (this) {
+            readFromDisk();
+        }
+        notifyListeners(StudentController.ChangeType.RELOADED, null);
+    }
+
+    public synchronized void unload() {
+        clearIndexes();
+        loaded = false;
+    }
+
+    public synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    // =============================
+    // CHANGE NOTIFICATIONS
+    // =============================
+
+    public void addListener(StudentController.StudentChangeListener listener) {
+        if (listener != null && !listeners.contains(listener)) listeners.add(listener);
+    }
+
+    public void removeListener(StudentController.StudentChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void notifyListeners(StudentController.ChangeType type, Student student) {
+        for (StudentController.StudentChangeListener listener : listeners) {
+            try {
+                listener.onStudentChanged(type, student);
+            } catch (RuntimeException e) {
+                System.err.println("Error in student change listener: " + e.getMessage());
+            }
+        }
+    }
+
+    // =============================
+    // WRITES
+    // =============================
+
+    /**
+     * ADD
+     * - Adds or replaces a student in its grade and saves that one record.
+     */
+    public void add(Student student) {
+        synchronized (this) {
+            load();
+            put(student);
+        }
+        notifyListeners(StudentController.ChangeType.ADDED, student);
+    }
+
+    /**
+     * UPDATE
+     * - Replaces a student's record, moving it between grade files if the grade changed.
+     * - A student who is not on file and whose grade has no file is left out, and listeners
+     *   are not told of a change that did not happen.
+     */
+    public void update(Student updatedStudent) {
+        synchronized (this) {
+            load();
+            boolean known = gradeByID.containsKey(updatedStudent.getStudentID());
+            if (!known && !gradeStudentMap.containsKey(updatedStudent.getCurrentGrade())) return;
+            put(updatedStudent);
+        }
+        notifyListeners(StudentController.ChangeType.UPDATED, updatedStudent);
+    }
+
+    /**
+     * DELETE
+     * - Removes a student by ID; returns false if no such student exists.
+     */
+    public boolean delete(String studentID) {
+        Student removed = null;
+        synchronized (this) {
+            load();
+            String grade = gradeByID.get(studentID);
+            if (grade == null) return false;
+
+            removed = removeFromGrade(grade, studentID);
+            if (removed == null) return false;
+            deleteRecord(grade, studentID);
+        }
+        notifyListeners(StudentController.ChangeType.DELETED, removed);
+        return true;
+    }
+
+    // =============================
+    // READS
+    // =============================
+
+    public synchronized Student getByID(String studentID) {
+        load();
+        return studentsByID.get(studentID);
+    }
+
+    public synchronized String getGradeOf(String studentID) {
+        load();
+        return gradeByID.get(studentID);
+    }
+
+    public synchronized boolean containsID(String studentID) {
+        load();
+        return studentsByID.containsKey(studentID);
+    }
+
+    /**
+     * GETBYGRADE / GETALL
+     * - Return read-only views that are already sorted by last name then first name.
+     * - The views follow later changes; copy them before holding on to a snapshot.
+     */
+    public synchronized List<Student> getByGrade(String grade) {
+        load();
+        return gradeViews.getOrDefault(grade, Collections.emptyList());
+    }
+
+    public synchronized List<Student> getAll() {
+        load();
+        return allStudentsView;
+    }
+
+    /**
+     * SNAPSHOTALL / SNAPSHOTBYGRADE
+     * - Copies taken under the repository lock, for readers off the event thread that must not
+     *   see the list change while they iterate it.
+     */
+    public synchronized List<Student> snapshotAll() {
+        load();
+        return new ArrayList<>(allStudents);
+    }
+
+    public synchronized List<Student> snapshotByGrade(String grade) {
+        load();
+        List<Student> students = gradeStudentMap.get(grade);
+        return students != null ? new ArrayList<>(students) : new ArrayList<>();
+    }
+
+    /**
+     * SEARCH
+     * - Free-text search over ID, names, school, phone, e-mail and guardian details.
+     * - Matches word prefixes as the user types, with a small typo allowance.
+     */
+    public List<Student> search(String query, int limit) {
+        load();
+        return searchIndex.search(query, limit);
+    }
+
+    // =============================
+    // ID ALLOCATION
+    // =============================
+
+    /**
+     * ALLOCATEID
+     * - Returns the next free ID after the last one handed out, wrapping around once.
+     * - Each call moves on, so two open entry forms are not offered the same ID.
+     * - IDs of graduated or removed students that a sealed term still refers to are never reused.
+     */
+    public synchronized String allocateID() {
+        load();
+        int size = LAST_ID - FIRST_ID + 1;
+        int slot = nextFreeSlot(nextIDCandidate, size);
+        if (slot >= size) slot = nextFreeSlot(0, size);
+        if (slot >= size) {
+            throw new IllegalStateException("No student IDs left between " + ID_PREFIX + FIRST_ID + " and " + ID_PREFIX + LAST_ID);
+        }
+        nextIDCandidate = slot + 1 < size ? slot + 1 : 0;
+        return ID_PREFIX + (FIRST_ID + slot);
+    }
+
+    private int nextFreeSlot(int from, int size) {
+        TermArchive archive = TermArchive.getInstance();
+        for (int slot = usedIDs.nextClearBit(from); slot < size; slot = usedIDs.nextClearBit(slot + 1)) {
+            if (!archive.containsStudent(ID_PREFIX + (FIRST_ID + slot))) return slot;
+        }
+        return size;
+    }
+
+    private static int slotOf(String studentID) {
+        if (studentID == null || !studentID.startsWith(ID_PREFIX)) return -1;
+        try {
+            int number = Integer.parseInt(studentID.substring(ID_PREFIX.length()));
+            return number >= FIRST_ID && number <= LAST_ID ? number - FIRST_ID : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // =============================
+    // INDEX MAINTENANCE
+    // =============================
+
+    /**
+     * PUT
+     * - Replaces any existing record with the same ID, then inserts the student into its grade.
+     * - Removes the record from the old grade's table when the student changed grade.
+     */
+    private void put(Student student) {
+        String grade = student.getCurrentGrade();
+        String oldGrade = gradeByID.get(student.getStudentID());
+        if (oldGrade != null) {
+            removeFromGrade(oldGrade, student.getStudentID());
+            if (!oldGrade.equals(grade)) deleteRecord(oldGrade, student.getStudentID());
+        }
+
+        insert(student, grade);
+        saveRecord(grade, student);
+    }
+
+    private void insert(Student student, String grade) {
+        insertSorted(gradeList(grade), student);
+        insertSorted(allStudents, student);
+
+        studentsByID.put(student.getStudentID(), student);
+        gradeByID.put(student.getStudentID(), grade);
+        int slot = slotOf(student.getStudentID());
+        if (slot >= 0) usedIDs.set(slot);
+        searchIndex.put(student.getStudentID(), student, searchFieldsOf(student));
+    }
+
+    private Student removeFromGrade(String grade, String studentID) {
+        Student removed = studentsByID.remove(studentID);
+        gradeByID.remove(studentID);
+        int slot = slotOf(studentID);
+        if (slot >= 0) usedIDs.clear(slot);
+        searchIndex.remove(studentID);
+
+        if (removed != null) {
+            List<Student> students = gradeStudentMap.get(grade);
+            if (students != null) removeSorted(students, removed);
+            removeSorted(allStudents, removed);
+        }
+        return removed;
+    }
+
+    private List<Student> gradeList(String grade) {
+        List<Student> students = gradeStudentMap.get(grade);
+        if (students == null) {
+            students = new ArrayList<>();
+            gradeStudentMap.put(grade, students);
+            gradeViews.put(grade, Collections.unmodifiableList(students));
+        }
+        return students;
+    }
+
+    private static void insertSorted(List<Student> students, Student student) {
+        int index = Collections.binarySearch(students, student, BY_NAME);
+        students.add(index < 0 ? -index - 1 : index, student);
+    }
+
+    /**
+     * REMOVESORTED
+     * - Finds the stored object by binary search; falls back to a scan if a caller
+     *   renamed the shared Student in place and its sort position went stale.
+     */
+    private static void removeSorted(List<Student> students, Student student) {
+        int index = Collections.binarySearch(students, student, BY_NAME);
+        if (index < 0 || students.get(index) != student) {
+            index = -1;
+            for (int i = 0; i < students.size(); i++) {
+                if (students.get(i) == student) {
+                    index = i;
+                    break;
+                }
+            }
+        }
+        if (index >= 0) students.remove(index);
+    }
+
+    private void clearIndexes() {
+        for (List<Student> students : gradeStudentMap.values()) {
+            students.clear();
+        }
+        allStudents.clear();
+        studentsByID.clear();
+        gradeByID.clear();
+        usedIDs.clear();
+        searchIndex.clear();
+    }
+
+    private static List<String> searchFieldsOf(Student student) {
+        List<String> fields = new ArrayList<>();
+        fields.add(student.getStudentID());
+        fields.add(student.getFirstName());
+        fields.add(student.getLastName());
+        fields.add(student.getCurrentSchool());
+
+        ContactInfo contact = student.getContactInfo();
+        if (contact != null) {
+            fields.add(contact.getPhoneNumber());
+            fields.add(contact.getEmail());
+        }
+        for (GuardianInfo guardian : student.getGuardians()) {
+            fields.add(guardian.getGuardianFirstName());
+            fields.add(guardian.getGuardianLastName());
+            fields.add(guardian.getPhoneNumber());
+            fields.add(guardian.getEmail());
+        }
+        return fields;
+    }
+
+    // =============================
+    // STORAGE
+    // =============================
+
+    private static String tableFor(String grade) {
+        return "grade" + grade;
+    }
+
+    private void readFromDisk() {
+        File databaseDir = new File(DATABASE_PATH);
+        if (!databaseDir.exists()) {
+            System.err.println("⚠️ Database folder not found: " + databaseDir.getAbsolutePath());
+            return;
+        }
+
+        clearIndexes();
+        for (int grade = FIRST_GRADE; grade <= LAST_GRADE; grade++) {
+            String table = tableFor(String.valueOf(grade));
+            List<Student> students = new ArrayList<>();
+
+            try {
+                CsvReader reader = storage.read(table);
+                while (reader.next()) {
+                    Student student = Student.fromCSV(reader);
+                    if (student != null) {
+                        students.add(student);
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Error loading students from " + table + ": " + e.getMessage());
+            }
+
+            String gradeKey = String.valueOf(grade);
+            students.sort(BY_NAME);
+            gradeList(gradeKey).addAll(students);
+            for (Student student : students) {
+                studentsByID.put(student.getStudentID(), student);
+                gradeByID.put(student.getStudentID(), gradeKey);
+                int slot = slotOf(student.getStudentID());
+                if (slot >= 0) usedIDs.set(slot);
+                searchIndex.put(student.getStudentID(), student, searchFieldsOf(student));
+            }
+            allStudents.addAll(students);
+        }
+        allStudents.sort(BY_NAME);
+        loaded = true;
+    }
+
+    private void saveRecord(String grade, Student student) {
+        try {
+            storage.put(tableFor(grade), student.getStudentID(), student.toCSV());
+        } catch (IOException e) {
+            System.err.println("Error saving student " + student.getStudentID() + " to " + tableFor(grade) + ": " + e.getMessage());
+        }
+    }
+
+    private void deleteRecord(String grade, String studentID) {
+        try {
+            storage.delete(tableFor(grade), studentID);
+        } catch (IOException e) {
+            System.err.println("Error removing student " + studentID + " from " + tableFor(grade) + ": " + e.getMessage());
+        }
+    }
+}
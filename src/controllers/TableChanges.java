@@ -0,0 +1,78 @@
+package controllers;
+
+import utils.CsvReader;
+
+import java.util.*;
+
+/**
+ * TABLE CHANGES
+ * - Edits to one keyed table, staged for StorageBackend.commit: optionally a whole new set of
+ *   records, then records put or deleted by key.
+ * - A put replaces the first record with the same key in place, or adds the record at the end.
+ */
+class TableChanges {
+    private List<String> replacement;
+    private final Map<String, String> edits = new LinkedHashMap<>();
+
+    void replace(List<String> records) {
+        replacement = new ArrayList<>(records);
+        edits.clear();
+    }
+
+    void put(String key, String record) {
+        edits.put(key, record);
+    }
+
+    void delete(String key) {
+        edits.put(key, null);
+    }
+
+    /**
+     * REPLACESALL
+     * - True if the table's current records do not matter, only the staged ones.
+     */
+    boolean replacesAll() {
+        return replacement != null;
+    }
+
+    /**
+     * EDITS
+     * - Key -> new record, or null for a delete, in the order they were staged.
+     */
+    Map<String, String> edits() {
+        return edits;
+    }
+
+    /**
+     * APPLYTO
+     * - The table's records after these changes, given its current records.
+     */
+    List<String> applyTo(List<String> current) {
+        List<String> base = replacement != null ? replacement : current;
+        Map<String, String> remaining = new LinkedHashMap<>(edits);
+        List<String> records = new ArrayList<>(base.size() + remaining.size());
+        for (String record : base) {
+            String key = keyOf(record);
+            if (key != null && remaining.containsKey(key)) {
+                String replaced = remaining.remove(key);
+                if (replaced != null) records.add(replaced);
+            } else {
+                records.add(record);
+            }
+        }
+        for (String record : remaining.values()) {
+            if (record != null) records.add(record);
+        }
+        return records;
+    }
+
+    /**
+     * KEYOF
+     * - First field of a record, or null for a blank line.
+     */
+    static String keyOf(String record) {
+        CsvReader reader = CsvReader.of(record);
+        if (!reader.next() || reader.isBlankLine()) return null;
+        return reader.getString(0);
+    }
+}
@@ -0,0 +1,1032 @@
+package controllers;
+
+import models.Course;
+import models.SchoolDates;
+import models.Student;
+import utils.CsvReader;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * TERM ARCHIVE
+ * - Splits school data by term (ReportTrends.termOf). The files under database/ hold only the
+ *   active term; each past term is sealed into one read-only segment,
+ *   database/archive/terms/2024-2025-T1.seg.
+ * - A segment holds documents under their usual database/ names, each compressed on its own:
+ *   a snapshot of the grade, staff and courses tables and the course files at sealing time,
+ *   plus that term's assessments and only that term's attendance days and gradebook columns.
+ * - Each segment ends with an index of its documents and of the documents every student
+ *   appears in. A query for one student opens only the segments, and decompresses only the
+ *   documents, that mention them.
+ * - Sealing moves the term's attendance days, gradebook columns and assessments out of the active
+ *   tables, through the StorageBackend. Sealing a Term 3 also graduates grade 13: those students leave the grade files and
+ *   rosters, and their IDs stay reserved because the archive still refers to them.
+ * - The segment is written before anything is removed. If sealing stops after that, sealing
+ *   again (or sealPastTerms) finishes the removal from the segment's documents.
+ * - Sealing rewrites active files behind the application's back, so run it with the application closed:
+ *   java controllers.TermArchive list | seal [TERM] | student STUDENT_ID
+ */
+public class TermArchive {
+    private static final int SEGMENT_MAGIC = 0x54524d31;
+    private static final int FOOTER_MAGIC = 0x54524d58;
+    private static final int FORMAT_VERSION = 1;
+    private static final int FOOTER_SIZE = 12;
+    private static final int CACHED_DOCUMENTS = 32;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String LAST_GRADE = "13";
+
+    private static final Path DATABASE = Paths.get("database");
+    private static final String[] GRADES = {"10", "11", "12", "13"};
+    private static final String COURSES_FILE = "courses.txt";
+    private static final String COURSE_FOLDER = "courses/";
+    private static final String ATTENDANCE_FOLDER = "attendance/";
+    private static final String ATTENDANCE_SUFFIX = "_attendance.txt";
+    private static final String GRADEBOOK_FOLDER = "grades/";
+    private static final String GRADEBOOK_SUFFIX = "_gradebook.txt";
+    private static final String STAFF_TABLE = "staff";
+    private static final String ASSESSMENT_TABLE = "assessments";
+
+    private static TermArchive instance;
+
+    private final Path directory;
+    private final StorageBackend storage = StorageBackend.getInstance();
+    private final GradebookStore gradebooks = new GradebookStore(storage);
+    private final NavigableMap<Integer, Segment> segmentsByStart = new TreeMap<>();
+    private volatile Set<String> archivedStudentIDs = Collections.emptySet();
+    private volatile boolean loaded = false;
+
+    public TermArchive(String directory) {
+        this.directory = Paths.get(directory);
+    }
+
+    /**
+     * GETINSTANCE
+     * - The archive under database/archive/terms/.
+     */
+    public static synchronized TermArchive getInstance() {
+        if (instance == null) {
+            instance = new TermArchive("database/archive/terms/");
+        }
+        return instance;
+    }
+
+    // =============================
+    // TERMS
+    // =============================
+
+    public static String termOf(int epochDay) {
+        return ReportTrends.termOf(SchoolDates.toLocalDate(epochDay).atStartOfDay());
+    }
+
+    public static String getActiveTerm() {
+        return termOf(SchoolDates.today());
+    }
+
+    /**
+     * TERMSTART
+     * - First day of a term written as "2024/2025 Term 1" or "2024-2025-T1", as an epoch day.
+     */
+    public static int termStart(String term) {
+        String t = term.trim();
+        if (t.length() < 10 || !Character.isDigit(t.charAt(t.length() - 1))) {
+            throw new IllegalArgumentException("Not a term: " + term);
+        }
+        int startYear;
+        try {
+            startYear = Integer.parseInt(t.substring(0, 4));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a term: " + term);
+        }
+        switch (t.charAt(t.length() - 1)) {
+            case '1': return SchoolDates.of(LocalDate.of(startYear, 9, 1));
+            case '2': return SchoolDates.of(LocalDate.of(startYear + 1, 1, 1));
+            case '3': return SchoolDates.of(LocalDate.of(startYear + 1, 4, 1));
+            default: throw new IllegalArgumentException("Not a term: " + term);
+        }
+    }
+
+    /**
+     * NEXTTERMSTART
+     * - Term 1 runs from September, Term 2 from January and Term 3 from April.
+     */
+    private static int nextTermStart(String term) {
+        LocalDate start = SchoolDates.toLocalDate(termStart(term));
+        switch (start.getMonthValue()) {
+            case 9: return SchoolDates.of(start.plusMonths(4));
+            case 1: return SchoolDates.of(start.plusMonths(3));
+            default: return SchoolDates.of(start.withMonth(9));
+        }
+    }
+
+    private static String fileKeyOf(String term) {
+        String label = termOf(termStart(term));
+        return label.replace('/', '-').replace(" Term ", "-T");
+    }
+
+    // =============================
+    // HISTORICAL QUERIES
+    // =============================
+
+    /**
+     * GETSEALEDTERMS
+     * - Every sealed term, oldest first.
+     */
+    public synchronized List<String> getSealedTerms() throws IOException {
+        ensureLoaded();
+        List<String> terms = new ArrayList<>();
+        for (Segment segment : segmentsByStart.values()) terms.add(segment.term);
+        return terms;
+    }
+
+    public synchronized boolean isSealed(String term) throws IOException {
+        ensureLoaded();
+        return segmentsByStart.containsKey(termStart(term));
+    }
+
+    /**
+     * CONTAINSSTUDENT
+     * - Whether any sealed term mentions the ID; read from the loaded indexes without locking,
+     *   so the student repository can ask while it holds its own lock.
+     */
+    public boolean containsStudent(String studentID) {
+        if (!loaded) {
+            try {
+                synchronized (this) {
+                    ensureLoaded();
+                }
+            } catch (IOException e) {
+                System.err.println("Error loading term archive: " + e.getMessage());
+            }
+        }
+        return archivedStudentIDs.contains(studentID);
+    }
+
+    /**
+     * GETTERMSOF
+     * - The sealed terms a student appears in, oldest first; only the indexes are read.
+     */
+    public synchronized List<String> getTermsOf(String studentID) throws IOException {
+        ensureLoaded();
+        List<String> terms = new ArrayList<>();
+        for (Segment segment : segmentsByStart.values()) {
+            if (segment.documentsByStudent.containsKey(studentID)) terms.add(segment.term);
+        }
+        return terms;
+    }
+
+    /**
+     * FINDSTUDENT
+     * - The active record if there is one, otherwise the one from the latest sealed term, so
+     *   graduates can still be looked up; null if the ID was never used.
+     */
+    public Student findStudent(String studentID) throws IOException {
+        Student active = StudentRepository.getInstance().getByID(studentID);
+        if (active != null) return active;
+
+        synchronized (this) {
+            ensureLoaded();
+            for (Segment segment : segmentsByStart.descendingMap().values()) {
+                for (String name : segment.documentsOf(studentID)) {
+                    if (!isGradeFile(name)) continue;
+                    CsvReader reader = CsvReader.of(segment.read(name));
+                    while (reader.next()) {
+                        if (!reader.isBlankLine() && reader.getString(0).equals(studentID)) return Student.fromCSV(reader);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    public synchronized List<Student> getStudents(String term) throws IOException {
+        Segment segment = segmentFor(term);
+        List<Student> students = new ArrayList<>();
+        for (String grade : GRADES) {
+            CsvReader reader = CsvReader.of(segment.read(gradeFile(grade)));
+            while (reader.next()) {
+                if (reader.isBlankLine()) continue;
+                Student student = Student.fromCSV(reader);
+                if (student != null) students.add(student);
+            }
+        }
+        return students;
+    }
+
+    public synchronized List<String> getCourseIDs(String term) throws IOException {
+        Segment segment = segmentFor(term);
+        List<String> courseIDs = new ArrayList<>();
+        for (String name : segment.documents.keySet()) {
+            if (name.startsWith(COURSE_FOLDER)) courseIDs.add(name.substring(COURSE_FOLDER.length(), name.length() - ".txt".length()));
+        }
+        return courseIDs;
+    }
+
+    public synchronized Course getCourse(String term, String courseID) throws IOException {
+        Segment segment = segmentFor(term);
+        String name = COURSE_FOLDER + courseID + ".txt";
+        return segment.documents.containsKey(name) ? EnrollmentIndex.parseCourse(courseID, segment.lines(name)) : null;
+    }
+
+    /**
+     * GETATTENDANCE / GETGRADEBOOK
+     * - A course's sheet for one sealed term (that term's days or assessments only), or null.
+     */
+    public synchronized AttendanceSheet getAttendance(String term, String courseID) throws IOException {
+        Segment segment = segmentFor(term);
+        String name = ATTENDANCE_FOLDER + courseID + ATTENDANCE_SUFFIX;
+        return segment.documents.containsKey(name) ? AttendanceSheet.fromCSV(CsvReader.of(segment.read(name))) : null;
+    }
+
+    public synchronized GradebookTable getGradebook(String term, String courseID) throws IOException {
+        Segment segment = segmentFor(term);
+        String name = GRADEBOOK_FOLDER + courseID + GRADEBOOK_SUFFIX;
+        return segment.documents.containsKey(name) ? GradebookTable.fromCSV(CsvReader.of(segment.read(name))) : null;
+    }
+
+    /**
+     * GETATTENDANCEHISTORY
+     * - Term -> the student's attendance over all their courses that term, oldest first.
+     * - Sealed terms are read from their segments; the active files are reported under the active term.
+     */
+    public Map<String, AttendanceAnalytics.AttendanceStats> getAttendanceHistory(String studentID) throws IOException {
+        Map<String, AttendanceAnalytics.AttendanceStats> history = new LinkedHashMap<>();
+        synchronized (this) {
+            ensureLoaded();
+            for (Segment segment : segmentsByStart.values()) {
+                AttendanceAnalytics.AttendanceStats stats = new AttendanceAnalytics.AttendanceStats();
+                boolean found = false;
+                for (String name : segment.documentsOf(studentID)) {
+                    if (!name.startsWith(ATTENDANCE_FOLDER)) continue;
+                    AttendanceSheet sheet = AttendanceSheet.fromCSV(CsvReader.of(segment.read(name)));
+                    int row = sheet.rowOf(studentID);
+                    if (row < 0) continue;
+                    stats.add(sheet.countStatusesByStudent()[row]);
+                    found = true;
+                }
+                if (found) history.put(segment.term, stats);
+            }
+        }
+
+        AttendanceAnalytics.AttendanceStats active = new AttendanceController().getAnalytics().getStudentStats(studentID, null, null);
+        if (active.getSessions() + active.getJoinedLate() > 0) history.put(getActiveTerm(), active);
+        return history;
+    }
+
+    /**
+     * GETGRADEHISTORY
+     * - The student's gradebook row in every course of every term, oldest term first.
+     */
+    public List<TermGrades> getGradeHistory(String studentID) throws IOException {
+        List<TermGrades> history = new ArrayList<>();
+        synchronized (this) {
+            ensureLoaded();
+            for (Segment segment : segmentsByStart.values()) {
+                for (String name : segment.documentsOf(studentID)) {
+                    if (!name.startsWith(GRADEBOOK_FOLDER)) continue;
+                    String courseID = name.substring(GRADEBOOK_FOLDER.length(), name.length() - GRADEBOOK_SUFFIX.length());
+                    TermGrades grades = TermGrades.of(segment.term, courseID,
+                        GradebookTable.fromCSV(CsvReader.of(segment.read(name))), studentID);
+                    if (grades != null) history.add(grades);
+                }
+            }
+        }
+
+        for (Course course : new CourseController().getCoursesForStudent(studentID)) {
+            GradebookTable table = gradebooks.get(course.getCourseID());
+            if (table == null) continue;
+            TermGrades grades = TermGrades.of(getActiveTerm(), course.getCourseID(), table, studentID);
+            if (grades != null) history.add(grades);
+        }
+        return history;
+    }
+
+    // =============================
+    // SEALING
+    // =============================
+
+    /**
+     * SEALPASTTERMS
+     * - Seals, oldest first, every finished term that still has attendance days or
+     *   assessments in the active files.
+     * - A term that already has a segment had its seal stopped part way; it is finished from
+     *   that segment (see RESUME).
+     */
+    public List<SealSummary> sealPastTerms() throws IOException {
+        int activeStart = termStart(getActiveTerm());
+        SortedSet<Integer> starts = new TreeSet<>();
+        for (int day : activeDates()) {
+            if (day < activeStart) starts.add(termStart(termOf(day)));
+        }
+
+        List<SealSummary> sealed = new ArrayList<>();
+        for (int start : starts) {
+            sealed.add(seal(termOf(start)));
+        }
+        return sealed;
+    }
+
+    /**
+     * SEAL
+     * - Writes the term's segment, then removes the term's data from the active files.
+     * - Sealing a term that already has a segment finishes that seal instead of failing.
+     * - Graduation after a Term 3 happens only when the next term is the active one and no older
+     *   term still has data in the active files, because the graduates' rows would take any
+     *   unsealed data with them.
+     */
+    public SealSummary seal(String term) throws IOException {
+        SealSummary summary;
+        synchronized (this) {
+            summary = archive(termOf(termStart(term)));
+        }
+        if (summary.term.endsWith("Term 3")) {
+            if (nextTermStart(summary.term) != termStart(getActiveTerm())) {
+                summary.notes.add("Grade " + LAST_GRADE + " not graduated: later terms still have to be sealed first");
+            } else if (summary.olderDates > 0) {
+                summary.notes.add("Grade " + LAST_GRADE + " not graduated: " + summary.olderDates
+                    + " attendance days or assessments from earlier terms are still unsealed");
+            } else {
+                graduate(summary);
+            }
+        }
+        return summary;
+    }
+
+    private SealSummary archive(String term) throws IOException {
+        ensureLoaded();
+        int start = termStart(term);
+        if (start >= termStart(getActiveTerm())) {
+            throw new IllegalArgumentException(term + " is not over yet");
+        }
+        if (segmentsByStart.containsKey(start)) {
+            return resume(segmentsByStart.get(start));
+        }
+
+        SealSummary summary = new SealSummary(term);
+        List<PendingDocument> documents = new ArrayList<>();
+
+        // Snapshots: who was enrolled, employed and teaching what when the term was sealed.
+        for (String grade : GRADES) {
+            documents.add(PendingDocument.ofRecords(gradeFile(grade), storage.read("grade" + grade), true));
+        }
+        documents.add(PendingDocument.ofRecords(STAFF_TABLE + ".txt", storage.read(STAFF_TABLE), false));
+        if (storage.exists(StorageBackend.COURSES_TABLE)) {
+            documents.add(PendingDocument.ofRecords(COURSES_FILE, storage.read(StorageBackend.COURSES_TABLE), false));
+        }
+        for (Path file : list(DATABASE.resolve(COURSE_FOLDER), ".txt")) {
+            String courseID = stripSuffix(file, ".txt");
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            Set<String> roster = new LinkedHashSet<>();
+            for (String entry : EnrollmentIndex.parseCourse(courseID, lines).getStudents()) {
+                roster.add(entry.split(" - ", 2)[0].trim());
+            }
+            documents.add(new PendingDocument(COURSE_FOLDER + courseID + ".txt", lines, roster));
+        }
+
+        // The term's slice: its assessments, attendance days and gradebook columns.
+        List<String> assessmentLines = new ArrayList<>();
+        Set<String> assessmentIDs = new HashSet<>();
+        CsvReader assessments = storage.read(ASSESSMENT_TABLE);
+        while (assessments.next()) {
+            if (assessments.isBlankLine() || assessments.getFieldCount() < 5) continue;
+            int day = SchoolDates.parse(assessments.getString(3));
+            if (day == SchoolDates.NO_DATE) continue;
+            if (day >= start && termOf(day).equals(term)) {
+                assessmentLines.add(assessments.getLine());
+                assessmentIDs.add(assessments.getString(0));
+            } else if (day < start) {
+                summary.olderDates++;
+            }
+        }
+        documents.add(new PendingDocument(ASSESSMENT_TABLE + ".txt", assessmentLines, Collections.emptySet()));
+
+        for (String table : tables(StorageBackend.ATTENDANCE_FOLDER, StorageBackend.ATTENDANCE_SUFFIX)) {
+            AttendanceSheet slice = AttendanceSheet.fromCSV(storage.read(table));
+            int termDates = 0;
+            for (String date : new ArrayList<>(slice.getDates())) {
+                int day = SchoolDates.parse(date);
+                if (day != SchoolDates.NO_DATE && day >= start && termOf(day).equals(term)) {
+                    termDates++;
+                    continue;
+                }
+                if (day != SchoolDates.NO_DATE && day < start) summary.olderDates++;
+                slice.removeDate(date);
+            }
+            if (termDates == 0) continue;
+
+            documents.add(new PendingDocument(table + ".txt", slice.toCSV(), rowIDs(slice)));
+        }
+
+        for (String table : tables(StorageBackend.GRADEBOOK_FOLDER, StorageBackend.GRADEBOOK_SUFFIX)) {
+            GradebookTable slice = GradebookTable.fromCSV(storage.read(table));
+            List<String> headers = new ArrayList<>(slice.getHeaders());
+            int termColumns = 0;
+            for (int column = headers.size() - 1; column >= GradebookTable.FIRST_ASSESSMENT_COLUMN; column--) {
+                if (assessmentIDs.contains(assessmentIDOf(headers.get(column)))) termColumns++;
+                else slice.removeAssessment(column);
+            }
+            if (termColumns == 0) continue;
+
+            Set<String> rows = new LinkedHashSet<>();
+            for (int row = 0; row < slice.getRowCount(); row++) rows.add(slice.getStudentID(row));
+            documents.add(new PendingDocument(table + ".txt", slice.toCSV(), rows));
+        }
+
+        Path file = directory.resolve(fileKeyOf(term) + SEGMENT_SUFFIX);
+        Segment.write(file, term, documents);
+        Segment segment = Segment.open(file);
+        segmentsByStart.put(start, segment);
+        addArchivedStudents(segment);
+        summary.segmentBytes = Files.size(file);
+        summary.documents = documents.size();
+
+        // The segment is durable; only now does the term leave the active files.
+        prune(segment, summary);
+        return summary;
+    }
+
+    /**
+     * RESUME
+     * - Finishes a seal that stopped after its segment was written, e.g. a crash before or
+     *   between the prune steps. The segment records what the term moved, so whatever of it is
+     *   still in the active files is pruned again; the snapshots are not retaken.
+     */
+    private SealSummary resume(Segment segment) throws IOException {
+        SealSummary summary = new SealSummary(segment.term);
+        summary.documents = segment.documents.size();
+        summary.segmentBytes = Files.size(segment.file);
+        prune(segment, summary);
+
+        int start = termStart(segment.term);
+        for (int day : activeDates()) {
+            if (day < start) summary.olderDates++;
+        }
+        summary.notes.add(summary.attendanceDays + summary.gradebookColumns + summary.assessments > 0
+            ? "Already sealed; finished moving the term's data out of the active files"
+            : "Already sealed; none of the term's data was left in the active files");
+        return summary;
+    }
+
+    /**
+     * PRUNE
+     * - Removes the segment's attendance days, gradebook columns and assessments from the active
+     *   tables and counts them in the summary. Only what is still there is removed, so running
+     *   it again after an interruption is safe.
+     * - Attendance and gradebook tables change in one transaction; assessments go afterwards,
+     *   one record at a time, so a crash leaves at most some of them for the next run.
+     */
+    private void prune(Segment segment, SealSummary summary) throws IOException {
+        FileTransaction transaction = new FileTransaction(storage);
+        boolean changed = false;
+        for (String name : segment.documents.keySet()) {
+            if (name.startsWith(ATTENDANCE_FOLDER) && name.endsWith(ATTENDANCE_SUFFIX)) {
+                String table = name.substring(0, name.length() - ".txt".length());
+                if (!storage.exists(table)) continue;
+
+                AttendanceSheet active = AttendanceSheet.fromCSV(storage.read(table));
+                int removed = 0;
+                for (String date : AttendanceSheet.fromCSV(CsvReader.of(segment.read(name))).getDates()) {
+                    if (active.removeDate(date)) removed++;
+                }
+                if (removed == 0) continue;
+                transaction.writeTable(table, active.toCSV());
+                summary.attendanceDays += removed;
+                changed = true;
+            } else if (name.startsWith(GRADEBOOK_FOLDER) && name.endsWith(GRADEBOOK_SUFFIX)) {
+                String table = name.substring(0, name.length() - ".txt".length());
+                if (!storage.exists(table)) continue;
+
+                Set<String> termIDs = new HashSet<>();
+                List<String> termHeaders = GradebookTable.fromCSV(CsvReader.of(segment.read(name))).getHeaders();
+                for (int column = GradebookTable.FIRST_ASSESSMENT_COLUMN; column < termHeaders.size(); column++) {
+                    termIDs.add(assessmentIDOf(termHeaders.get(column)));
+                }
+
+                GradebookTable active = GradebookTable.fromCSV(storage.read(table));
+                List<String> headers = new ArrayList<>(active.getHeaders());
+                int removed = 0;
+                for (int column = headers.size() - 1; column >= GradebookTable.FIRST_ASSESSMENT_COLUMN; column--) {
+                    if (termIDs.contains(assessmentIDOf(headers.get(column)))) {
+                        active.removeAssessment(column);
+                        removed++;
+                    }
+                }
+                if (removed == 0) continue;
+                transaction.writeTable(table, active.toCSV());
+                summary.gradebookColumns += removed;
+                changed = true;
+            }
+        }
+        if (changed) transaction.commit();
+
+        CsvReader assessments = CsvReader.of(segment.read(ASSESSMENT_TABLE + ".txt"));
+        while (assessments.next()) {
+            if (assessments.isBlankLine()) continue;
+            if (storage.delete(ASSESSMENT_TABLE, assessments.getString(0))) summary.assessments++;
+        }
+    }
+
+    /**
+     * GRADUATE
+     * - Takes every grade 13 student off their course rosters and out of the grade files.
+     */
+    private void graduate(SealSummary summary) throws IOException {
+        StudentRepository students = StudentRepository.getInstance();
+        List<String> graduates = new ArrayList<>();
+        for (Student student : students.snapshotByGrade(LAST_GRADE)) {
+            graduates.add(student.getStudentID());
+        }
+        if (graduates.isEmpty()) return;
+
+        CourseController courses = new CourseController();
+        Map<String, List<String>> leavingByCourse = new TreeMap<>();
+        for (String studentID : graduates) {
+            for (Course course : courses.getCoursesForStudent(studentID)) {
+                leavingByCourse.computeIfAbsent(course.getCourseID(), k -> new ArrayList<>()).add(studentID);
+            }
+        }
+        for (Map.Entry<String, List<String>> entry : leavingByCourse.entrySet()) {
+            courses.removeStudentsFromCourse(entry.getKey(), entry.getValue());
+        }
+        for (String studentID : graduates) {
+            students.delete(studentID);
+        }
+        summary.graduated = graduates.size();
+    }
+
+    /**
+     * ACTIVEDATES
+     * - Every attendance day and assessment date in the active files, as epoch days.
+     */
+    private List<Integer> activeDates() throws IOException {
+        List<Integer> days = new ArrayList<>();
+        CsvReader assessments = storage.read(ASSESSMENT_TABLE);
+        while (assessments.next()) {
+            if (assessments.isBlankLine() || assessments.getFieldCount() < 5) continue;
+            int day = SchoolDates.parse(assessments.getString(3));
+            if (day != SchoolDates.NO_DATE) days.add(day);
+        }
+        for (String table : tables(StorageBackend.ATTENDANCE_FOLDER, StorageBackend.ATTENDANCE_SUFFIX)) {
+            for (String date : AttendanceSheet.fromCSV(storage.read(table)).getDates()) {
+                int day = SchoolDates.parse(date);
+                if (day != SchoolDates.NO_DATE) days.add(day);
+            }
+        }
+        return days;
+    }
+
+    // =============================
+    // LOADING
+    // =============================
+
+    private void ensureLoaded() throws IOException {
+        if (loaded) return;
+        for (Path file : list(directory, SEGMENT_SUFFIX)) {
+            try {
+                Segment segment = Segment.open(file);
+                segmentsByStart.put(termStart(segment.term), segment);
+                addArchivedStudents(segment);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Skipping unreadable term segment " + file + ": " + e.getMessage());
+            }
+        }
+        loaded = true;
+    }
+
+    private void addArchivedStudents(Segment segment) {
+        Set<String> ids = new HashSet<>(archivedStudentIDs);
+        ids.addAll(segment.documentsByStudent.keySet());
+        archivedStudentIDs = Collections.unmodifiableSet(ids);
+    }
+
+    private Segment segmentFor(String term) throws IOException {
+        ensureLoaded();
+        Segment segment = segmentsByStart.get(termStart(term));
+        if (segment == null) throw new IllegalArgumentException(term + " is not sealed");
+        return segment;
+    }
+
+    // =============================
+    // HELPERS
+    // =============================
+
+    private static String gradeFile(String grade) {
+        return "grade" + grade + ".txt";
+    }
+
+    private static boolean isGradeFile(String name) {
+        return name.startsWith("grade") && name.indexOf('/') < 0;
+    }
+
+    private static String assessmentIDOf(String header) {
+        return header.split(" - ", 2)[0].trim();
+    }
+
+    private static Set<String> rowIDs(AttendanceSheet sheet) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (int row = 0; row < sheet.getStudentCount(); row++) ids.add(sheet.getStudentID(row));
+        return ids;
+    }
+
+    private static String stripSuffix(Path file, String suffix) {
+        String name = file.getFileName().toString();
+        return name.substring(0, name.length() - suffix.length());
+    }
+
+    /**
+     * TABLES
+     * - The per-course tables in a storage folder whose names end with the suffix.
+     */
+    private List<String> tables(String folder, String suffix) throws IOException {
+        List<String> names = new ArrayList<>();
+        for (String name : storage.list(folder)) {
+            if (name.endsWith(suffix)) names.add(name);
+        }
+        return names;
+    }
+
+    private static List<Path> list(Path folder, String suffix) throws IOException {
+        if (!Files.isDirectory(folder)) return Collections.emptyList();
+        try (Stream<Path> files = Files.list(folder)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(suffix)).sorted().collect(Collectors.toList());
+        }
+    }
+
+    // =============================
+    // COMMAND LINE
+    // =============================
+
+    public static void main(String[] args) {
+        TermArchive archive = getInstance();
+        try {
+            String command = args.length > 0 ? args[0] : "list";
+            String argument = String.join(" ", Arrays.asList(args).subList(Math.min(1, args.length), args.length));
+            switch (command) {
+                case "list":
+                    System.out.println("Active term: " + getActiveTerm());
+                    for (String term : archive.getSealedTerms()) System.out.println("Sealed: " + term);
+                    break;
+                case "seal":
+                    List<SealSummary> sealed = argument.isEmpty()
+                        ? archive.sealPastTerms()
+                        : Collections.singletonList(archive.seal(argument));
+                    if (sealed.isEmpty()) System.out.println("No finished term has data in the active files.");
+                    for (SealSummary summary : sealed) System.out.println(summary);
+                    break;
+                case "student":
+                    Student student = archive.findStudent(argument);
+                    System.out.println(student != null ? student.getStudentID() + " " + student.getFirstName() + " "
+                        + student.getLastName() + ", grade " + student.getCurrentGrade() : "No such student: " + argument);
+                    for (Map.Entry<String, AttendanceAnalytics.AttendanceStats> entry : archive.getAttendanceHistory(argument).entrySet()) {
+                        System.out.println(entry.getKey() + " attendance: " + entry.getValue());
+                    }
+                    for (TermGrades grades : archive.getGradeHistory(argument)) System.out.println(grades);
+                    break;
+                default:
+                    System.err.println("Usage: java controllers.TermArchive list | seal [TERM] | student STUDENT_ID");
+                    System.exit(2);
+            }
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    // =============================
+    // RESULTS
+    // =============================
+
+    /**
+     * SEALSUMMARY
+     * - What sealing one term moved into its segment.
+     */
+    public static final class SealSummary {
+        private final String term;
+        private final List<String> notes = new ArrayList<>();
+        private int documents;
+        private long segmentBytes;
+        private int attendanceDays;
+        private int gradebookColumns;
+        private int assessments;
+        private int graduated;
+        private int olderDates;
+
+        SealSummary(String term) {
+            this.term = term;
+        }
+
+        public String getTerm() { return term; }
+        public List<String> getNotes() { return notes; }
+        public int getAttendanceDays() { return attendanceDays; }
+        public int getGradebookColumns() { return gradebookColumns; }
+        public int getAssessments() { return assessments; }
+        public int getGraduated() { return graduated; }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(String.format(
+                "Sealed %s: %d documents, %d bytes; %d attendance day columns, %d gradebook columns, %d assessments, %d graduated",
+                term, documents, segmentBytes, attendanceDays, gradebookColumns, assessments, graduated));
+            for (String note : notes) sb.append(System.lineSeparator()).append("  ").append(note);
+            return sb.toString();
+        }
+    }
+
+    /**
+     * TERMGRADES
+     * - One student's gradebook row in one course and term: the average and each assessment cell.
+     */
+    public static final class TermGrades {
+        private final String term;
+        private final String courseID;
+        private final String average;
+        private final Map<String, String> cells;
+
+        private TermGrades(String term, String courseID, String average, Map<String, String> cells) {
+            this.term = term;
+            this.courseID = courseID;
+            this.average = average;
+            this.cells = cells;
+        }
+
+        static TermGrades of(String term, String courseID, GradebookTable table, String studentID) {
+            int row = table.rowOf(studentID);
+            if (row < 0) return null;
+            Map<String, String> cells = new LinkedHashMap<>();
+            List<String> headers = table.getHeaders();
+            for (int column = GradebookTable.FIRST_ASSESSMENT_COLUMN; column < headers.size(); column++) {
+                cells.put(headers.get(column), table.getCell(row, column));
+            }
+            return new TermGrades(term, courseID, table.getCell(row, GradebookTable.AVERAGE_COLUMN), cells);
+        }
+
+        public String getTerm() { return term; }
+        public String getCourseID() { return courseID; }
+        public String getAverage() { return average; }
+        public Map<String, String> getCells() { return cells; }
+
+        @Override
+        public String toString() {
+            return term + " " + courseID + ": average " + average + " " + cells;
+        }
+    }
+
+    // =============================
+    // SEGMENT FILES
+    // =============================
+
+    private static final class PendingDocument {
+        final String name;
+        final List<String> lines;
+        final Set<String> studentIDs;
+
+        PendingDocument(String name, List<String> lines, Set<String> studentIDs) {
+            this.name = name;
+            this.lines = lines;
+            this.studentIDs = studentIDs;
+        }
+
+        static PendingDocument ofRecords(String name, CsvReader reader, boolean indexStudents) {
+            List<String> lines = new ArrayList<>();
+            Set<String> ids = new LinkedHashSet<>();
+            while (reader.next()) {
+                if (reader.isBlankLine()) continue;
+                lines.add(reader.getLine());
+                if (indexStudents) ids.add(reader.getString(0));
+            }
+            return new PendingDocument(name, lines, ids);
+        }
+    }
+
+    /**
+     * SEGMENT
+     * - One sealed term. Layout: magic, version, term label; the deflated documents back to back;
+     *   the index (name, offset, compressed and raw length, CRC of each document, then each
+     *   student ID with the numbers of the documents it appears in); and a footer holding the
+     *   index offset.
+     * - Opening reads only the footer and the index. Documents are inflated on demand and the
+     *   most recently used ones are kept.
+     */
+    private static final class Segment {
+        final String term;
+        final Path file;
+        final Map<String, Document> documents = new LinkedHashMap<>();
+        final Map<String, int[]> documentsByStudent = new HashMap<>();
+        private final List<Document> byNumber = new ArrayList<>();
+        private final Map<String, byte[]> cache = new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                return size() > CACHED_DOCUMENTS;
+            }
+        };
+
+        private Segment(String term, Path file) {
+            this.term = term;
+            this.file = file;
+        }
+
+        /**
+         * WRITE
+         * - Writes the segment to a temporary file, forces it to disk, moves it into place
+         *   and marks it read-only.
+         */
+        static void write(Path file, String term, List<PendingDocument> pending) throws IOException {
+            Files.createDirectories(file.getParent());
+            Path temp = file.resolveSibling(file.getFileName() + TEMP_SUFFIX);
+            Map<String, List<Integer>> byStudent = new TreeMap<>();
+
+            try (FileOutputStream stream = new FileOutputStream(temp.toFile());
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+                out.writeInt(SEGMENT_MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(term);
+
+                List<Document> written = new ArrayList<>();
+                Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+                try {
+                    for (PendingDocument document : pending) {
+                        byte[] raw = encode(document.lines);
+                        byte[] compressed = deflate(deflater, raw);
+                        CRC32 crc = new CRC32();
+                        crc.update(raw);
+                        written.add(new Document(document.name, out.size(), compressed.length, raw.length, crc.getValue()));
+                        out.write(compressed);
+                        for (String studentID : document.studentIDs) {
+                            byStudent.computeIfAbsent(studentID, k -> new ArrayList<>()).add(written.size() - 1);
+                        }
+                    }
+                } finally {
+                    deflater.end();
+                }
+
+                long indexOffset = out.size();
+                out.writeInt(written.size());
+                for (Document document : written) {
+                    out.writeUTF(document.name);
+                    out.writeLong(document.offset);
+                    out.writeInt(document.compressedLength);
+                    out.writeInt(document.rawLength);
+                    out.writeLong(document.crc);
+                }
+                out.writeInt(byStudent.size());
+                for (Map.Entry<String, List<Integer>> entry : byStudent.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().size());
+                    for (int number : entry.getValue()) out.writeInt(number);
+                }
+                out.writeLong(indexOffset);
+                out.writeInt(FOOTER_MAGIC);
+                out.flush();
+                stream.getFD().sync();
+            }
+
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file);
+            }
+            file.toFile().setReadOnly();
+        }
+
+        static Segment open(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size < FOOTER_SIZE) throw new IOException("Segment is truncated");
+                ByteBuffer footer = readFully(channel, size - FOOTER_SIZE, FOOTER_SIZE);
+                long indexOffset = footer.getLong();
+                if (footer.getInt() != FOOTER_MAGIC || indexOffset < 0 || indexOffset > size - FOOTER_SIZE) {
+                    throw new IOException("Segment has no index footer");
+                }
+
+                ByteBuffer head = readFully(channel, 0, (int) Math.min(size, 8 + 2 + 3 * 255));
+                DataInputStream header = new DataInputStream(new ByteArrayInputStream(head.array()));
+                if (header.readInt() != SEGMENT_MAGIC || header.readInt() != FORMAT_VERSION) {
+                    throw new IOException("Not a term segment");
+                }
+                Segment segment = new Segment(header.readUTF(), file);
+
+                ByteBuffer index = readFully(channel, indexOffset, (int) (size - FOOTER_SIZE - indexOffset));
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(index.array()));
+                int documentCount = in.readInt();
+                for (int i = 0; i < documentCount; i++) {
+                    Document document = new Document(in.readUTF(), in.readLong(), in.readInt(), in.readInt(), in.readLong());
+                    segment.documents.put(document.name, document);
+                    segment.byNumber.add(document);
+                }
+                int studentCount = in.readInt();
+                for (int i = 0; i < studentCount; i++) {
+                    String studentID = in.readUTF();
+                    int[] numbers = new int[in.readInt()];
+                    for (int j = 0; j < numbers.length; j++) numbers[j] = in.readInt();
+                    segment.documentsByStudent.put(studentID, numbers);
+                }
+                return segment;
+            }
+        }
+
+        List<String> documentsOf(String studentID) {
+            int[] numbers = documentsByStudent.get(studentID);
+            if (numbers == null) return Collections.emptyList();
+            List<String> names = new ArrayList<>(numbers.length);
+            for (int number : numbers) names.add(byNumber.get(number).name);
+            return names;
+        }
+
+        /**
+         * READ
+         * - A document's bytes, checked against its CRC; empty if the segment has no such document.
+         */
+        synchronized byte[] read(String name) throws IOException {
+            byte[] cached = cache.get(name);
+            if (cached != null) return cached;
+            Document document = documents.get(name);
+            if (document == null) return new byte[0];
+
+            byte[] compressed;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                compressed = readFully(channel, document.offset, document.compressedLength).array();
+            }
+            byte[] raw = new byte[document.rawLength];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(compressed);
+                int filled = 0;
+                while (filled < raw.length && !inflater.finished()) {
+                    int n = inflater.inflate(raw, filled, raw.length - filled);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                    filled += n;
+                }
+                if (filled != raw.length) throw new IOException("Document " + name + " in " + file + " is truncated");
+            } catch (DataFormatException e) {
+                throw new IOException("Document " + name + " in " + file + " is corrupt", e);
+            } finally {
+                inflater.end();
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(raw);
+            if (crc.getValue() != document.crc) throw new IOException("Checksum mismatch for " + name + " in " + file);
+            cache.put(name, raw);
+            return raw;
+        }
+
+        List<String> lines(String name) throws IOException {
+            return new String(read(name), StandardCharsets.UTF_8).lines().collect(Collectors.toList());
+        }
+
+        private static byte[] encode(List<String> lines) {
+            StringBuilder sb = new StringBuilder();
+            for (String line : lines) sb.append(line).append('\n');
+            return sb.toString().getBytes(StandardCharsets.UTF_8);
+        }
+
+        private static byte[] deflate(Deflater deflater, byte[] raw) {
+            deflater.reset();
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        }
+
+        private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) throw new EOFException();
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    private static final class Document {
+        final String name;
+        final long offset;
+        final int compressedLength;
+        final int rawLength;
+        final long crc;
+
+        Document(String name, long offset, int compressedLength, int rawLength, long crc) {
+            this.name = name;
+            this.offset = offset;
+            this.compressedLength = compressedLength;
+            this.rawLength = rawLength;
+            this.crc = crc;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package controllers;
+
+import utils.CsvReader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * TEXT STORAGE
+ * - The original storage: each table is database/<table>.txt, one CSV record per line.
+ * - Writes go through the DataStore, so they are journalled and atomic.
+ * - New keys are appended without rewriting the file; replacing or removing a record
+ *   rewrites the file, as the controllers always did.
+ * - Per-course tables are the familiar database/grades/<course>_gradebook.txt and
+ *   database/attendance/<course>_attendance.txt files.
+ */
+public class TextStorage implements StorageBackend {
+    private static final String FILE_EXTENSION = ".txt";
+
+    private final Path directory;
+
+    public TextStorage(Path directory) {
+        this.directory = directory;
+    }
+
+    public Path fileFor(String table) {
+        return directory.resolve(table + FILE_EXTENSION);
+    }
+
+    // =============================
+    // READS
+    // =============================
+
+    @Override
+    public CsvReader read(String table) throws IOException {
+        Path file = fileFor(table);
+        if (!Files.exists(file)) return CsvReader.of(new byte[0]);
+        return CsvReader.open(file);
+    }
+
+    @Override
+    public String get(String table, String key) throws IOException {
+        CsvReader reader = read(table);
+        while (reader.next()) {
+            if (!reader.isBlankLine() && reader.getString(0).equals(key)) return reader.getLine();
+        }
+        return null;
+    }
+
+    @Override
+    public Object getStamp(String table) throws IOException {
+        Path file = fileFor(table);
+        return Files.exists(file) ? FileStamp.of(file) : null;
+    }
+
+    @Override
+    public boolean exists(String table) {
+        return Files.exists(fileFor(table));
+    }
+
+    @Override
+    public List<String> list(String folder) throws IOException {
+        List<String> names = new ArrayList<>();
+        Path dir = directory.resolve(folder);
+        if (!Files.isDirectory(dir)) return names;
+        try (Stream<Path> files = Files.list(dir)) {
+            files.map(f -> f.getFileName().toString())
+                 .filter(name -> name.endsWith(FILE_EXTENSION))
+                 .forEach(name -> names.add(folder + name.substring(0, name.length() - FILE_EXTENSION.length())));
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    private List<String> records(String table) throws IOException {
+        List<String> records = new ArrayList<>();
+        CsvReader reader = read(table);
+        while (reader.next()) {
+            if (!reader.isBlankLine()) records.add(reader.getLine());
+        }
+        return records;
+    }
+
+    // =============================
+    // WRITES
+    // =============================
+
+    @Override
+    public synchronized void put(String table, String key, String record) throws IOException {
+        List<String> records = new ArrayList<>();
+        boolean replaced = false;
+
+        CsvReader reader = read(table);
+        while (reader.next()) {
+            if (reader.isBlankLine()) continue;
+            if (!replaced && reader.getString(0).equals(key)) {
+                records.add(record);
+                replaced = true;
+            } else {
+                records.add(reader.getLine());
+            }
+        }
+
+        if (replaced) {
+            DataStore.getInstance().writeLines(fileFor(table), records);
+        } else {
+            DataStore.getInstance().appendLines(fileFor(table), Collections.singletonList(record));
+        }
+    }
+
+    @Override
+    public synchronized boolean delete(String table, String key) throws IOException {
+        List<String> records = new ArrayList<>();
+        boolean removed = false;
+
+        CsvReader reader = read(table);
+        while (reader.next()) {
+            if (reader.isBlankLine()) continue;
+            if (!removed && reader.getString(0).equals(key)) {
+                removed = true;
+            } else {
+                records.add(reader.getLine());
+            }
+        }
+
+        if (removed) DataStore.getInstance().writeLines(fileFor(table), records);
+        return removed;
+    }
+
+    @Override
+    public synchronized void replaceAll(String table, List<String> records) throws IOException {
+        DataStore.getInstance().writeLines(fileFor(table), records);
+    }
+
+    /**
+     * COMMIT
+     * - Every changed table is rewritten, in the same DataStore commit as the files.
+     */
+    @Override
+    public synchronized void commit(Map<String, TableChanges> tables, Map<Path, List<String>> files) throws IOException {
+        Map<Path, List<String>> all = new LinkedHashMap<>(files);
+        for (Map.Entry<String, TableChanges> table : tables.entrySet()) {
+            TableChanges changes = table.getValue();
+            List<String> current = changes.replacesAll() ? Collections.emptyList() : records(table.getKey());
+            all.put(fileFor(table.getKey()), changes.applyTo(current));
+        }
+        DataStore.getInstance().commit(all);
+    }
+
+    @Override
+    public synchronized boolean drop(String table) throws IOException {
+        return Files.deleteIfExists(fileFor(table));
+    }
+
+    @Override
+    public synchronized boolean rename(String table, String newName) throws IOException {
+        Path file = fileFor(table);
+        if (!Files.exists(file)) return false;
+        Path target = fileFor(newName);
+        Files.createDirectories(target.getParent());
+        Files.move(file, target);
+        return true;
+    }
+}
@@ -0,0 +1,94 @@
+package controllers;
+
+import java.util.Arrays;
+
+/**
+ * WEIGHTED AVERAGE
+ * - The one place a student's course average is worked out: 40% of the test mean plus 60% of the exam mean.
+ * - Keeps a running sum and count per student for each category in primitive arrays,
+ *   so a single grade change updates the average in constant time.
+ * - A category with no scores counts as 0.
+ */
+public class WeightedAverage {
+    public static final double TEST_WEIGHT = 0.4;
+    public static final double EXAM_WEIGHT = 0.6;
+
+    /**
+     * CATEGORY
+     * - Decided by the assessment ID prefix of a gradebook header ("T1234 - Quiz", "E5678 - Final").
+     */
+    public enum Category {
+        TEST, EXAM, NONE;
+
+        public static Category of(String header) {
+            String trimmed = header == null ? "" : header.trim();
+            if (trimmed.isEmpty()) return NONE;
+            switch (Character.toUpperCase(trimmed.charAt(0))) {
+                case 'T': return TEST;
+                case 'E': return EXAM;
+                default: return NONE;
+            }
+        }
+    }
+
+    private double[] testSum = new double[16];
+    private int[] testCount = new int[16];
+    private double[] examSum = new double[16];
+    private int[] examCount = new int[16];
+
+    // =============================
+    // UPDATES
+    // =============================
+
+    public void add(int row, Category category, double score) {
+        if (category == Category.NONE) return;
+        ensureCapacity(row);
+        if (category == Category.TEST) {
+            testSum[row] += score;
+            testCount[row]++;
+        } else {
+            examSum[row] += score;
+            examCount[row]++;
+        }
+    }
+
+    /**
+     * REMOVE
+     * - Takes a previously added score back out; an emptied category is reset to exactly 0.
+     */
+    public void remove(int row, Category category, double score) {
+        if (category == Category.NONE || row >= testSum.length) return;
+        if (category == Category.TEST) {
+            testSum[row] = --testCount[row] == 0 ? 0 : testSum[row] - score;
+        } else {
+            examSum[row] = --examCount[row] == 0 ? 0 : examSum[row] - score;
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(testSum, 0);
+        Arrays.fill(testCount, 0);
+        Arrays.fill(examSum, 0);
+        Arrays.fill(examCount, 0);
+    }
+
+    // =============================
+    // RESULTS
+    // =============================
+
+    public double average(int row) {
+        if (row >= testSum.length) return 0;
+        double testAvg = testCount[row] > 0 ? testSum[row] / testCount[row] : 0;
+        double examAvg = examCount[row] > 0 ? examSum[row] / examCount[row] : 0;
+        return (testAvg * TEST_WEIGHT) + (examAvg * EXAM_WEIGHT);
+    }
+
+    private void ensureCapacity(int row) {
+        if (row < testSum.length) return;
+        int size = Math.max(row + 1, testSum.length * 2);
+        testSum = Arrays.copyOf(testSum, size);
+        testCount = Arrays.copyOf(testCount, size);
+        examSum = Arrays.copyOf(examSum, size);
+        examCount = Arrays.copyOf(examCount, size);
+    }
+}
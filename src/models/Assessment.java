@@ -5,6 +5,7 @@ public class Assessment {
     private String name;
     private String type; 
     private String dateString; 
+    private int epochDay;
     private String courseID;
 
     public Assessment(String id, String name, String type, String dateString, String courseID) {
@@ -12,6 +13,7 @@ public class Assessment {
         this.name = name;
         this.type = type;
         this.dateString = dateString;
+        this.epochDay = SchoolDates.parse(dateString);
         this.courseID = courseID;
     }
     
@@ -33,6 +35,11 @@ public class Assessment {
         return dateString;
     }
 
+    // Date as an epoch day, or SchoolDates.NO_DATE if the stored date is not yyyy-MM-dd
+    public int getEpochDay() {
+        return epochDay;
+    }
+
     public String getCourseID() {
         return courseID;
     }
@@ -53,6 +60,7 @@ public class Assessment {
 
     public void setDate(String dateString) {
         this.dateString = dateString;
+        this.epochDay = SchoolDates.parse(dateString);
     }
 
     public void setCourseID(String courseID) {
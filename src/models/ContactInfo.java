@@ -1,5 +1,8 @@
 package models;
 
+import utils.CsvReader;
+import utils.CsvWriter;
+
 public class ContactInfo {
     private String phoneNumber;
     private String email;
@@ -49,14 +52,14 @@ public class ContactInfo {
 
     // Convert to CSV
     public String toCSV() {
-        return phoneNumber + "," + email + "," + address;
+        return CsvWriter.join(phoneNumber, email, address);
     }
 
     // Convert from CSV
     public static ContactInfo fromCSV(String csv) {
-        String[] parts = csv.split(",");
-        if (parts.length < 3) return null;
-        return new ContactInfo(parts[0].trim(), parts[1].trim(), parts[2].trim());
+        CsvReader reader = CsvReader.of(csv);
+        if (!reader.next() || reader.getFieldCount() < 3) return null;
+        return new ContactInfo(reader.getString(0), reader.getString(1), reader.getString(2));
     }
 }
 
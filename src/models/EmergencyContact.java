@@ -1,5 +1,8 @@
 package models;
 
+import utils.CsvReader;
+import utils.CsvWriter;
+
 public class EmergencyContact {
   private String name;
   private String relationship;
@@ -58,18 +61,18 @@ public class EmergencyContact {
     }
 
     public String toCSV() {
-      return name + "," + relationship + "," + phone + "," + address;
+      return CsvWriter.join(name, relationship, phone, address);
   }
 
   // Convert from CSV
   public static EmergencyContact fromCSV(String csv) {
-      String[] parts = csv.split(",", -1); 
-      if (parts.length < 4) return null;
+      CsvReader reader = CsvReader.of(csv);
+      if (!reader.next() || reader.getFieldCount() < 4) return null;
       return new EmergencyContact(
-          parts[0].trim(),
-          parts[1].trim(),
-          parts[2].trim(),
-          parts[3].trim()
+          reader.getString(0),
+          reader.getString(1),
+          reader.getString(2),
+          reader.getString(3)
       );
   }
 
@@ -1,5 +1,8 @@
 package models;
 
+import utils.CsvReader;
+import utils.CsvWriter;
+
 public class GuardianInfo {
     private String guardianFirstName;
     private String guardianLastName;
@@ -80,19 +83,20 @@ public class GuardianInfo {
      * Converts Guardian object to CSV format 
      */
     public String toCSV() {
-        return guardianFirstName + "," + guardianLastName + "," + relation + "," + phoneNumber + "," + email;
+        return CsvWriter.join(guardianFirstName, guardianLastName, relation, phoneNumber, email);
     }
 
     /** 
      * Converts CSV line back into a GuardianInfo object 
      */
     public static GuardianInfo fromCSV(String csv) {
-        String[] parts = csv.split(",");
-        if (parts.length < 5) {
+        CsvReader reader = CsvReader.of(csv);
+        if (!reader.next() || reader.getFieldCount() < 5) {
             System.err.println("Invalid guardian CSV format: " + csv);
             return null;
         }
-        return new GuardianInfo(parts[0].trim(), parts[1].trim(), parts[2].trim(), parts[3].trim(), parts[4].trim());
+        return new GuardianInfo(reader.getString(0), reader.getString(1), reader.getString(2),
+                                reader.getString(3), reader.getString(4));
     }
 
     /** 
@@ -1,6 +1,9 @@
 package models;
 
+import utils.StatsAccumulator;
+
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class Report {
@@ -14,6 +17,9 @@ public class Report {
     private Map<String, Double> studentAverages;     
     private double classAverage;
     private Map<String, Integer> performanceDistribution; 
+    private StatsAccumulator statistics = new StatsAccumulator();
+    private Map<String, Double> percentiles = new LinkedHashMap<>();
+    private Map<String, Integer> classRanks = new LinkedHashMap<>();
 
     public Report(String courseID, String subject, String gradeLevel, String examType, String teacher,
                   LocalDateTime generatedAt,
@@ -73,6 +79,42 @@ public class Report {
         return performanceDistribution;
     }
 
+    public StatsAccumulator getStatistics() {
+        return statistics;
+    }
+
+    public double getMedian() {
+        return statistics.getMedian();
+    }
+
+    public double getLowerQuartile() {
+        return statistics.getLowerQuartile();
+    }
+
+    public double getUpperQuartile() {
+        return statistics.getUpperQuartile();
+    }
+
+    public double getVariance() {
+        return statistics.getVariance();
+    }
+
+    public double getStandardDeviation() {
+        return statistics.getStandardDeviation();
+    }
+
+    public Map<String, Double> getPercentiles() {
+        return percentiles;
+    }
+
+    public Map<String, Integer> getClassRanks() {
+        return classRanks;
+    }
+
+    public int getClassRank(String studentID) {
+        return classRanks.getOrDefault(studentID, 0);
+    }
+
     public void setCourseID(String courseID) {
         this.courseID = courseID;
     }
@@ -113,6 +155,18 @@ public class Report {
         this.performanceDistribution = performanceDistribution;
     }
 
+    public void setStatistics(StatsAccumulator statistics) {
+        this.statistics = statistics;
+    }
+
+    public void setPercentiles(Map<String, Double> percentiles) {
+        this.percentiles = percentiles;
+    }
+
+    public void setClassRanks(Map<String, Integer> classRanks) {
+        this.classRanks = classRanks;
+    }
+
     public String toTextFormat() {
         StringBuilder sb = new StringBuilder();
         sb.append("COURSE REPORT - ").append(courseID).append("\n");
@@ -138,6 +192,24 @@ public class Report {
             sb.append(String.format("%s → %d students%n", entry.getKey(), entry.getValue()));
         }
 
+        if (statistics.getCount() > 0) {
+            sb.append("\nStatistics:\n");
+            sb.append(String.format("Median: %.2f%n", getMedian()));
+            sb.append(String.format("Lower Quartile: %.2f%n", getLowerQuartile()));
+            sb.append(String.format("Upper Quartile: %.2f%n", getUpperQuartile()));
+            sb.append(String.format("Standard Deviation: %.2f%n", getStandardDeviation()));
+            sb.append(String.format("Lowest: %.2f | Highest: %.2f%n", statistics.getMin(), statistics.getMax()));
+            for (Map.Entry<String, Double> entry : percentiles.entrySet()) {
+                sb.append(String.format("%s: %.2f%n", entry.getKey(), entry.getValue()));
+            }
+
+            sb.append("\nClass Ranks:\n");
+            for (Map.Entry<String, Integer> entry : classRanks.entrySet()) {
+                sb.append(String.format("%d. %s, %s%n", entry.getValue(), entry.getKey(),
+                                        studentNames.getOrDefault(entry.getKey(), "Unknown")));
+            }
+        }
+
         return sb.toString();
     }
 } 
@@ -0,0 +1,123 @@
+package models;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * SCHOOL DATES
+ * - Shared date handling for the models: dates are held as epoch-day ints (days since 1970-01-01).
+ * - Parsing reads the digits directly, so loading thousands of records builds no formatter
+ *   and no intermediate objects beyond one LocalDate for validation.
+ * - "Today" is cached until the next local midnight, so ages are derived without calling the clock each time.
+ */
+public final class SchoolDates {
+    public static final int NO_DATE = Integer.MIN_VALUE;
+
+    // Date of birth in student and staff files, e.g. 2008/05/14
+    public static final DateTimeFormatter BIRTH_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy/MM/dd");
+    // Assessment dates and attendance headers, e.g. 2025-01-20
+    public static final DateTimeFormatter ISO_DATE_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE;
+
+    private static volatile int today = NO_DATE;
+    private static volatile long todayValidUntil;
+
+    private SchoolDates() {
+    }
+
+    // =============================
+    // PARSING AND FORMATTING
+    // =============================
+
+    /**
+     * PARSE
+     * - Reads yyyy/MM/dd or yyyy-MM-dd into an epoch day.
+     * - Returns NO_DATE for blank, malformed or impossible dates (such as 2023/02/30).
+     */
+    public static int parse(String text) {
+        if (text == null) return NO_DATE;
+        String s = text.trim();
+        if (s.length() != 10) return NO_DATE;
+
+        char separator = s.charAt(4);
+        if ((separator != '/' && separator != '-') || s.charAt(7) != separator) return NO_DATE;
+
+        int year = digits(s, 0, 4);
+        int month = digits(s, 5, 7);
+        int day = digits(s, 8, 10);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31) return NO_DATE;
+
+        try {
+            return (int) LocalDate.of(year, month, day).toEpochDay();
+        } catch (RuntimeException e) {
+            return NO_DATE;
+        }
+    }
+
+    public static LocalDate toLocalDate(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    public static int of(LocalDate date) {
+        return (int) date.toEpochDay();
+    }
+
+    public static String formatIso(int epochDay) {
+        return epochDay == NO_DATE ? "" : LocalDate.ofEpochDay(epochDay).format(ISO_DATE_FORMAT);
+    }
+
+    public static String formatBirthDate(int epochDay) {
+        return epochDay == NO_DATE ? "" : LocalDate.ofEpochDay(epochDay).format(BIRTH_DATE_FORMAT);
+    }
+
+    // =============================
+    // TODAY AND AGE
+    // =============================
+
+    /**
+     * TODAY
+     * - Today's epoch day, read from the clock at most once per day.
+     */
+    public static int today() {
+        long now = System.currentTimeMillis();
+        if (today == NO_DATE || now >= todayValidUntil) {
+            ZoneId zone = ZoneId.systemDefault();
+            LocalDate date = LocalDate.now(zone);
+            todayValidUntil = ZonedDateTime.of(date.plusDays(1).atStartOfDay(), zone).toInstant().toEpochMilli();
+            today = (int) date.toEpochDay();
+        }
+        return today;
+    }
+
+    /**
+     * AGEON
+     * - Whole years between a birth date and another date; 0 when either is unknown or the birth is later.
+     */
+    public static int ageOn(int birthEpochDay, int epochDay) {
+        if (birthEpochDay == NO_DATE || epochDay == NO_DATE || epochDay < birthEpochDay) return 0;
+        LocalDate birth = LocalDate.ofEpochDay(birthEpochDay);
+        LocalDate on = LocalDate.ofEpochDay(epochDay);
+
+        int years = on.getYear() - birth.getYear();
+        if (on.getMonthValue() < birth.getMonthValue()
+                || (on.getMonthValue() == birth.getMonthValue() && on.getDayOfMonth() < birth.getDayOfMonth())) {
+            years--;
+        }
+        return years;
+    }
+
+    public static int age(int birthEpochDay) {
+        return ageOn(birthEpochDay, today());
+    }
+
+    private static int digits(String s, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
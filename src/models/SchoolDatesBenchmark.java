@@ -0,0 +1,96 @@
+package models;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * SCHOOL DATES BENCHMARK
+ * - Parses a fixed set of dates of birth and works out each age, first the way Student used to
+ *   (a new yyyy/MM/dd formatter, LocalDate.parse and Period.between against LocalDate.now()
+ *   for every record), then with SchoolDates.parse and SchoolDates.age.
+ * - The dates come from a seeded Random, so every run measures the same input. Both ways must
+ *   give the same total of ages, or the run stops.
+ * - Each way is warmed up, then timed over several rounds; the median round is reported per record.
+ *
+ * Usage: java models.SchoolDatesBenchmark [RECORDS] [ROUNDS]   (defaults 10000 and 21)
+ */
+public class SchoolDatesBenchmark {
+    private static final long SEED = 20240901L;
+    private static final int WARMUP_ROUNDS = 50;
+
+    public static void main(String[] args) {
+        int records = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 21;
+
+        String[] dates = datesOfBirth(records);
+        long oldTotal = oldWay(dates);
+        long newTotal = newWay(dates);
+        if (oldTotal != newTotal) {
+            throw new IllegalStateException("Ages differ: " + oldTotal + " vs " + newTotal);
+        }
+
+        double oldNanos = medianNanos(dates, rounds, true);
+        double newNanos = medianNanos(dates, rounds, false);
+
+        System.out.printf("%d dates of birth, median of %d rounds after %d warm-up rounds%n", records, rounds, WARMUP_ROUNDS);
+        System.out.printf("  formatter per record + Period:  %8.1f ns/record  (%6.2f ms per %d)%n", oldNanos, oldNanos * records / 1e6, records);
+        System.out.printf("  SchoolDates.parse + age:        %8.1f ns/record  (%6.2f ms per %d)%n", newNanos, newNanos * records / 1e6, records);
+        System.out.printf("  speed-up: %.1fx%n", oldNanos / newNanos);
+    }
+
+    /**
+     * DATESOFBIRTH
+     * - Dates between 2004 and 2012 in the student file format, e.g. 2008/05/14.
+     */
+    private static String[] datesOfBirth(int count) {
+        Random random = new Random(SEED);
+        LocalDate first = LocalDate.of(2004, 1, 1);
+        String[] dates = new String[count];
+        for (int i = 0; i < count; i++) {
+            dates[i] = first.plusDays(random.nextInt(9 * 365)).format(SchoolDates.BIRTH_DATE_FORMAT);
+        }
+        return dates;
+    }
+
+    private static double medianNanos(String[] dates, int rounds, boolean old) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            if (old) oldWay(dates);
+            else newWay(dates);
+        }
+
+        long[] times = new long[rounds];
+        for (int i = 0; i < rounds; i++) {
+            long started = System.nanoTime();
+            if (old) oldWay(dates);
+            else newWay(dates);
+            times[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(times);
+        return (double) times[rounds / 2] / dates.length;
+    }
+
+    /**
+     * OLDWAY
+     * - The per-record code Student.calculateAge ran before SchoolDates.
+     */
+    private static long oldWay(String[] dates) {
+        long total = 0;
+        for (String dob : dates) {
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy/MM/dd");
+            LocalDate birthDate = LocalDate.parse(dob, formatter);
+            total += Period.between(birthDate, LocalDate.now()).getYears();
+        }
+        return total;
+    }
+
+    private static long newWay(String[] dates) {
+        long total = 0;
+        for (String dob : dates) {
+            total += SchoolDates.age(SchoolDates.parse(dob));
+        }
+        return total;
+    }
+}
@@ -0,0 +1,154 @@
+package models;
+
+import utils.StatsAccumulator;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+public class SchoolSummary {
+    private LocalDateTime generatedAt;
+    private int courseCount;
+    private int enrolmentCount;
+    private Set<String> studentIDs = new HashSet<>();
+    private StatsAccumulator schoolStatistics = new StatsAccumulator();
+    private Map<String, Integer> performanceDistribution = new LinkedHashMap<>();
+    private Map<String, StatsAccumulator> statisticsByGrade = new TreeMap<>();
+    private List<Report> courseReports = new ArrayList<>();
+    private List<String> skippedCourses = new ArrayList<>();
+    private String archiveFailure;
+
+    public SchoolSummary(LocalDateTime generatedAt) {
+        this.generatedAt = generatedAt;
+    }
+
+    /**
+     * ============================
+     *       BUILDING
+     * ============================
+     */
+
+    public void addReport(Report report) {
+        courseReports.add(report);
+        courseCount++;
+
+        studentIDs.addAll(report.getStudentAverages().keySet());
+        enrolmentCount += report.getStatistics().getCount();
+        schoolStatistics.merge(report.getStatistics());
+        statisticsByGrade.computeIfAbsent(report.getGradeLevel(), k -> new StatsAccumulator())
+                         .merge(report.getStatistics());
+
+        for (Map.Entry<String, Integer> entry : report.getPerformanceDistribution().entrySet()) {
+            performanceDistribution.merge(entry.getKey(), entry.getValue(), Integer::sum);
+        }
+    }
+
+    public void addSkippedCourse(String courseID) {
+        skippedCourses.add(courseID);
+    }
+
+    public void setArchiveFailure(String archiveFailure) {
+        this.archiveFailure = archiveFailure;
+    }
+
+    /**
+     * ============================
+     *       GETTER METHODS
+     * ============================
+     */
+
+    public LocalDateTime getGeneratedAt() {
+        return generatedAt;
+    }
+
+    public int getCourseCount() {
+        return courseCount;
+    }
+
+    public int getStudentCount() {
+        return studentIDs.size();
+    }
+
+    public int getEnrolmentCount() {
+        return enrolmentCount;
+    }
+
+    public double getSchoolAverage() {
+        return schoolStatistics.getMean();
+    }
+
+    public StatsAccumulator getSchoolStatistics() {
+        return schoolStatistics;
+    }
+
+    public Map<String, StatsAccumulator> getStatisticsByGrade() {
+        return statisticsByGrade;
+    }
+
+    public Map<String, Integer> getPerformanceDistribution() {
+        return performanceDistribution;
+    }
+
+    public Map<String, Double> getAverageByGrade() {
+        Map<String, Double> averages = new LinkedHashMap<>();
+        for (Map.Entry<String, StatsAccumulator> entry : statisticsByGrade.entrySet()) {
+            averages.put(entry.getKey(), entry.getValue().getMean());
+        }
+        return averages;
+    }
+
+    public List<Report> getCourseReports() {
+        return courseReports;
+    }
+
+    public List<String> getSkippedCourses() {
+        return skippedCourses;
+    }
+
+    /**
+     * Why the batch's reports could not be added to the report archive, or null if they were.
+     * The report files themselves were saved either way.
+     */
+    public String getArchiveFailure() {
+        return archiveFailure;
+    }
+
+    public String toTextFormat() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("SCHOOL SUMMARY REPORT\n");
+        sb.append("Generated At: ").append(generatedAt.toString()).append("\n\n");
+
+        sb.append("Courses Reported: ").append(courseCount).append("\n");
+        sb.append("Students: ").append(getStudentCount())
+          .append(" | Course Enrolments: ").append(enrolmentCount).append("\n");
+        sb.append("School Average: ").append(String.format("%.2f", getSchoolAverage())).append("\n");
+        sb.append(String.format("Median: %.2f | Quartiles: %.2f - %.2f | Standard Deviation: %.2f%n%n",
+            schoolStatistics.getMedian(), schoolStatistics.getLowerQuartile(),
+            schoolStatistics.getUpperQuartile(), schoolStatistics.getStandardDeviation()));
+
+        sb.append("Average By Grade:\n");
+        for (Map.Entry<String, StatsAccumulator> entry : statisticsByGrade.entrySet()) {
+            StatsAccumulator stats = entry.getValue();
+            sb.append(String.format("Grade %s → %.2f (median %.2f, std dev %.2f)%n",
+                entry.getKey(), stats.getMean(), stats.getMedian(), stats.getStandardDeviation()));
+        }
+
+        sb.append("\nCourse Averages:\n");
+        List<Report> ranked = new ArrayList<>(courseReports);
+        ranked.sort(Comparator.comparingDouble(Report::getClassAverage).reversed()
+                              .thenComparing(Report::getCourseID));
+        for (Report report : ranked) {
+            sb.append(String.format("%s, %s, %.2f%n", report.getCourseID(), report.getSubject(), report.getClassAverage()));
+        }
+
+        sb.append("\nPerformance Distribution:\n");
+        for (Map.Entry<String, Integer> entry : performanceDistribution.entrySet()) {
+            sb.append(String.format("%s → %d students%n", entry.getKey(), entry.getValue()));
+        }
+
+        if (!skippedCourses.isEmpty()) {
+            sb.append("\nCourses Without A Gradebook: ").append(String.join(", ", skippedCourses)).append("\n");
+        }
+
+        return sb.toString();
+    }
+}
@@ -1,5 +1,8 @@
 package models;
 
+import utils.CsvReader;
+import utils.CsvWriter;
+
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -8,6 +11,7 @@ public class Staff {
     private String firstName;
     private String lastName;
     private String dateOfBirth;
+    private int birthEpochDay;
     private ContactInfo contactInfo;
     private Set<String> roles;
     private List<String> subjects;
@@ -20,6 +24,7 @@ public class Staff {
         this.firstName = firstName;
         this.lastName = lastName;
         this.dateOfBirth = dateOfBirth;
+        this.birthEpochDay = SchoolDates.parse(dateOfBirth);
         this.contactInfo = contactInfo;
         this.roles = roles;
         this.subjects = subjects;
@@ -48,6 +53,14 @@ public class Staff {
         return dateOfBirth;
     }
 
+    public int getBirthEpochDay() {
+        return birthEpochDay;
+    }
+
+    public int getAge() {
+        return SchoolDates.age(birthEpochDay);
+    }
+
     public ContactInfo getContactInfo() {
         return contactInfo;
     }
@@ -84,6 +97,7 @@ public class Staff {
 
     public void setDateOfBirth(String dateOfBirth) {
         this.dateOfBirth = dateOfBirth;
+        this.birthEpochDay = SchoolDates.parse(dateOfBirth);
     }
 
     public void setContactInfo(ContactInfo contactInfo) {
@@ -106,41 +120,41 @@ public class Staff {
     public String toCSV() {
         String rolesCSV = String.join(";", roles);
         String subjectsCSV = String.join(";", subjects);
-        return String.join(",",
-                staffID,
-                firstName,
-                lastName,
-                dateOfBirth,
-                contactInfo.toCSV(),
-                rolesCSV,
-                subjectsCSV,
-                emergencyContact.toCSV()
-        );
+        return new CsvWriter()
+                .fields(staffID, firstName, lastName, dateOfBirth)
+                .raw(contactInfo.toCSV())
+                .fields(rolesCSV, subjectsCSV)
+                .raw(emergencyContact.toCSV())
+                .endRecord();
     }
 
     // Parse from CSV
     public static Staff fromCSV(String csv) {
-        String[] parts = csv.split(",", 12);
-        if (parts.length < 12) return null;
+        CsvReader reader = CsvReader.of(csv);
+        return reader.next() ? fromCSV(reader) : null;
+    }
+
+    // Parse the reader's current line
+    public static Staff fromCSV(CsvReader reader) {
+        if (reader.getFieldCount() < 12) return null;
 
-        String staffID = parts[0].trim();
-        String firstName = parts[1].trim();
-        String lastName = parts[2].trim();
-        String dob = parts[3].trim();
+        String staffID = reader.getString(0);
+        String firstName = reader.getString(1);
+        String lastName = reader.getString(2);
+        String dob = reader.getString(3);
 
-        String contactCSV = String.join(",", parts[4], parts[5], parts[6]);
-        ContactInfo contactInfo = ContactInfo.fromCSV(contactCSV);
+        ContactInfo contactInfo = new ContactInfo(reader.getString(4), reader.getString(5), reader.getString(6));
 
-        Set<String> roles = Arrays.stream(parts[7].split(";"))
+        Set<String> roles = Arrays.stream(reader.getString(7).split(";"))
                 .map(String::trim)
                 .collect(Collectors.toSet());
 
-        List<String> subjects = Arrays.stream(parts[8].split(";"))
+        List<String> subjects = Arrays.stream(reader.getString(8).split(";"))
                 .map(String::trim)
                 .collect(Collectors.toList());
 
-        String emergencyCSV = String.join(",", parts[9], parts[10], parts[11]);
-        EmergencyContact emergencyContact = EmergencyContact.fromCSV(emergencyCSV);
+        EmergencyContact emergencyContact = new EmergencyContact(
+                reader.getString(9), reader.getString(10), reader.getString(11), reader.getString(12));
 
         return new Staff(staffID, firstName, lastName, dob, contactInfo, roles, subjects, emergencyContact);
     }
@@ -1,8 +1,8 @@
 package models;
 
-import java.time.LocalDate;
-import java.time.Period;
-import java.time.format.DateTimeFormatter;
+import utils.CsvReader;
+import utils.CsvWriter;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -11,7 +11,9 @@ public class Student {
     private String firstName;
     private String lastName;
     private String dateOfBirth;
+    private int birthEpochDay;
     private int age;
+    private int ageAsOf = SchoolDates.NO_DATE;
     private String currentGrade;
     private String currentSchool;
     private ContactInfo contactInfo;
@@ -26,7 +28,7 @@ public class Student {
         this.firstName = firstName;
         this.lastName = lastName;
         this.dateOfBirth = dateOfBirth;
-        this.age = calculateAge(dateOfBirth);
+        this.birthEpochDay = parseDateOfBirth(dateOfBirth);
         this.currentGrade = currentGrade;
         this.currentSchool = currentSchool;
         this.contactInfo = contactInfo;
@@ -34,18 +36,14 @@ public class Student {
     }
 
     /** 
-     * Calculates the student's age based on the date of birth 
+     * Parses the date of birth once into an epoch day; the age is derived from it when asked for
      */
-    private int calculateAge(String dob) {
-        try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy/MM/dd");
-            LocalDate birthDate = LocalDate.parse(dob, formatter);
-            LocalDate currentDate = LocalDate.now();
-            return Period.between(birthDate, currentDate).getYears();
-        } catch (Exception e) {
+    private static int parseDateOfBirth(String dob) {
+        int epochDay = SchoolDates.parse(dob);
+        if (epochDay == SchoolDates.NO_DATE) {
             System.err.println("Invalid date format for DOB: " + dob);
-            return 0; 
         }
+        return epochDay;
     }
 
     /** 
@@ -70,7 +68,19 @@ public class Student {
         return dateOfBirth;
     }
 
+    public int getBirthEpochDay() {
+        return birthEpochDay;
+    }
+
+    /** 
+     * Age in whole years, recomputed only when the date changes
+     */
     public int getAge() {
+        int today = SchoolDates.today();
+        if (ageAsOf != today) {
+            age = SchoolDates.ageOn(birthEpochDay, today);
+            ageAsOf = today;
+        }
         return age;
     }
 
@@ -110,7 +120,8 @@ public class Student {
 
     public void setDateOfBirth(String dateOfBirth) {
         this.dateOfBirth = dateOfBirth;
-        this.age = calculateAge(dateOfBirth); 
+        this.birthEpochDay = parseDateOfBirth(dateOfBirth);
+        this.ageAsOf = SchoolDates.NO_DATE;
     }
 
     public void setCurrentGrade(String currentGrade) {
@@ -143,56 +154,57 @@ public class Student {
      * Converts Student object to CSV format 
      */
     public String toCSV() {
-        StringBuilder csv = new StringBuilder();
-        csv.append(studentID).append(",")
-           .append(firstName).append(",")
-           .append(lastName).append(",")
-           .append(dateOfBirth).append(",")
-           .append(age).append(",")
-           .append(currentGrade).append(",")
-           .append(currentSchool).append(",")
-           .append(contactInfo != null ? contactInfo.toCSV() : "");
+        CsvWriter csv = new CsvWriter()
+            .fields(studentID, firstName, lastName, dateOfBirth, String.valueOf(getAge()), currentGrade, currentSchool)
+            .raw(contactInfo != null ? contactInfo.toCSV() : ",,");
 
         for (GuardianInfo guardian : guardians) {
-            csv.append(",").append(guardian.toCSV());
+            csv.raw(guardian.toCSV());
         }
 
-        return csv.toString();
+        return csv.endRecord();
     }
 
     /** 
      * Converts CSV line back into a Student object 
      */
     public static Student fromCSV(String csv) {
-        String[] parts = csv.split(",");
-        if (parts.length < 10) {
-            System.err.println("Invalid student CSV format: " + csv);
+        CsvReader reader = CsvReader.of(csv);
+        return reader.next() ? fromCSV(reader) : null;
+    }
+
+    /** 
+     * Builds a Student from the reader's current line; the stored age column is not read 
+     */
+    public static Student fromCSV(CsvReader reader) {
+        if (reader.getFieldCount() < 10) {
+            System.err.println("Invalid student CSV format: " + reader.getLine());
             return null;
         }
     
         ContactInfo contact = new ContactInfo(
-                parts[7].trim(),
-                parts[8].trim(),
-                parts[9].trim()
+                reader.getString(7),
+                reader.getString(8),
+                reader.getString(9)
         );
     
         Student student = new Student(
-                parts[0].trim(),
-                parts[1].trim(),
-                parts[2].trim(),
-                parts[3].trim(),
-                parts[5].trim(),
-                parts[6].trim(),
+                reader.getString(0),
+                reader.getString(1),
+                reader.getString(2),
+                reader.getString(3),
+                reader.getString(5),
+                reader.getString(6),
                 contact
         );
     
-        for (int i = 10; i + 4 < parts.length; i += 5) {
+        for (int i = 10; i + 4 < reader.getFieldCount(); i += 5) {
             GuardianInfo guardian = new GuardianInfo(
-                    parts[i].trim(),
-                    parts[i + 1].trim(),
-                    parts[i + 2].trim(),
-                    parts[i + 3].trim(),
-                    parts[i + 4].trim()
+                    reader.getString(i),
+                    reader.getString(i + 1),
+                    reader.getString(i + 2),
+                    reader.getString(i + 3),
+                    reader.getString(i + 4)
             );
             student.addGuardian(guardian);
         }
@@ -0,0 +1,299 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * CSV READER
+ * - Reads a database file one record at a time without building a String per line or per field.
+ * - Each record is tokenized into start/end offsets over the file's bytes; a field only becomes a
+ *   String, double or int when the caller asks for it, and numbers are parsed from the bytes directly.
+ * - Small files are read into one byte array. Files of MAP_THRESHOLD bytes or more are memory-mapped.
+ *   A mapping holds the file open until it is garbage collected, and on Windows that blocks the
+ *   DataStore from replacing the file, so only files too large to read comfortably are mapped.
+ * - Fields are trimmed, matching how every reader in the controllers treated them.
+ * - Quoting follows RFC 4180: a field in double quotes may hold commas, line breaks and doubled
+ *   quotes (""), and keeps its inner spaces. Unquoted fields are read exactly as before, so files
+ *   written before quoting was introduced load unchanged.
+ */
+public final class CsvReader {
+    public static final long MAP_THRESHOLD = 4L * 1024 * 1024;
+
+    private final ByteBuffer data;
+    private final byte[] array;
+    private final int limit;
+    private byte[] scratch = new byte[64];
+
+    private int position;
+    private int lineStart;
+    private int lineEnd;
+    private int lineNumber;
+    private int fieldCount;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private boolean[] escaped = new boolean[16];
+
+    private CsvReader(ByteBuffer data) {
+        this.data = data;
+        this.array = data.hasArray() ? data.array() : null;
+        this.limit = data.limit();
+        skipByteOrderMark();
+    }
+
+    public static CsvReader open(Path file) throws IOException {
+        long size = Files.size(file);
+        if (size < MAP_THRESHOLD) {
+            return new CsvReader(ByteBuffer.wrap(Files.readAllBytes(file)));
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new CsvReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    public static CsvReader of(byte[] bytes) {
+        return new CsvReader(ByteBuffer.wrap(bytes));
+    }
+
+    public static CsvReader of(String text) {
+        return of(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // =============================
+    // RECORDS
+    // =============================
+
+    /**
+     * NEXT
+     * - Moves to the next record; returns false at the end of the file.
+     * - A record is one line, unless a quoted field runs across line breaks.
+     */
+    public boolean next() {
+        if (position >= limit) return false;
+
+        lineStart = position;
+        fieldCount = 0;
+        int i = position;
+        while (true) {
+            int fieldStart = i;
+            int first = i;
+            while (first < limit && (byteAt(first) == ' ' || byteAt(first) == '\t')) first++;
+
+            if (first < limit && byteAt(first) == '"') {
+                int contentStart = first + 1;
+                int k = contentStart;
+                boolean hasEscapes = false;
+                while (k < limit) {
+                    if (byteAt(k) == '"') {
+                        if (k + 1 < limit && byteAt(k + 1) == '"') {
+                            hasEscapes = true;
+                            k += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    k++;
+                }
+                addSlice(contentStart, Math.min(k, limit), hasEscapes);
+                i = Math.min(k + 1, limit);
+                while (i < limit && byteAt(i) != ',' && byteAt(i) != '\n') i++;
+            } else {
+                while (i < limit && byteAt(i) != ',' && byteAt(i) != '\n') i++;
+                addField(fieldStart, i);
+            }
+
+            if (i < limit && byteAt(i) == ',') {
+                i++;
+                continue;
+            }
+            break;
+        }
+
+        int end = i;
+        if (end > lineStart && byteAt(end - 1) == '\r') end--;
+        lineEnd = end;
+        position = i + 1;
+        lineNumber++;
+        return true;
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * ISBLANKLINE
+     * - True when the line holds nothing but whitespace.
+     */
+    public boolean isBlankLine() {
+        for (int i = lineStart; i < lineEnd; i++) {
+            if (!isSpace(byteAt(i))) return false;
+        }
+        return true;
+    }
+
+    public String getLine() {
+        return decode(lineStart, lineEnd);
+    }
+
+    // =============================
+    // FIELDS
+    // =============================
+    // - Asking for a field past the end of the line gives "" (or the missing value), like a padded row.
+
+    public boolean isEmpty(int field) {
+        return field >= fieldCount || starts[field] == ends[field];
+    }
+
+    public String getString(int field) {
+        if (field >= fieldCount) return "";
+        String value = decode(starts[field], ends[field]);
+        return escaped[field] ? value.replace("\"\"", "\"") : value;
+    }
+
+    /**
+     * GETDOUBLE
+     * - Plain decimals ("87", "-3.25") are read straight from the bytes; anything else goes through
+     *   Double.parseDouble, so the result and the NumberFormatException match it exactly.
+     */
+    public double getDouble(int field) {
+        if (field >= fieldCount) throw new NumberFormatException("empty String");
+        int from = starts[field], to = ends[field];
+
+        int i = from;
+        boolean negative = false;
+        if (i < to && (byteAt(i) == '-' || byteAt(i) == '+')) {
+            negative = byteAt(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0, scale = -1;
+        for (; i < to; i++) {
+            byte b = byteAt(i);
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (scale >= 0) scale++;
+            } else if (b == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                break;
+            }
+        }
+        if (i == to && digits > 0 && digits <= 15 && scale <= 15) {
+            double value = scale > 0 ? mantissa / POWERS_OF_TEN[scale] : mantissa;
+            return negative ? -value : value;
+        }
+        return Double.parseDouble(getString(field));
+    }
+
+    public double getDouble(int field, double missing) {
+        if (isEmpty(field)) return missing;
+        try {
+            return getDouble(field);
+        } catch (NumberFormatException e) {
+            return missing;
+        }
+    }
+
+    public int getInt(int field, int missing) {
+        if (isEmpty(field)) return missing;
+        int from = starts[field], to = ends[field];
+        boolean negative = byteAt(from) == '-';
+        int i = negative || byteAt(from) == '+' ? from + 1 : from;
+        if (i == to || to - i > 9) return missing;
+
+        int value = 0;
+        for (; i < to; i++) {
+            byte b = byteAt(i);
+            if (b < '0' || b > '9') return missing;
+            value = value * 10 + (b - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * INDEXOFIGNORECASE
+     * - Position of the field's text in 'options' (ASCII, case-insensitive), or -1; no String is built.
+     */
+    public int indexOfIgnoreCase(int field, String[] options) {
+        if (field < fieldCount && escaped[field]) {
+            String value = getString(field);
+            for (int o = 0; o < options.length; o++) {
+                if (options[o].equalsIgnoreCase(value)) return o;
+            }
+            return -1;
+        }
+        int length = field >= fieldCount ? 0 : ends[field] - starts[field];
+        for (int o = 0; o < options.length; o++) {
+            String option = options[o];
+            if (option.length() != length) continue;
+            boolean same = true;
+            for (int k = 0; k < length && same; k++) {
+                int b = byteAt(starts[field] + k) & 0xFF;
+                same = Character.toLowerCase((char) b) == Character.toLowerCase(option.charAt(k));
+            }
+            if (same) return o;
+        }
+        return -1;
+    }
+
+    // =============================
+    // INTERNALS
+    // =============================
+
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    private void addField(int from, int to) {
+        while (from < to && isSpace(byteAt(from))) from++;
+        while (to > from && isSpace(byteAt(to - 1))) to--;
+        addSlice(from, to, false);
+    }
+
+    private void addSlice(int from, int to, boolean hasEscapes) {
+        if (fieldCount == starts.length) {
+            starts = Arrays.copyOf(starts, fieldCount * 2);
+            ends = Arrays.copyOf(ends, fieldCount * 2);
+            escaped = Arrays.copyOf(escaped, fieldCount * 2);
+        }
+        starts[fieldCount] = from;
+        ends[fieldCount] = to;
+        escaped[fieldCount] = hasEscapes;
+        fieldCount++;
+    }
+
+    private byte byteAt(int index) {
+        return array != null ? array[index] : data.get(index);
+    }
+
+    private String decode(int from, int to) {
+        if (from == to) return "";
+        if (array != null) return new String(array, from, to - from, StandardCharsets.UTF_8);
+
+        int length = to - from;
+        if (scratch.length < length) scratch = new byte[Math.max(length, scratch.length * 2)];
+        data.get(from, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private void skipByteOrderMark() {
+        if (limit >= 3 && (byteAt(0) & 0xFF) == 0xEF && (byteAt(1) & 0xFF) == 0xBB && (byteAt(2) & 0xFF) == 0xBF) {
+            position = 3;
+        }
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+}
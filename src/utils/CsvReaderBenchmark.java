@@ -0,0 +1,213 @@
+package utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * CSV READER BENCHMARK
+ * - Reads a student file and a gradebook file two ways: with CsvReader, and the way the
+ *   controllers used to (BufferedReader.readLine, split(","), trim, Double.parseDouble).
+ * - Student file: every record's ID, names and date of birth, as a roster or search scan reads them.
+ *   Gradebook file: every assessment score, as averages and reports read them.
+ * - Without arguments both files are generated from a seeded Random into a temp folder, so every
+ *   run measures the same input; pass two paths to measure real files instead. Both ways must
+ *   give the same checksum, or the run stops.
+ * - Each way is warmed up, then timed over several rounds; the median round is reported per record.
+ *
+ * Usage: java utils.CsvReaderBenchmark [STUDENT_FILE GRADEBOOK_FILE] [ROUNDS]   (default 15 rounds)
+ */
+public class CsvReaderBenchmark {
+    private static final long SEED = 20240901L;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int STUDENTS = 50_000;
+    private static final int GRADEBOOK_STUDENTS = 5_000;
+    private static final int ASSESSMENTS = 30;
+    private static final int STUDENT_FIELDS = 4;
+
+    public static void main(String[] args) throws IOException {
+        Path studentFile, gradebookFile;
+        int rounds;
+        if (args.length >= 2) {
+            studentFile = Paths.get(args[0]);
+            gradebookFile = Paths.get(args[1]);
+            rounds = args.length > 2 ? Integer.parseInt(args[2]) : 15;
+        } else {
+            Path folder = Files.createTempDirectory("csvbench");
+            folder.toFile().deleteOnExit();
+            studentFile = writeStudents(folder.resolve("grade10.txt"));
+            gradebookFile = writeGradebook(folder.resolve("BENCH_gradebook.txt"));
+            rounds = args.length > 0 ? Integer.parseInt(args[0]) : 15;
+        }
+
+        report("student file", studentFile, rounds, false);
+        report("gradebook file", gradebookFile, rounds, true);
+    }
+
+    private static void report(String label, Path file, int rounds, boolean scores) throws IOException {
+        long split = scores ? splitScores(file) : splitStudents(file);
+        long csv = scores ? readerScores(file) : readerStudents(file);
+        if (split != csv) {
+            throw new IllegalStateException(label + " checksums differ: " + split + " vs " + csv);
+        }
+
+        int records = countRecords(file);
+        double splitNanos = medianNanos(file, rounds, scores, true) / records;
+        double readerNanos = medianNanos(file, rounds, scores, false) / records;
+
+        System.out.printf("%s: %s, %d records, %d KB, median of %d rounds after %d warm-up rounds%n",
+                label, file, records, Files.size(file) / 1024, rounds, WARMUP_ROUNDS);
+        System.out.printf("  readLine + split(\",\"):  %8.1f ns/record  (%7.2f ms per file)%n", splitNanos, splitNanos * records / 1e6);
+        System.out.printf("  CsvReader:               %8.1f ns/record  (%7.2f ms per file)%n", readerNanos, readerNanos * records / 1e6);
+        System.out.printf("  speed-up: %.1fx%n", splitNanos / readerNanos);
+    }
+
+    private static double medianNanos(Path file, int rounds, boolean scores, boolean split) throws IOException {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            run(file, scores, split);
+        }
+
+        long[] times = new long[rounds];
+        for (int i = 0; i < rounds; i++) {
+            long started = System.nanoTime();
+            run(file, scores, split);
+            times[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(times);
+        return times[rounds / 2];
+    }
+
+    private static long run(Path file, boolean scores, boolean split) throws IOException {
+        if (scores) return split ? splitScores(file) : readerScores(file);
+        return split ? splitStudents(file) : readerStudents(file);
+    }
+
+    // =============================
+    // READLINE + SPLIT
+    // =============================
+    // - Only the fields before the first quoted one are used, so a plain split still gives the
+    //   same values as CsvReader on these files.
+
+    private static long splitStudents(Path file) throws IOException {
+        long total = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) continue;
+                String[] parts = line.split(",");
+                for (int i = 0; i < STUDENT_FIELDS && i < parts.length; i++) {
+                    total += parts[i].trim().length();
+                }
+            }
+        }
+        return total;
+    }
+
+    private static long splitScores(Path file) throws IOException {
+        double total = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) continue;
+                String[] parts = line.split(",");
+                for (int i = 3; i < parts.length; i++) {
+                    String cell = parts[i].trim();
+                    if (!cell.isEmpty()) total += Double.parseDouble(cell);
+                }
+            }
+        }
+        return Math.round(total * 100);
+    }
+
+    // =============================
+    // CSVREADER
+    // =============================
+
+    private static long readerStudents(Path file) throws IOException {
+        long total = 0;
+        CsvReader reader = CsvReader.open(file);
+        while (reader.next()) {
+            if (reader.isBlankLine()) continue;
+            for (int i = 0; i < STUDENT_FIELDS; i++) {
+                total += reader.getString(i).length();
+            }
+        }
+        return total;
+    }
+
+    private static long readerScores(Path file) throws IOException {
+        double total = 0;
+        CsvReader reader = CsvReader.open(file);
+        reader.next();
+        while (reader.next()) {
+            if (reader.isBlankLine()) continue;
+            for (int i = 3; i < reader.getFieldCount(); i++) {
+                if (!reader.isEmpty(i)) total += reader.getDouble(i);
+            }
+        }
+        return Math.round(total * 100);
+    }
+
+    private static int countRecords(Path file) throws IOException {
+        int records = 0;
+        CsvReader reader = CsvReader.open(file);
+        while (reader.next()) {
+            if (!reader.isBlankLine()) records++;
+        }
+        return records;
+    }
+
+    // =============================
+    // GENERATED FILES
+    // =============================
+
+    /**
+     * WRITESTUDENTS
+     * - Records in the grade file layout, with a quoted address like real ones.
+     */
+    private static Path writeStudents(Path file) throws IOException {
+        Random random = new Random(SEED);
+        List<String> lines = new ArrayList<>(STUDENTS);
+        for (int i = 0; i < STUDENTS; i++) {
+            lines.add(CsvWriter.join("G10N" + i, "First" + random.nextInt(1000), "Last" + random.nextInt(1000),
+                    String.format("%d/%02d/%02d", 2004 + random.nextInt(9), 1 + random.nextInt(12), 1 + random.nextInt(28)),
+                    "15", "10", "School", "(876) 234-5678", "a@b.com", (1 + random.nextInt(99)) + " Norbrook Ave, Kingston",
+                    "Lisa", "Reid", "Mother", "(876) 345-6789", "l@b.com", "N/A", "N/A", "N/A", "N/A", "N/A"));
+        }
+        file.toFile().deleteOnExit();
+        return Files.write(file, lines, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * WRITEGRADEBOOK
+     * - Header plus one row per student; about one score in ten is left blank.
+     */
+    private static Path writeGradebook(Path file) throws IOException {
+        Random random = new Random(SEED);
+        List<String> lines = new ArrayList<>(GRADEBOOK_STUDENTS + 1);
+        List<String> header = new ArrayList<>(Arrays.asList("Student ID", "Student Name", "Average"));
+        for (int a = 0; a < ASSESSMENTS; a++) header.add("A" + a + " - Quiz");
+        lines.add(CsvWriter.join(header));
+
+        for (int i = 0; i < GRADEBOOK_STUDENTS; i++) {
+            List<String> row = new ArrayList<>(header.size());
+            row.add("G10N" + i);
+            row.add("Name");
+            row.add("50.00");
+            for (int a = 0; a < ASSESSMENTS; a++) {
+                row.add(random.nextInt(10) == 0 ? "" : random.nextInt(4) == 0 ? String.valueOf(random.nextInt(1000) / 10.0) : String.valueOf(random.nextInt(101)));
+            }
+            lines.add(CsvWriter.join(row));
+        }
+        file.toFile().deleteOnExit();
+        return Files.write(file, lines, StandardCharsets.UTF_8);
+    }
+}
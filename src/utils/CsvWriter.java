@@ -0,0 +1,118 @@
+package utils;
+
+/**
+ * CSV WRITER
+ * - Builds RFC 4180 records for every database file, the counterpart of CsvReader.
+ * - A field is quoted only when it has to be: when it holds a comma, a double quote or a line break,
+ *   or starts or ends with a space (unquoted fields are trimmed on read). Quotes inside are doubled.
+ * - Plain fields are written exactly as before, so existing files keep their current look.
+ * - One writer reuses a single buffer for every record it builds; the static helpers serve
+ *   the models, whose toCSV pieces are nested inside larger records.
+ */
+public final class CsvWriter {
+    private final StringBuilder buffer = new StringBuilder(128);
+    private boolean firstField = true;
+
+    // =============================
+    // RECORD BUILDING
+    // =============================
+
+    public CsvWriter field(String value) {
+        if (!firstField) buffer.append(',');
+        appendEscaped(buffer, value);
+        firstField = false;
+        return this;
+    }
+
+    public CsvWriter fields(String... values) {
+        for (String value : values) field(value);
+        return this;
+    }
+
+    public CsvWriter fields(Iterable<String> values) {
+        for (String value : values) field(value);
+        return this;
+    }
+
+    /**
+     * RAW
+     * - Appends text that is already CSV, such as a model's toCSV output, as one or more fields.
+     */
+    public CsvWriter raw(String csv) {
+        if (!firstField) buffer.append(',');
+        buffer.append(csv);
+        firstField = false;
+        return this;
+    }
+
+    /**
+     * END RECORD
+     * - Returns the finished record and clears the buffer for the next one.
+     */
+    public String endRecord() {
+        String record = buffer.toString();
+        buffer.setLength(0);
+        firstField = true;
+        return record;
+    }
+
+    // =============================
+    // STATIC HELPERS
+    // =============================
+
+    public static String join(String... values) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) sb.append(',');
+            appendEscaped(sb, values[i]);
+        }
+        return sb.toString();
+    }
+
+    public static String join(Iterable<String> values) {
+        StringBuilder sb = new StringBuilder();
+        boolean first = true;
+        for (String value : values) {
+            if (!first) sb.append(',');
+            appendEscaped(sb, value);
+            first = false;
+        }
+        return sb.toString();
+    }
+
+    public static String escape(String value) {
+        if (!needsQuotes(value)) return value == null ? "" : value;
+        StringBuilder sb = new StringBuilder(value.length() + 8);
+        appendEscaped(sb, value);
+        return sb.toString();
+    }
+
+    public static void appendEscaped(StringBuilder sb, String value) {
+        if (value == null) return;
+        if (!needsQuotes(value)) {
+            sb.append(value);
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') sb.append('"');
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+
+    private static boolean needsQuotes(String value) {
+        if (value == null || value.isEmpty()) return false;
+        if (isSpace(value.charAt(0)) || isSpace(value.charAt(value.length() - 1))) return true;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') return true;
+        }
+        return false;
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t';
+    }
+}
@@ -0,0 +1,273 @@
+package utils;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * SEARCH INDEX
+ * - In-memory inverted index from search terms to record IDs.
+ * - Terms are kept in a sorted map, so a partly typed word is answered with a prefix range scan.
+ * - Words with no prefix match fall back to a trigram lookup checked with a bounded edit distance,
+ *   so small typos ("jonh", "smiht") still find the record.
+ * - Records are added, replaced and removed one at a time; nothing is rebuilt on change.
+ */
+public class SearchIndex<T> {
+    private static final int EXACT_SCORE = 3;
+    private static final int PREFIX_SCORE = 2;
+    private static final int FUZZY_SCORE = 1;
+    private static final int MIN_FUZZY_LENGTH = 3;
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern NON_DIGIT = Pattern.compile("\\D");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s");
+
+    private final Comparator<T> order;
+    private final Map<String, T> records = new HashMap<>();
+    private final NavigableMap<String, Set<String>> idsByTerm = new TreeMap<>();
+    private final Map<String, Set<String>> termsByID = new HashMap<>();
+    private final Map<String, Set<String>> termsByTrigram = new HashMap<>();
+
+    /**
+     * @param order tie-break order for results with the same score, e.g. last name then first name
+     */
+    public SearchIndex(Comparator<T> order) {
+        this.order = order;
+    }
+
+    // =============================
+    // MAINTENANCE
+    // =============================
+
+    /**
+     * PUT
+     * - Indexes a record under every word of the given field values, replacing any earlier version.
+     */
+    public synchronized void put(String id, T record, Collection<String> fieldValues) {
+        remove(id);
+
+        Set<String> terms = new HashSet<>();
+        for (String value : fieldValues) {
+            addTerms(value, terms);
+        }
+
+        records.put(id, record);
+        termsByID.put(id, terms);
+        for (String term : terms) {
+            Set<String> ids = idsByTerm.get(term);
+            if (ids == null) {
+                ids = new HashSet<>();
+                idsByTerm.put(term, ids);
+                for (String trigram : trigramsOf(term)) {
+                    termsByTrigram.computeIfAbsent(trigram, k -> new HashSet<>()).add(term);
+                }
+            }
+            ids.add(id);
+        }
+    }
+
+    /**
+     * REMOVE
+     * - Drops a record and any terms no other record uses.
+     */
+    public synchronized void remove(String id) {
+        records.remove(id);
+        Set<String> terms = termsByID.remove(id);
+        if (terms == null) return;
+
+        for (String term : terms) {
+            Set<String> ids = idsByTerm.get(term);
+            if (ids == null) continue;
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                idsByTerm.remove(term);
+                for (String trigram : trigramsOf(term)) {
+                    Set<String> sharing = termsByTrigram.get(trigram);
+                    if (sharing == null) continue;
+                    sharing.remove(term);
+                    if (sharing.isEmpty()) termsByTrigram.remove(trigram);
+                }
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        records.clear();
+        idsByTerm.clear();
+        termsByID.clear();
+        termsByTrigram.clear();
+    }
+
+    public synchronized int size() {
+        return records.size();
+    }
+
+    // =============================
+    // QUERIES
+    // =============================
+
+    /**
+     * SEARCH
+     * - Every word of the query must match some indexed word of the record.
+     * - A word matches exactly, as a prefix, or (failing both) within a small edit distance.
+     * - Results are ordered by total match score, then by the index's tie-break order.
+     */
+    public synchronized List<T> search(String query, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>();
+        addTerms(query, queryTerms);
+        if (queryTerms.isEmpty()) return new ArrayList<>();
+
+        Map<String, Integer> scores = null;
+        for (String queryTerm : queryTerms) {
+            Map<String, Integer> termScores = matchTerm(queryTerm);
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                Map<String, Integer> combined = new HashMap<>();
+                for (Map.Entry<String, Integer> entry : scores.entrySet()) {
+                    Integer score = termScores.get(entry.getKey());
+                    if (score != null) combined.put(entry.getKey(), entry.getValue() + score);
+                }
+                scores = combined;
+            }
+            if (scores.isEmpty()) return new ArrayList<>();
+        }
+
+        final Map<String, Integer> finalScores = scores;
+        List<String> ids = new ArrayList<>(finalScores.keySet());
+        ids.sort((a, b) -> {
+            int byScore = Integer.compare(finalScores.get(b), finalScores.get(a));
+            return byScore != 0 ? byScore : order.compare(records.get(a), records.get(b));
+        });
+
+        List<T> results = new ArrayList<>(Math.min(limit, ids.size()));
+        for (String id : ids) {
+            if (results.size() >= limit) break;
+            results.add(records.get(id));
+        }
+        return results;
+    }
+
+    /**
+     * MATCHTERM
+     * - Returns the best score each record reaches for one query word.
+     */
+    private Map<String, Integer> matchTerm(String queryTerm) {
+        Map<String, Integer> scores = new HashMap<>();
+
+        for (Map.Entry<String, Set<String>> entry
+                : idsByTerm.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, true).entrySet()) {
+            int score = entry.getKey().equals(queryTerm) ? EXACT_SCORE : PREFIX_SCORE;
+            for (String id : entry.getValue()) {
+                scores.merge(id, score, Math::max);
+            }
+        }
+        if (!scores.isEmpty() || queryTerm.length() < MIN_FUZZY_LENGTH) return scores;
+
+        int maxDistance = queryTerm.length() <= 5 ? 1 : 2;
+        for (String candidate : fuzzyCandidates(queryTerm, maxDistance)) {
+            if (withinDistance(queryTerm, candidate, maxDistance)) {
+                for (String id : idsByTerm.get(candidate)) {
+                    scores.merge(id, FUZZY_SCORE, Math::max);
+                }
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * FUZZYCANDIDATES
+     * - Terms that share enough trigrams with the query to possibly be within the edit distance.
+     * - One edit changes at most three trigrams, which gives the lower bound.
+     */
+    private Set<String> fuzzyCandidates(String queryTerm, int maxDistance) {
+        List<String> trigrams = trigramsOf(queryTerm);
+        int required = Math.max(1, trigrams.size() - 3 * maxDistance);
+
+        Map<String, Integer> shared = new HashMap<>();
+        for (String trigram : trigrams) {
+            Set<String> terms = termsByTrigram.get(trigram);
+            if (terms == null) continue;
+            for (String term : terms) {
+                shared.merge(term, 1, Integer::sum);
+            }
+        }
+
+        Set<String> candidates = new HashSet<>();
+        for (Map.Entry<String, Integer> entry : shared.entrySet()) {
+            if (entry.getValue() >= required
+                    && Math.abs(entry.getKey().length() - queryTerm.length()) <= maxDistance) {
+                candidates.add(entry.getKey());
+            }
+        }
+        return candidates;
+    }
+
+    // =============================
+    // TEXT HELPERS
+    // =============================
+
+    /**
+     * ADDTERMS
+     * - Lower-cases a field and splits it into words.
+     * - Whole e-mail addresses and digit-only phone numbers are also kept as single terms,
+     *   so "876555" finds "(876) 555-1234".
+     */
+    private static void addTerms(String value, Set<String> terms) {
+        if (value == null) return;
+        String text = value.trim().toLowerCase();
+        if (text.isEmpty()) return;
+
+        for (String word : WORD_SEPARATOR.split(text)) {
+            if (!word.isEmpty()) terms.add(word);
+        }
+        if (text.contains("@")) {
+            terms.add(text);
+        }
+        String digits = NON_DIGIT.matcher(text).replaceAll("");
+        if (digits.length() >= 3 && digits.length() * 2 >= WHITESPACE.matcher(text).replaceAll("").length()) {
+            terms.add(digits);
+        }
+    }
+
+    private static List<String> trigramsOf(String term) {
+        String padded = "$" + term + "$";
+        List<String> trigrams = new ArrayList<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    /**
+     * WITHINDISTANCE
+     * - Edit distance check (insert, delete, substitute, swap adjacent letters).
+     * - Gives up as soon as a whole row exceeds the bound.
+     */
+    static boolean withinDistance(String a, String b, int maxDistance) {
+        if (Math.abs(a.length() - b.length()) > maxDistance) return false;
+
+        int[] beforePrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) previous[j] = j;
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int distance = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    distance = Math.min(distance, beforePrevious[j - 2] + 1);
+                }
+                current[j] = distance;
+                rowMin = Math.min(rowMin, distance);
+            }
+            if (rowMin > maxDistance) return false;
+            int[] swap = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()] <= maxDistance;
+    }
+}
@@ -0,0 +1,161 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * STATS ACCUMULATOR
+ * - Collects scores as primitive doubles and answers mean, variance, median, percentiles and rank.
+ * - Mean and variance are kept as running values (Welford), so they cost nothing to read.
+ * - Values are kept exactly: a class, a grade or the whole school is at most a few thousand scores,
+ *   so exact order statistics are cheaper and simpler than an approximate sketch.
+ * - Accumulators merge: course results combine into grade and school statistics
+ *   without reading any gradebook again.
+ */
+public class StatsAccumulator {
+    private double[] values = new double[32];
+    private int count;
+    private double mean;
+    private double m2;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private boolean sorted = true;
+
+    // =============================
+    // ADDING VALUES
+    // =============================
+
+    public void add(double value) {
+        if (count == values.length) values = Arrays.copyOf(values, count * 2);
+        if (count > 0 && value < values[count - 1]) sorted = false;
+        values[count++] = value;
+
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+
+        min = count == 1 ? value : Math.min(min, value);
+        max = count == 1 ? value : Math.max(max, value);
+    }
+
+    /**
+     * MERGE
+     * - Adds every value of another accumulator; mean and variance are combined directly (Chan et al.).
+     */
+    public void merge(StatsAccumulator other) {
+        if (other.count == 0) return;
+        if (count == 0) {
+            values = Arrays.copyOf(other.values, Math.max(32, other.count));
+            count = other.count;
+            mean = other.mean;
+            m2 = other.m2;
+            min = other.min;
+            max = other.max;
+            sorted = other.sorted;
+            return;
+        }
+
+        int total = count + other.count;
+        double delta = other.mean - mean;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        mean += delta * other.count / total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+
+        if (values.length < total) values = Arrays.copyOf(values, Math.max(total, values.length * 2));
+        System.arraycopy(other.values, 0, values, count, other.count);
+        sorted = false;
+        count = total;
+    }
+
+    // =============================
+    // SUMMARY VALUES
+    // =============================
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : mean;
+    }
+
+    /**
+     * GETVARIANCE
+     * - Population variance: the class is the whole group, not a sample of one.
+     */
+    public double getVariance() {
+        return count == 0 ? 0 : m2 / count;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    public double getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    public double getMax() {
+        return count == 0 ? 0 : max;
+    }
+
+    // =============================
+    // ORDER STATISTICS
+    // =============================
+
+    /**
+     * GETPERCENTILE
+     * - Value at percentile p (0-100), interpolating between the two closest scores.
+     */
+    public double getPercentile(double p) {
+        if (count == 0) return 0;
+        ensureSorted();
+
+        double position = (Math.max(0, Math.min(100, p)) / 100.0) * (count - 1);
+        int lower = (int) Math.floor(position);
+        int upper = Math.min(lower + 1, count - 1);
+        double fraction = position - lower;
+        return values[lower] + (values[upper] - values[lower]) * fraction;
+    }
+
+    public double[] getPercentiles(double... ps) {
+        double[] result = new double[ps.length];
+        for (int i = 0; i < ps.length; i++) {
+            result[i] = getPercentile(ps[i]);
+        }
+        return result;
+    }
+
+    public double getMedian() {
+        return getPercentile(50);
+    }
+
+    public double getLowerQuartile() {
+        return getPercentile(25);
+    }
+
+    public double getUpperQuartile() {
+        return getPercentile(75);
+    }
+
+    /**
+     * RANKOF
+     * - Competition rank of a score: 1 + the number of strictly higher scores, so ties share a rank.
+     */
+    public int rankOf(double value) {
+        ensureSorted();
+        int low = 0, high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] <= value) low = mid + 1;
+            else high = mid;
+        }
+        return 1 + (count - low);
+    }
+
+    private void ensureSorted() {
+        if (sorted) return;
+        Arrays.sort(values, 0, count);
+        sorted = true;
+    }
+}
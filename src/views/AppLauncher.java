@@ -1,9 +1,14 @@
 package views;
 
+import controllers.DataStore;
+import controllers.StudentRepository;
+
 import javax.swing.SwingUtilities;
 
 public class AppLauncher {
   public static void main(String[] args) {
+        DataStore.getInstance();
+        StudentRepository.getInstance().load();
         SwingUtilities.invokeLater(LoginPage::new);
     }
 }
@@ -2,6 +2,7 @@ package views;
 
 import controllers.AssessmentController;
 import models.Assessment;
+import models.SchoolDates;
 
 import javax.swing.*;
 import java.awt.*;
@@ -19,7 +20,7 @@ public class AssessmentEntry extends JDialog {
     private AssessmentController assessmentController = new AssessmentController();
 
     public AssessmentEntry(JFrame parent, String courseID, Runnable onSaveCallback) {
-        this(parent, new Assessment("", "", "Test", LocalDate.now().toString(), courseID), onSaveCallback);
+        this(parent, new Assessment("", "", "Test", SchoolDates.formatIso(SchoolDates.today()), courseID), onSaveCallback);
     }
 
     public AssessmentEntry(JFrame parent, Assessment existingAssessment, Runnable onSaveCallback) {
@@ -105,11 +106,11 @@ public class AssessmentEntry extends JDialog {
         nameField.setText(existingAssessment.getName());
         typeCombo.setSelectedItem(existingAssessment.getType());
 
-        String[] parts = existingAssessment.getDateString().split("-");
-        if (parts.length == 3) {
-            yearBox.setSelectedItem(parts[0]);
-            monthBox.setSelectedItem(parts[1]);
-            dayBox.setSelectedItem(parts[2]);
+        LocalDate date = SchoolDates.toLocalDate(existingAssessment.getEpochDay());
+        if (date != null) {
+            yearBox.setSelectedItem(String.valueOf(date.getYear()));
+            monthBox.setSelectedItem(String.format("%02d", date.getMonthValue()));
+            dayBox.setSelectedItem(String.format("%02d", date.getDayOfMonth()));
         }
 
         if (!existingAssessment.getId().isEmpty()) {
@@ -135,6 +136,10 @@ public class AssessmentEntry extends JDialog {
             JOptionPane.showMessageDialog(this, "Please fill in all fields.");
             return;
         }
+        if (SchoolDates.parse(dateStr) == SchoolDates.NO_DATE) {
+            JOptionPane.showMessageDialog(this, dateStr + " is not a valid date.");
+            return;
+        }
     
         try {
             if (existingAssessment.getId().isEmpty()) {
@@ -1,22 +1,27 @@
 package views;
 
 import controllers.AttendanceController;
-import models.AttendanceRecord;
+import controllers.AttendanceSheet;
 import models.Course;
+import models.SchoolDates;
 import models.Student;
 
 import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
 import java.awt.*;
 import java.awt.event.ActionListener;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.List;
 
 
 public class AttendanceEntry extends JDialog {
+    private static final DateTimeFormatter HEADER_DATE_FORMAT = DateTimeFormatter.ofPattern("MMMM dd, yyyy");
+
     private final Course course;
     private final AttendanceController attendanceController;
-    private final Map<String, JComboBox<String>> statusSelectors = new LinkedHashMap<>();
     private final Runnable onSaveCallback;
     private String selectedDateToEdit = null;
 
@@ -24,6 +29,8 @@ public class AttendanceEntry extends JDialog {
     private JComboBox<String> monthCombo;
     private JComboBox<String> yearCombo;
     private JLabel dynamicDateLabel;
+    private AttendanceTableModel statusModel;
+    private JTable statusTable;
 
     public AttendanceEntry(JFrame parent, Course course, Runnable onSaveCallback) {
         this(parent, course, onSaveCallback, null);
@@ -87,47 +94,28 @@ public class AttendanceEntry extends JDialog {
         monthCombo.addActionListener(updateDateLabel);
         yearCombo.addActionListener(updateDateLabel);
 
-        if (selectedDateToEdit != null) {
-            try {
-                Date date = new SimpleDateFormat("yyyy-MM-dd").parse(selectedDateToEdit);
-                Calendar cal = Calendar.getInstance();
-                cal.setTime(date);
-                dayCombo.setSelectedIndex(cal.get(Calendar.DAY_OF_MONTH) - 1);
-                monthCombo.setSelectedIndex(cal.get(Calendar.MONTH));
-                yearCombo.setSelectedItem(String.valueOf(cal.get(Calendar.YEAR)));
-            } catch (Exception ignored) {}
-        } else {
-            Calendar cal = Calendar.getInstance();
-            dayCombo.setSelectedIndex(cal.get(Calendar.DAY_OF_MONTH) - 1);
-            monthCombo.setSelectedIndex(cal.get(Calendar.MONTH));
-            yearCombo.setSelectedItem(String.valueOf(cal.get(Calendar.YEAR)));
+        int initialDay = selectedDateToEdit != null ? SchoolDates.parse(selectedDateToEdit) : SchoolDates.today();
+        if (initialDay != SchoolDates.NO_DATE) {
+            LocalDate date = SchoolDates.toLocalDate(initialDay);
+            dayCombo.setSelectedIndex(date.getDayOfMonth() - 1);
+            monthCombo.setSelectedIndex(date.getMonthValue() - 1);
+            yearCombo.setSelectedItem(String.valueOf(date.getYear()));
         }
 
         updateHeaderDate();
 
-        JPanel studentPanel = new JPanel();
-        studentPanel.setLayout(new BoxLayout(studentPanel, BoxLayout.Y_AXIS));
-        studentPanel.setBackground(Color.WHITE);
-
-        List<Student> students = attendanceController.getAssignedStudentsForCourse(course.getCourseID());
-        for (Student student : students) {
-            String display = student.getStudentID() + " - " + student.getFirstName() + " " + student.getLastName();
-            JLabel nameLabel = new JLabel(display);
-            nameLabel.setPreferredSize(new Dimension(280, 25));
-
-            JComboBox<String> status = new JComboBox<>(new String[]{"Present", "Absent", "Late", "Joined Late"});
-            status.setPreferredSize(new Dimension(100, 25));
-
-            JPanel row = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 5));
-            row.setBackground(Color.WHITE);
-            row.add(nameLabel);
-            row.add(status);
-
-            statusSelectors.put(display, status);
-            studentPanel.add(row);
-        }
-
-        JScrollPane scrollPane = new JScrollPane(studentPanel);
+        statusModel = new AttendanceTableModel();
+        statusTable = new JTable(statusModel);
+        statusTable.setRowHeight(25);
+        statusTable.setFont(new Font("Arial", Font.PLAIN, 12));
+        statusTable.getTableHeader().setFont(new Font("Arial", Font.BOLD, 14));
+        statusTable.getTableHeader().setBackground(new Color(0, 120, 215));
+        statusTable.getTableHeader().setForeground(Color.WHITE);
+        statusTable.getColumnModel().getColumn(0).setPreferredWidth(320);
+        statusTable.getColumnModel().getColumn(AttendanceTableModel.STATUS_COLUMN)
+                   .setCellEditor(new DefaultCellEditor(new JComboBox<>(AttendanceSheet.STATUSES)));
+
+        JScrollPane scrollPane = new JScrollPane(statusTable);
         scrollPane.getVerticalScrollBar().setUnitIncrement(16);
         add(scrollPane, BorderLayout.CENTER);
 
@@ -146,63 +134,95 @@ public class AttendanceEntry extends JDialog {
         closeBtn.setForeground(Color.WHITE);
         closeBtn.setBackground(new Color(0, 120, 215));
 
+        JComboBox<String> markAllCombo = new JComboBox<>(AttendanceSheet.STATUSES);
+        JButton markAllBtn = new JButton("MARK ALL");
+        markAllBtn.setPreferredSize(new Dimension(110, 40));
+        markAllBtn.setFont(new Font("Arial", Font.BOLD, 14));
+        markAllBtn.setForeground(Color.WHITE);
+        markAllBtn.setBackground(new Color(0, 120, 215));
+
+        JLabel statusLabel = new JLabel(" ");
+        statusLabel.setForeground(Color.WHITE);
+
+        buttonPanel.add(markAllCombo);
+        buttonPanel.add(markAllBtn);
         buttonPanel.add(saveBtn);
         buttonPanel.add(closeBtn);
+        buttonPanel.add(statusLabel);
         add(buttonPanel, BorderLayout.SOUTH);
 
+        markAllBtn.addActionListener(e -> {
+            if (statusTable.isEditing()) statusTable.getCellEditor().stopCellEditing();
+            statusModel.markAll((String) markAllCombo.getSelectedItem());
+        });
         saveBtn.addActionListener(e -> saveAttendance());
         closeBtn.addActionListener(e -> dispose());
 
-        if (selectedDateToEdit != null) {
-            List<String[]> data = attendanceController.getAttendanceDataForCourse(course.getCourseID());
-            if (!data.isEmpty()) {
-                String[] headers = data.get(0);
-                int dateIndex = -1;
-                for (int i = 2; i < headers.length; i++) {
-                    if (headers[i].equals(selectedDateToEdit)) {
-                        dateIndex = i;
-                        break;
-                    }
+        saveBtn.setEnabled(false);
+        new BackgroundLoader(getRootPane(), statusLabel).load("Loading students...", () -> {
+            List<Student> students = attendanceController.getAssignedStudentsForCourse(course.getCourseID());
+            List<String[]> data = selectedDateToEdit != null
+                ? attendanceController.getAttendanceDataForCourse(course.getCourseID())
+                : new ArrayList<>();
+            return new LoadedRegister(students, data);
+        }, loaded -> {
+            showStudents(loaded.students, loaded.data);
+            saveBtn.setEnabled(true);
+        });
+    }
+
+    /**
+     * SHOWSTUDENTS
+     * - Every student starts as Present; when editing a date, each starts at the saved status
+     */
+    private void showStudents(List<Student> students, List<String[]> data) {
+        List<String> displays = new ArrayList<>();
+        for (Student student : students) {
+            displays.add(student.getStudentID() + " - " + student.getFirstName() + " " + student.getLastName());
+        }
+
+        Map<String, String> saved = new HashMap<>();
+        if (selectedDateToEdit != null && !data.isEmpty()) {
+            String[] headers = data.get(0);
+            int dateIndex = -1;
+            for (int i = 2; i < headers.length; i++) {
+                if (headers[i].equals(selectedDateToEdit)) {
+                    dateIndex = i;
+                    break;
                 }
+            }
 
-                if (dateIndex != -1) {
-                    for (int i = 1; i < data.size(); i++) {
-                        String[] row = data.get(i);
-                        if (row.length > dateIndex) {
-                            String key = row[0] + " - " + row[1];
-                            if (statusSelectors.containsKey(key)) {
-                                statusSelectors.get(key).setSelectedItem(row[dateIndex]);
-                            }
-                        }
+            if (dateIndex != -1) {
+                for (int i = 1; i < data.size(); i++) {
+                    String[] row = data.get(i);
+                    if (row.length > dateIndex) {
+                        saved.put(row[0] + " - " + row[1], row[dateIndex]);
                     }
                 }
             }
         }
+
+        statusModel.setStudents(displays, saved);
     }
 
     private void updateHeaderDate() {
-        String displayDate = getFormattedDate("MMMM dd, yyyy");
+        String displayDate = getSelectedLocalDate().format(HEADER_DATE_FORMAT);
         dynamicDateLabel.setText(displayDate.toUpperCase());
     }
 
     private String getSelectedDate() {
-        int day = dayCombo.getSelectedIndex() + 1;
-        int month = monthCombo.getSelectedIndex(); 
-        int year = Integer.parseInt((String) yearCombo.getSelectedItem());
-
-        Calendar cal = Calendar.getInstance();
-        cal.set(year, month, day);
-        return new SimpleDateFormat("yyyy-MM-dd").format(cal.getTime());
+        return getSelectedLocalDate().format(SchoolDates.ISO_DATE_FORMAT);
     }
 
-    private String getFormattedDate(String format) {
+    /**
+     * GETSELECTEDLOCALDATE
+     * - A day past the end of the month rolls into the next month (31 February is 3 March)
+     */
+    private LocalDate getSelectedLocalDate() {
         int day = dayCombo.getSelectedIndex() + 1;
-        int month = monthCombo.getSelectedIndex(); 
+        int month = monthCombo.getSelectedIndex() + 1;
         int year = Integer.parseInt((String) yearCombo.getSelectedItem());
-
-        Calendar cal = Calendar.getInstance();
-        cal.set(year, month, day);
-        return new SimpleDateFormat(format).format(cal.getTime());
+        return LocalDate.of(year, month, 1).plusDays(day - 1);
     }
 
     private void saveAttendance() {
@@ -219,78 +239,98 @@ public class AttendanceEntry extends JDialog {
             if (confirm != JOptionPane.YES_OPTION) return;
         }
 
-        List<String[]> data = attendanceController.getAttendanceDataForCourse(course.getCourseID());
-        Map<String, AttendanceRecord> attendanceMap = new LinkedHashMap<>();
-        Set<String> allDates = new TreeSet<>();
+        if (statusTable.isEditing()) statusTable.getCellEditor().stopCellEditing();
+        Map<String, String> statusByStudent = statusModel.getStatuses();
 
-        if (!data.isEmpty()) {
-            String[] headerRow = data.get(0);
-            List<String> existingDates = new ArrayList<>();
-            for (int i = 2; i < headerRow.length; i++) {
-                allDates.add(headerRow[i]);
-                existingDates.add(headerRow[i]);
-            }
+        try {
+            attendanceController.recordAttendance(course.getCourseID(), selectedDate, statusByStudent,
+                                                  isEditingDate ? selectedDateToEdit : null);
+
+            JOptionPane.showMessageDialog(this, "Attendance saved for " + selectedDate + "!");
+            if (onSaveCallback != null) onSaveCallback.run();
+            dispose();
+        } catch (Exception e) {
+            JOptionPane.showMessageDialog(this, "Failed to save: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private static class LoadedRegister {
+        final List<Student> students;
+        final List<String[]> data;
 
-            for (int i = 1; i < data.size(); i++) {
-                String[] row = data.get(i);
-                AttendanceRecord record = AttendanceRecord.fromRow(row, existingDates);
-                String key = record.getStudentID() + " - " + record.getStudentName();
-                attendanceMap.put(key, record);
+        LoadedRegister(List<Student> students, List<String[]> data) {
+            this.students = students;
+            this.data = data;
+        }
+    }
+
+    /**
+     * ATTENDANCETABLEMODEL
+     * - One row per student with its status; the status column edits through a shared combo box
+     * - Marking everyone is one model update rather than one event per row
+     */
+    static class AttendanceTableModel extends AbstractTableModel {
+        static final int STATUS_COLUMN = 1;
+        private static final String[] COLUMNS = {"Student", "Status"};
+
+        private String[] students = new String[0];
+        private String[] statuses = new String[0];
+
+        void setStudents(List<String> displays, Map<String, String> savedStatuses) {
+            students = displays.toArray(new String[0]);
+            statuses = new String[students.length];
+            for (int i = 0; i < students.length; i++) {
+                String saved = savedStatuses.get(students[i]);
+                statuses[i] = saved != null && !saved.isEmpty() ? saved : AttendanceSheet.STATUSES[AttendanceSheet.PRESENT];
             }
+            fireTableDataChanged();
         }
 
-        allDates.add(selectedDate);
-
-        for (Map.Entry<String, JComboBox<String>> entry : statusSelectors.entrySet()) {
-            String displayName = entry.getKey();
-            String[] parts = displayName.split(" - ", 2);
-            String studentID = parts[0];
-            String studentName = parts[1];
-            String status = (String) entry.getValue().getSelectedItem();
-        
-            AttendanceRecord record = attendanceMap.get(displayName);
-        
-            if (record == null) {
-                record = new AttendanceRecord(studentID, studentName);
-                for (String pastDate : allDates) {
-                    if (!pastDate.equals(selectedDate)) {
-                        record.setAttendanceStatus(pastDate, "Joined Late");
-                    }
-                }
+        void markAll(String status) {
+            if (students.length == 0) return;
+            Arrays.fill(statuses, status);
+            fireTableRowsUpdated(0, students.length - 1);
+        }
+
+        Map<String, String> getStatuses() {
+            Map<String, String> result = new LinkedHashMap<>();
+            for (int i = 0; i < students.length; i++) {
+                result.put(students[i], statuses[i]);
             }
-            
-        
-            record.setAttendanceStatus(selectedDate, status);
-            attendanceMap.put(displayName, record);
+            return result;
         }
-        
-        
 
-        List<String[]> updatedData = new ArrayList<>();
-        List<String> sortedDates = new ArrayList<>(allDates);
+        @Override
+        public int getRowCount() {
+            return students.length;
+        }
 
-        List<String> header = new ArrayList<>();
-        header.add("Student ID");
-        header.add("Student Name");
-        header.addAll(sortedDates);
-        updatedData.add(header.toArray(new String[0]));
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
 
-        for (AttendanceRecord record : attendanceMap.values()) {
-            updatedData.add(record.toRow(sortedDates));
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
         }
 
-        try {
-            attendanceController.saveAttendanceData(course.getCourseID(), updatedData);
-            if (isEditingDate) {
-                attendanceController.deleteAttendanceColumn(course.getCourseID(), selectedDateToEdit);
-            }
+        @Override
+        public Object getValueAt(int row, int column) {
+            return column == STATUS_COLUMN ? statuses[row] : students[row];
+        }
 
-            JOptionPane.showMessageDialog(this, "Attendance saved for " + selectedDate + "!");
-            if (onSaveCallback != null) onSaveCallback.run();
-            dispose();
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Failed to save: " + e.getMessage());
-            e.printStackTrace();
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return column == STATUS_COLUMN;
+        }
+
+        @Override
+        public void setValueAt(Object value, int row, int column) {
+            if (column != STATUS_COLUMN || value == null) return;
+            statuses[row] = value.toString();
+            fireTableCellUpdated(row, column);
         }
     }
 }
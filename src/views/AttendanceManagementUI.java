@@ -16,6 +16,7 @@ public class AttendanceManagementUI extends JPanel {
     private JTabbedPane subjectTabs;
     private Map<String, JTable> subjectTables = new HashMap<>();
     private Map<String, DefaultTableModel> tableModels = new HashMap<>();
+    private BackgroundLoader loader = new BackgroundLoader(this);
 
     public AttendanceManagementUI(JFrame parentFrame, CourseController courseController) {
         this.parentFrame = parentFrame;
@@ -90,12 +91,14 @@ public class AttendanceManagementUI extends JPanel {
     }
 
     private void loadCoursesForAttendance() {
+        loader.load(null, courseController::getCourses, this::showCourses);
+    }
+
+    private void showCourses(List<Course> courses) {
         for (DefaultTableModel model : tableModels.values()) {
             model.setRowCount(0);
         }
 
-        List<Course> courses = courseController.getCourses();
-
         for (Course course : courses) {
             DefaultTableModel model = tableModels.get(course.getSubject());
             if (model != null) {
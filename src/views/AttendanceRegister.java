@@ -16,6 +16,7 @@ public class AttendanceRegister extends JPanel {
     private JFrame parentFrame;
     private DefaultTableModel model;
     private AttendanceController attendanceController;
+    private BackgroundLoader loader = new BackgroundLoader(this);
 
     public AttendanceRegister(JFrame parentFrame, Course course) {
         this.parentFrame = parentFrame;
@@ -105,11 +106,14 @@ public class AttendanceRegister extends JPanel {
     }
 
     private void loadAttendanceTable() {
+        loader.load(null, () -> attendanceController.getAttendanceDataForCourse(course.getCourseID()),
+                    this::showAttendanceTable);
+    }
+
+    private void showAttendanceTable(List<String[]> data) {
         model.setRowCount(0);
         model.setColumnCount(0);
     
-        List<String[]> data = attendanceController.getAttendanceDataForCourse(course.getCourseID());
-    
         for (int i = 0; i < data.size(); i++) {
             String[] row = data.get(i);
     
@@ -0,0 +1,95 @@
+package views;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * BACKGROUND LOADER
+ * - Runs a screen's controller reads on a SwingWorker and hands the result back on the event thread.
+ * - One loader per screen (or per independent area of a screen): starting a new load cancels the one
+ *   still running, and a result that arrives after a newer load was started is dropped, so switching
+ *   courses quickly never paints an old course's data.
+ * - While a load runs the owner shows a wait cursor and the optional status label reads the given message.
+ */
+public class BackgroundLoader {
+    private final JComponent owner;
+    private final JLabel statusLabel;
+    private SwingWorker<?, ?> current;
+    private int generation;
+
+    public BackgroundLoader(JComponent owner) {
+        this(owner, null);
+    }
+
+    public BackgroundLoader(JComponent owner, JLabel statusLabel) {
+        this.owner = owner;
+        this.statusLabel = statusLabel;
+    }
+
+    /**
+     * LOAD
+     * - Must be called on the event thread.
+     * - 'read' runs in the background and must not touch Swing components.
+     * - 'onLoaded' runs on the event thread, only if this is still the latest load.
+     */
+    public <T> SwingWorker<T, Void> load(String message, Callable<T> read, Consumer<T> onLoaded) {
+        cancel();
+        int myGeneration = ++generation;
+        setLoading(true, message);
+
+        SwingWorker<T, Void> worker = new SwingWorker<>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return read.call();
+            }
+
+            @Override
+            protected void done() {
+                if (myGeneration != generation) return;
+                current = null;
+                setLoading(false, null);
+                if (isCancelled()) return;
+                try {
+                    onLoaded.accept(get());
+                } catch (CancellationException | InterruptedException ignored) {
+                } catch (ExecutionException e) {
+                    e.getCause().printStackTrace();
+                    JOptionPane.showMessageDialog(owner, "Could not load data: " + e.getCause().getMessage());
+                }
+            }
+        };
+
+        current = worker;
+        worker.execute();
+        return worker;
+    }
+
+    /**
+     * CANCEL
+     * - Stops waiting for the running load; its result, if it still arrives, is ignored.
+     * - The worker is not interrupted: an interrupt closes any FileChannel it has open, which
+     *   would break a DataStore commit or rollback halfway.
+     */
+    public void cancel() {
+        if (current == null) return;
+        current.cancel(false);
+        current = null;
+        generation++;
+        setLoading(false, null);
+    }
+
+    public boolean isLoading() {
+        return current != null;
+    }
+
+    private void setLoading(boolean loading, String message) {
+        owner.setCursor(loading ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : null);
+        if (statusLabel != null) {
+            statusLabel.setText(loading && message != null ? message : " ");
+        }
+    }
+}
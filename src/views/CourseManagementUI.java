@@ -7,6 +7,7 @@ import models.Student;
 import utils.Subjects;
 
 import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionListener;
@@ -21,6 +22,8 @@ public class CourseManagementUI extends JPanel {
     private JTabbedPane subjectTabs;
     private Map<String, JTable> subjectTables = new HashMap<>();
     private Map<String, DefaultTableModel> tableModels = new HashMap<>();
+    private JLabel statusLabel = new JLabel(" ");
+    private BackgroundLoader loader = new BackgroundLoader(this, statusLabel);
 
     public CourseManagementUI(JFrame parentFrame, CourseController courseController) {
         this.parentFrame = parentFrame;
@@ -36,7 +39,11 @@ public class CourseManagementUI extends JPanel {
         add(titleLabel, BorderLayout.NORTH);
 
         subjectTabs = new JTabbedPane();
-        add(subjectTabs, BorderLayout.CENTER);
+        JPanel centerPanel = new JPanel(new BorderLayout());
+        centerPanel.add(subjectTabs, BorderLayout.CENTER);
+        statusLabel.setBorder(BorderFactory.createEmptyBorder(2, 10, 2, 10));
+        centerPanel.add(statusLabel, BorderLayout.SOUTH);
+        add(centerPanel, BorderLayout.CENTER);
 
         setupSubjectTabs();
         setupButtons();
@@ -109,11 +116,17 @@ public class CourseManagementUI extends JPanel {
         return button;
     }
 
+    /**
+     * LOADALLCOURSES
+     * - Reads the sorted course list in the background, then refills every subject tab
+     */
     public void loadAllCourses() {
+        loader.load("Loading courses...", courseController::getCoursesSortedByGradeThenID, this::showCourses);
+    }
+
+    private void showCourses(List<Course> sortedCourses) {
         for (DefaultTableModel model : tableModels.values()) model.setRowCount(0);
-    
-        List<Course> sortedCourses = courseController.getCoursesSortedByGradeThenID();
-    
+
         for (Course course : sortedCourses) {
             String subject = course.getSubject();
             DefaultTableModel model = tableModels.get(subject);
@@ -127,7 +140,6 @@ public class CourseManagementUI extends JPanel {
             }
         }
     }
-    
 
     private JTable getCurrentTable() {
         int index = subjectTabs.getSelectedIndex();
@@ -230,29 +242,32 @@ public class CourseManagementUI extends JPanel {
         List<Student> students = studentController.getStudentsByGrade(gradeLevel);
         Set<String> assigned = courseController.getAssignedStudentIDs(courseID);
 
-        JPanel checkBoxPanel = new JPanel();
-        checkBoxPanel.setLayout(new BoxLayout(checkBoxPanel, BoxLayout.Y_AXIS));
-        Map<JCheckBox, String> checkMap = new LinkedHashMap<>();
-
+        List<String> unassigned = new ArrayList<>();
         for (Student s : students) {
             if (!assigned.contains(s.getStudentID())) {
-                String label = s.getStudentID() + " - " + s.getFirstName() + " " + s.getLastName();
-                JCheckBox box = new JCheckBox(label);
-                checkMap.put(box, label);
-                checkBoxPanel.add(box);
+                unassigned.add(s.getStudentID() + " - " + s.getFirstName() + " " + s.getLastName());
             }
         }
 
-        if (checkMap.isEmpty()) {
+        if (unassigned.isEmpty()) {
             JOptionPane.showMessageDialog(this, "All students are already assigned.");
             return;
         }
 
-        JScrollPane scrollPane = new JScrollPane(checkBoxPanel);
+        StudentSelectionModel selectionModel = new StudentSelectionModel(unassigned);
+        JTable selectionTable = new JTable(selectionModel);
+        selectionTable.setRowHeight(25);
+        selectionTable.getColumnModel().getColumn(0).setMaxWidth(40);
+
+        JScrollPane scrollPane = new JScrollPane(selectionTable);
         scrollPane.setPreferredSize(new Dimension(350, 350));
 
+        JButton selectAllBtn = new JButton("Select All");
+        JButton clearBtn = new JButton("Clear");
         JButton assignBtn = new JButton("Assign Selected");
         JPanel bottomPanel = new JPanel();
+        bottomPanel.add(selectAllBtn);
+        bottomPanel.add(clearBtn);
         bottomPanel.add(assignBtn);
 
         JDialog dialog = new JDialog(parentFrame, "Assign Students to " + courseID, true);
@@ -262,13 +277,11 @@ public class CourseManagementUI extends JPanel {
         dialog.pack();
         dialog.setLocationRelativeTo(this);
 
+        selectAllBtn.addActionListener(e -> selectionModel.setAllSelected(true));
+        clearBtn.addActionListener(e -> selectionModel.setAllSelected(false));
+
         assignBtn.addActionListener(e -> {
-            List<String> selected = new ArrayList<>();
-            for (Map.Entry<JCheckBox, String> entryBox : checkMap.entrySet()) {
-                if (entryBox.getKey().isSelected()) {
-                    selected.add(entryBox.getValue());
-                }
-            }
+            List<String> selected = selectionModel.getSelected();
 
             if (selected.isEmpty()) {
                 JOptionPane.showMessageDialog(dialog, "No students selected.");
@@ -574,4 +587,71 @@ public class CourseManagementUI extends JPanel {
         }
     }
     
+
+    /**
+     * STUDENTSELECTIONMODEL
+     * - Check box and label per student for the assign dialog; the table only renders visible rows
+     */
+    private static class StudentSelectionModel extends AbstractTableModel {
+        private static final String[] COLUMNS = {"", "Student"};
+
+        private final String[] labels;
+        private final boolean[] selected;
+
+        StudentSelectionModel(List<String> labels) {
+            this.labels = labels.toArray(new String[0]);
+            this.selected = new boolean[this.labels.length];
+        }
+
+        void setAllSelected(boolean value) {
+            if (labels.length == 0) return;
+            Arrays.fill(selected, value);
+            fireTableRowsUpdated(0, labels.length - 1);
+        }
+
+        List<String> getSelected() {
+            List<String> result = new ArrayList<>();
+            for (int i = 0; i < labels.length; i++) {
+                if (selected[i]) result.add(labels[i]);
+            }
+            return result;
+        }
+
+        @Override
+        public int getRowCount() {
+            return labels.length;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return column == 0 ? Boolean.class : String.class;
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            return column == 0 ? selected[row] : labels[row];
+        }
+
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return column == 0;
+        }
+
+        @Override
+        public void setValueAt(Object value, int row, int column) {
+            if (column != 0) return;
+            selected[row] = Boolean.TRUE.equals(value);
+            fireTableCellUpdated(row, column);
+        }
+    }
 }
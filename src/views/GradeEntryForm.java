@@ -8,12 +8,12 @@ import models.Course;
 import models.Student;
 
 import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
 import java.awt.*;
+import java.awt.datatransfer.DataFlavor;
 import java.awt.event.ActionEvent;
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
-import java.io.IOException;
+import java.awt.event.KeyEvent;
 import java.util.*;
 import java.util.List;
 
@@ -24,8 +24,9 @@ public class GradeEntryForm extends JDialog {
     private Runnable onSaveCallback;
 
     private StudentController studentController = new StudentController();
-    private Map<String, JTextField> gradeFields = new HashMap<>();
     private List<Student> students;
+    private GradeTableModel gradeModel;
+    private JTable gradeTable;
 
     public GradeEntryForm(JFrame parent, Course course, GradebookController gradebookController, Assessment assessment, Runnable onSaveCallback) {
         super(parent, "Enter Grades for " + assessment.getName() + " (" + assessment.getId() + ")", true);
@@ -46,40 +47,49 @@ public class GradeEntryForm extends JDialog {
         header.setBorder(BorderFactory.createEmptyBorder(10, 0, 10, 0));
         add(header, BorderLayout.NORTH);
 
-        JPanel centerPanel = new JPanel();
-        centerPanel.setLayout(new BoxLayout(centerPanel, BoxLayout.Y_AXIS));
-        JScrollPane scrollPane = new JScrollPane(centerPanel);
-        scrollPane.setVerticalScrollBarPolicy(ScrollPaneConstants.VERTICAL_SCROLLBAR_ALWAYS);
-        add(scrollPane, BorderLayout.CENTER);
-
         students = getStudentsFromGradebookFile();
         students.sort(Comparator.comparing(Student::getLastName));
 
-        for (Student s : students) {
-            JPanel row = new JPanel(new FlowLayout(FlowLayout.LEFT, 20, 10));
-            JLabel label = new JLabel(s.getStudentID() + " - " + s.getFirstName() + " " + s.getLastName());
-            label.setPreferredSize(new Dimension(300, 25));
-            JTextField gradeField = new JTextField(5);
-            gradeField.setFont(new Font("Arial", Font.PLAIN, 14));
-            gradeFields.put(s.getStudentID(), gradeField);
-
-            row.add(label);
-            row.add(gradeField);
-            centerPanel.add(row);
-        }
+        gradeModel = new GradeTableModel(students);
+        loadExistingGrades();
+
+        gradeTable = new JTable(gradeModel);
+        gradeTable.setRowHeight(25);
+        gradeTable.setFont(new Font("Arial", Font.PLAIN, 14));
+        gradeTable.getTableHeader().setFont(new Font("Arial", Font.BOLD, 14));
+        gradeTable.getTableHeader().setBackground(new Color(0, 120, 215));
+        gradeTable.getTableHeader().setForeground(Color.WHITE);
+        gradeTable.putClientProperty("terminateEditOnFocusLost", Boolean.TRUE);
+        gradeTable.getColumnModel().getColumn(0).setPreferredWidth(90);
+        gradeTable.getColumnModel().getColumn(1).setPreferredWidth(260);
+        gradeTable.getColumnModel().getColumn(GradeTableModel.GRADE_COLUMN).setCellRenderer(new GradeCellRenderer());
+        gradeTable.getInputMap(JComponent.WHEN_ANCESTOR_OF_FOCUSED_COMPONENT)
+                  .put(KeyStroke.getKeyStroke(KeyEvent.VK_V, Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx()), "pasteGrades");
+        gradeTable.getActionMap().put("pasteGrades", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                pasteGrades();
+            }
+        });
 
-        loadExistingGrades(); 
+        JScrollPane scrollPane = new JScrollPane(gradeTable);
+        scrollPane.setVerticalScrollBarPolicy(ScrollPaneConstants.VERTICAL_SCROLLBAR_ALWAYS);
+        add(scrollPane, BorderLayout.CENTER);
 
         JPanel bottomPanel = new JPanel();
         bottomPanel.setBackground(new Color(0, 70, 140));
         bottomPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
+        JButton pasteBtn = createStyledButton("PASTE");
         JButton saveBtn = createStyledButton("SAVE");
         JButton closeBtn = createStyledButton("CLOSE");
 
+        pasteBtn.setToolTipText("Paste a column of grades starting at the selected student");
+        pasteBtn.addActionListener(e -> pasteGrades());
         saveBtn.addActionListener(this::handleSave);
         closeBtn.addActionListener(e -> dispose());
 
+        bottomPanel.add(pasteBtn);
         bottomPanel.add(saveBtn);
         bottomPanel.add(closeBtn);
 
@@ -88,26 +98,15 @@ public class GradeEntryForm extends JDialog {
 
     private List<Student> getStudentsFromGradebookFile() {
         List<Student> studentList = new ArrayList<>();
-        File gradebookFile = new File("database/grades/" + course.getCourseID() + "_gradebook.txt");
-
-        if (!gradebookFile.exists()) return studentList;
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(gradebookFile))) {
-            String headerLine = reader.readLine(); 
-
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",", -1);
-                if (parts.length >= 2) {
-                    String studentID = parts[0].trim();
-                    Student s = studentController.getStudentByID(studentID);
-                    if (s != null) {
-                        studentList.add(s);
-                    }
+        List<String[]> rows = gradebookController.getGradebookData(course);
+
+        for (int i = 1; i < rows.size(); i++) {
+            if (rows.get(i).length >= 2) {
+                Student s = studentController.getStudentByID(rows.get(i)[0]);
+                if (s != null) {
+                    studentList.add(s);
                 }
             }
-        } catch (IOException e) {
-            e.printStackTrace();
         }
 
         return studentList;
@@ -115,23 +114,39 @@ public class GradeEntryForm extends JDialog {
 
     private void loadExistingGrades() {
         Map<String, String> existingGrades = gradebookController.getGradesForAssessment(course, assessment.getId());
+        gradeModel.setGrades(existingGrades);
+    }
 
-        for (Student s : students) {
-            String grade = existingGrades.get(s.getStudentID());
-            if (grade != null) {
-                gradeFields.get(s.getStudentID()).setText(grade);
-            }
+    /**
+     * PASTEGRADES
+     * - Pastes one grade per clipboard line (the first cell of a spreadsheet row),
+     *   starting at the selected student, as a single model update
+     */
+    private void pasteGrades() {
+        if (gradeTable.isEditing()) gradeTable.getCellEditor().stopCellEditing();
+
+        String text;
+        try {
+            text = (String) Toolkit.getDefaultToolkit().getSystemClipboard().getData(DataFlavor.stringFlavor);
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(this, "The clipboard does not contain text.");
+            return;
         }
+
+        List<String> values = new ArrayList<>();
+        for (String line : text.split("\\r?\\n")) {
+            values.add(line.split("\t", -1)[0].trim());
+        }
+
+        int start = Math.max(0, gradeTable.getSelectedRow());
+        int pasted = gradeModel.pasteGrades(start, values);
+        gradeTable.getSelectionModel().setSelectionInterval(start, Math.max(start, start + pasted - 1));
     }
 
     private void handleSave(ActionEvent e) {
-        Map<String, String> grades = new HashMap<>();
-        for (Student s : students) {
-            String input = gradeFields.get(s.getStudentID()).getText().trim();
-            grades.put(s.getStudentID(), input);
-        }
+        if (gradeTable.isEditing()) gradeTable.getCellEditor().stopCellEditing();
 
-        gradebookController.saveAssessmentGrades(course, assessment.getId(), grades);
+        gradebookController.saveAssessmentGrades(course, assessment.getId(), gradeModel.getGrades());
         JOptionPane.showMessageDialog(this, "Grades saved.");
 
         if (onSaveCallback != null) onSaveCallback.run(); 
@@ -147,4 +162,112 @@ public class GradeEntryForm extends JDialog {
         button.setPreferredSize(new Dimension(120, 40));
         return button;
     }
+
+    /**
+     * GRADETABLEMODEL
+     * - One row per student held in plain arrays; the table only renders the rows on screen
+     * - Only the grade column is editable
+     */
+    static class GradeTableModel extends AbstractTableModel {
+        static final int GRADE_COLUMN = 2;
+        private static final String[] COLUMNS = {"Student ID", "Name", "Grade"};
+
+        private final String[] studentIDs;
+        private final String[] names;
+        private final String[] grades;
+
+        GradeTableModel(List<Student> students) {
+            studentIDs = new String[students.size()];
+            names = new String[students.size()];
+            grades = new String[students.size()];
+            for (int i = 0; i < students.size(); i++) {
+                Student s = students.get(i);
+                studentIDs[i] = s.getStudentID();
+                names[i] = s.getFirstName() + " " + s.getLastName();
+                grades[i] = "";
+            }
+        }
+
+        void setGrades(Map<String, String> gradesByStudent) {
+            for (int i = 0; i < studentIDs.length; i++) {
+                String grade = gradesByStudent.get(studentIDs[i]);
+                grades[i] = grade != null ? grade : "";
+            }
+            fireTableDataChanged();
+        }
+
+        /**
+         * PASTEGRADES
+         * - Writes values down the grade column from 'start'; returns how many rows were filled
+         */
+        int pasteGrades(int start, List<String> values) {
+            int count = Math.min(values.size(), studentIDs.length - start);
+            if (count <= 0) return 0;
+            for (int i = 0; i < count; i++) {
+                grades[start + i] = values.get(i);
+            }
+            fireTableRowsUpdated(start, start + count - 1);
+            return count;
+        }
+
+        Map<String, String> getGrades() {
+            Map<String, String> result = new HashMap<>();
+            for (int i = 0; i < studentIDs.length; i++) {
+                result.put(studentIDs[i], grades[i].trim());
+            }
+            return result;
+        }
+
+        @Override
+        public int getRowCount() {
+            return studentIDs.length;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            switch (column) {
+                case 0: return studentIDs[row];
+                case 1: return names[row];
+                default: return grades[row];
+            }
+        }
+
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return column == GRADE_COLUMN;
+        }
+
+        @Override
+        public void setValueAt(Object value, int row, int column) {
+            if (column != GRADE_COLUMN) return;
+            grades[row] = value == null ? "" : value.toString();
+            fireTableCellUpdated(row, column);
+        }
+    }
+
+    /**
+     * GRADECELLRENDERER
+     * - Marks grades that are not numbers so bad pastes stand out before saving
+     */
+    private static class GradeCellRenderer extends DefaultTableCellRenderer {
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                       boolean hasFocus, int row, int column) {
+            Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+            String text = value == null ? "" : value.toString().trim();
+            boolean valid = text.isEmpty() || text.matches("\\d+(\\.\\d+)?");
+            if (!isSelected) c.setBackground(valid ? table.getBackground() : new Color(255, 210, 210));
+            return c;
+        }
+    }
 }
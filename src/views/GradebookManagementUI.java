@@ -9,6 +9,7 @@ import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -20,6 +21,7 @@ public class GradebookManagementUI extends JPanel {
     private JTabbedPane subjectTabs;
     private Map<String, JTable> subjectTables = new HashMap<>();
     private Map<String, DefaultTableModel> tableModels = new HashMap<>();
+    private BackgroundLoader loader = new BackgroundLoader(this);
 
     public GradebookManagementUI(JFrame parentFrame, CourseController courseController) {
         this.parentFrame = parentFrame;
@@ -77,16 +79,21 @@ public class GradebookManagementUI extends JPanel {
     }
 
     private void loadCourses() {
-        List<Course> allCourses = courseController.getCourses();
-        for (String subject : Subjects.getAvailableSubjects()) {
-            DefaultTableModel model = tableModels.get(subject);
-            model.setRowCount(0);
-            for (Course c : allCourses) {
-                if (c.getSubject().equalsIgnoreCase(subject)) {
+        loader.load(null, () -> {
+            Map<String, List<Course>> bySubject = new LinkedHashMap<>();
+            for (String subject : Subjects.getAvailableSubjects()) {
+                bySubject.put(subject, courseController.getCoursesBySubject(subject));
+            }
+            return bySubject;
+        }, bySubject -> {
+            for (Map.Entry<String, List<Course>> entry : bySubject.entrySet()) {
+                DefaultTableModel model = tableModels.get(entry.getKey());
+                model.setRowCount(0);
+                for (Course c : entry.getValue()) {
                     model.addRow(new Object[]{c.getCourseID(), c.getGradeLevel(), c.getExamType(), c.getTeacher()});
                 }
             }
-        }
+        });
     }
 
     private void openGradebookForSelected(String subject) {
@@ -18,6 +18,7 @@ public class GradebookView extends JPanel {
     private DefaultTableModel model;
     private GradebookController gradebookController;
     private List<Assessment> assessments;
+    private BackgroundLoader loader = new BackgroundLoader(this);
 
     public GradebookView(JFrame parentFrame, Course course, GradebookController controller) {
         this.parentFrame = parentFrame;
@@ -81,7 +82,6 @@ public class GradebookView extends JPanel {
         add(buttonPanel, BorderLayout.SOUTH);
 
         reloadAssessments();
-        gradebookController.populateGradebookTable(course, model);
 
         addBtn.addActionListener(e ->
                 gradebookController.openAddAssessmentDialog(parentFrame, course, this::reloadAssessments));
@@ -129,17 +129,23 @@ public class GradebookView extends JPanel {
         });
     }
 
+    /**
+     * RELOADASSESSMENTS
+     * - Reads the assessment list and the gradebook rows in the background, then refills the table
+     */
     private void reloadAssessments() {
-        assessments = new AssessmentController().getAssessmentsForCourse(course.getCourseID());
-    
-        model.setRowCount(0);
-        model.setColumnCount(0);
-        gradebookController.populateGradebookTable(course, model);
+        gradebookController.ensureGradebookFile(course);
+        loader.load("Loading gradebook...", () -> new LoadedGradebook(
+            new AssessmentController().getAssessmentsForCourse(course.getCourseID()),
+            gradebookController.getGradebookData(course)
+        ), loaded -> {
+            assessments = loaded.assessments;
+            gradebookController.populateGradebookTable(model, loaded.rows);
+        });
     }
-    
 
     private Assessment showAssessmentSelectionDialog() {
-        reloadAssessments();
+        assessments = new AssessmentController().getAssessmentsForCourse(course.getCourseID());
         if (assessments == null || assessments.isEmpty()) {
             JOptionPane.showMessageDialog(this, "No assessments found for this course.");
             return null;
@@ -178,4 +184,14 @@ public class GradebookView extends JPanel {
         button.setPreferredSize(new Dimension(140, 40));
         return button;
     }
+
+    private static class LoadedGradebook {
+        final List<Assessment> assessments;
+        final List<String[]> rows;
+
+        LoadedGradebook(List<Assessment> assessments, List<String[]> rows) {
+            this.assessments = assessments;
+            this.rows = rows;
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package views;
 
+import controllers.DataStore;
 import controllers.StaffController;
 import models.Staff;
 
@@ -7,6 +8,9 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.io.*;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -165,16 +169,19 @@ public class LoginPage extends JFrame {
     }
 
     private void saveCredentials() {
-        try (PrintWriter writer = new PrintWriter(new FileWriter("database/passwords.txt"))) {
-            for (Map.Entry<String, String> entry : credentials.entrySet()) {
-                writer.println(entry.getKey() + "," + entry.getValue());
-            }
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<String, String> entry : credentials.entrySet()) {
+            lines.add(entry.getKey() + "," + entry.getValue());
+        }
+        try {
+            DataStore.getInstance().writeLines(Paths.get("database/passwords.txt"), lines);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
     public static void main(String[] args) {
+        DataStore.getInstance();
         SwingUtilities.invokeLater(LoginPage::new);
     }
 }
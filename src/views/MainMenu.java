@@ -1,8 +1,10 @@
 package views;
 
 import controllers.CourseController;
+import controllers.DataStore;
 import controllers.StaffController;
 import controllers.StudentController;
+import controllers.StudentRepository;
 
 import javax.swing.*;
 import java.awt.*;
@@ -128,6 +130,8 @@ public class MainMenu extends JFrame {
     
 
     public static void main(String[] args) {
+        DataStore.getInstance();
+        StudentRepository.getInstance().load();
         SwingUtilities.invokeLater(() -> {
             MainMenu menu = new MainMenu();
             menu.setVisible(true);
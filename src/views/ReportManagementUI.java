@@ -1,9 +1,12 @@
 package views;
 
 import controllers.CourseController;
+import controllers.ReportArchive;
 import controllers.ReportController;
+import controllers.ReportTrends;
 import models.Course;
 import models.Report;
+import models.SchoolSummary;
 
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
@@ -12,10 +15,16 @@ import java.awt.*;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 public class ReportManagementUI extends JPanel {
+    private static final DateTimeFormatter ARCHIVE_LABEL_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     private JFrame parentFrame;
     private CourseController courseController;
     private ReportController reportController;
@@ -24,10 +33,12 @@ public class ReportManagementUI extends JPanel {
     private JTable gradeTable;
     private JTextArea distributionArea;
     private ChartPanel chartPanel;
-    private JButton saveBtn, backBtn, viewPastBtn;
+    private JButton saveBtn, backBtn, viewPastBtn, generateAllBtn, trendBtn;
     private JLabel reportTitleLabel;
 
     private Report currentReport;
+    private BackgroundLoader courseLoader = new BackgroundLoader(this);
+    private BackgroundLoader reportLoader;
 
     public ReportManagementUI(JFrame parentFrame) {
         this.parentFrame = parentFrame;
@@ -49,10 +60,15 @@ public class ReportManagementUI extends JPanel {
         topPanel.add(new JLabel("Select Course:"));
 
         courseDropdown = new JComboBox<>();
-        List<Course> courses = courseController.getCourses();
-        for (Course c : courses) {
-            courseDropdown.addItem(c.getCourseID() + " - " + c.getSubject());
-        }
+        courseDropdown.addItem("Loading courses...");
+        courseDropdown.setEnabled(false);
+        courseLoader.load(null, courseController::getCourses, courses -> {
+            courseDropdown.removeAllItems();
+            for (Course c : courses) {
+                courseDropdown.addItem(c.getCourseID() + " - " + c.getSubject());
+            }
+            courseDropdown.setEnabled(true);
+        });
         topPanel.add(courseDropdown);
 
         JButton generateBtn = new JButton("Generate Report");
@@ -65,6 +81,17 @@ public class ReportManagementUI extends JPanel {
         viewPastBtn.addActionListener(e -> viewPastReport());
         topPanel.add(viewPastBtn);
 
+        generateAllBtn = new JButton("Generate All Reports");
+        styleButton(generateAllBtn);
+        generateAllBtn.setPreferredSize(new Dimension(200, 40));
+        generateAllBtn.addActionListener(e -> generateAllReports());
+        topPanel.add(generateAllBtn);
+
+        trendBtn = new JButton("Course Trend");
+        styleButton(trendBtn);
+        trendBtn.addActionListener(e -> showCourseTrend());
+        topPanel.add(trendBtn);
+
         add(topPanel, BorderLayout.BEFORE_FIRST_LINE);
 
         JPanel center = new JPanel(new BorderLayout());
@@ -75,6 +102,7 @@ public class ReportManagementUI extends JPanel {
         reportTitleLabel.setForeground(new Color(0, 70, 140));
         reportTitleLabel.setBorder(BorderFactory.createEmptyBorder(10, 0, 10, 0));
         center.add(reportTitleLabel, BorderLayout.NORTH);
+        reportLoader = new BackgroundLoader(this, reportTitleLabel);
 
         gradeTable = new JTable(new DefaultTableModel(new Object[]{"Student ID", "Name", "Average"}, 0));
         gradeTable.setRowHeight(25);
@@ -152,11 +180,70 @@ public class ReportManagementUI extends JPanel {
         add(actionPanel, BorderLayout.SOUTH);
     }
 
+    /**
+     * VIEWPASTREPORT
+     * - Lists archived reports by course and time; picking one loads just that snapshot
+     * - Falls back to the saved text files when the archive is empty
+     */
     private void viewPastReport() {
+        ReportArchive archive = reportController.getArchive();
+        Map<String, String[]> choices = new LinkedHashMap<>();
+
+        try {
+            for (String courseID : archive.getCourseIDs()) {
+                List<LocalDateTime> timestamps = archive.getTimestamps(courseID);
+                for (int i = timestamps.size() - 1; i >= 0; i--) {
+                    LocalDateTime time = timestamps.get(i);
+                    choices.put(courseID + "  |  " + time.format(ARCHIVE_LABEL_FORMAT), new String[]{courseID, time.toString()});
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        if (choices.isEmpty()) {
+            viewLegacyReport();
+            return;
+        }
+
+        String[] labels = choices.keySet().toArray(new String[0]);
+        String selected = (String) JOptionPane.showInputDialog(
+                this,
+                "Choose a report:",
+                "Past Reports",
+                JOptionPane.PLAIN_MESSAGE,
+                null,
+                labels,
+                labels[0]
+        );
+        if (selected == null) return;
+
+        try {
+            String[] key = choices.get(selected);
+            Report report = archive.get(key[0], LocalDateTime.parse(key[1]));
+            if (report == null) {
+                JOptionPane.showMessageDialog(this, "Could not load report.");
+                return;
+            }
+
+            updateTable(report);
+            updateSummary(report);
+            chartPanel.setDistribution(report.getPerformanceDistribution());
+            chartPanel.repaint();
+            reportTitleLabel.setText("Course: " + report.getSubject() + " | Grade: " + report.getGradeLevel() +
+                    " | Exam: " + report.getExamType() + " | Teacher: " + report.getTeacher() +
+                    " | " + report.getGeneratedAt().format(ARCHIVE_LABEL_FORMAT));
+        } catch (IOException e) {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(this, "Could not load report.");
+        }
+    }
+
+    private void viewLegacyReport() {
         File folder = new File("database/reports");
         if (!folder.exists()) return;
 
-        File[] files = folder.listFiles((dir, name) -> name.endsWith(".txt"));
+        File[] files = folder.listFiles((dir, name) -> name.contains("_report_") && name.endsWith(".txt"));
         if (files == null || files.length == 0) return;
 
         String[] choices = Arrays.stream(files).map(File::getName).toArray(String[]::new);
@@ -222,15 +309,32 @@ public class ReportManagementUI extends JPanel {
         }
     }
 
+    /**
+     * GENERATEREPORT
+     * - Builds the selected course's report in the background
+     * - Picking another course before it finishes drops the older report
+     */
     private void generateReport() {
         String selected = (String) courseDropdown.getSelectedItem();
-        if (selected == null) return;
+        if (selected == null || !courseDropdown.isEnabled()) return;
 
         String courseID = selected.split(" - ")[0];
         Course course = courseController.getCourseByID(courseID);
         if (course == null) return;
 
-        currentReport = reportController.generateReportForCourse(course);
+        saveBtn.setEnabled(false);
+        reportLoader.load("Generating report for " + courseID + "...",
+                          () -> reportController.generateReportForCourse(course),
+                          report -> showGeneratedReport(course, report));
+    }
+
+    private void showGeneratedReport(Course course, Report report) {
+        if (report == null) {
+            JOptionPane.showMessageDialog(this, "No gradebook found for " + course.getCourseID() + ".");
+            return;
+        }
+
+        currentReport = report;
         updateTable(currentReport);
         updateSummary(currentReport);
         chartPanel.setDistribution(currentReport.getPerformanceDistribution());
@@ -240,6 +344,140 @@ public class ReportManagementUI extends JPanel {
         saveBtn.setEnabled(true);
     }
 
+    /**
+     * GENERATEALLREPORTS
+     * - Runs the whole-school batch off the event thread with a progress dialog
+     * - Shows the school summary when it finishes
+     */
+    private void generateAllReports() {
+        JDialog progressDialog = new JDialog(parentFrame, "Generating Reports", false);
+        JProgressBar progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        progressBar.setString("Starting...");
+        progressBar.setPreferredSize(new Dimension(360, 30));
+
+        JPanel progressPanel = new JPanel(new BorderLayout());
+        progressPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+        progressPanel.add(progressBar, BorderLayout.CENTER);
+        progressDialog.add(progressPanel);
+        progressDialog.pack();
+        progressDialog.setLocationRelativeTo(this);
+        progressDialog.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
+
+        generateAllBtn.setEnabled(false);
+
+        SwingWorker<SchoolSummary, int[]> worker = new SwingWorker<>() {
+            @Override
+            protected SchoolSummary doInBackground() throws Exception {
+                return reportController.generateAllReports((courseID, completed, total) -> publish(new int[]{completed, total}));
+            }
+
+            @Override
+            protected void process(List<int[]> chunks) {
+                int[] latest = chunks.get(chunks.size() - 1);
+                progressBar.setMaximum(latest[1]);
+                progressBar.setValue(latest[0]);
+                progressBar.setString(latest[0] + " of " + latest[1] + " courses");
+            }
+
+            @Override
+            protected void done() {
+                progressDialog.dispose();
+                generateAllBtn.setEnabled(true);
+                try {
+                    SchoolSummary summary = get();
+                    showSchoolSummary(summary);
+                    if (summary.getArchiveFailure() != null) {
+                        JOptionPane.showMessageDialog(ReportManagementUI.this,
+                            "Reports were saved, but could not be added to the report archive:\n" + summary.getArchiveFailure());
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    e.printStackTrace();
+                    JOptionPane.showMessageDialog(ReportManagementUI.this, "Could not generate reports.");
+                }
+            }
+        };
+
+        worker.execute();
+        progressDialog.setVisible(true);
+    }
+
+    private void showSchoolSummary(SchoolSummary summary) {
+        DefaultTableModel model = (DefaultTableModel) gradeTable.getModel();
+        model.setRowCount(0);
+        for (Report report : summary.getCourseReports()) {
+            model.addRow(new Object[]{report.getCourseID(), report.getSubject(), String.format("%.2f", report.getClassAverage())});
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("School Average: ").append(String.format("%.2f", summary.getSchoolAverage())).append("\n");
+        sb.append("Courses: ").append(summary.getCourseCount())
+          .append(" | Students: ").append(summary.getStudentCount()).append("\n\n");
+        for (Map.Entry<String, Double> entry : summary.getAverageByGrade().entrySet()) {
+            sb.append(String.format("Grade %-4s → %.2f%n", entry.getKey(), entry.getValue()));
+        }
+        sb.append("\n");
+        for (Map.Entry<String, Integer> entry : summary.getPerformanceDistribution().entrySet()) {
+            sb.append(String.format("%-8s → %d students%n", entry.getKey(), entry.getValue()));
+        }
+        distributionArea.setText(sb.toString());
+
+        chartPanel.setDistribution(summary.getPerformanceDistribution());
+        chartPanel.repaint();
+        reportTitleLabel.setText("School Summary | " + summary.getCourseCount() + " course reports saved");
+
+        currentReport = null;
+        saveBtn.setEnabled(false);
+        JOptionPane.showMessageDialog(this, summary.getCourseCount() + " course reports and the school summary were saved.");
+    }
+
+    /**
+     * SHOWCOURSETREND
+     * - One row per term for the selected course: the last archived report of that term
+     * - The summary lists how the class average moved from term to term
+     * - The first query loads the trends from every archived report, so it runs in the background
+     */
+    private void showCourseTrend() {
+        String selected = (String) courseDropdown.getSelectedItem();
+        if (selected == null || !courseDropdown.isEnabled()) return;
+        String courseID = selected.split(" - ")[0];
+
+        reportLoader.load("Loading trend for " + courseID + "...",
+                          () -> reportController.getTrends().getTermSeries(courseID),
+                          byTerm -> showCourseTrend(courseID, byTerm));
+    }
+
+    private void showCourseTrend(String courseID, Map<String, ReportTrends.TrendPoint> byTerm) {
+        if (byTerm.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "No saved reports for " + courseID + " yet.");
+            return;
+        }
+
+        DefaultTableModel model = (DefaultTableModel) gradeTable.getModel();
+        model.setRowCount(0);
+        StringBuilder sb = new StringBuilder();
+        ReportTrends.TrendPoint previous = null;
+        for (ReportTrends.TrendPoint point : byTerm.values()) {
+            model.addRow(new Object[]{point.getTerm(), point.getGeneratedAt().format(ARCHIVE_LABEL_FORMAT),
+                                      String.format("%.2f", point.getClassAverage())});
+            sb.append(String.format("%s → %.2f", point.getTerm(), point.getClassAverage()));
+            if (previous != null) {
+                sb.append(String.format(" (%+.2f)", point.getClassAverage() - previous.getClassAverage()));
+            }
+            sb.append("\n");
+            previous = point;
+        }
+        distributionArea.setText(sb.toString());
+
+        chartPanel.setDistribution(previous.getDistribution());
+        chartPanel.repaint();
+        reportTitleLabel.setText("Trend: " + previous.getSubject() + " | Grade: " + previous.getGradeLevel() +
+                " | Exam: " + previous.getExamType() + " | " + byTerm.size() + " term(s)");
+
+        currentReport = null;
+        saveBtn.setEnabled(false);
+    }
+
     private void updateTable(Report report) {
         DefaultTableModel model = (DefaultTableModel) gradeTable.getModel();
         model.setRowCount(0);
@@ -253,7 +491,9 @@ public class ReportManagementUI extends JPanel {
 
     private void updateSummary(Report report) {
         StringBuilder sb = new StringBuilder();
-        sb.append("Class Average: ").append(String.format("%.2f", report.getClassAverage())).append("\n\n");
+        sb.append("Class Average: ").append(String.format("%.2f", report.getClassAverage())).append("\n");
+        sb.append(String.format("Median: %.2f | Std Dev: %.2f%n", report.getMedian(), report.getStandardDeviation()));
+        sb.append(String.format("Quartiles: %.2f - %.2f%n%n", report.getLowerQuartile(), report.getUpperQuartile()));
         for (Map.Entry<String, Integer> entry : report.getPerformanceDistribution().entrySet()) {
             sb.append(String.format("%-8s → %d students%n", entry.getKey(), entry.getValue()));
         }
@@ -13,6 +13,7 @@ public class StaffManagementUI extends JPanel {
     private JTable staffTable;
     private DefaultTableModel staffTableModel;
     private StaffController staffController;
+    private BackgroundLoader loader = new BackgroundLoader(this);
 
     public StaffManagementUI(StaffController staffController) {
         super(new BorderLayout());
@@ -108,13 +109,13 @@ public class StaffManagementUI extends JPanel {
     
         // === SEARCH BY NAME ===
         searchByNameButton.addActionListener(e -> {
-            String name = JOptionPane.showInputDialog(this, "Enter Staff First Name or Last Name to Search:");
+            String name = JOptionPane.showInputDialog(this, "Enter a Name, ID, Phone, Email or Subject to Search:");
             if (name != null && !name.trim().isEmpty()) {
-                List<Staff> results = staffController.searchStaffByName(name.trim());
+                List<Staff> results = staffController.searchStaff(name.trim());
                 if (!results.isEmpty()) {
                     showStaffSearchResults(results, name.trim());
                 } else {
-                    JOptionPane.showMessageDialog(this, "No staff found with that name.", "Error", JOptionPane.ERROR_MESSAGE);
+                    JOptionPane.showMessageDialog(this, "No staff found matching that search.", "Error", JOptionPane.ERROR_MESSAGE);
                 }
             }
         });
@@ -155,7 +156,10 @@ public class StaffManagementUI extends JPanel {
     }
 
     private void refreshTable() {
-        List<Staff> staffList = staffController.getAllStaff();
+        loader.load(null, staffController::snapshotAllStaff, this::showStaff);
+    }
+
+    private void showStaff(List<Staff> staffList) {
         staffTableModel.setRowCount(0);
 
         for (Staff staff : staffList) {
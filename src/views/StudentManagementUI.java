@@ -16,6 +16,8 @@ public class StudentManagementUI extends JPanel {
     private JTable grade10Table, grade11Table, grade12Table, grade13Table;
     private DefaultTableModel grade10Model, grade11Model, grade12Model, grade13Model;
     private StudentController studentController;
+    private JLabel statusLabel = new JLabel(" ");
+    private BackgroundLoader loader = new BackgroundLoader(this, statusLabel);
 
     /** 
      * Constructor for Student Management UI 
@@ -79,6 +81,9 @@ public class StudentManagementUI extends JPanel {
         buttonPanel.add(searchByIDButton);
         buttonPanel.add(searchByNameButton);
         buttonPanel.add(backButton);
+
+        statusLabel.setForeground(Color.WHITE);
+        buttonPanel.add(statusLabel);
     
         addButton.addActionListener(e -> {
             StudentEntry studentEntry = new StudentEntry(null, studentController);
@@ -177,38 +182,45 @@ public class StudentManagementUI extends JPanel {
         }
     }
 
+    /**
+     * REFRESHTABLE
+     * - Reads the students and builds their rows in the background, then fills the grade tables
+     */
     private void refreshTable() {
-        studentController.loadStudentsFromFiles(); 
-        List<Student> students = studentController.getAllStudents(); 
-        
+        loader.load("Loading students...", this::buildStudentRows, this::showStudentRows);
+    }
+
+    private List<Object[]> buildStudentRows() {
+        List<Object[]> rows = new ArrayList<>();
+        for (Student student : studentController.snapshotAllStudents()) {
+            ContactInfo contact = student.getContactInfo();
+            rows.add(new Object[]{
+                student.getStudentID(),
+                student.getFirstName(),
+                student.getLastName(),
+                student.getDateOfBirth(),
+                student.getAge(),
+                student.getCurrentGrade(),
+                student.getCurrentSchool(),
+                contact != null ? contact.getPhoneNumber() : "",
+                contact != null ? contact.getEmail() : "",
+                contact != null ? contact.getAddress() : ""
+            });
+        }
+        return rows;
+    }
+
+    private void showStudentRows(List<Object[]> rows) {
         grade10Model.setRowCount(0);
         grade11Model.setRowCount(0);
         grade12Model.setRowCount(0);
         grade13Model.setRowCount(0);
-        
-        for (Student student : students) {
-            DefaultTableModel model = getTableModelByGrade(student.getCurrentGrade());
-            if (model != null) {
-                ContactInfo contact = student.getContactInfo();
-    
-                model.addRow(new Object[]{
-                    student.getStudentID(),
-                    student.getFirstName(),
-                    student.getLastName(),
-                    student.getDateOfBirth(),
-                    student.getAge(),
-                    student.getCurrentGrade(),
-                    student.getCurrentSchool(),
-                    contact != null ? contact.getPhoneNumber() : "",
-                    contact != null ? contact.getEmail() : "",
-                    contact != null ? contact.getAddress() : ""
-                });
-            }
+
+        for (Object[] row : rows) {
+            DefaultTableModel model = getTableModelByGrade((String) row[5]);
+            if (model != null) model.addRow(row);
         }
     }
-    
-    
-    
 
     private void updateStudent() {
         String studentID = JOptionPane.showInputDialog(this, "Enter Student ID to Update:");
@@ -257,13 +269,13 @@ public class StudentManagementUI extends JPanel {
 
     
     private void searchStudentByName() {
-        String name = JOptionPane.showInputDialog(this, "Enter Student Name: First Name, Last name or Both to Search:");
+        String name = JOptionPane.showInputDialog(this, "Enter a Name, ID, School, Phone, Email or Guardian to Search:");
         if (name != null && !name.trim().isEmpty()) {
-            List<Student> students = studentController.searchStudentByName(name.trim());
+            List<Student> students = studentController.searchStudents(name.trim());
             if (!students.isEmpty()) {
                 showStudentSearchResults(students, name.trim());
             } else {
-                JOptionPane.showMessageDialog(this, "No students found with that name.", "Error", JOptionPane.ERROR_MESSAGE);
+                JOptionPane.showMessageDialog(this, "No students found matching that search.", "Error", JOptionPane.ERROR_MESSAGE);
             }
         }
     }